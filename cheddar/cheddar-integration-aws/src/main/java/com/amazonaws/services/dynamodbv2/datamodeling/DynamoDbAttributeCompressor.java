@@ -0,0 +1,127 @@
+/*
+ * Copyright 2014 Click Travel Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.amazonaws.services.dynamodbv2.datamodeling;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+
+/**
+ * Stores string values as compressed binary values. A compressed value starts with a marker byte followed by a format
+ * byte, then holds the UTF-8 encoded string compressed in that format. Values which are not binary, or do not start
+ * with the marker, are left as they are, so values stored before compression was used can still be read.
+ */
+public class DynamoDbAttributeCompressor {
+
+    private static final byte MARKER = (byte) 0xC7;
+    private static final byte FORMAT_DEFLATE = 1;
+    private static final int HEADER_LENGTH = 2;
+
+    /**
+     * @param value Value to compress
+     * @return The compressed form of the value, or {@code null} if it is no smaller than the value
+     */
+    public static byte[] compress(final String value) {
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length <= HEADER_LENGTH) {
+            return null;
+        }
+        final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(bytes);
+            deflater.finish();
+            final byte[] compressed = new byte[bytes.length];
+            compressed[0] = MARKER;
+            compressed[1] = FORMAT_DEFLATE;
+            int length = HEADER_LENGTH;
+            while (!deflater.finished() && length < compressed.length) {
+                length += deflater.deflate(compressed, length, compressed.length - length);
+            }
+            return deflater.finished() ? Arrays.copyOf(compressed, length) : null;
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * @param bytes Binary value
+     * @return {@code true} if the value is in compressed form
+     */
+    public static boolean isCompressed(final byte[] bytes) {
+        return bytes.length >= HEADER_LENGTH && bytes[0] == MARKER && bytes[1] == FORMAT_DEFLATE;
+    }
+
+    /**
+     * @param bytes Value in compressed form
+     * @return The string value
+     */
+    public static String decompress(final byte[] bytes) {
+        final Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(bytes, HEADER_LENGTH, bytes.length - HEADER_LENGTH);
+            final ByteArrayOutputStream output = new ByteArrayOutputStream(bytes.length * 4);
+            final byte[] buffer = new byte[4096];
+            while (!inflater.finished()) {
+                final int length = inflater.inflate(buffer);
+                if (length == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IllegalStateException("Truncated compressed attribute value");
+                }
+                output.write(buffer, 0, length);
+            }
+            return new String(output.toByteArray(), StandardCharsets.UTF_8);
+        } catch (final DataFormatException e) {
+            throw new IllegalStateException("Invalid compressed attribute value", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * @param attributeValue Attribute value to compress
+     * @param threshold Length from which string values are compressed
+     * @return A binary attribute value holding the compressed form of a string value at least as long as the threshold
+     *         if smaller than the string, otherwise the given attribute value
+     */
+    public static AttributeValue compress(final AttributeValue attributeValue, final int threshold) {
+        if (attributeValue == null || attributeValue.getS() == null || attributeValue.getS().length() < threshold) {
+            return attributeValue;
+        }
+        final byte[] compressed = compress(attributeValue.getS());
+        return compressed == null ? attributeValue : new AttributeValue().withB(ByteBuffer.wrap(compressed));
+    }
+
+    /**
+     * @param attributeValue Attribute value, possibly compressed
+     * @return A string attribute value if the given attribute value is compressed, otherwise the given attribute value
+     */
+    public static AttributeValue decompress(final AttributeValue attributeValue) {
+        if (attributeValue == null || attributeValue.getB() == null) {
+            return attributeValue;
+        }
+        final ByteBuffer buffer = attributeValue.getB().duplicate();
+        final byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return isCompressed(bytes) ? new AttributeValue(decompress(bytes)) : attributeValue;
+    }
+
+}
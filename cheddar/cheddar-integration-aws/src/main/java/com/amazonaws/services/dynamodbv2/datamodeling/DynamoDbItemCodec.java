@@ -0,0 +1,74 @@
+/*
+ * Copyright 2014 Click Travel Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.amazonaws.services.dynamodbv2.datamodeling;
+
+import java.beans.PropertyDescriptor;
+import java.util.*;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.clicktravel.cheddar.infrastructure.persistence.database.Item;
+import com.clicktravel.cheddar.infrastructure.persistence.database.configuration.ItemConfiguration;
+
+/**
+ * Precompiled set of {@link DynamoDbPropertyCodec} for all the properties of an item class, built once from its
+ * {@link ItemConfiguration}
+ */
+public class DynamoDbItemCodec {
+
+    private final ItemConfiguration itemConfiguration;
+    private final Map<String, DynamoDbPropertyCodec> propertyCodecs;
+
+    public DynamoDbItemCodec(final ItemConfiguration itemConfiguration) {
+        this.itemConfiguration = itemConfiguration;
+        final Map<String, DynamoDbPropertyCodec> propertyCodecs = new LinkedHashMap<>();
+        for (final PropertyDescriptor propertyDescriptor : itemConfiguration.propertyDescriptors()) {
+            propertyCodecs.put(propertyDescriptor.getName(), new DynamoDbPropertyCodec(propertyDescriptor,
+                    itemConfiguration.compressionThreshold(propertyDescriptor.getName())));
+        }
+        this.propertyCodecs = Collections.unmodifiableMap(propertyCodecs);
+    }
+
+    public ItemConfiguration itemConfiguration() {
+        return itemConfiguration;
+    }
+
+    public Collection<DynamoDbPropertyCodec> propertyCodecs() {
+        return propertyCodecs.values();
+    }
+
+    public DynamoDbPropertyCodec propertyCodec(final String propertyName) {
+        final DynamoDbPropertyCodec propertyCodec = propertyCodecs.get(propertyName);
+        if (propertyCodec == null) {
+            throw new IllegalStateException(
+                    "No property found '" + propertyName + "' for item :" + itemConfiguration.itemClass());
+        }
+        return propertyCodec;
+    }
+
+    /**
+     * Sets each property of the item from the matching attribute in the attribute map
+     * @param item Item to populate
+     * @param itemAttributeMap Attributes read from DynamoDB
+     */
+    public <T extends Item> T decode(final T item, final Map<String, AttributeValue> itemAttributeMap) {
+        for (final DynamoDbPropertyCodec propertyCodec : propertyCodecs.values()) {
+            propertyCodec.setValue(item, itemAttributeMap.get(propertyCodec.propertyName()));
+        }
+        return item;
+    }
+
+}
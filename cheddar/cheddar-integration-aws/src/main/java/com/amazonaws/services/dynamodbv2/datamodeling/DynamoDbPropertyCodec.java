@@ -0,0 +1,219 @@
+/*
+ * Copyright 2014 Click Travel Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.amazonaws.services.dynamodbv2.datamodeling;
+
+import java.beans.PropertyDescriptor;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.text.ParseException;
+import java.util.Collection;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.ScalarAttributeType;
+import com.clicktravel.cheddar.infrastructure.persistence.database.Item;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.MappingJsonFactory;
+
+/**
+ * Converts a single item property to and from its DynamoDB {@link AttributeValue}. The accessors and the
+ * marshaller/unmarshaller pair for the property type are resolved once on construction, so each conversion avoids the
+ * reflective lookups performed by {@link DynamoDbPropertyMarshaller}. The attribute values produced are identical to
+ * those of {@link DynamoDbPropertyMarshaller}, including the JSON fallback for types DynamoDB cannot map directly.
+ */
+public class DynamoDbPropertyCodec {
+
+    private static final JsonFactory jsonFactory = new MappingJsonFactory();
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private final PropertyDescriptor propertyDescriptor;
+    private final Method readMethod;
+    private final Method writeMethod;
+    private final MethodHandle getter;
+    private final MethodHandle setter;
+    private final ArgumentMarshaller marshaller;
+    private final ArgumentUnmarshaller unmarshaller;
+    private final Class<?> writeParameterType;
+    private final boolean binary;
+    private final int compressionThreshold;
+
+    public DynamoDbPropertyCodec(final PropertyDescriptor propertyDescriptor) {
+        this(propertyDescriptor, -1);
+    }
+
+    /**
+     * @param propertyDescriptor Property to convert
+     * @param compressionThreshold Length from which string values of the property are stored compressed by
+     *            {@link DynamoDbAttributeCompressor}, or -1 if they are never compressed. Compressed values are read
+     *            back regardless.
+     */
+    public DynamoDbPropertyCodec(final PropertyDescriptor propertyDescriptor, final int compressionThreshold) {
+        this.propertyDescriptor = propertyDescriptor;
+        binary = DynamoDbPropertyMarshaller
+                .getAttributeType(propertyDescriptor.getPropertyType()) == ScalarAttributeType.B;
+        this.compressionThreshold = binary ? -1 : compressionThreshold;
+        readMethod = propertyDescriptor.getReadMethod();
+        writeMethod = propertyDescriptor.getWriteMethod();
+        final DynamoDBReflectorUtil reflector = new DynamoDBReflectorUtil();
+        getter = readMethod == null ? null : unreflect(readMethod, GETTER_TYPE);
+        setter = writeMethod == null ? null : unreflect(writeMethod, SETTER_TYPE);
+        marshaller = readMethod == null ? null : argumentMarshaller(reflector, readMethod);
+        unmarshaller = readMethod == null || writeMethod == null ? null
+                : argumentUnmarshaller(reflector, readMethod, writeMethod);
+        writeParameterType = writeMethod == null ? null : writeMethod.getParameterTypes()[0];
+    }
+
+    private static MethodHandle unreflect(final Method method, final MethodType methodType) {
+        try {
+            return MethodHandles.publicLookup().unreflect(method).asType(methodType);
+        } catch (final IllegalAccessException e) {
+            // Not publicly accessible; fall back to reflective invocation which reports the failure on use
+            return null;
+        }
+    }
+
+    private static ArgumentMarshaller argumentMarshaller(final DynamoDBReflectorUtil reflector,
+            final Method readMethod) {
+        try {
+            return reflector.getArgumentMarshaller(readMethod);
+        } catch (final DynamoDBMappingException e) {
+            return null;
+        }
+    }
+
+    private static ArgumentUnmarshaller argumentUnmarshaller(final DynamoDBReflectorUtil reflector,
+            final Method readMethod, final Method writeMethod) {
+        try {
+            return reflector.getArgumentUnmarshaller(null, readMethod, writeMethod, null);
+        } catch (final DynamoDBMappingException e) {
+            return null;
+        }
+    }
+
+    public String propertyName() {
+        return propertyDescriptor.getName();
+    }
+
+    public PropertyDescriptor propertyDescriptor() {
+        return propertyDescriptor;
+    }
+
+    public boolean isWritable() {
+        return writeMethod != null;
+    }
+
+    /**
+     * @param item Item to read the property from
+     * @return The property value of the given item, not marshalled
+     */
+    public Object getPropertyValue(final Item item) {
+        try {
+            if (getter != null) {
+                return getter.invokeExact((Object) item);
+            }
+            return readMethod.invoke(item);
+        } catch (final Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @param item Item to read the property from
+     * @return The attribute value for the property of the given item, or {@code null} if the property has no value
+     */
+    public AttributeValue getValue(final Item item) {
+        final Object propertyValue = getPropertyValue(item);
+        if (propertyValue == null) {
+            return null;
+        }
+        if (propertyValue instanceof Collection && ((Collection<?>) propertyValue).isEmpty()) {
+            return null;
+        }
+        final AttributeValue attributeValue = marshall(propertyValue);
+        return compressionThreshold < 0 ? attributeValue
+                : DynamoDbAttributeCompressor.compress(attributeValue, compressionThreshold);
+    }
+
+    private AttributeValue marshall(final Object propertyValue) {
+        if (marshaller != null) {
+            try {
+                return marshaller.marshall(propertyValue);
+            } catch (final DynamoDBMappingException e) {
+                // Fall through to JSON representation
+            }
+        }
+        return jsonAttributeValue(propertyValue);
+    }
+
+    /**
+     * Sets the property of the given item from the attribute value. Does nothing if the attribute value is
+     * {@code null} or the property is read-only.
+     * @param item Item to set the property on
+     * @param attributeValue Attribute value to unmarshall
+     */
+    public void setValue(final Item item, final AttributeValue attributeValue) {
+        if (attributeValue == null || writeMethod == null) {
+            return;
+        }
+        final Object argument = unmarshall(
+                binary ? attributeValue : DynamoDbAttributeCompressor.decompress(attributeValue));
+        try {
+            if (setter != null) {
+                setter.invokeExact((Object) item, argument);
+            } else {
+                writeMethod.invoke(item, argument);
+            }
+        } catch (final Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Object unmarshall(final AttributeValue attributeValue) {
+        if (unmarshaller != null) {
+            try {
+                return unmarshaller.unmarshall(attributeValue);
+            } catch (final DynamoDBMappingException | ParseException e) {
+                // Fall through to JSON representation
+            }
+        }
+        try {
+            final JsonParser jsonParser = jsonFactory.createParser(new StringReader(attributeValue.getS()));
+            return jsonParser.readValueAs(writeParameterType);
+        } catch (final Exception e) {
+            throw new IllegalStateException("Could not parse attribute value: " + attributeValue, e);
+        }
+    }
+
+    private AttributeValue jsonAttributeValue(final Object propertyValue) {
+        try {
+            final StringWriter output = new StringWriter();
+            final JsonGenerator jsonGenerator = jsonFactory.createGenerator(output);
+            jsonGenerator.writeObject(propertyValue);
+            return new AttributeValue(output.toString());
+        } catch (final IOException ioException) {
+            throw new IllegalStateException(ioException);
+        }
+    }
+
+}
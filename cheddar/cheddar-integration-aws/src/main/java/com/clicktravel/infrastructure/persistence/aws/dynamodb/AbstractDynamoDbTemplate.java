@@ -18,23 +18,40 @@ package com.clicktravel.infrastructure.persistence.aws.dynamodb;
 
 import java.beans.PropertyDescriptor;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.amazonaws.AmazonServiceException;
 import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
-import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDbPropertyMarshaller;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDBAsyncClient;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDbItemCodec;
 import com.amazonaws.services.dynamodbv2.model.*;
 import com.clicktravel.cheddar.infrastructure.persistence.database.AbstractDatabaseTemplate;
+import com.clicktravel.cheddar.infrastructure.persistence.database.AsyncDatabaseTemplate;
+import com.clicktravel.cheddar.infrastructure.persistence.database.ExecutorAsyncDatabaseTemplate;
 import com.clicktravel.cheddar.infrastructure.persistence.database.GeneratedKeyHolder;
 import com.clicktravel.cheddar.infrastructure.persistence.database.Item;
+import com.clicktravel.cheddar.infrastructure.persistence.database.ItemId;
 import com.clicktravel.cheddar.infrastructure.persistence.database.SequenceKeyGenerator;
+import com.clicktravel.cheddar.infrastructure.persistence.database.configuration.CompoundPrimaryKeyDefinition;
 import com.clicktravel.cheddar.infrastructure.persistence.database.configuration.DatabaseSchemaHolder;
 import com.clicktravel.cheddar.infrastructure.persistence.database.configuration.ItemConfiguration;
+import com.clicktravel.cheddar.infrastructure.persistence.database.configuration.ParentItemConfiguration;
+import com.clicktravel.cheddar.infrastructure.persistence.database.configuration.PrimaryKeyDefinition;
 import com.clicktravel.cheddar.infrastructure.persistence.database.configuration.SequenceConfiguration;
 import com.clicktravel.cheddar.infrastructure.persistence.database.configuration.UniqueConstraint;
+import com.clicktravel.cheddar.infrastructure.persistence.database.configuration.VariantItemConfiguration;
 import com.clicktravel.cheddar.infrastructure.persistence.database.exception.ItemConstraintViolationException;
+import com.clicktravel.cheddar.infrastructure.persistence.database.query.AttributeQuery;
+import com.clicktravel.cheddar.infrastructure.persistence.database.query.CompoundAttributeQuery;
+import com.clicktravel.cheddar.infrastructure.persistence.database.query.Condition;
+import com.clicktravel.cheddar.infrastructure.persistence.database.query.Operators;
 import com.clicktravel.cheddar.infrastructure.persistence.exception.PersistenceResourceFailureException;
 
 public abstract class AbstractDynamoDbTemplate extends AbstractDatabaseTemplate {
@@ -43,28 +60,68 @@ public abstract class AbstractDynamoDbTemplate extends AbstractDatabaseTemplate
     protected AmazonDynamoDB amazonDynamoDbClient;
     protected final DatabaseSchemaHolder databaseSchemaHolder;
     protected final HashMap<Class<? extends Item>, ItemConfiguration> itemConfigurationMap;
+    protected final HashMap<Class<? extends Item>, DynamoDbItemCodec> itemCodecMap;
     protected final Set<String> sequenceConfigurations;
+    private final Map<String, SequenceConfiguration> sequenceConfigurationMap;
+    private final Map<String, SequenceKeyAllocator> sequenceKeyAllocators = new ConcurrentHashMap<>();
+    private ExecutorService executorService;
+    private ExecutorService asyncExecutorService;
+    private int batchGetParallelism = DEFAULT_BATCH_GET_PARALLELISM;
+    private int batchWriteParallelism = DEFAULT_BATCH_WRITE_PARALLELISM;
+    private int queryFanOutParallelism = DEFAULT_QUERY_FAN_OUT_PARALLELISM;
+    private RetryBackoff retryBackoff = DEFAULT_RETRY_BACKOFF;
+    private ConsumedCapacityMetrics consumedCapacityMetrics;
+    private AdaptiveRateLimiters adaptiveRateLimiters;
+    private ExecutorService clientExecutorService;
 
     private static final String SEQUENCE_TABLE_NAME = "sequences";
     private static final String SEQUENCE_NAME_ATTRIBUTE = "name";
     private static final String SEQUENCE_CURRENT_VALUE_ATTRIBUTE = "currentValue";
+    private static final String SEQUENCE_RANGE_END_ATTRIBUTE = "rangeEnd";
+    private static final String SEQUENCE_RANGE_REMAINING_ATTRIBUTE = "rangeRemaining";
+    private static final String SEQUENCE_SHARD_SEPARATOR = "#";
+    private static final int SEQUENCE_SHARD_RANGE_SIZE = 1000;
+
+    private static final int DEFAULT_THREAD_POOL_SIZE = 16;
+    private static final int DEFAULT_BATCH_GET_PARALLELISM = 4;
+    private static final int DEFAULT_BATCH_WRITE_PARALLELISM = 4;
+    private static final int DEFAULT_QUERY_FAN_OUT_PARALLELISM = 4;
+    private static final RetryBackoff DEFAULT_RETRY_BACKOFF = new RetryBackoff(50, 5000, 30000);
 
     protected static final String VERSION_ATTRIBUTE = "version";
+    protected static final int MAX_BATCH_GET_KEYS = 100;
+    protected static final int MAX_BATCH_WRITE_REQUESTS = 25;
 
     public AbstractDynamoDbTemplate(final DatabaseSchemaHolder databaseSchemaHolder) {
         this.databaseSchemaHolder = databaseSchemaHolder;
         itemConfigurationMap = new HashMap<>();
+        itemCodecMap = new HashMap<>();
         for (final ItemConfiguration itemConfiguration : databaseSchemaHolder.itemConfigurations()) {
             itemConfigurationMap.put(itemConfiguration.itemClass(), itemConfiguration);
         }
         sequenceConfigurations = new HashSet<>();
+        sequenceConfigurationMap = new HashMap<>();
         for (final SequenceConfiguration sequenceConfiguration : databaseSchemaHolder.sequenceConfigurations()) {
             sequenceConfigurations.add(sequenceConfiguration.sequenceName());
+            sequenceConfigurationMap.put(sequenceConfiguration.sequenceName(), sequenceConfiguration);
         }
     }
 
     public void initialize(final AmazonDynamoDB amazonDynamoDbClient) {
-        this.amazonDynamoDbClient = amazonDynamoDbClient;
+        if (amazonDynamoDbClient instanceof AmazonDynamoDBAsyncClient) {
+            clientExecutorService = ((AmazonDynamoDBAsyncClient) amazonDynamoDbClient).getExecutorService();
+        }
+        AmazonDynamoDB client = amazonDynamoDbClient;
+        if (adaptiveRateLimiters != null) {
+            client = RequestRateLimiter.rateLimitingClient(client, adaptiveRateLimiters);
+        }
+        if (consumedCapacityMetrics != null) {
+            client = ConsumedCapacityRecorder.recordingClient(client, consumedCapacityMetrics, partitionKeyNames());
+        }
+        this.amazonDynamoDbClient = client;
+        for (final ItemConfiguration itemConfiguration : itemConfigurationMap.values()) {
+            itemCodecMap.put(itemConfiguration.itemClass(), new DynamoDbItemCodec(itemConfiguration));
+        }
         initialized = true;
     }
 
@@ -72,21 +129,733 @@ public abstract class AbstractDynamoDbTemplate extends AbstractDatabaseTemplate
         return databaseSchemaHolder;
     }
 
+    /**
+     * Sets the metrics to which the capacity consumed by each DynamoDB request, and the partition keys it accesses,
+     * are recorded. Requests then ask DynamoDB to return their consumed capacity. Must be set before
+     * {@link #initialize(AmazonDynamoDB)}; if none is set, nothing is recorded.
+     * @param consumedCapacityMetrics Metrics to record to
+     */
+    public void setConsumedCapacityMetrics(final ConsumedCapacityMetrics consumedCapacityMetrics) {
+        if (initialized) {
+            throw new IllegalStateException("Consumed capacity metrics must be set before initialization");
+        }
+        this.consumedCapacityMetrics = consumedCapacityMetrics;
+    }
+
+    public ConsumedCapacityMetrics consumedCapacityMetrics() {
+        return consumedCapacityMetrics;
+    }
+
+    /**
+     * Sets the rate limiters which each DynamoDB request waits for. The limit of a table or index adapts to the
+     * throttling of its requests; see {@link AdaptiveRateLimiter}. Must be set before
+     * {@link #initialize(AmazonDynamoDB)}; if none is set, requests are not limited. The client should be configured
+     * with {@link AdaptiveRateLimiters#retryPolicy()} so that attempts it retries after throttling are seen.
+     * @param adaptiveRateLimiters Rate limiters of the tables and indexes
+     */
+    public void setAdaptiveRateLimiters(final AdaptiveRateLimiters adaptiveRateLimiters) {
+        if (initialized) {
+            throw new IllegalStateException("Adaptive rate limiters must be set before initialization");
+        }
+        this.adaptiveRateLimiters = adaptiveRateLimiters;
+    }
+
+    public AdaptiveRateLimiters adaptiveRateLimiters() {
+        return adaptiveRateLimiters;
+    }
+
+    private Map<String, String> partitionKeyNames() {
+        final Map<String, String> partitionKeyNames = new HashMap<>();
+        for (final ItemConfiguration itemConfiguration : itemConfigurationMap.values()) {
+            partitionKeyNames.put(databaseSchemaHolder.schemaName() + "." + itemConfiguration.tableName(),
+                    itemConfiguration.primaryKeyDefinition().propertyName());
+            partitionKeyNames.put(databaseSchemaHolder.schemaName() + "-indexes." + itemConfiguration.tableName(),
+                    "property");
+        }
+        partitionKeyNames.put(databaseSchemaHolder.schemaName() + "-" + SEQUENCE_TABLE_NAME, SEQUENCE_NAME_ATTRIBUTE);
+        return partitionKeyNames;
+    }
+
+    /**
+     * Sets the executor used to issue DynamoDB requests in parallel. If none is set, a fixed size pool of daemon
+     * threads is created on first use.
+     * @param executorService Executor for parallel requests
+     */
+    public synchronized void setExecutorService(final ExecutorService executorService) {
+        this.executorService = executorService;
+    }
+
+    protected final synchronized ExecutorService executorService() {
+        if (executorService == null) {
+            executorService = daemonThreadPool("dynamodb-template-worker");
+        }
+        return executorService;
+    }
+
+    /**
+     * Sets the executor on which operations of the {@link #async()} view run when the DynamoDB client is not
+     * asynchronous. If none is set, a fixed size pool of daemon threads, separate from the executor used for parallel
+     * requests, is created on first use.
+     * @param asyncExecutorService Executor for asynchronous operations
+     */
+    public synchronized void setAsyncExecutorService(final ExecutorService asyncExecutorService) {
+        this.asyncExecutorService = asyncExecutorService;
+    }
+
+    /**
+     * @return Asynchronous view of this template. Operations run on the executor of the DynamoDB client if it is
+     *         asynchronous, otherwise on the asynchronous executor of this template.
+     */
+    public AsyncDatabaseTemplate async() {
+        return new ExecutorAsyncDatabaseTemplate(this, asyncExecutor());
+    }
+
+    protected final synchronized Executor asyncExecutor() {
+        if (clientExecutorService != null) {
+            return clientExecutorService;
+        }
+        if (asyncExecutorService == null) {
+            asyncExecutorService = daemonThreadPool("dynamodb-template-async");
+        }
+        return asyncExecutorService;
+    }
+
+    private static ExecutorService daemonThreadPool(final String threadName) {
+        return Executors.newFixedThreadPool(DEFAULT_THREAD_POOL_SIZE, runnable -> {
+            final Thread thread = new Thread(runnable, threadName);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Runs the tasks in parallel on the executor of this template and waits for all of them to complete. The calling
+     * thread runs any task not yet started by a worker, so progress never depends on a free worker thread, even when
+     * the caller is itself a worker. If any task fails, the tasks not yet complete are cancelled and the failure is
+     * rethrown.
+     * @param tasks Tasks to run in parallel
+     * @return The result of each task, in the order of the tasks
+     */
+    protected final <R> List<R> invokeAll(final List<? extends Callable<R>> tasks) {
+        final List<FutureTask<R>> futureTasks = new ArrayList<>();
+        for (final Callable<R> task : tasks) {
+            futureTasks.add(new FutureTask<>(task));
+        }
+        for (int i = 1; i < futureTasks.size(); i++) {
+            try {
+                executorService().execute(futureTasks.get(i));
+            } catch (final RejectedExecutionException e) {
+                break;
+            }
+        }
+        final List<R> results = new ArrayList<>();
+        try {
+            for (final FutureTask<R> futureTask : futureTasks) {
+                futureTask.run();
+                if (futureTask.isDone()) {
+                    futureTask.get();
+                }
+            }
+            for (final FutureTask<R> futureTask : futureTasks) {
+                results.add(futureTask.get());
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for DynamoDb requests", e);
+        } catch (final ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            for (final FutureTask<R> futureTask : futureTasks) {
+                futureTask.cancel(true);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Sets the maximum number of Batch Get Item requests issued concurrently for a single fetch
+     * @param batchGetParallelism Maximum concurrent requests per fetch, at least 1
+     */
+    public void setBatchGetParallelism(final int batchGetParallelism) {
+        if (batchGetParallelism < 1) {
+            throw new IllegalArgumentException("Batch get parallelism must be at least 1");
+        }
+        this.batchGetParallelism = batchGetParallelism;
+    }
+
+    /**
+     * Sets the maximum number of Batch Write Item requests issued concurrently for a single batch write or delete
+     * @param batchWriteParallelism Maximum concurrent requests per batch, at least 1
+     */
+    public void setBatchWriteParallelism(final int batchWriteParallelism) {
+        if (batchWriteParallelism < 1) {
+            throw new IllegalArgumentException("Batch write parallelism must be at least 1");
+        }
+        this.batchWriteParallelism = batchWriteParallelism;
+    }
+
+    /**
+     * Sets the maximum number of Query requests issued concurrently for a single fetch whose EQUALS condition on a key
+     * or index has several values
+     * @param queryFanOutParallelism Maximum concurrent requests per fetch, at least 1
+     */
+    public void setQueryFanOutParallelism(final int queryFanOutParallelism) {
+        if (queryFanOutParallelism < 1) {
+            throw new IllegalArgumentException("Query fan-out parallelism must be at least 1");
+        }
+        this.queryFanOutParallelism = queryFanOutParallelism;
+    }
+
+    /**
+     * Sets the backoff used when retrying work left unprocessed by batch requests
+     * @param retryBackoff Backoff between retries, and the time after which to give up
+     */
+    public void setRetryBackoff(final RetryBackoff retryBackoff) {
+        this.retryBackoff = retryBackoff;
+    }
+
+    protected final RetryBackoff retryBackoff() {
+        return retryBackoff;
+    }
+
+    /**
+     * Reads the keys of every item class together, using as few Batch Get Item requests as the keys allow
+     */
+    @Override
+    public Map<Class<? extends Item>, Collection<? extends Item>> fetch(
+            final Map<Class<? extends Item>, Collection<ItemId>> itemIds) {
+        final Map<String, Set<Map<String, AttributeValue>>> keysByTable = new LinkedHashMap<>();
+        final Map<Class<? extends Item>, Set<Map<String, AttributeValue>>> keysByClass = new LinkedHashMap<>();
+        for (final Map.Entry<Class<? extends Item>, Collection<ItemId>> entry : itemIds.entrySet()) {
+            final ItemConfiguration itemConfiguration = getItemConfiguration(entry.getKey());
+            final Set<Map<String, AttributeValue>> keys = new HashSet<>(keys(entry.getValue(), itemConfiguration));
+            keysByTable.computeIfAbsent(itemTableName(itemConfiguration), tableName -> new LinkedHashSet<>())
+                    .addAll(keys);
+            keysByClass.put(entry.getKey(), keys);
+        }
+        final Map<String, List<Map<String, AttributeValue>>> tableKeys = new LinkedHashMap<>();
+        for (final Map.Entry<String, Set<Map<String, AttributeValue>>> entry : keysByTable.entrySet()) {
+            tableKeys.put(entry.getKey(), new ArrayList<>(entry.getValue()));
+        }
+        final Map<String, List<Map<String, AttributeValue>>> itemsByTable = batchGetItems(tableKeys);
+        final Map<Class<? extends Item>, Collection<? extends Item>> items = new LinkedHashMap<>();
+        for (final Map.Entry<Class<? extends Item>, Set<Map<String, AttributeValue>>> entry : keysByClass
+                .entrySet()) {
+            final ItemConfiguration itemConfiguration = getItemConfiguration(entry.getKey());
+            final List<Map<String, AttributeValue>> itemAttributeMaps = new ArrayList<>();
+            for (final Map<String, AttributeValue> itemAttributeMap : itemsByTable
+                    .get(itemTableName(itemConfiguration))) {
+                if (entry.getValue().contains(key(itemAttributeMap, itemConfiguration))) {
+                    itemAttributeMaps.add(itemAttributeMap);
+                }
+            }
+            items.put(entry.getKey(), toItems(itemAttributeMaps, entry.getKey()));
+        }
+        return items;
+    }
+
+    /**
+     * @param itemAttributeMaps Attribute maps of items read from the table of the item class
+     * @param itemClass Class of the items
+     * @return The items decoded from the attribute maps, omitting any which are not of the item class
+     */
+    protected abstract <T extends Item> List<T> toItems(List<Map<String, AttributeValue>> itemAttributeMaps,
+            Class<T> itemClass);
+
+    private String itemTableName(final ItemConfiguration itemConfiguration) {
+        return databaseSchemaHolder.schemaName() + "." + itemConfiguration.tableName();
+    }
+
+    private Map<String, AttributeValue> key(final Map<String, AttributeValue> itemAttributeMap,
+            final ItemConfiguration itemConfiguration) {
+        final Map<String, AttributeValue> key = new HashMap<>();
+        final PrimaryKeyDefinition primaryKeyDefinition = itemConfiguration.primaryKeyDefinition();
+        key.put(primaryKeyDefinition.propertyName(), itemAttributeMap.get(primaryKeyDefinition.propertyName()));
+        if (CompoundPrimaryKeyDefinition.class.isAssignableFrom(primaryKeyDefinition.getClass())) {
+            final String supportingPropertyName = ((CompoundPrimaryKeyDefinition) primaryKeyDefinition)
+                    .supportingPropertyName();
+            key.put(supportingPropertyName, itemAttributeMap.get(supportingPropertyName));
+        }
+        return key;
+    }
+
+    /**
+     * Reads the items with the given keys using Batch Get Item requests of at most {@value #MAX_BATCH_GET_KEYS} keys,
+     * issuing up to {@link #setBatchGetParallelism(int)} requests concurrently. Items which do not exist are absent
+     * from the result, which is in no particular order.
+     * @param tableName Table to read from
+     * @param keys Keys of the items to read
+     * @return Attribute maps of the items read
+     */
+    protected final List<Map<String, AttributeValue>> batchGetItems(final String tableName,
+            final List<Map<String, AttributeValue>> keys) {
+        return batchGetItems(tableName, keys, null);
+    }
+
+    /**
+     * As {@link #batchGetItems(String, List)}, reading only the named attributes of each item
+     * @param tableName Table to read from
+     * @param keys Keys of the items to read
+     * @param attributeNames Names of the attributes to read, or {@code null} to read all attributes
+     * @return Attribute maps of the items read
+     */
+    protected final List<Map<String, AttributeValue>> batchGetItems(final String tableName,
+            final List<Map<String, AttributeValue>> keys, final Collection<String> attributeNames) {
+        if (keys.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return inChunks(keys, MAX_BATCH_GET_KEYS, batchGetParallelism,
+                chunk -> batchGetItemsChunk(tableName, chunk, attributeNames));
+    }
+
+    /**
+     * Reads the items with the given keys, of which there must be at most {@value #MAX_BATCH_GET_KEYS}. Keys left
+     * unprocessed are requested again; straight away if the previous response returned items, as DynamoDB stops
+     * short at 16 MB of response, otherwise after a backoff delay as the table is being throttled.
+     * @param tableName Table to read from
+     * @param keys Keys of the items to read
+     * @return Attribute maps of the items read
+     */
+    protected final List<Map<String, AttributeValue>> batchGetItemsChunk(final String tableName,
+            final List<Map<String, AttributeValue>> keys) {
+        return batchGetItemsChunk(tableName, keys, null);
+    }
+
+    /**
+     * As {@link #batchGetItemsChunk(String, List)}, reading only the named attributes of each item
+     * @param tableName Table to read from
+     * @param keys Keys of the items to read
+     * @param attributeNames Names of the attributes to read, or {@code null} to read all attributes
+     * @return Attribute maps of the items read
+     */
+    protected final List<Map<String, AttributeValue>> batchGetItemsChunk(final String tableName,
+            final List<Map<String, AttributeValue>> keys, final Collection<String> attributeNames) {
+        final KeysAndAttributes keysAndAttributes = new KeysAndAttributes().withKeys(keys);
+        if (attributeNames != null) {
+            final Map<String, String> expressionAttributeNames = new HashMap<>();
+            keysAndAttributes.withProjectionExpression(projectionExpression(attributeNames, expressionAttributeNames))
+                    .withExpressionAttributeNames(expressionAttributeNames);
+        }
+        final List<Map<String, AttributeValue>> items = batchGetItemsChunk(
+                Collections.singletonMap(tableName, keysAndAttributes)).get(tableName);
+        return items == null ? new ArrayList<>() : items;
+    }
+
+    /**
+     * Reads the items with the given keys from several tables, packing the keys of all the tables into Batch Get Item
+     * requests of at most {@value #MAX_BATCH_GET_KEYS} keys in total and issuing up to
+     * {@link #setBatchGetParallelism(int)} requests concurrently. Keys left unprocessed are requested again as by
+     * {@link #batchGetItemsChunk(String, List)}. Items which do not exist are absent from the result.
+     * @param keysByTable Keys of the items to read, by table name; the keys of each table must be distinct
+     * @return Attribute maps of the items read, by table name, with an entry for every table requested
+     */
+    protected final Map<String, List<Map<String, AttributeValue>>> batchGetItems(
+            final Map<String, List<Map<String, AttributeValue>>> keysByTable) {
+        final List<Map.Entry<String, Map<String, AttributeValue>>> tableKeys = new ArrayList<>();
+        final Map<String, List<Map<String, AttributeValue>>> itemsByTable = new LinkedHashMap<>();
+        for (final Map.Entry<String, List<Map<String, AttributeValue>>> entry : keysByTable.entrySet()) {
+            for (final Map<String, AttributeValue> key : entry.getValue()) {
+                tableKeys.add(new AbstractMap.SimpleImmutableEntry<>(entry.getKey(), key));
+            }
+            itemsByTable.put(entry.getKey(), new ArrayList<>());
+        }
+        if (tableKeys.isEmpty()) {
+            return itemsByTable;
+        }
+        final List<Map.Entry<String, Map<String, AttributeValue>>> tableItems = inChunks(tableKeys,
+                MAX_BATCH_GET_KEYS, batchGetParallelism, chunk -> {
+                    final Map<String, List<Map<String, AttributeValue>>> chunkKeysByTable = new LinkedHashMap<>();
+                    for (final Map.Entry<String, Map<String, AttributeValue>> tableKey : chunk) {
+                        chunkKeysByTable.computeIfAbsent(tableKey.getKey(), tableName -> new ArrayList<>())
+                                .add(tableKey.getValue());
+                    }
+                    final Map<String, KeysAndAttributes> requestItems = new LinkedHashMap<>();
+                    for (final Map.Entry<String, List<Map<String, AttributeValue>>> entry : chunkKeysByTable
+                            .entrySet()) {
+                        requestItems.put(entry.getKey(), new KeysAndAttributes().withKeys(entry.getValue()));
+                    }
+                    final List<Map.Entry<String, Map<String, AttributeValue>>> chunkTableItems = new ArrayList<>();
+                    for (final Map.Entry<String, List<Map<String, AttributeValue>>> entry : batchGetItemsChunk(
+                            requestItems).entrySet()) {
+                        for (final Map<String, AttributeValue> item : entry.getValue()) {
+                            chunkTableItems.add(new AbstractMap.SimpleImmutableEntry<>(entry.getKey(), item));
+                        }
+                    }
+                    return chunkTableItems;
+                });
+        for (final Map.Entry<String, Map<String, AttributeValue>> tableItem : tableItems) {
+            itemsByTable.get(tableItem.getKey()).add(tableItem.getValue());
+        }
+        return itemsByTable;
+    }
+
+    private Map<String, List<Map<String, AttributeValue>>> batchGetItemsChunk(
+            final Map<String, KeysAndAttributes> requestItems) {
+        final Map<String, List<Map<String, AttributeValue>>> itemsByTable = new HashMap<>();
+        final String tableNames = String.join(", ", requestItems.keySet());
+        final long deadline = retryBackoff.deadline(System.currentTimeMillis());
+        Map<String, KeysAndAttributes> pendingRequestItems = requestItems;
+        int retry = 0;
+        while (!pendingRequestItems.isEmpty()) {
+            final BatchGetItemRequest batchGetItemRequest = new BatchGetItemRequest()
+                    .withRequestItems(pendingRequestItems);
+            final BatchGetItemResult batchGetItemResult;
+            try {
+                batchGetItemResult = amazonDynamoDbClient.batchGetItem(batchGetItemRequest);
+            } catch (final AmazonServiceException e) {
+                throw new PersistenceResourceFailureException(
+                        "Failure while attempting DynamoDb Batch Get Item (" + tableNames + ")", e);
+            }
+            boolean progressed = false;
+            if (batchGetItemResult.getResponses() != null) {
+                for (final Map.Entry<String, List<Map<String, AttributeValue>>> entry : batchGetItemResult
+                        .getResponses().entrySet()) {
+                    if (entry.getValue() != null && !entry.getValue().isEmpty()) {
+                        itemsByTable.computeIfAbsent(entry.getKey(), tableName -> new ArrayList<>())
+                                .addAll(entry.getValue());
+                        progressed = true;
+                    }
+                }
+            }
+            pendingRequestItems = new HashMap<>();
+            if (batchGetItemResult.getUnprocessedKeys() != null) {
+                for (final Map.Entry<String, KeysAndAttributes> entry : batchGetItemResult.getUnprocessedKeys()
+                        .entrySet()) {
+                    if (entry.getValue() != null && entry.getValue().getKeys() != null
+                            && !entry.getValue().getKeys().isEmpty()) {
+                        logger.debug("Still " + entry.getValue().getKeys().size() + " keys to fetch from "
+                                + entry.getKey());
+                        pendingRequestItems.put(entry.getKey(), entry.getValue());
+                    }
+                }
+            }
+            if (!pendingRequestItems.isEmpty()) {
+                retry = progressed ? 0 : retry + 1;
+                if (retry > 0 && !awaitRetry(retry - 1, deadline)) {
+                    throw new PersistenceResourceFailureException("Failure while attempting DynamoDb Batch Get Item ("
+                            + tableNames + "); keys still unprocessed after retrying for "
+                            + retryBackoff.timeoutMillis() + "ms", null);
+                }
+            }
+        }
+        return itemsByTable;
+    }
+
+    /**
+     * Applies the write requests using Batch Write Item requests of at most {@value #MAX_BATCH_WRITE_REQUESTS} write
+     * requests, issuing up to {@link #setBatchWriteParallelism(int)} requests concurrently. Write requests left
+     * unprocessed, or whose request was throttled, are retried after a backoff delay until the retry deadline passes,
+     * and are then returned as unprocessed.
+     * @param tableName Table to write to
+     * @param writeRequests Put or delete requests for items in the table
+     * @return The write requests which could not be applied
+     */
+    protected final List<WriteRequest> batchWriteItems(final String tableName, final List<WriteRequest> writeRequests) {
+        if (writeRequests.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return inChunks(writeRequests, MAX_BATCH_WRITE_REQUESTS, batchWriteParallelism,
+                chunk -> batchWriteItemsChunk(tableName, chunk));
+    }
+
+    private List<WriteRequest> batchWriteItemsChunk(final String tableName, final List<WriteRequest> writeRequests) {
+        final long deadline = retryBackoff.deadline(System.currentTimeMillis());
+        List<WriteRequest> pendingWriteRequests = writeRequests;
+        int retry = 0;
+        while (true) {
+            final BatchWriteItemRequest batchWriteItemRequest = new BatchWriteItemRequest()
+                    .withRequestItems(Collections.singletonMap(tableName, pendingWriteRequests));
+            final BatchWriteItemResult batchWriteItemResult;
+            try {
+                batchWriteItemResult = amazonDynamoDbClient.batchWriteItem(batchWriteItemRequest);
+            } catch (final ProvisionedThroughputExceededException e) {
+                logger.debug("Throttled applying " + pendingWriteRequests.size() + " write requests to " + tableName);
+                if (!awaitRetry(retry++, deadline)) {
+                    return pendingWriteRequests;
+                }
+                continue;
+            } catch (final AmazonServiceException e) {
+                throw new PersistenceResourceFailureException(
+                        "Failure while attempting DynamoDb Batch Write Item (" + tableName + ")", e);
+            }
+            if (batchWriteItemResult == null) {
+                return pendingWriteRequests;
+            }
+            final List<WriteRequest> unprocessedWriteRequests = batchWriteItemResult.getUnprocessedItems() == null
+                    ? null : batchWriteItemResult.getUnprocessedItems().get(tableName);
+            if (unprocessedWriteRequests == null || unprocessedWriteRequests.isEmpty()) {
+                return new ArrayList<>();
+            }
+            logger.debug("Still " + unprocessedWriteRequests.size() + " write requests to apply to " + tableName);
+            if (!awaitRetry(retry++, deadline)) {
+                return unprocessedWriteRequests;
+            }
+            pendingWriteRequests = unprocessedWriteRequests;
+        }
+    }
+
+    /**
+     * A Query matches a single value of the key or index queried, so an EQUALS condition on several values is split
+     * into one query per value
+     * @param query Query on a key or index
+     * @return One query per non-empty value of the EQUALS condition of the query, or {@code null} if the condition
+     *         does not have several such values
+     */
+    protected static List<AttributeQuery> singleValueQueries(final AttributeQuery query) {
+        final Condition condition = query.getCondition();
+        if (condition.getComparisonOperator() != Operators.EQUALS) {
+            return null;
+        }
+        final List<AttributeQuery> singleValueQueries = new ArrayList<>();
+        for (final String value : condition.getValues()) {
+            if (value == null || value.isEmpty()) {
+                continue;
+            }
+            final Condition singleValueCondition = new Condition(Operators.EQUALS, value);
+            if (query instanceof CompoundAttributeQuery) {
+                final CompoundAttributeQuery compoundAttributeQuery = (CompoundAttributeQuery) query;
+                singleValueQueries.add(new CompoundAttributeQuery(query.getAttributeName(), singleValueCondition,
+                        compoundAttributeQuery.getSupportingAttributeName(),
+                        compoundAttributeQuery.getSupportingCondition()));
+            } else {
+                singleValueQueries.add(new AttributeQuery(query.getAttributeName(), singleValueCondition));
+            }
+        }
+        return singleValueQueries.size() > 1 ? singleValueQueries : null;
+    }
+
+    /**
+     * Fetches the items matching each of the queries, running up to the query fan-out parallelism of them at a time
+     * @param queries Queries to run
+     * @param itemClass Class of the items
+     * @param fetch Function fetching the items matching a single query
+     * @return The items matching any of the queries, each item once, in no particular order
+     */
+    protected final <T extends Item> Collection<T> fetchAll(final List<AttributeQuery> queries,
+            final Class<T> itemClass, final Function<AttributeQuery, Collection<T>> fetch) {
+        final List<T> items = inChunks(queries, 1, queryFanOutParallelism,
+                chunk -> new ArrayList<>(fetch.apply(chunk.get(0))));
+        final ItemConfiguration itemConfiguration = getItemConfiguration(itemClass);
+        final Map<ItemId, T> distinctItems = new LinkedHashMap<>();
+        for (final T item : items) {
+            distinctItems.putIfAbsent(itemConfiguration.getItemId(item), item);
+        }
+        return new ArrayList<>(distinctItems.values());
+    }
+
+    /**
+     * Counts the items matching each of the queries, running up to the query fan-out parallelism of them at a time.
+     * The queries are expected to match distinct items, as do those of {@link #singleValueQueries(AttributeQuery)}.
+     * @param queries Queries to run
+     * @param count Function counting the items matching a single query
+     * @return The total number of items matching the queries
+     */
+    protected final long countAll(final List<AttributeQuery> queries, final Function<AttributeQuery, Long> count) {
+        long total = 0;
+        for (final Long queryCount : inChunks(queries, 1, queryFanOutParallelism,
+                chunk -> Collections.singletonList(count.apply(chunk.get(0))))) {
+            total += queryCount;
+        }
+        return total;
+    }
+
+    /**
+     * Streams the items matching each of the queries in turn
+     * @param queries Queries to run
+     * @param itemClass Class of the items
+     * @param stream Function streaming the items matching a single query
+     * @return The items matching any of the queries, each item once
+     */
+    protected final <T extends Item> Stream<T> streamAll(final List<AttributeQuery> queries,
+            final Class<T> itemClass, final Function<AttributeQuery, Stream<T>> stream) {
+        final ItemConfiguration itemConfiguration = getItemConfiguration(itemClass);
+        final Set<ItemId> itemIds = new HashSet<>();
+        return queries.stream().flatMap(stream).filter(item -> itemIds.add(itemConfiguration.getItemId(item)));
+    }
+
+    /**
+     * Splits the elements into chunks and applies the function to the chunks using up to {@code parallelism} tasks on
+     * the executor
+     * @param elements Elements to split
+     * @param chunkSize Maximum number of elements in each chunk
+     * @param parallelism Maximum number of chunks to process concurrently
+     * @param function Function to apply to each chunk
+     * @return The results of the function for all chunks, in no particular order
+     */
+    private <E, R> List<R> inChunks(final List<E> elements, final int chunkSize, final int parallelism,
+            final Function<List<E>, List<R>> function) {
+        if (elements.size() <= chunkSize) {
+            return function.apply(elements);
+        }
+        final Queue<List<E>> chunks = new ConcurrentLinkedQueue<>();
+        for (int i = 0; i < elements.size(); i += chunkSize) {
+            chunks.add(elements.subList(i, Math.min(elements.size(), i + chunkSize)));
+        }
+        final List<Callable<List<R>>> tasks = new ArrayList<>();
+        for (int i = 0; i < Math.min(parallelism, chunks.size()); i++) {
+            tasks.add(() -> {
+                final List<R> results = new ArrayList<>();
+                List<E> chunk;
+                while ((chunk = chunks.poll()) != null) {
+                    results.addAll(function.apply(chunk));
+                }
+                return results;
+            });
+        }
+        final List<R> results = new ArrayList<>();
+        for (final List<R> taskResults : invokeAll(tasks)) {
+            results.addAll(taskResults);
+        }
+        return results;
+    }
+
+    /**
+     * Waits before the next retry of a request which left work unprocessed
+     * @param retry Number of retries already made
+     * @param deadline Time after which no more retries should be made
+     * @return {@code true} once the delay has passed, or {@code false} straight away if the retry would be made after
+     *         the deadline
+     */
+    protected final boolean awaitRetry(final int retry, final long deadline) {
+        final long delayMillis = retryBackoff.delayMillis(retry);
+        if (System.currentTimeMillis() + delayMillis > deadline) {
+            return false;
+        }
+        try {
+            Thread.sleep(delayMillis);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting to retry DynamoDb request", e);
+        }
+        return true;
+    }
+
+    /**
+     * @param itemConfiguration Configuration of the items to read
+     * @param propertyNames Names of the properties to read
+     * @return Names of the attributes to read for the named properties, including those making up the key and any
+     *         discriminator needed to tell item variants apart
+     */
+    protected final Collection<String> projectionAttributeNames(final ItemConfiguration itemConfiguration,
+            final Collection<String> propertyNames) {
+        final Collection<String> attributeNames = new LinkedHashSet<>();
+        final PrimaryKeyDefinition primaryKeyDefinition = itemConfiguration.primaryKeyDefinition();
+        attributeNames.add(primaryKeyDefinition.propertyName());
+        if (CompoundPrimaryKeyDefinition.class.isAssignableFrom(primaryKeyDefinition.getClass())) {
+            attributeNames.add(((CompoundPrimaryKeyDefinition) primaryKeyDefinition).supportingPropertyName());
+        }
+        if (itemConfiguration instanceof ParentItemConfiguration) {
+            attributeNames.add(((ParentItemConfiguration) itemConfiguration).discriminator());
+        } else if (itemConfiguration instanceof VariantItemConfiguration) {
+            attributeNames.add(((VariantItemConfiguration) itemConfiguration).parentItemConfiguration().discriminator());
+        }
+        attributeNames.addAll(propertyNames);
+        return attributeNames;
+    }
+
+    /**
+     * @param attributeNames Names of the attributes to read
+     * @param expressionAttributeNames Map to which the placeholder for each attribute name is added
+     * @return Projection expression reading the named attributes through placeholders, so that attribute names which
+     *         are reserved words can be read
+     */
+    protected static String projectionExpression(final Collection<String> attributeNames,
+            final Map<String, String> expressionAttributeNames) {
+        final StringBuilder projectionExpression = new StringBuilder();
+        for (final String attributeName : attributeNames) {
+            final String placeholder = "#p" + expressionAttributeNames.size();
+            expressionAttributeNames.put(placeholder, attributeName);
+            if (projectionExpression.length() > 0) {
+                projectionExpression.append(", ");
+            }
+            projectionExpression.append(placeholder);
+        }
+        return projectionExpression.toString();
+    }
+
+    /**
+     * @param itemIds Ids of items
+     * @param itemConfiguration Configuration of the items
+     * @return The primary key attributes of each item id, in the order of the item ids
+     */
+    protected final List<Map<String, AttributeValue>> keys(final Collection<ItemId> itemIds,
+            final ItemConfiguration itemConfiguration) {
+        final List<Map<String, AttributeValue>> keys = new ArrayList<>(itemIds.size());
+        final PrimaryKeyDefinition primaryKeyDefinition = itemConfiguration.primaryKeyDefinition();
+        for (final ItemId itemId : itemIds) {
+            final Map<String, AttributeValue> key = new HashMap<>();
+            key.put(primaryKeyDefinition.propertyName(), new AttributeValue(itemId.value()));
+            if (CompoundPrimaryKeyDefinition.class.isAssignableFrom(primaryKeyDefinition.getClass())) {
+                final CompoundPrimaryKeyDefinition compoundPrimaryKeyDefinition = (CompoundPrimaryKeyDefinition) primaryKeyDefinition;
+                key.put(compoundPrimaryKeyDefinition.supportingPropertyName(),
+                        new AttributeValue(itemId.supportingValue()));
+            }
+            keys.add(key);
+        }
+        return keys;
+    }
+
     @Override
     public GeneratedKeyHolder generateKeys(final SequenceKeyGenerator sequenceKeyGenerator) {
         final String sequenceName = sequenceKeyGenerator.sequenceName();
         if (!sequenceConfigurations.contains(sequenceName)) {
             throw new IllegalStateException("Unsupported sequence: " + sequenceName);
         }
+        final SequenceConfiguration sequenceConfiguration = sequenceConfigurationMap.get(sequenceName);
+        final int keyCount = sequenceKeyGenerator.keyCount();
+        if (sequenceConfiguration.blockSize() == 1) {
+            return new GeneratedKeyHolder(reserveKeys(sequenceConfiguration, keyCount).take(keyCount));
+        }
+        final SequenceKeyAllocator sequenceKeyAllocator = sequenceKeyAllocators.computeIfAbsent(sequenceName,
+                name -> new SequenceKeyAllocator(sequenceConfiguration.blockSize(),
+                        count -> reserveKeys(sequenceConfiguration, count), executorService()));
+        return new GeneratedKeyHolder(sequenceKeyAllocator.allocate(keyCount));
+    }
+
+    /**
+     * Reserves keys by adding to the counter of the sequence or, for a sharded sequence, by taking them from the range
+     * held by a randomly chosen shard. A shard refills its range by adding to the counter of the sequence, so the keys
+     * of every shard and of unsharded reservations come from the same counter and are never issued twice, whatever the
+     * counter held when sharding was enabled.
+     * @param sequenceConfiguration Sequence to reserve keys from
+     * @param keyCount Number of keys to reserve
+     * @return Block of the keys reserved
+     */
+    private KeyBlock reserveKeys(final SequenceConfiguration sequenceConfiguration, final int keyCount) {
+        final int shardCount = sequenceConfiguration.shardCount();
+        if (shardCount == 1) {
+            final long currentValue = addToSequenceCounter(sequenceConfiguration.sequenceName(), keyCount);
+            return new KeyBlock(currentValue - keyCount + 1, 1, keyCount);
+        }
+        final String shardName = sequenceConfiguration.sequenceName() + SEQUENCE_SHARD_SEPARATOR
+                + ThreadLocalRandom.current().nextInt(shardCount);
+        final KeyBlock keyBlock = takeFromShardRange(shardName, keyCount);
+        if (keyBlock != null) {
+            return keyBlock;
+        }
+        final int rangeSize = Math.max(SEQUENCE_SHARD_RANGE_SIZE, keyCount);
+        final long rangeEnd = addToSequenceCounter(sequenceConfiguration.sequenceName(), rangeSize);
+        if (rangeSize > keyCount) {
+            refillShardRange(shardName, rangeEnd, rangeSize - keyCount, keyCount);
+        }
+        return new KeyBlock(rangeEnd - rangeSize + 1, 1, keyCount);
+    }
+
+    private long addToSequenceCounter(final String sequenceName, final int keyCount) {
         final Map<String, AttributeValue> key = new HashMap<>();
         key.put(SEQUENCE_NAME_ATTRIBUTE, new AttributeValue(sequenceName));
-        final AttributeValueUpdate attributeValueUpdate = new AttributeValueUpdate().withAction("ADD").withValue(
-                new AttributeValue().withN(String.valueOf(sequenceKeyGenerator.keyCount())));
+        final AttributeValueUpdate attributeValueUpdate = new AttributeValueUpdate().withAction("ADD")
+                .withValue(new AttributeValue().withN(String.valueOf(keyCount)));
         final Map<String, AttributeValueUpdate> attributeUpdates = new HashMap<>();
         attributeUpdates.put(SEQUENCE_CURRENT_VALUE_ATTRIBUTE, attributeValueUpdate);
-        final String tableName = databaseSchemaHolder.schemaName() + "-" + SEQUENCE_TABLE_NAME;
-        final UpdateItemRequest updateItemRequest = new UpdateItemRequest().withTableName(tableName).withKey(key)
-                .withAttributeUpdates(attributeUpdates).withReturnValues("UPDATED_NEW");
+        final UpdateItemRequest updateItemRequest = new UpdateItemRequest().withTableName(sequenceTableName())
+                .withKey(key).withAttributeUpdates(attributeUpdates).withReturnValues("UPDATED_NEW");
         final UpdateItemResult updateItemResult;
         try {
             updateItemResult = amazonDynamoDbClient.updateItem(updateItemRequest);
@@ -95,12 +864,91 @@ public abstract class AbstractDynamoDbTemplate extends AbstractDatabaseTemplate
         }
         final Map<String, AttributeValue> attributes = updateItemResult.getAttributes();
         final AttributeValue currentAttributeValue = attributes.get(SEQUENCE_CURRENT_VALUE_ATTRIBUTE);
-        final Long currentValue = Long.valueOf(currentAttributeValue.getN());
-        final Collection<Long> keys = new ArrayList<>();
-        for (long i = currentValue - sequenceKeyGenerator.keyCount(); i < currentValue; i++) {
-            keys.add(i + 1);
+        return Long.parseLong(currentAttributeValue.getN());
+    }
+
+    /**
+     * @return Block of keys taken from the end of the range held by the shard, or {@code null} if the shard holds
+     *         fewer than {@code keyCount} keys
+     */
+    private KeyBlock takeFromShardRange(final String shardName, final int keyCount) {
+        final Map<String, AttributeValue> key = new HashMap<>();
+        key.put(SEQUENCE_NAME_ATTRIBUTE, new AttributeValue(shardName));
+        final Map<String, AttributeValue> expressionAttributeValues = new HashMap<>();
+        expressionAttributeValues.put(":keyCount", new AttributeValue().withN(String.valueOf(keyCount)));
+        final UpdateItemRequest updateItemRequest = new UpdateItemRequest().withTableName(sequenceTableName())
+                .withKey(key)
+                .withUpdateExpression("SET " + SEQUENCE_RANGE_REMAINING_ATTRIBUTE + " = "
+                        + SEQUENCE_RANGE_REMAINING_ATTRIBUTE + " - :keyCount")
+                .withConditionExpression(SEQUENCE_RANGE_REMAINING_ATTRIBUTE + " >= :keyCount")
+                .withExpressionAttributeValues(expressionAttributeValues).withReturnValues("ALL_NEW");
+        final UpdateItemResult updateItemResult;
+        try {
+            updateItemResult = amazonDynamoDbClient.updateItem(updateItemRequest);
+        } catch (final ConditionalCheckFailedException e) {
+            return null;
+        } catch (final AmazonServiceException e) {
+            throw new PersistenceResourceFailureException("Failure while attempting DynamoDb Update (generate keys)", e);
         }
-        return new GeneratedKeyHolder(keys);
+        final Map<String, AttributeValue> attributes = updateItemResult.getAttributes();
+        final long rangeEnd = Long.parseLong(attributes.get(SEQUENCE_RANGE_END_ATTRIBUTE).getN());
+        final long rangeRemaining = Long.parseLong(attributes.get(SEQUENCE_RANGE_REMAINING_ATTRIBUTE).getN());
+        return new KeyBlock(rangeEnd - rangeRemaining - keyCount + 1, 1, keyCount);
+    }
+
+    /**
+     * Gives the shard the last {@code rangeRemaining} keys up to {@code rangeEnd}, unless another caller has already
+     * refilled the shard with enough keys for {@code keyCount}, in which case the keys are left unused
+     */
+    private void refillShardRange(final String shardName, final long rangeEnd, final int rangeRemaining,
+            final int keyCount) {
+        final Map<String, AttributeValue> item = new HashMap<>();
+        item.put(SEQUENCE_NAME_ATTRIBUTE, new AttributeValue(shardName));
+        item.put(SEQUENCE_RANGE_END_ATTRIBUTE, new AttributeValue().withN(String.valueOf(rangeEnd)));
+        item.put(SEQUENCE_RANGE_REMAINING_ATTRIBUTE, new AttributeValue().withN(String.valueOf(rangeRemaining)));
+        final PutItemRequest putItemRequest = new PutItemRequest().withTableName(sequenceTableName()).withItem(item)
+                .withConditionExpression("attribute_not_exists(" + SEQUENCE_RANGE_REMAINING_ATTRIBUTE + ") OR "
+                        + SEQUENCE_RANGE_REMAINING_ATTRIBUTE + " < :keyCount")
+                .withExpressionAttributeValues(Collections.singletonMap(":keyCount",
+                        new AttributeValue().withN(String.valueOf(keyCount))));
+        try {
+            amazonDynamoDbClient.putItem(putItemRequest);
+        } catch (final ConditionalCheckFailedException e) {
+            logger.debug("Shard " + shardName + " already refilled; " + rangeRemaining + " keys left unused");
+        } catch (final AmazonServiceException e) {
+            logger.warn("Failure while attempting DynamoDb Put (refill sequence shard); " + rangeRemaining
+                    + " keys left unused", e);
+        }
+    }
+
+    private String sequenceTableName() {
+        return databaseSchemaHolder.schemaName() + "-" + SEQUENCE_TABLE_NAME;
+    }
+
+    /**
+     * @param firstPage Reads the first page of items
+     * @return Stream of the items of all the pages, each page being read in the background while the page before it
+     *         is consumed
+     */
+    protected final <T> Stream<T> streamPages(final Supplier<ItemPage<T>> firstPage) {
+        final PrefetchingItemIterator<T> iterator = new PrefetchingItemIterator<>(firstPage, executorService());
+        return StreamSupport
+                .stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(iterator::close);
+    }
+
+    /**
+     * @param firstPage Reads the first page of items
+     * @return The items of all the pages, read sequentially on the calling thread
+     */
+    protected final <T> List<T> readAllPages(final Supplier<ItemPage<T>> firstPage) {
+        ItemPage<T> page = firstPage.get();
+        final List<T> items = new ArrayList<>(page.items());
+        while (!page.isLastPage()) {
+            page = page.nextPage().get();
+            items.addAll(page.items());
+        }
+        return items;
     }
 
     protected final ItemConfiguration getItemConfiguration(final Class<? extends Item> itemClass) {
@@ -114,6 +962,14 @@ public abstract class AbstractDynamoDbTemplate extends AbstractDatabaseTemplate
         return itemConfiguration;
     }
 
+    protected final DynamoDbItemCodec getItemCodec(final ItemConfiguration itemConfiguration) {
+        final DynamoDbItemCodec itemCodec = itemCodecMap.get(itemConfiguration.itemClass());
+        if (itemCodec == null) {
+            throw new IllegalStateException("No ItemConfiguration for " + itemConfiguration.itemClass());
+        }
+        return itemCodec;
+    }
+
     protected final Collection<PropertyDescriptor> constraintPropertyDescriptors(
             final ItemConfiguration itemConfiguration) {
         final Collection<PropertyDescriptor> contraintPropertyDescriptors = new HashSet<>();
@@ -128,54 +984,34 @@ public abstract class AbstractDynamoDbTemplate extends AbstractDatabaseTemplate
         return createUniqueConstraintIndexes(item, itemConfiguration, constraintPropertyDescriptors(itemConfiguration));
     }
 
+    /**
+     * Creates the unique constraint index entries for the given properties of the item, issuing the requests in
+     * parallel. If any entry cannot be created, the entries which were created are deleted again.
+     * @return The descriptors of the properties for which an index entry was created
+     */
     protected final <T extends Item> Collection<PropertyDescriptor> createUniqueConstraintIndexes(final T item,
             final ItemConfiguration itemConfiguration,
             final Collection<PropertyDescriptor> constraintPropertyDescriptors) {
+        final Map<String, AttributeValue> uniqueConstraintValues = uniqueConstraintValues(item, itemConfiguration,
+                constraintPropertyDescriptors);
+        final Map<String, RuntimeException> failures = putUniqueConstraintIndexes(itemConfiguration,
+                uniqueConstraintValues);
         final Set<PropertyDescriptor> createdConstraintPropertyDescriptors = new HashSet<>();
-        ItemConstraintViolationException itemConstraintViolationException = null;
         for (final UniqueConstraint uniqueConstraint : itemConfiguration.uniqueConstraints()) {
             final String uniqueConstraintPropertyName = uniqueConstraint.propertyName();
-            final PropertyDescriptor uniqueConstraintPropertyDescriptor = uniqueConstraint.propertyDescriptor();
-            if (constraintPropertyDescriptors.contains(uniqueConstraintPropertyDescriptor)) {
-                final AttributeValue uniqueConstraintAttributeValue = DynamoDbPropertyMarshaller.getValue(item,
-                        uniqueConstraintPropertyDescriptor);
-                if (uniqueConstraintAttributeValue == null) {
-                    continue;
-                }
-                if (uniqueConstraintAttributeValue.getS() != null) {
-                    uniqueConstraintAttributeValue.setS(uniqueConstraintAttributeValue.getS().toUpperCase());
-                }
-                final Map<String, AttributeValue> attributeMap = new HashMap<>();
-                attributeMap.put("property", new AttributeValue(uniqueConstraintPropertyName));
-                attributeMap.put("value", uniqueConstraintAttributeValue);
-                final Map<String, ExpectedAttributeValue> expectedResults = new HashMap<>();
-                expectedResults.put("value", new ExpectedAttributeValue(false));
-                final String indexTableName = databaseSchemaHolder.schemaName() + "-indexes."
-                        + itemConfiguration.tableName();
-                final PutItemRequest itemRequest = new PutItemRequest().withTableName(indexTableName)
-                        .withItem(attributeMap).withExpected(expectedResults);
-                try {
-                    amazonDynamoDbClient.putItem(itemRequest);
-                    createdConstraintPropertyDescriptors.add(uniqueConstraintPropertyDescriptor);
-                } catch (final ConditionalCheckFailedException e) {
-                    itemConstraintViolationException = new ItemConstraintViolationException(
-                            uniqueConstraintPropertyName, "Unique constraint violation on property '"
-                                    + uniqueConstraintPropertyName + "' ('" + uniqueConstraintAttributeValue
-                                    + "') of item " + item.getClass());
-                    break;
-                } catch (final AmazonServiceException e) {
-                    throw new PersistenceResourceFailureException(
-                            "Failure while attempting DynamoDb put (creating unique constraint index entry)", e);
-                }
+            if (uniqueConstraintValues.containsKey(uniqueConstraintPropertyName)
+                    && !failures.containsKey(uniqueConstraintPropertyName)) {
+                createdConstraintPropertyDescriptors.add(uniqueConstraint.propertyDescriptor());
             }
         }
-        if (itemConstraintViolationException != null) {
+        if (!failures.isEmpty()) {
+            uniqueConstraintValues.keySet().removeAll(failures.keySet());
             try {
-                deleteUniqueConstraintIndexes(item, itemConfiguration, createdConstraintPropertyDescriptors);
+                deleteUniqueConstraintIndexes(itemConfiguration, uniqueConstraintValues);
             } catch (final Exception e) {
                 logger.error(e.getMessage(), e);
             }
-            throw itemConstraintViolationException;
+            throw uniqueConstraintIndexFailure(item, itemConfiguration, failures);
         }
         return createdConstraintPropertyDescriptors;
     }
@@ -192,31 +1028,148 @@ public abstract class AbstractDynamoDbTemplate extends AbstractDatabaseTemplate
         if (constraintPropertyDescriptors.isEmpty()) {
             return;
         }
+        deleteUniqueConstraintIndexes(itemConfiguration,
+                uniqueConstraintValues(item, itemConfiguration, constraintPropertyDescriptors));
+    }
+
+    /**
+     * @return The non-null attribute values of the given unique constraint properties of the item, by property name
+     */
+    protected final <T extends Item> Map<String, AttributeValue> uniqueConstraintValues(final T item,
+            final ItemConfiguration itemConfiguration,
+            final Collection<PropertyDescriptor> constraintPropertyDescriptors) {
+        final Map<String, AttributeValue> uniqueConstraintValues = new LinkedHashMap<>();
         for (final UniqueConstraint uniqueConstraint : itemConfiguration.uniqueConstraints()) {
-            final String uniqueConstraintPropertyName = uniqueConstraint.propertyName();
-            final PropertyDescriptor uniqueConstraintPropertyDescriptor = uniqueConstraint.propertyDescriptor();
-            if (constraintPropertyDescriptors.contains(uniqueConstraintPropertyDescriptor)) {
-                final AttributeValue uniqueConstraintAttributeValue = DynamoDbPropertyMarshaller.getValue(item,
-                        uniqueConstraintPropertyDescriptor);
+            if (constraintPropertyDescriptors.contains(uniqueConstraint.propertyDescriptor())) {
+                final String uniqueConstraintPropertyName = uniqueConstraint.propertyName();
+                final AttributeValue uniqueConstraintAttributeValue = getItemCodec(itemConfiguration)
+                        .propertyCodec(uniqueConstraintPropertyName).getValue(item);
                 if (uniqueConstraintAttributeValue != null) {
-                    if (uniqueConstraintAttributeValue.getS() != null) {
-                        uniqueConstraintAttributeValue.setS(uniqueConstraintAttributeValue.getS().toUpperCase());
-                    }
-                    final Map<String, AttributeValue> key = new HashMap<>();
-                    key.put("property", new AttributeValue(uniqueConstraintPropertyName));
-                    key.put("value", uniqueConstraintAttributeValue);
-                    final String indexTableName = databaseSchemaHolder.schemaName() + "-indexes."
-                            + itemConfiguration.tableName();
-                    final DeleteItemRequest itemRequest = new DeleteItemRequest().withTableName(indexTableName)
-                            .withKey(key);
-                    try {
-                        amazonDynamoDbClient.deleteItem(itemRequest);
-                    } catch (final AmazonServiceException e) {
-                        throw new PersistenceResourceFailureException(
-                                "Failed while attempting to perform DynamoDb Delete (for unique constraints)", e);
-                    }
+                    uniqueConstraintValues.put(uniqueConstraintPropertyName, uniqueConstraintAttributeValue);
+                }
+            }
+        }
+        return uniqueConstraintValues;
+    }
+
+    /**
+     * Puts an index entry for each of the unique constraint values in parallel, on condition that no entry exists for
+     * the same value.
+     * @param itemConfiguration Configuration of the item
+     * @param uniqueConstraintValues Attribute values of the unique constraint properties, by property name
+     * @return The failure for each property whose index entry was not created, by property name; a
+     *         {@link ConditionalCheckFailedException} if an entry already exists for the value
+     */
+    protected final Map<String, RuntimeException> putUniqueConstraintIndexes(final ItemConfiguration itemConfiguration,
+            final Map<String, AttributeValue> uniqueConstraintValues) {
+        final String indexTableName = indexTableName(itemConfiguration);
+        final List<String> propertyNames = new ArrayList<>(uniqueConstraintValues.keySet());
+        final List<Callable<RuntimeException>> tasks = new ArrayList<>();
+        for (final String propertyName : propertyNames) {
+            final Map<String, ExpectedAttributeValue> expectedResults = new HashMap<>();
+            expectedResults.put("value", new ExpectedAttributeValue(false));
+            final PutItemRequest itemRequest = new PutItemRequest().withTableName(indexTableName)
+                    .withItem(uniqueConstraintIndexKey(propertyName, uniqueConstraintValues.get(propertyName)))
+                    .withExpected(expectedResults);
+            tasks.add(() -> {
+                try {
+                    amazonDynamoDbClient.putItem(itemRequest);
+                    return null;
+                } catch (final ConditionalCheckFailedException e) {
+                    return e;
+                } catch (final AmazonServiceException e) {
+                    return new PersistenceResourceFailureException(
+                            "Failure while attempting DynamoDb put (creating unique constraint index entry)", e);
                 }
+            });
+        }
+        final List<RuntimeException> results = invokeAll(tasks);
+        final Map<String, RuntimeException> failures = new LinkedHashMap<>();
+        for (int i = 0; i < propertyNames.size(); i++) {
+            if (results.get(i) != null) {
+                failures.put(propertyNames.get(i), results.get(i));
+            }
+        }
+        return failures;
+    }
+
+    /**
+     * Deletes the index entry for each of the unique constraint values in parallel. Every delete is attempted before
+     * any failure is thrown.
+     * @param itemConfiguration Configuration of the item
+     * @param uniqueConstraintValues Attribute values of the unique constraint properties, by property name
+     */
+    protected final void deleteUniqueConstraintIndexes(final ItemConfiguration itemConfiguration,
+            final Map<String, AttributeValue> uniqueConstraintValues) {
+        final String indexTableName = indexTableName(itemConfiguration);
+        final List<Callable<RuntimeException>> tasks = new ArrayList<>();
+        for (final Map.Entry<String, AttributeValue> entry : uniqueConstraintValues.entrySet()) {
+            final DeleteItemRequest itemRequest = new DeleteItemRequest().withTableName(indexTableName)
+                    .withKey(uniqueConstraintIndexKey(entry.getKey(), entry.getValue()));
+            tasks.add(() -> {
+                try {
+                    amazonDynamoDbClient.deleteItem(itemRequest);
+                    return null;
+                } catch (final AmazonServiceException e) {
+                    return new PersistenceResourceFailureException(
+                            "Failed while attempting to perform DynamoDb Delete (for unique constraints)", e);
+                }
+            });
+        }
+        for (final RuntimeException failure : invokeAll(tasks)) {
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+
+    /**
+     * @return The exception to throw for the failed unique constraint index entries; a constraint violation takes
+     *         precedence over a resource failure
+     */
+    protected final <T extends Item> RuntimeException uniqueConstraintIndexFailure(final T item,
+            final ItemConfiguration itemConfiguration, final Map<String, RuntimeException> failures) {
+        for (final UniqueConstraint uniqueConstraint : itemConfiguration.uniqueConstraints()) {
+            final String uniqueConstraintPropertyName = uniqueConstraint.propertyName();
+            if (failures.get(uniqueConstraintPropertyName) instanceof ConditionalCheckFailedException) {
+                final AttributeValue uniqueConstraintAttributeValue = getItemCodec(itemConfiguration)
+                        .propertyCodec(uniqueConstraintPropertyName).getValue(item);
+                return new ItemConstraintViolationException(uniqueConstraintPropertyName,
+                        "Unique constraint violation on property '" + uniqueConstraintPropertyName + "' ('"
+                                + uniqueConstraintIndexValue(uniqueConstraintAttributeValue) + "') of item "
+                                + item.getClass());
             }
         }
+        return failures.values().iterator().next();
+    }
+
+    /**
+     * @return {@code true} if both values map to the same unique constraint index entry
+     */
+    protected static boolean sameUniqueConstraintValue(final AttributeValue attributeValue,
+            final AttributeValue otherAttributeValue) {
+        if (attributeValue == null || otherAttributeValue == null) {
+            return attributeValue == otherAttributeValue;
+        }
+        return uniqueConstraintIndexValue(attributeValue).equals(uniqueConstraintIndexValue(otherAttributeValue));
+    }
+
+    private String indexTableName(final ItemConfiguration itemConfiguration) {
+        return databaseSchemaHolder.schemaName() + "-indexes." + itemConfiguration.tableName();
+    }
+
+    private static Map<String, AttributeValue> uniqueConstraintIndexKey(final String propertyName,
+            final AttributeValue attributeValue) {
+        final Map<String, AttributeValue> key = new HashMap<>();
+        key.put("property", new AttributeValue(propertyName));
+        key.put("value", uniqueConstraintIndexValue(attributeValue));
+        return key;
+    }
+
+    private static AttributeValue uniqueConstraintIndexValue(final AttributeValue attributeValue) {
+        if (attributeValue.getS() != null) {
+            return new AttributeValue(attributeValue.getS().toUpperCase());
+        }
+        return attributeValue;
     }
 }
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2014 Click Travel Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.clicktravel.infrastructure.persistence.aws.dynamodb;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limits the rate of requests to a DynamoDB table or index using additive increase and multiplicative decrease. No
+ * limit applies until a request is throttled; the rate is then cut to a fraction of the rate observed, or of the
+ * current limit, at most once per second. Each second without throttling the limit increases by a fixed step, and is
+ * lifted altogether once the rate observed in the previous second is under half of it.
+ */
+public class AdaptiveRateLimiter {
+
+    private static final long WINDOW_MILLIS = 1000;
+    private static final double UNLIMITED = Double.POSITIVE_INFINITY;
+
+    private final double minRate;
+    private final double rateIncrease;
+    private final double rateDecreaseFactor;
+    private final AtomicLong windowRequests = new AtomicLong();
+    private final AtomicLong throttledCount = new AtomicLong();
+    private volatile long windowStartMillis = System.currentTimeMillis();
+    private volatile double previousWindowRate;
+    private volatile double rate = UNLIMITED;
+    private volatile long lastAdjustmentMillis;
+    private long nextPermitNanos;
+
+    /**
+     * @param minRate Lowest limit, in requests per second
+     * @param rateIncrease Increase of the limit, in requests per second, after each second without throttling
+     * @param rateDecreaseFactor Factor, between 0 and 1, by which the limit is multiplied when throttled
+     */
+    public AdaptiveRateLimiter(final double minRate, final double rateIncrease, final double rateDecreaseFactor) {
+        if (minRate <= 0 || rateIncrease <= 0 || rateDecreaseFactor <= 0 || rateDecreaseFactor >= 1) {
+            throw new IllegalArgumentException("Invalid adaptive rate limiter; min rate:" + minRate
+                    + " rate increase:" + rateIncrease + " rate decrease factor:" + rateDecreaseFactor);
+        }
+        this.minRate = minRate;
+        this.rateIncrease = rateIncrease;
+        this.rateDecreaseFactor = rateDecreaseFactor;
+    }
+
+    /**
+     * Waits, if limited, until a request may be made. If interrupted while waiting, returns early with the interrupt
+     * status set.
+     */
+    public void acquire() {
+        windowRequests.incrementAndGet();
+        final long nowMillis = System.currentTimeMillis();
+        if (nowMillis - windowStartMillis >= WINDOW_MILLIS) {
+            nextWindow(nowMillis);
+        }
+        if (rate == UNLIMITED) {
+            return;
+        }
+        final long waitNanos;
+        synchronized (this) {
+            final long nowNanos = System.nanoTime();
+            final long permitNanos = nextPermitNanos - nowNanos > 0 ? nextPermitNanos : nowNanos;
+            nextPermitNanos = permitNanos + (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+            waitNanos = permitNanos - nowNanos;
+        }
+        if (waitNanos > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Records that a request was throttled, cutting the limit unless already cut within the last second
+     */
+    public synchronized void onThrottled() {
+        throttledCount.incrementAndGet();
+        final long nowMillis = System.currentTimeMillis();
+        if (rate != UNLIMITED && nowMillis - lastAdjustmentMillis < WINDOW_MILLIS) {
+            return;
+        }
+        if (rate == UNLIMITED) {
+            nextPermitNanos = System.nanoTime();
+            rate = Math.max(minRate, observedRate(nowMillis) * rateDecreaseFactor);
+        } else {
+            rate = Math.max(minRate, rate * rateDecreaseFactor);
+        }
+        lastAdjustmentMillis = nowMillis;
+    }
+
+    /**
+     * Records that a request succeeded without throttling, raising the limit if not raised or cut within the last
+     * second
+     */
+    public void onSuccess() {
+        if (rate == UNLIMITED || System.currentTimeMillis() - lastAdjustmentMillis < WINDOW_MILLIS) {
+            return;
+        }
+        synchronized (this) {
+            final long nowMillis = System.currentTimeMillis();
+            if (rate == UNLIMITED || nowMillis - lastAdjustmentMillis < WINDOW_MILLIS) {
+                return;
+            }
+            rate = previousWindowRate < rate / 2 ? UNLIMITED : rate + rateIncrease;
+            lastAdjustmentMillis = nowMillis;
+        }
+    }
+
+    /**
+     * @return Current limit in requests per second, or {@link Double#POSITIVE_INFINITY} if not limited
+     */
+    public double rate() {
+        return rate;
+    }
+
+    public boolean isLimited() {
+        return rate != UNLIMITED;
+    }
+
+    /**
+     * @return Number of requests throttled since creation
+     */
+    public long throttledCount() {
+        return throttledCount.get();
+    }
+
+    private synchronized void nextWindow(final long nowMillis) {
+        final long elapsedMillis = nowMillis - windowStartMillis;
+        if (elapsedMillis >= WINDOW_MILLIS) {
+            previousWindowRate = windowRequests.getAndSet(0) * 1000.0 / elapsedMillis;
+            windowStartMillis = nowMillis;
+        }
+    }
+
+    private double observedRate(final long nowMillis) {
+        final double windowRate = windowRequests.get() * 1000.0
+                / Math.max(WINDOW_MILLIS, nowMillis - windowStartMillis);
+        return Math.max(previousWindowRate, windowRate);
+    }
+
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2014 Click Travel Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.clicktravel.infrastructure.persistence.aws.dynamodb;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.amazonaws.retry.PredefinedRetryPolicies;
+import com.amazonaws.retry.RetryPolicy;
+
+/**
+ * An {@link AdaptiveRateLimiter} for each DynamoDB table and index, created on first use. The state of the limiters
+ * can be used elsewhere in an application as a signal of backpressure from DynamoDB.
+ */
+public class AdaptiveRateLimiters {
+
+    private static final double DEFAULT_MIN_RATE = 1;
+    private static final double DEFAULT_RATE_INCREASE = 10;
+    private static final double DEFAULT_RATE_DECREASE_FACTOR = 0.5;
+
+    private final ConcurrentMap<String, AdaptiveRateLimiter> rateLimiters = new ConcurrentHashMap<>();
+    private final double minRate;
+    private final double rateIncrease;
+    private final double rateDecreaseFactor;
+
+    public AdaptiveRateLimiters() {
+        this(DEFAULT_MIN_RATE, DEFAULT_RATE_INCREASE, DEFAULT_RATE_DECREASE_FACTOR);
+    }
+
+    /**
+     * @see AdaptiveRateLimiter#AdaptiveRateLimiter(double, double, double)
+     */
+    public AdaptiveRateLimiters(final double minRate, final double rateIncrease, final double rateDecreaseFactor) {
+        if (minRate <= 0 || rateIncrease <= 0 || rateDecreaseFactor <= 0 || rateDecreaseFactor >= 1) {
+            throw new IllegalArgumentException("Invalid adaptive rate limiters; min rate:" + minRate
+                    + " rate increase:" + rateIncrease + " rate decrease factor:" + rateDecreaseFactor);
+        }
+        this.minRate = minRate;
+        this.rateIncrease = rateIncrease;
+        this.rateDecreaseFactor = rateDecreaseFactor;
+    }
+
+    /**
+     * @param tableName Name of the table
+     * @param indexName Name of the index, or {@code null} for the table itself
+     * @return Rate limiter of the table or index
+     */
+    public AdaptiveRateLimiter rateLimiter(final String tableName, final String indexName) {
+        return rateLimiters.computeIfAbsent(indexName == null ? tableName : tableName + "/" + indexName,
+                key -> new AdaptiveRateLimiter(minRate, rateIncrease, rateDecreaseFactor));
+    }
+
+    /**
+     * @return {@code true} if requests to any table or index are currently limited
+     */
+    public boolean isLimited() {
+        for (final AdaptiveRateLimiter rateLimiter : rateLimiters.values()) {
+            if (rateLimiter.isLimited()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return Current limit in requests per second of each limited table or index, as {@code table[/index]}
+     */
+    public Map<String, Double> limitedRates() {
+        final Map<String, Double> limitedRates = new HashMap<>();
+        for (final Entry<String, AdaptiveRateLimiter> entry : rateLimiters.entrySet()) {
+            if (entry.getValue().isLimited()) {
+                limitedRates.put(entry.getKey(), entry.getValue().rate());
+            }
+        }
+        return limitedRates;
+    }
+
+    /**
+     * @return Default DynamoDB retry policy, decorated as by {@link #retryPolicy(RetryPolicy)}
+     */
+    public RetryPolicy retryPolicy() {
+        return retryPolicy(PredefinedRetryPolicies.getDynamoDBDefaultRetryPolicy());
+    }
+
+    /**
+     * Decorates a retry policy so that every attempt throttled and retried by a client configured with it is recorded
+     * by these limiters. Without it, the limiters only see requests still throttled once the client stops retrying.
+     * @param retryPolicy Retry policy to decorate
+     * @return Retry policy to set in the configuration of the DynamoDB client
+     */
+    public RetryPolicy retryPolicy(final RetryPolicy retryPolicy) {
+        return new RetryPolicy(new ThrottlingRetryCondition(retryPolicy.getRetryCondition(), this),
+                retryPolicy.getBackoffStrategy(), retryPolicy.getMaxErrorRetry(),
+                retryPolicy.isMaxErrorRetryInClientConfigHonored());
+    }
+
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2014 Click Travel Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.clicktravel.infrastructure.persistence.aws.dynamodb;
+
+/**
+ * Capacity units consumed by one type of DynamoDB operation on a table or one of its indexes
+ */
+public class ConsumedCapacityCount {
+
+    private final String tableName;
+    private final String indexName;
+    private final String operation;
+    private final double readCapacityUnits;
+    private final double writeCapacityUnits;
+
+    public ConsumedCapacityCount(final String tableName, final String indexName, final String operation,
+            final double readCapacityUnits, final double writeCapacityUnits) {
+        this.tableName = tableName;
+        this.indexName = indexName;
+        this.operation = operation;
+        this.readCapacityUnits = readCapacityUnits;
+        this.writeCapacityUnits = writeCapacityUnits;
+    }
+
+    public String tableName() {
+        return tableName;
+    }
+
+    /**
+     * @return Name of the index, or {@code null} for capacity consumed by the table itself
+     */
+    public String indexName() {
+        return indexName;
+    }
+
+    /**
+     * @return Name of the DynamoDB operation, e.g. {@code GetItem}
+     */
+    public String operation() {
+        return operation;
+    }
+
+    public double readCapacityUnits() {
+        return readCapacityUnits;
+    }
+
+    public double writeCapacityUnits() {
+        return writeCapacityUnits;
+    }
+
+    @Override
+    public String toString() {
+        return "ConsumedCapacityCount [tableName=" + tableName + ", indexName=" + indexName + ", operation="
+                + operation + ", readCapacityUnits=" + readCapacityUnits + ", writeCapacityUnits="
+                + writeCapacityUnits + "]";
+    }
+
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2014 Click Travel Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.clicktravel.infrastructure.persistence.aws.dynamodb;
+
+import java.util.*;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.DoubleAdder;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.Capacity;
+import com.amazonaws.services.dynamodbv2.model.ConsumedCapacity;
+
+/**
+ * In-process record of the DynamoDB capacity units consumed, aggregated per table, per index and per operation, and
+ * of the partition keys most frequently accessed. Recording is lock-free, so one instance may be shared by all
+ * requests.
+ */
+public class ConsumedCapacityMetrics {
+
+    private static final Set<String> WRITE_OPERATIONS = new HashSet<>(
+            Arrays.asList("PutItem", "UpdateItem", "DeleteItem", "BatchWriteItem"));
+
+    private final ConcurrentMap<List<String>, DoubleAdder> capacityUnits = new ConcurrentHashMap<>();
+    private final HotKeySketch hotKeySketch;
+
+    public ConsumedCapacityMetrics() {
+        this(new HotKeySketch());
+    }
+
+    public ConsumedCapacityMetrics(final HotKeySketch hotKeySketch) {
+        this.hotKeySketch = hotKeySketch;
+    }
+
+    /**
+     * @param operation Name of the DynamoDB operation, e.g. {@code GetItem}
+     * @param consumedCapacity Capacity consumed as returned by DynamoDB, either in total or per table and index
+     */
+    public void recordConsumedCapacity(final String operation, final ConsumedCapacity consumedCapacity) {
+        final String tableName = consumedCapacity.getTableName();
+        if (consumedCapacity.getTable() == null) {
+            add(tableName, null, operation, consumedCapacity.getCapacityUnits());
+            return;
+        }
+        add(tableName, null, operation, consumedCapacity.getTable().getCapacityUnits());
+        addIndexes(tableName, operation, consumedCapacity.getGlobalSecondaryIndexes());
+        addIndexes(tableName, operation, consumedCapacity.getLocalSecondaryIndexes());
+    }
+
+    /**
+     * @param tableName Name of the table accessed
+     * @param indexName Name of the index accessed, or {@code null} if the table was accessed directly
+     * @param partitionKeyValue Value of the partition key accessed
+     */
+    public void recordPartitionKey(final String tableName, final String indexName,
+            final AttributeValue partitionKeyValue) {
+        final String value = partitionKeyValue.getS() != null ? partitionKeyValue.getS()
+                : partitionKeyValue.getN() != null ? partitionKeyValue.getN() : partitionKeyValue.toString();
+        hotKeySketch.add(indexName == null ? tableName + ":" + value : tableName + "/" + indexName + ":" + value);
+    }
+
+    /**
+     * @return Capacity units consumed per table, index and operation since creation or the last reset
+     */
+    public List<ConsumedCapacityCount> consumedCapacity() {
+        final List<ConsumedCapacityCount> consumedCapacityCounts = new ArrayList<>();
+        for (final Entry<List<String>, DoubleAdder> entry : capacityUnits.entrySet()) {
+            final String operation = entry.getKey().get(2);
+            final double units = entry.getValue().sum();
+            final boolean write = WRITE_OPERATIONS.contains(operation);
+            consumedCapacityCounts.add(new ConsumedCapacityCount(entry.getKey().get(0), entry.getKey().get(1),
+                    operation, write ? 0 : units, write ? units : 0));
+        }
+        return consumedCapacityCounts;
+    }
+
+    /**
+     * @return Most frequently accessed partition keys, as {@code table[/index]:value}, with the estimated number of
+     *         accesses, most frequent first
+     */
+    public Map<String, Long> hotKeys() {
+        return hotKeySketch.hotKeys();
+    }
+
+    public void reset() {
+        capacityUnits.clear();
+        hotKeySketch.reset();
+    }
+
+    private void addIndexes(final String tableName, final String operation, final Map<String, Capacity> indexes) {
+        if (indexes != null) {
+            for (final Entry<String, Capacity> entry : indexes.entrySet()) {
+                add(tableName, entry.getKey(), operation, entry.getValue().getCapacityUnits());
+            }
+        }
+    }
+
+    private void add(final String tableName, final String indexName, final String operation, final Double units) {
+        if (units != null) {
+            capacityUnits.computeIfAbsent(Arrays.asList(tableName, indexName, operation), key -> new DoubleAdder())
+                    .add(units);
+        }
+    }
+
+}
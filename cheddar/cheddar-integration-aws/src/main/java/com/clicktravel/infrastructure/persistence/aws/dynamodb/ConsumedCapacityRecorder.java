@@ -0,0 +1,203 @@
+/*
+ * Copyright 2014 Click Travel Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.clicktravel.infrastructure.persistence.aws.dynamodb;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.model.*;
+
+/**
+ * Wraps a DynamoDB client so that every item request asks for the capacity it consumes, which is then recorded with
+ * the partition keys it accesses. Requests which already specify what consumed capacity to return are left unchanged.
+ */
+class ConsumedCapacityRecorder implements InvocationHandler {
+
+    private static final String INDEX_NAME_SUFFIX = "_idx";
+
+    private final AmazonDynamoDB amazonDynamoDbClient;
+    private final ConsumedCapacityMetrics consumedCapacityMetrics;
+    private final Map<String, String> partitionKeyNames;
+
+    private ConsumedCapacityRecorder(final AmazonDynamoDB amazonDynamoDbClient,
+            final ConsumedCapacityMetrics consumedCapacityMetrics, final Map<String, String> partitionKeyNames) {
+        this.amazonDynamoDbClient = amazonDynamoDbClient;
+        this.consumedCapacityMetrics = consumedCapacityMetrics;
+        this.partitionKeyNames = partitionKeyNames;
+    }
+
+    /**
+     * @param amazonDynamoDbClient Client to wrap
+     * @param consumedCapacityMetrics Metrics to record to
+     * @param partitionKeyNames Name of the partition key attribute of each table, by table name
+     * @return Client recording the capacity consumed by each request made through it
+     */
+    static AmazonDynamoDB recordingClient(final AmazonDynamoDB amazonDynamoDbClient,
+            final ConsumedCapacityMetrics consumedCapacityMetrics, final Map<String, String> partitionKeyNames) {
+        return (AmazonDynamoDB) Proxy.newProxyInstance(AmazonDynamoDB.class.getClassLoader(),
+                new Class<?>[] { AmazonDynamoDB.class },
+                new ConsumedCapacityRecorder(amazonDynamoDbClient, consumedCapacityMetrics, partitionKeyNames));
+    }
+
+    @Override
+    public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+        if (args != null && args.length == 1) {
+            beforeRequest(args[0]);
+        }
+        final Object result;
+        try {
+            result = method.invoke(amazonDynamoDbClient, args);
+        } catch (final InvocationTargetException e) {
+            throw e.getCause();
+        }
+        afterRequest(operation(method), result);
+        return result;
+    }
+
+    private void beforeRequest(final Object request) {
+        if (request instanceof GetItemRequest) {
+            final GetItemRequest getItemRequest = (GetItemRequest) request;
+            if (getItemRequest.getReturnConsumedCapacity() == null) {
+                getItemRequest.setReturnConsumedCapacity(ReturnConsumedCapacity.INDEXES);
+            }
+            recordPartitionKey(getItemRequest.getTableName(), getItemRequest.getKey());
+        } else if (request instanceof PutItemRequest) {
+            final PutItemRequest putItemRequest = (PutItemRequest) request;
+            if (putItemRequest.getReturnConsumedCapacity() == null) {
+                putItemRequest.setReturnConsumedCapacity(ReturnConsumedCapacity.INDEXES);
+            }
+            recordPartitionKey(putItemRequest.getTableName(), putItemRequest.getItem());
+        } else if (request instanceof UpdateItemRequest) {
+            final UpdateItemRequest updateItemRequest = (UpdateItemRequest) request;
+            if (updateItemRequest.getReturnConsumedCapacity() == null) {
+                updateItemRequest.setReturnConsumedCapacity(ReturnConsumedCapacity.INDEXES);
+            }
+            recordPartitionKey(updateItemRequest.getTableName(), updateItemRequest.getKey());
+        } else if (request instanceof DeleteItemRequest) {
+            final DeleteItemRequest deleteItemRequest = (DeleteItemRequest) request;
+            if (deleteItemRequest.getReturnConsumedCapacity() == null) {
+                deleteItemRequest.setReturnConsumedCapacity(ReturnConsumedCapacity.INDEXES);
+            }
+            recordPartitionKey(deleteItemRequest.getTableName(), deleteItemRequest.getKey());
+        } else if (request instanceof QueryRequest) {
+            final QueryRequest queryRequest = (QueryRequest) request;
+            if (queryRequest.getReturnConsumedCapacity() == null) {
+                queryRequest.setReturnConsumedCapacity(ReturnConsumedCapacity.INDEXES);
+            }
+            recordQueryPartitionKey(queryRequest);
+        } else if (request instanceof ScanRequest) {
+            final ScanRequest scanRequest = (ScanRequest) request;
+            if (scanRequest.getReturnConsumedCapacity() == null) {
+                scanRequest.setReturnConsumedCapacity(ReturnConsumedCapacity.INDEXES);
+            }
+        } else if (request instanceof BatchGetItemRequest) {
+            final BatchGetItemRequest batchGetItemRequest = (BatchGetItemRequest) request;
+            if (batchGetItemRequest.getReturnConsumedCapacity() == null) {
+                batchGetItemRequest.setReturnConsumedCapacity(ReturnConsumedCapacity.INDEXES);
+            }
+            for (final Entry<String, KeysAndAttributes> entry : batchGetItemRequest.getRequestItems().entrySet()) {
+                for (final Map<String, AttributeValue> key : entry.getValue().getKeys()) {
+                    recordPartitionKey(entry.getKey(), key);
+                }
+            }
+        } else if (request instanceof BatchWriteItemRequest) {
+            final BatchWriteItemRequest batchWriteItemRequest = (BatchWriteItemRequest) request;
+            if (batchWriteItemRequest.getReturnConsumedCapacity() == null) {
+                batchWriteItemRequest.setReturnConsumedCapacity(ReturnConsumedCapacity.INDEXES);
+            }
+            for (final Entry<String, List<WriteRequest>> entry : batchWriteItemRequest.getRequestItems()
+                    .entrySet()) {
+                for (final WriteRequest writeRequest : entry.getValue()) {
+                    recordPartitionKey(entry.getKey(), writeRequest.getPutRequest() != null
+                            ? writeRequest.getPutRequest().getItem() : writeRequest.getDeleteRequest().getKey());
+                }
+            }
+        }
+    }
+
+    private void recordPartitionKey(final String tableName, final Map<String, AttributeValue> attributes) {
+        final String partitionKeyName = partitionKeyNames.get(tableName);
+        if (partitionKeyName != null && attributes != null) {
+            final AttributeValue partitionKeyValue = attributes.get(partitionKeyName);
+            if (partitionKeyValue != null) {
+                consumedCapacityMetrics.recordPartitionKey(tableName, null, partitionKeyValue);
+            }
+        }
+    }
+
+    /**
+     * Indexes are named after their partition key attribute, so the partition key of an index query is the key
+     * condition on that attribute
+     */
+    private void recordQueryPartitionKey(final QueryRequest queryRequest) {
+        final String indexName = queryRequest.getIndexName();
+        final String partitionKeyName = indexName == null ? partitionKeyNames.get(queryRequest.getTableName())
+                : indexName.endsWith(INDEX_NAME_SUFFIX)
+                        ? indexName.substring(0, indexName.length() - INDEX_NAME_SUFFIX.length()) : null;
+        if (partitionKeyName == null || queryRequest.getKeyConditions() == null) {
+            return;
+        }
+        final Condition condition = queryRequest.getKeyConditions().get(partitionKeyName);
+        if (condition != null && ComparisonOperator.EQ.toString().equals(condition.getComparisonOperator())
+                && condition.getAttributeValueList() != null && condition.getAttributeValueList().size() == 1) {
+            consumedCapacityMetrics.recordPartitionKey(queryRequest.getTableName(), indexName,
+                    condition.getAttributeValueList().get(0));
+        }
+    }
+
+    private void afterRequest(final String operation, final Object result) {
+        final Object consumedCapacity;
+        if (result instanceof GetItemResult) {
+            consumedCapacity = ((GetItemResult) result).getConsumedCapacity();
+        } else if (result instanceof PutItemResult) {
+            consumedCapacity = ((PutItemResult) result).getConsumedCapacity();
+        } else if (result instanceof UpdateItemResult) {
+            consumedCapacity = ((UpdateItemResult) result).getConsumedCapacity();
+        } else if (result instanceof DeleteItemResult) {
+            consumedCapacity = ((DeleteItemResult) result).getConsumedCapacity();
+        } else if (result instanceof QueryResult) {
+            consumedCapacity = ((QueryResult) result).getConsumedCapacity();
+        } else if (result instanceof ScanResult) {
+            consumedCapacity = ((ScanResult) result).getConsumedCapacity();
+        } else if (result instanceof BatchGetItemResult) {
+            consumedCapacity = ((BatchGetItemResult) result).getConsumedCapacity();
+        } else if (result instanceof BatchWriteItemResult) {
+            consumedCapacity = ((BatchWriteItemResult) result).getConsumedCapacity();
+        } else {
+            return;
+        }
+        if (consumedCapacity instanceof ConsumedCapacity) {
+            consumedCapacityMetrics.recordConsumedCapacity(operation, (ConsumedCapacity) consumedCapacity);
+        } else if (consumedCapacity instanceof Collection) {
+            for (final Object tableConsumedCapacity : (Collection<?>) consumedCapacity) {
+                consumedCapacityMetrics.recordConsumedCapacity(operation, (ConsumedCapacity) tableConsumedCapacity);
+            }
+        }
+    }
+
+    private String operation(final Method method) {
+        return Character.toUpperCase(method.getName().charAt(0)) + method.getName().substring(1);
+    }
+
+}
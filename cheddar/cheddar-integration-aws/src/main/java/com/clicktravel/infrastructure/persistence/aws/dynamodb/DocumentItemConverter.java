@@ -0,0 +1,282 @@
+/*
+ * Copyright 2014 Click Travel Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.clicktravel.infrastructure.persistence.aws.dynamodb;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.Map.Entry;
+
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDbAttributeCompressor;
+import com.clicktravel.cheddar.infrastructure.persistence.database.Item;
+import com.clicktravel.cheddar.infrastructure.persistence.database.configuration.DocumentEncoding;
+import com.clicktravel.cheddar.infrastructure.persistence.exception.PersistenceResourceFailureException;
+import com.fasterxml.jackson.core.Base64Variants;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+
+/**
+ * Converts between {@link Item} objects and DynamoDB document API items through Jackson token buffers and trees,
+ * without an intermediate JSON string. Values are converted to exactly the types which writing the tree as JSON and parsing it
+ * back would give, so documents are identical to those produced through {@code Item.fromJSON} and
+ * {@code Item.toJSON}.
+ */
+class DocumentItemConverter {
+
+    /**
+     * Attribute holding the whole document as CBOR, see {@link DocumentEncoding#BINARY}
+     */
+    static final String CBOR_DOCUMENT_ATTRIBUTE = "_cbor";
+
+    private final ObjectMapper mapper;
+    private final ObjectMapper cborMapper;
+    private final JsonNodeFactory nodeFactory;
+
+    DocumentItemConverter(final ObjectMapper mapper) {
+        this.mapper = mapper;
+        cborMapper = new ObjectMapper(new CBORFactory());
+        nodeFactory = mapper.getNodeFactory();
+    }
+
+    com.amazonaws.services.dynamodbv2.document.Item toDocument(final Item item) {
+        return toDocument(toJsonNode(item));
+    }
+
+    @SuppressWarnings("unchecked")
+    com.amazonaws.services.dynamodbv2.document.Item toDocument(final JsonNode jsonNode) {
+        return com.amazonaws.services.dynamodbv2.document.Item.fromMap((Map<String, Object>) toValue(jsonNode));
+    }
+
+    /**
+     * @param jsonNode Item as a tree
+     * @param attributeNames Names of the top level attributes also held as separate attributes
+     * @return Document holding the whole item as a single CBOR attribute, and the named attributes
+     */
+    com.amazonaws.services.dynamodbv2.document.Item toBinaryDocument(final JsonNode jsonNode,
+            final Collection<String> attributeNames) {
+        final ObjectNode attributesNode = nodeFactory.objectNode();
+        for (final String attributeName : attributeNames) {
+            final JsonNode attributeNode = jsonNode.get(attributeName);
+            if (attributeNode != null) {
+                attributesNode.set(attributeName, attributeNode);
+            }
+        }
+        try {
+            return toDocument(attributesNode).withBinary(CBOR_DOCUMENT_ATTRIBUTE,
+                    cborMapper.writeValueAsBytes(jsonNode));
+        } catch (final JsonProcessingException e) {
+            throw new PersistenceResourceFailureException("Failure converting item to document", e);
+        }
+    }
+
+    <T extends Item> T toItem(final com.amazonaws.services.dynamodbv2.document.Item document,
+            final Class<T> itemClass) {
+        return toItem(toJsonNode(document), itemClass);
+    }
+
+    <T extends Item> T toItem(final JsonNode jsonNode, final Class<T> itemClass) {
+        try {
+            return mapper.treeToValue(jsonNode, itemClass);
+        } catch (final JsonProcessingException e) {
+            throw new PersistenceResourceFailureException("Failure converting document to item", e);
+        }
+    }
+
+    JsonNode toJsonNode(final Item item) {
+        try {
+            return toNode(serialize(item));
+        } catch (final IOException e) {
+            throw new PersistenceResourceFailureException("Failure converting item to document", e);
+        }
+    }
+
+    /**
+     * Reads a document held either as attributes or as a single CBOR attribute
+     */
+    JsonNode toJsonNode(final com.amazonaws.services.dynamodbv2.document.Item document) {
+        if (document.isPresent(CBOR_DOCUMENT_ATTRIBUTE)) {
+            try {
+                return cborMapper.readTree(document.getBinary(CBOR_DOCUMENT_ATTRIBUTE));
+            } catch (final IOException e) {
+                throw new PersistenceResourceFailureException("Failure converting document to item", e);
+            }
+        }
+        return toNode(document.asMap());
+    }
+
+    private TokenBuffer serialize(final Object value) throws IOException {
+        final TokenBuffer tokenBuffer = new TokenBuffer(mapper, false);
+        mapper.writeValue(tokenBuffer, value);
+        return tokenBuffer;
+    }
+
+    /**
+     * Reads serialized tokens into a tree, keeping floating point values as the text a JSON generator would have
+     * written for them.
+     */
+    private JsonNode toNode(final TokenBuffer tokenBuffer) throws IOException {
+        try (final JsonParser parser = tokenBuffer.asParser()) {
+            parser.nextToken();
+            return readNode(parser);
+        }
+    }
+
+    private JsonNode readNode(final JsonParser parser) throws IOException {
+        switch (parser.getCurrentToken()) {
+            case START_OBJECT:
+                final ObjectNode objectNode = nodeFactory.objectNode();
+                while (parser.nextToken() != JsonToken.END_OBJECT) {
+                    final String fieldName = parser.getCurrentName();
+                    parser.nextToken();
+                    objectNode.set(fieldName, readNode(parser));
+                }
+                return objectNode;
+            case START_ARRAY:
+                final ArrayNode arrayNode = nodeFactory.arrayNode();
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    arrayNode.add(readNode(parser));
+                }
+                return arrayNode;
+            case VALUE_STRING:
+                return nodeFactory.textNode(parser.getText());
+            case VALUE_NUMBER_INT:
+                return integralNode(parser.getBigIntegerValue());
+            case VALUE_NUMBER_FLOAT:
+                switch (parser.getNumberType()) {
+                    case FLOAT:
+                        return nodeFactory.numberNode(Double.parseDouble(Float.toString(parser.getFloatValue())));
+                    case BIG_DECIMAL:
+                        return nodeFactory.numberNode(Double.parseDouble(parser.getDecimalValue().toString()));
+                    default:
+                        return nodeFactory.numberNode(parser.getDoubleValue());
+                }
+            case VALUE_TRUE:
+            case VALUE_FALSE:
+                return nodeFactory.booleanNode(parser.getBooleanValue());
+            case VALUE_EMBEDDED_OBJECT:
+                final Object embeddedObject = parser.getEmbeddedObject();
+                if (embeddedObject instanceof byte[]) {
+                    return nodeFactory.textNode(Base64Variants.getDefaultVariant().encode((byte[]) embeddedObject));
+                }
+                return embeddedObject == null ? nodeFactory.nullNode() : toNode(serialize(embeddedObject));
+            default:
+                return nodeFactory.nullNode();
+        }
+    }
+
+    private Object toValue(final JsonNode node) {
+        if (node.isObject()) {
+            final Map<String, Object> map = new LinkedHashMap<>();
+            final Iterator<Entry<String, JsonNode>> fields = node.fields();
+            while (fields.hasNext()) {
+                final Entry<String, JsonNode> field = fields.next();
+                map.put(field.getKey(), toValue(field.getValue()));
+            }
+            return map;
+        } else if (node.isArray()) {
+            final List<Object> list = new ArrayList<>(node.size());
+            for (final JsonNode element : node) {
+                list.add(toValue(element));
+            }
+            return list;
+        } else if (node.isTextual()) {
+            return node.textValue();
+        } else if (node.isBoolean()) {
+            return node.booleanValue();
+        } else if (node.isNumber()) {
+            return node.numberValue();
+        }
+        return null;
+    }
+
+    private JsonNode toNode(final Object value) {
+        if (value == null) {
+            return nodeFactory.nullNode();
+        } else if (value instanceof Map) {
+            final ObjectNode objectNode = nodeFactory.objectNode();
+            for (final Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                objectNode.set(String.valueOf(entry.getKey()), toNode(entry.getValue()));
+            }
+            return objectNode;
+        } else if (value instanceof Collection) {
+            final ArrayNode arrayNode = nodeFactory.arrayNode();
+            for (final Object element : (Collection<?>) value) {
+                arrayNode.add(toNode(element));
+            }
+            return arrayNode;
+        } else if (value instanceof String) {
+            return nodeFactory.textNode((String) value);
+        } else if (value instanceof Boolean) {
+            return nodeFactory.booleanNode((Boolean) value);
+        } else if (value instanceof Number) {
+            return numberNode((Number) value);
+        } else if (value instanceof byte[]) {
+            return binaryNode((byte[]) value);
+        } else if (value instanceof ByteBuffer) {
+            final ByteBuffer byteBuffer = ((ByteBuffer) value).duplicate();
+            final byte[] bytes = new byte[byteBuffer.remaining()];
+            byteBuffer.get(bytes);
+            return binaryNode(bytes);
+        }
+        try {
+            return toNode(serialize(value));
+        } catch (final IOException e) {
+            throw new PersistenceResourceFailureException("Failure converting document value", e);
+        }
+    }
+
+    /**
+     * Binary values are only stored in documents as compressed strings, see {@link DynamoDbAttributeCompressor}
+     */
+    private JsonNode binaryNode(final byte[] bytes) {
+        if (DynamoDbAttributeCompressor.isCompressed(bytes)) {
+            return nodeFactory.textNode(DynamoDbAttributeCompressor.decompress(bytes));
+        }
+        return nodeFactory.textNode(Base64Variants.getDefaultVariant().encode(bytes));
+    }
+
+    /**
+     * A number written as JSON is parsed back as a floating point value if its text has a fraction or exponent, and
+     * otherwise as the smallest integral type holding it.
+     */
+    private JsonNode numberNode(final Number number) {
+        final String text = number.toString();
+        if (text.indexOf('.') >= 0 || text.indexOf('e') >= 0 || text.indexOf('E') >= 0) {
+            return nodeFactory.numberNode(Double.parseDouble(text));
+        }
+        return integralNode(new BigInteger(text));
+    }
+
+    private JsonNode integralNode(final BigInteger value) {
+        if (value.bitLength() < Integer.SIZE) {
+            return nodeFactory.numberNode(value.intValue());
+        } else if (value.bitLength() < Long.SIZE) {
+            return nodeFactory.numberNode(value.longValue());
+        }
+        return nodeFactory.numberNode(value);
+    }
+
+}
@@ -21,14 +21,19 @@ import static com.amazonaws.services.dynamodbv2.datamodeling.DynamoDbPropertyMar
 import java.beans.PropertyDescriptor;
 import java.util.*;
 import java.util.Map.Entry;
+import java.util.concurrent.Callable;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.amazonaws.AmazonServiceException;
-import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDbPropertyMarshaller;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDbPropertyCodec;
 import com.amazonaws.services.dynamodbv2.model.*;
+import com.clicktravel.cheddar.infrastructure.persistence.database.AsyncBatchDatabaseTemplate;
 import com.clicktravel.cheddar.infrastructure.persistence.database.BatchDatabaseTemplate;
+import com.clicktravel.cheddar.infrastructure.persistence.database.ExecutorAsyncBatchDatabaseTemplate;
 import com.clicktravel.cheddar.infrastructure.persistence.database.Item;
 import com.clicktravel.cheddar.infrastructure.persistence.database.ItemId;
 import com.clicktravel.cheddar.infrastructure.persistence.database.configuration.*;
@@ -42,10 +47,32 @@ import com.clicktravel.cheddar.infrastructure.persistence.exception.PersistenceR
 @Deprecated
 public class DynamoDbTemplate extends AbstractDynamoDbTemplate implements BatchDatabaseTemplate {
 
+    private static final int DEFAULT_ITEM_SNAPSHOT_CAPACITY = 1000;
+    private static final String CREATION_TOKEN_ATTRIBUTE = "_creationToken";
+
     private final Logger logger = LoggerFactory.getLogger(this.getClass());
+    private volatile ItemSnapshots itemSnapshots;
 
     public DynamoDbTemplate(final DatabaseSchemaHolder databaseSchemaHolder) {
         super(databaseSchemaHolder);
+        itemSnapshots = new ItemSnapshots(DEFAULT_ITEM_SNAPSHOT_CAPACITY);
+    }
+
+    /**
+     * Sets the number of items whose stored attributes are remembered after being read or written, so that a later
+     * update of one of them only sends the attributes which have changed. Items not remembered are updated in full.
+     * @param capacity Number of items to remember, or 0 to always update items in full
+     */
+    public void setItemSnapshotCapacity(final int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Item snapshot capacity must not be negative");
+        }
+        itemSnapshots = new ItemSnapshots(capacity);
+    }
+
+    @Override
+    public AsyncBatchDatabaseTemplate async() {
+        return new ExecutorAsyncBatchDatabaseTemplate(this, asyncExecutor());
     }
 
     @Override
@@ -53,6 +80,7 @@ public class DynamoDbTemplate extends AbstractDynamoDbTemplate implements BatchD
         final Map<String, AttributeValue> attributeMap = readRaw(itemId, itemClass);
         try {
             final T item = marshallIntoObject(itemClass, attributeMap);
+            itemSnapshots.put(tableName(getItemConfiguration(itemClass)), itemId, item.getVersion(), attributeMap);
             return item;
         } catch (final ItemClassDiscriminatorMismatchException e) {
             throw new NonExistentItemException(
@@ -61,6 +89,29 @@ public class DynamoDbTemplate extends AbstractDynamoDbTemplate implements BatchD
 
     }
 
+    /**
+     * Reads only the key, any variant discriminator and the named properties of the item, using a projection
+     * expression
+     */
+    @Override
+    public <T extends Item> T read(final ItemId itemId, final Class<T> itemClass,
+            final Collection<String> propertyNames) throws NonExistentItemException {
+        final ItemConfiguration itemConfiguration = getItemConfiguration(itemClass);
+        checkPropertyNames(itemConfiguration, propertyNames);
+        final Map<String, String> expressionAttributeNames = new HashMap<>();
+        final GetItemRequest getItemRequest = new GetItemRequest(tableName(itemConfiguration),
+                generateKey(itemId, itemConfiguration))
+                        .withProjectionExpression(projectionExpression(
+                                projectionAttributeNames(itemConfiguration, propertyNames), expressionAttributeNames))
+                        .withExpressionAttributeNames(expressionAttributeNames);
+        try {
+            return marshallIntoObject(itemClass, readRaw(getItemRequest, itemId, itemClass));
+        } catch (final ItemClassDiscriminatorMismatchException e) {
+            throw new NonExistentItemException(
+                    String.format("The item of type [%s] with id [%s] does not exist", itemClass.getName(), itemId));
+        }
+    }
+
     private Map<String, AttributeValue> readRaw(final ItemId itemId, final Class<? extends Item> itemClass) {
         return readRaw(itemId, itemClass, Collections.<String> emptyList());
     }
@@ -74,7 +125,12 @@ public class DynamoDbTemplate extends AbstractDynamoDbTemplate implements BatchD
             getItemRequest.withAttributesToGet(attributes);
 
         }
+        return readRaw(getItemRequest, itemId, itemClass);
+    }
 
+    private Map<String, AttributeValue> readRaw(final GetItemRequest getItemRequest, final ItemId itemId,
+            final Class<? extends Item> itemClass) {
+        final String tableName = getItemRequest.getTableName();
         final GetItemResult getItemResult;
         try {
             getItemResult = amazonDynamoDbClient.getItem(getItemRequest);
@@ -145,20 +201,15 @@ public class DynamoDbTemplate extends AbstractDynamoDbTemplate implements BatchD
             }
         }
         try {
-            final T item = actualItemClass.newInstance();
-            for (final PropertyDescriptor propertyDescriptor : itemConfiguration.propertyDescriptors()) {
-                final AttributeValue attributeValue = itemAttributeMap.get(propertyDescriptor.getName());
-                DynamoDbPropertyMarshaller.setValue(item, propertyDescriptor, attributeValue);
-            }
-            return item;
+            return getItemCodec(itemConfiguration).decode(actualItemClass.newInstance(), itemAttributeMap);
         } catch (final Exception e) {
             throw new IllegalStateException(e);
         }
     }
 
-    private <T extends Item> Collection<T> marshallIntoObjects(final Class<T> itemClass,
+    private <T extends Item> List<T> marshallIntoObjects(final Class<T> itemClass,
             final Collection<Map<String, AttributeValue>> itemAttributeMaps) {
-        final Collection<T> items = new ArrayList<>();
+        final List<T> items = new ArrayList<>();
         for (final Map<String, AttributeValue> itemAttributeMap : itemAttributeMaps) {
             try {
                 final T item = marshallIntoObject(itemClass, itemAttributeMap);
@@ -170,6 +221,12 @@ public class DynamoDbTemplate extends AbstractDynamoDbTemplate implements BatchD
         return items;
     }
 
+    @Override
+    protected <T extends Item> List<T> toItems(final List<Map<String, AttributeValue>> itemAttributeMaps,
+            final Class<T> itemClass) {
+        return marshallIntoObjects(itemClass, itemAttributeMaps);
+    }
+
     @Override
     public <T extends Item> T create(final T item,
             final PersistenceExceptionHandler<?>... persistenceExceptionHandlers) {
@@ -179,6 +236,7 @@ public class DynamoDbTemplate extends AbstractDynamoDbTemplate implements BatchD
         final Map<String, ExpectedAttributeValue> expectedResults = new HashMap<>();
         expectedResults.put(itemConfiguration.primaryKeyDefinition().propertyName(), new ExpectedAttributeValue(false));
         final Map<String, AttributeValue> attributeMap = getAttributeMap(item, itemConfiguration, 1l);
+        attributeMap.put(CREATION_TOKEN_ATTRIBUTE, new AttributeValue(UUID.randomUUID().toString()));
         final String tableName = databaseSchemaHolder.schemaName() + "." + itemConfiguration.tableName();
         final PutItemRequest itemRequest = new PutItemRequest().withTableName(tableName).withItem(attributeMap)
                 .withExpected(expectedResults);
@@ -202,6 +260,7 @@ public class DynamoDbTemplate extends AbstractDynamoDbTemplate implements BatchD
                 }
             }
         }
+        itemSnapshots.put(tableName, itemConfiguration.getItemId(item), 1l, withoutNullValues(attributeMap));
         item.setVersion(1l);
         return item;
     }
@@ -209,12 +268,12 @@ public class DynamoDbTemplate extends AbstractDynamoDbTemplate implements BatchD
     private Map<String, AttributeValue> getAttributeMap(final Item item, final ItemConfiguration itemConfiguration,
             final Long version) {
         final Map<String, AttributeValue> attributeMap = new HashMap<>();
-        for (final PropertyDescriptor propertyDescriptor : itemConfiguration.propertyDescriptors()) {
-            final String propertyName = propertyDescriptor.getName();
+        for (final DynamoDbPropertyCodec propertyCodec : getItemCodec(itemConfiguration).propertyCodecs()) {
+            final String propertyName = propertyCodec.propertyName();
             if (propertyName.equals(VERSION_ATTRIBUTE)) {
                 attributeMap.put(propertyName, new AttributeValue().withN(String.valueOf(version)));
-            } else if (propertyDescriptor.getWriteMethod() != null) {
-                final AttributeValue attributeValue = DynamoDbPropertyMarshaller.getValue(item, propertyDescriptor);
+            } else if (propertyCodec.isWritable()) {
+                final AttributeValue attributeValue = propertyCodec.getValue(item);
                 if (attributeMap != null) {
                     attributeMap.put(propertyName, attributeValue);
                 }
@@ -228,32 +287,59 @@ public class DynamoDbTemplate extends AbstractDynamoDbTemplate implements BatchD
         return attributeMap;
     }
 
-    private Map<String, AttributeValueUpdate> getAttributeUpdateMap(final Item item,
-            final ItemConfiguration itemConfiguration, final Long version) {
-        final Map<String, AttributeValueUpdate> attributeMap = new HashMap<>();
-        for (final PropertyDescriptor propertyDescriptor : itemConfiguration.propertyDescriptors()) {
-            final String propertyName = propertyDescriptor.getName();
-            if (propertyName.equals(VERSION_ATTRIBUTE)) {
-                attributeMap.put(propertyName, new AttributeValueUpdate().withAction(AttributeAction.PUT)
-                        .withValue(new AttributeValue().withN(String.valueOf(version))));
-            } else if (propertyDescriptor.getWriteMethod() != null) {
-                final AttributeValue attributeValue = DynamoDbPropertyMarshaller.getValue(item, propertyDescriptor);
-                if (attributeMap != null) {
-                    // TODO Only add to attribute map if there is a difference
-                    if (attributeValue != null) {
-                        attributeMap.put(propertyName,
-                                new AttributeValueUpdate().withAction(AttributeAction.PUT).withValue(attributeValue));
-                    } else {
-                        attributeMap.put(propertyName, new AttributeValueUpdate().withAction(AttributeAction.DELETE));
-                    }
+    /**
+     * @param attributeMap Attributes of the item to store
+     * @param previousAttributeMap Attributes of the item currently stored, or {@code null} if not known
+     * @param changedPropertyNames Names of the only properties which may have changed, or {@code null} if not known
+     * @return Updates for the version attribute and each attribute which may have changed
+     */
+    private Map<String, AttributeValueUpdate> getAttributeUpdateMap(final Map<String, AttributeValue> attributeMap,
+            final Map<String, AttributeValue> previousAttributeMap, final Collection<String> changedPropertyNames) {
+        final Map<String, AttributeValueUpdate> attributeUpdateMap = new HashMap<>();
+        for (final Entry<String, AttributeValue> entry : attributeMap.entrySet()) {
+            final String propertyName = entry.getKey();
+            final AttributeValue attributeValue = entry.getValue();
+            if (!propertyName.equals(VERSION_ATTRIBUTE)) {
+                if (changedPropertyNames != null && !changedPropertyNames.contains(propertyName)) {
+                    continue;
+                }
+                if (previousAttributeMap != null
+                        && ItemSnapshots.sameValue(attributeValue, previousAttributeMap.get(propertyName))) {
+                    continue;
                 }
             }
+            if (attributeValue != null) {
+                attributeUpdateMap.put(propertyName,
+                        new AttributeValueUpdate().withAction(AttributeAction.PUT).withValue(attributeValue));
+            } else {
+                attributeUpdateMap.put(propertyName, new AttributeValueUpdate().withAction(AttributeAction.DELETE));
+            }
         }
-        if (VariantItemConfiguration.class.isAssignableFrom(itemConfiguration.getClass())) {
-            final VariantItemConfiguration variantItemConfiguration = (VariantItemConfiguration) itemConfiguration;
-            attributeMap.put(variantItemConfiguration.parentItemConfiguration().discriminator(),
-                    new AttributeValueUpdate().withAction(AttributeAction.PUT)
-                            .withValue(new AttributeValue(variantItemConfiguration.discriminatorValue())));
+        return attributeUpdateMap;
+    }
+
+    private static Map<String, AttributeValue> withoutNullValues(final Map<String, AttributeValue> attributeMap) {
+        final Map<String, AttributeValue> attributeMapWithoutNullValues = new HashMap<>();
+        for (final Entry<String, AttributeValue> entry : attributeMap.entrySet()) {
+            if (entry.getValue() != null) {
+                attributeMapWithoutNullValues.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return attributeMapWithoutNullValues;
+    }
+
+    /**
+     * @return The attributes stored once the updates have been applied to the previous attributes
+     */
+    private static Map<String, AttributeValue> applyUpdates(final Map<String, AttributeValue> previousAttributeMap,
+            final Map<String, AttributeValueUpdate> attributeUpdateMap) {
+        final Map<String, AttributeValue> attributeMap = new HashMap<>(previousAttributeMap);
+        for (final Entry<String, AttributeValueUpdate> entry : attributeUpdateMap.entrySet()) {
+            if (AttributeAction.DELETE.toString().equals(entry.getValue().getAction())) {
+                attributeMap.remove(entry.getKey());
+            } else {
+                attributeMap.put(entry.getKey(), entry.getValue().getValue());
+            }
         }
         return attributeMap;
     }
@@ -261,59 +347,206 @@ public class DynamoDbTemplate extends AbstractDynamoDbTemplate implements BatchD
     @Override
     public <T extends Item> T update(final T item,
             final PersistenceExceptionHandler<?>... persistenceExceptionHandlers) {
+        return update(item, null, persistenceExceptionHandlers);
+    }
+
+    /**
+     * Updates the item, sending only the given properties and the version. The caller is responsible for naming every
+     * property changed since the item was read; other changes are not written. Without a list of changed properties
+     * the update sends the attributes which differ from those last read, created or partially updated by this template
+     * for the same version of the item, or all attributes if that version is not remembered.
+     * @param item Item to update
+     * @param changedPropertyNames Names of the properties changed since the item was read, or {@code null} if not
+     *            known
+     * @param persistenceExceptionHandlers Handlers for exceptions
+     * @return The updated item
+     */
+    public <T extends Item> T update(final T item, final Collection<String> changedPropertyNames,
+            final PersistenceExceptionHandler<?>... persistenceExceptionHandlers) {
         final ItemConfiguration itemConfiguration = getItemConfiguration(item.getClass());
         if (item.getVersion() == null) {
             return create(item);
         }
-        final Collection<PropertyDescriptor> updatedUniqueConstraintPropertyDescriptors = new HashSet<>();
-        T previousItem = null;
-        if (!itemConfiguration.uniqueConstraints().isEmpty()) {
-            final ItemId itemId = itemConfiguration.getItemId(item);
-            previousItem = readWithOnlyUniqueConstraintProperties(itemId, itemConfiguration);
-            final Collection<UniqueConstraint> updatedUniqueConstraints = getUpdatedUniqueConstraints(item,
-                    previousItem, itemConfiguration);
-            for (final UniqueConstraint uniqueConstraint : updatedUniqueConstraints) {
-                updatedUniqueConstraintPropertyDescriptors.add(uniqueConstraint.propertyDescriptor());
-            }
-            createUniqueConstraintIndexes(item, itemConfiguration, updatedUniqueConstraintPropertyDescriptors);
+        if (changedPropertyNames != null) {
+            checkPropertyNames(itemConfiguration, changedPropertyNames);
         }
+        return update(item, itemConfiguration, changedPropertyNames, false);
+    }
+
+    /**
+     * Updates the item. Index entries for changed unique constraint values are put in parallel before the update, and
+     * those for the replaced values are deleted in parallel after it. Unless {@code readUniqueConstraints} is set, the
+     * replaced values are returned by the update itself rather than read beforehand; a new value which is already
+     * indexed is then expected to be held by the item, and the update is retried reading the stored values first if
+     * it is not.
+     * @param readUniqueConstraints {@code true} to read the stored unique constraint values before the update
+     */
+    private <T extends Item> T update(final T item, final ItemConfiguration itemConfiguration,
+            final Collection<String> changedPropertyNames, final boolean readUniqueConstraints) {
         final long newVersion = item.getVersion() + 1;
-        final Map<String, AttributeValueUpdate> attributeMap = getAttributeUpdateMap(item, itemConfiguration,
-                newVersion);
+        final String tableName = databaseSchemaHolder.schemaName() + "." + itemConfiguration.tableName();
+        final ItemId itemId = itemConfiguration.getItemId(item);
+        final Map<String, AttributeValue> snapshotAttributeMap = itemSnapshots.get(tableName, itemId,
+                item.getVersion());
+        final AttributeValue snapshotCreationToken = snapshotAttributeMap == null ? null
+                : snapshotAttributeMap.get(CREATION_TOKEN_ATTRIBUTE);
+        // A snapshot can only be trusted if the update can expect the creation token it was taken with
+        final Map<String, AttributeValue> previousAttributeMap = snapshotCreationToken == null ? null
+                : snapshotAttributeMap;
+        final Map<String, AttributeValue> itemAttributeMap = getAttributeMap(item, itemConfiguration, newVersion);
+        final Map<String, AttributeValueUpdate> attributeMap = getAttributeUpdateMap(itemAttributeMap,
+                previousAttributeMap, changedPropertyNames);
         final Map<String, ExpectedAttributeValue> expectedResults = new HashMap<>();
         expectedResults.put(VERSION_ATTRIBUTE,
                 new ExpectedAttributeValue(new AttributeValue().withN(String.valueOf(item.getVersion()))));
-        final String tableName = databaseSchemaHolder.schemaName() + "." + itemConfiguration.tableName();
-        final Map<String, AttributeValue> key = generateKey(itemConfiguration.getItemId(item), itemConfiguration);
+        if (previousAttributeMap != null) {
+            expectedResults.put(CREATION_TOKEN_ATTRIBUTE, new ExpectedAttributeValue(snapshotCreationToken));
+        }
+        final Map<String, AttributeValue> key = generateKey(itemId, itemConfiguration);
         for (final Entry<String, AttributeValue> entry : key.entrySet()) {
             attributeMap.remove(entry.getKey());
         }
+        Map<String, AttributeValue> createdUniqueConstraintValues = Collections.emptyMap();
+        Map<String, AttributeValue> previousUniqueConstraintValues = Collections.emptyMap();
+        boolean uniqueConstraintValueAlreadyIndexed = false;
+        if (readUniqueConstraints) {
+            final T previousItem = readWithOnlyUniqueConstraintProperties(itemId, itemConfiguration);
+            final Collection<PropertyDescriptor> updatedUniqueConstraintPropertyDescriptors = new HashSet<>();
+            for (final UniqueConstraint uniqueConstraint : getUpdatedUniqueConstraints(item, previousItem,
+                    itemConfiguration)) {
+                updatedUniqueConstraintPropertyDescriptors.add(uniqueConstraint.propertyDescriptor());
+            }
+            createUniqueConstraintIndexes(item, itemConfiguration, updatedUniqueConstraintPropertyDescriptors);
+            createdUniqueConstraintValues = uniqueConstraintValues(item, itemConfiguration,
+                    updatedUniqueConstraintPropertyDescriptors);
+            previousUniqueConstraintValues = uniqueConstraintValues(previousItem, itemConfiguration,
+                    updatedUniqueConstraintPropertyDescriptors);
+        } else if (!itemConfiguration.uniqueConstraints().isEmpty()) {
+            createdUniqueConstraintValues = updatedUniqueConstraintValues(itemConfiguration, attributeMap,
+                    previousAttributeMap);
+            final Map<String, RuntimeException> failures = putUniqueConstraintIndexes(itemConfiguration,
+                    createdUniqueConstraintValues);
+            final Map<String, RuntimeException> resourceFailures = new LinkedHashMap<>();
+            for (final Entry<String, RuntimeException> failure : failures.entrySet()) {
+                final AttributeValue uniqueConstraintValue = createdUniqueConstraintValues.remove(failure.getKey());
+                if (failure.getValue() instanceof ConditionalCheckFailedException) {
+                    expectedResults.put(failure.getKey(), new ExpectedAttributeValue(uniqueConstraintValue));
+                    uniqueConstraintValueAlreadyIndexed = true;
+                } else {
+                    resourceFailures.put(failure.getKey(), failure.getValue());
+                }
+            }
+            if (!resourceFailures.isEmpty()) {
+                deleteUniqueConstraintIndexesQuietly(itemConfiguration, createdUniqueConstraintValues);
+                throw uniqueConstraintIndexFailure(item, itemConfiguration, resourceFailures);
+            }
+        }
         final UpdateItemRequest itemRequest = new UpdateItemRequest().withTableName(tableName).withKey(key)
                 .withAttributeUpdates(attributeMap).withExpected(expectedResults);
+        if (!readUniqueConstraints && !itemConfiguration.uniqueConstraints().isEmpty()) {
+            itemRequest.setReturnValues(ReturnValue.UPDATED_OLD);
+        }
+        UpdateItemResult itemResult = null;
         boolean itemRequestSucceeded = false;
         try {
-            amazonDynamoDbClient.updateItem(itemRequest);
+            itemResult = amazonDynamoDbClient.updateItem(itemRequest);
             itemRequestSucceeded = true;
         } catch (final ConditionalCheckFailedException conditionalCheckFailedException) {
-            throw new OptimisticLockException("Conflicting write detected while updating item");
+            itemSnapshots.remove(tableName, itemId);
+            if (!uniqueConstraintValueAlreadyIndexed && previousAttributeMap == null) {
+                throw new OptimisticLockException("Conflicting write detected while updating item");
+            }
         } catch (final AmazonServiceException amazonServiceException) {
             throw new PersistenceResourceFailureException(
                     "Failure while attempting DynamoDb Put (update item: " + tableName + ")", amazonServiceException);
         } finally {
             if (!itemRequestSucceeded) {
-                try {
-                    deleteUniqueConstraintIndexes(item, itemConfiguration, updatedUniqueConstraintPropertyDescriptors);
-                } catch (final Exception deleteUniqueConstraintIndexesException) {
-                    logger.error(deleteUniqueConstraintIndexesException.getMessage(),
-                            deleteUniqueConstraintIndexesException);
-                }
+                deleteUniqueConstraintIndexesQuietly(itemConfiguration, createdUniqueConstraintValues);
             }
         }
-        deleteUniqueConstraintIndexes(previousItem, itemConfiguration, updatedUniqueConstraintPropertyDescriptors);
+        if (!itemRequestSucceeded) {
+            // The version, the creation token of the snapshot or an already indexed unique constraint value differs
+            // from the stored item; the snapshot is discarded so the retry updates all attributes
+            return update(item, itemConfiguration, changedPropertyNames,
+                    readUniqueConstraints || uniqueConstraintValueAlreadyIndexed);
+        }
+        if (itemResult != null && itemResult.getAttributes() != null) {
+            previousUniqueConstraintValues = replacedUniqueConstraintValues(itemConfiguration, itemAttributeMap,
+                    attributeMap, itemResult.getAttributes());
+        }
+        deleteUniqueConstraintIndexes(itemConfiguration, previousUniqueConstraintValues);
+        if (previousAttributeMap != null) {
+            itemSnapshots.put(tableName, itemId, newVersion, applyUpdates(previousAttributeMap, attributeMap));
+        } else {
+            itemSnapshots.remove(tableName, itemId);
+        }
         item.setVersion(newVersion);
         return item;
     }
 
+    /**
+     * @return The new values of the unique constraint properties being updated, by property name, excluding any value
+     *         known to be indexed for the item already
+     */
+    private static Map<String, AttributeValue> updatedUniqueConstraintValues(
+            final ItemConfiguration itemConfiguration, final Map<String, AttributeValueUpdate> attributeUpdateMap,
+            final Map<String, AttributeValue> previousAttributeMap) {
+        final Map<String, AttributeValue> uniqueConstraintValues = new LinkedHashMap<>();
+        for (final UniqueConstraint uniqueConstraint : itemConfiguration.uniqueConstraints()) {
+            final String propertyName = uniqueConstraint.propertyName();
+            final AttributeValueUpdate attributeValueUpdate = attributeUpdateMap.get(propertyName);
+            if (attributeValueUpdate == null || attributeValueUpdate.getValue() == null) {
+                continue;
+            }
+            if (previousAttributeMap != null && sameUniqueConstraintValue(attributeValueUpdate.getValue(),
+                    previousAttributeMap.get(propertyName))) {
+                continue;
+            }
+            uniqueConstraintValues.put(propertyName, attributeValueUpdate.getValue());
+        }
+        return uniqueConstraintValues;
+    }
+
+    /**
+     * @return The previous values of the updated unique constraint properties whose index entries are replaced, by
+     *         property name
+     */
+    private static Map<String, AttributeValue> replacedUniqueConstraintValues(
+            final ItemConfiguration itemConfiguration, final Map<String, AttributeValue> itemAttributeMap,
+            final Map<String, AttributeValueUpdate> attributeUpdateMap,
+            final Map<String, AttributeValue> previousAttributeMap) {
+        final Map<String, AttributeValue> uniqueConstraintValues = new LinkedHashMap<>();
+        for (final UniqueConstraint uniqueConstraint : itemConfiguration.uniqueConstraints()) {
+            final String propertyName = uniqueConstraint.propertyName();
+            final AttributeValue previousAttributeValue = previousAttributeMap.get(propertyName);
+            if (attributeUpdateMap.containsKey(propertyName) && previousAttributeValue != null
+                    && !sameUniqueConstraintValue(previousAttributeValue, itemAttributeMap.get(propertyName))) {
+                uniqueConstraintValues.put(propertyName, previousAttributeValue);
+            }
+        }
+        return uniqueConstraintValues;
+    }
+
+    private void deleteUniqueConstraintIndexesQuietly(final ItemConfiguration itemConfiguration,
+            final Map<String, AttributeValue> uniqueConstraintValues) {
+        try {
+            deleteUniqueConstraintIndexes(itemConfiguration, uniqueConstraintValues);
+        } catch (final Exception deleteUniqueConstraintIndexesException) {
+            logger.error(deleteUniqueConstraintIndexesException.getMessage(), deleteUniqueConstraintIndexesException);
+        }
+    }
+
+    private void checkPropertyNames(final ItemConfiguration itemConfiguration, final Collection<String> propertyNames) {
+        final Collection<String> knownPropertyNames = new HashSet<>();
+        for (final DynamoDbPropertyCodec propertyCodec : getItemCodec(itemConfiguration).propertyCodecs()) {
+            knownPropertyNames.add(propertyCodec.propertyName());
+        }
+        if (!knownPropertyNames.containsAll(propertyNames)) {
+            throw new IllegalArgumentException(
+                    "Unknown property in " + propertyNames + " for item " + itemConfiguration.itemClass());
+        }
+    }
+
     @SuppressWarnings("unchecked")
     private <T extends Item> T readWithOnlyUniqueConstraintProperties(final ItemId itemId,
             final ItemConfiguration itemConfiguration) {
@@ -409,6 +642,8 @@ public class DynamoDbTemplate extends AbstractDynamoDbTemplate implements BatchD
         } catch (final AmazonServiceException e) {
             throw new PersistenceResourceFailureException(
                     "Failure while attempting DynamoDb Delete (" + tableName + "):", e);
+        } finally {
+            itemSnapshots.remove(tableName, itemId);
         }
 
         deleteUniqueConstraintIndexes(item, itemConfiguration);
@@ -416,12 +651,46 @@ public class DynamoDbTemplate extends AbstractDynamoDbTemplate implements BatchD
 
     @Override
     public <T extends Item> Collection<T> fetch(final Query query, final Class<T> itemClass) {
+        return fetch(query, itemClass, getItemConfiguration(itemClass).scanSegments());
+    }
+
+    /**
+     * Fetches the items matching the query, splitting any table scan required into the given number of segments which
+     * are read in parallel. The items returned are the same as for a sequential scan.
+     * @param query Query to execute
+     * @param itemClass Class of the items to fetch
+     * @param scanSegments Number of segments for a table scan, overriding the value in the {@link ItemConfiguration}
+     * @return The matching items
+     */
+    public <T extends Item> Collection<T> fetch(final Query query, final Class<T> itemClass, final int scanSegments) {
+        return fetch(query, itemClass, scanSegments, null);
+    }
+
+    /**
+     * Reads only the key, any variant discriminator and the named properties of each item. Query and Scan requests
+     * name the attributes to get, as their key conditions and scan filter cannot be combined with a projection
+     * expression; Batch Get Item requests use a projection expression.
+     */
+    @Override
+    public <T extends Item> Collection<T> fetch(final Query query, final Class<T> itemClass,
+            final Collection<String> propertyNames) {
+        final ItemConfiguration itemConfiguration = getItemConfiguration(itemClass);
+        checkPropertyNames(itemConfiguration, propertyNames);
+        return fetch(query, itemClass, itemConfiguration.scanSegments(),
+                projectionAttributeNames(itemConfiguration, propertyNames));
+    }
+
+    private <T extends Item> Collection<T> fetch(final Query query, final Class<T> itemClass, final int scanSegments,
+            final Collection<String> attributeNames) {
+        if (scanSegments < 1) {
+            throw new IllegalArgumentException("Scan segments must be at least 1");
+        }
         final long startTimeMillis = System.currentTimeMillis();
         Collection<T> result;
         if (query instanceof AttributeQuery) {
-            result = executeQuery((AttributeQuery) query, itemClass);
+            result = executeQuery((AttributeQuery) query, itemClass, scanSegments, attributeNames);
         } else if (query instanceof KeySetQuery) {
-            result = executeQuery((KeySetQuery) query, itemClass);
+            result = executeQuery((KeySetQuery) query, itemClass, attributeNames);
         } else {
             throw new UnsupportedQueryException(query.getClass());
         }
@@ -430,126 +699,412 @@ public class DynamoDbTemplate extends AbstractDynamoDbTemplate implements BatchD
         return result;
     }
 
-    private <T extends Item> Collection<T> executeQuery(final AttributeQuery query, final Class<T> itemClass) {
+    /**
+     * Reads Query or Scan pages limited to the number of items still needed, until the page is full or the matching
+     * items are exhausted, so a filtered read may take several requests. A Query orders items by the supporting
+     * attribute of the key or index queried; a table scan returns them in no particular order. The cursor encodes the
+     * last evaluated key, which is the exclusive start key of the request for the next page.
+     */
+    @Override
+    public <T extends Item> PagedResult<T> fetch(final Query query, final Class<T> itemClass,
+            final PageRequest pageRequest) {
+        if (!(query instanceof AttributeQuery)) {
+            throw new UnsupportedQueryException(query.getClass());
+        }
+        final AttributeQuery attributeQuery = (AttributeQuery) query;
+        final ItemConfiguration itemConfiguration = getItemConfiguration(itemClass);
+        Map<String, AttributeValue> exclusiveStartKey = PageCursors.decode(pageRequest.getCursor());
+        final Map<String, com.amazonaws.services.dynamodbv2.model.Condition> conditions = conditions(attributeQuery,
+                itemConfiguration);
+        if (conditions == null) {
+            return new PagedResult<>(new ArrayList<>(), null);
+        }
+        final boolean isIndexQuery = itemConfiguration.hasIndexOn(attributeQuery.getAttributeName());
+        final List<T> items = new ArrayList<>();
+        do {
+            final int limit = pageRequest.getLimit() - items.size();
+            final List<Map<String, AttributeValue>> itemAttributeMaps;
+            if (isIndexQuery) {
+                final QueryResult queryResult = query(queryRequest(attributeQuery, itemConfiguration, conditions, null)
+                        .withScanIndexForward(pageRequest.getSortOrder() == SortOrder.ASCENDING).withLimit(limit)
+                        .withExclusiveStartKey(exclusiveStartKey));
+                itemAttributeMaps = queryResult.getItems();
+                exclusiveStartKey = queryResult.getLastEvaluatedKey();
+            } else {
+                final ScanResult scanResult = scan(new ScanRequest().withTableName(tableName(itemConfiguration))
+                        .withScanFilter(conditions).withLimit(limit).withExclusiveStartKey(exclusiveStartKey));
+                itemAttributeMaps = scanResult.getItems();
+                exclusiveStartKey = scanResult.getLastEvaluatedKey();
+            }
+            if (itemAttributeMaps != null) {
+                items.addAll(marshallIntoObjects(itemClass, itemAttributeMaps));
+            }
+        } while (exclusiveStartKey != null && items.size() < pageRequest.getLimit());
+        return new PagedResult<>(items, PageCursors.encode(exclusiveStartKey));
+    }
+
+    /**
+     * Streams the items matching the query, reading one page of Query, Scan or Batch Get Item results at a time. A
+     * table scan is read sequentially, regardless of the scan segments configured, and an EQUALS condition with several
+     * values on a key or index is read one value at a time.
+     */
+    @Override
+    public <T extends Item> Stream<T> stream(final Query query, final Class<T> itemClass) {
+        if (query instanceof AttributeQuery) {
+            final AttributeQuery attributeQuery = (AttributeQuery) query;
+            final ItemConfiguration itemConfiguration = getItemConfiguration(itemClass);
+            final Map<String, com.amazonaws.services.dynamodbv2.model.Condition> conditions = conditions(
+                    attributeQuery, itemConfiguration);
+            if (conditions == null) {
+                return Stream.empty();
+            }
+            if (itemConfiguration.hasIndexOn(attributeQuery.getAttributeName())) {
+                final List<AttributeQuery> singleValueQueries = singleValueQueries(attributeQuery);
+                if (singleValueQueries != null) {
+                    return streamAll(singleValueQueries, itemClass,
+                            singleValueQuery -> stream(singleValueQuery, itemClass));
+                }
+                return streamPages(
+                        queryPages(attributeQuery, itemConfiguration, conditions, itemClass, null, null));
+            }
+            logger.debug("Performing table scan with query: " + query);
+            return streamPages(
+                    scanPages(tableName(itemConfiguration), conditions, itemClass, null, null, null, null));
+        } else if (query instanceof KeySetQuery) {
+            final KeySetQuery keySetQuery = (KeySetQuery) query;
+            if (keySetQuery.itemIds().isEmpty()) {
+                return Stream.empty();
+            }
+            final ItemConfiguration itemConfiguration = getItemConfiguration(itemClass);
+            return streamPages(keySetPages(tableName(itemConfiguration),
+                    keys(keySetQuery.itemIds(), itemConfiguration), itemClass, 0));
+        } else {
+            throw new UnsupportedQueryException(query.getClass());
+        }
+    }
+
+    /**
+     * Counts the items matching the query with Query or Scan requests which select only the count, so no items are
+     * returned; a table scan is split into the scan segments configured. Items of a variant class are counted by
+     * filtering on its discriminator. A key set query reads only the keys of the items.
+     */
+    @Override
+    public <T extends Item> long count(final Query query, final Class<T> itemClass) {
+        if (query instanceof KeySetQuery) {
+            return fetch(query, itemClass, Collections.<String> emptyList()).size();
+        }
+        if (!(query instanceof AttributeQuery)) {
+            throw new UnsupportedQueryException(query.getClass());
+        }
+        final AttributeQuery attributeQuery = (AttributeQuery) query;
+        final ItemConfiguration itemConfiguration = getItemConfiguration(itemClass);
+        final boolean isIndexQuery = itemConfiguration.hasIndexOn(attributeQuery.getAttributeName());
+        if (isIndexQuery) {
+            final List<AttributeQuery> singleValueQueries = singleValueQueries(attributeQuery);
+            if (singleValueQueries != null) {
+                return countAll(singleValueQueries, singleValueQuery -> count(singleValueQuery, itemClass));
+            }
+        }
+        final Map<String, com.amazonaws.services.dynamodbv2.model.Condition> conditions = conditions(attributeQuery,
+                itemConfiguration);
+        if (conditions == null) {
+            return 0;
+        }
+        if (itemConfiguration instanceof VariantItemConfiguration) {
+            final VariantItemConfiguration variantItemConfiguration = (VariantItemConfiguration) itemConfiguration;
+            conditions.put(variantItemConfiguration.parentItemConfiguration().discriminator(),
+                    new com.amazonaws.services.dynamodbv2.model.Condition()
+                            .withComparisonOperator(ComparisonOperator.EQ)
+                            .withAttributeValueList(new AttributeValue(variantItemConfiguration.discriminatorValue())));
+        }
+        if (isIndexQuery) {
+            return countQuery(
+                    queryRequest(attributeQuery, itemConfiguration, conditions, null).withSelect(Select.COUNT));
+        }
+        final String tableName = tableName(itemConfiguration);
+        final int scanSegments = itemConfiguration.scanSegments();
+        logger.debug("Performing table scan count with query: " + query + " in " + scanSegments + " segment(s)");
+        if (scanSegments == 1) {
+            return countScan(new ScanRequest().withTableName(tableName).withScanFilter(conditions)
+                    .withSelect(Select.COUNT));
+        }
+        final List<Callable<Long>> segmentScans = new ArrayList<>();
+        for (int segment = 0; segment < scanSegments; segment++) {
+            final ScanRequest scanRequest = new ScanRequest().withTableName(tableName).withScanFilter(conditions)
+                    .withSelect(Select.COUNT).withSegment(segment).withTotalSegments(scanSegments);
+            segmentScans.add(() -> countScan(scanRequest));
+        }
+        long count = 0;
+        for (final Long segmentCount : invokeAll(segmentScans)) {
+            count += segmentCount;
+        }
+        return count;
+    }
+
+    private long countQuery(final QueryRequest queryRequest) {
+        long count = 0;
+        Map<String, AttributeValue> exclusiveStartKey = null;
+        do {
+            final QueryResult queryResult = query(queryRequest.withExclusiveStartKey(exclusiveStartKey));
+            if (queryResult.getCount() != null) {
+                count += queryResult.getCount();
+            }
+            exclusiveStartKey = queryResult.getLastEvaluatedKey();
+        } while (exclusiveStartKey != null);
+        return count;
+    }
+
+    private long countScan(final ScanRequest scanRequest) {
+        long count = 0;
+        Map<String, AttributeValue> exclusiveStartKey = null;
+        do {
+            final ScanResult scanResult = scan(scanRequest.withExclusiveStartKey(exclusiveStartKey));
+            if (scanResult.getCount() != null) {
+                count += scanResult.getCount();
+            }
+            exclusiveStartKey = scanResult.getLastEvaluatedKey();
+        } while (exclusiveStartKey != null);
+        return count;
+    }
+
+    private <T extends Item> Collection<T> executeQuery(final AttributeQuery query, final Class<T> itemClass,
+            final int scanSegments, final Collection<String> attributeNames) {
         final ItemConfiguration itemConfiguration = getItemConfiguration(itemClass);
+        if (itemConfiguration.hasIndexOn(query.getAttributeName())) {
+            final List<AttributeQuery> singleValueQueries = singleValueQueries(query);
+            if (singleValueQueries != null) {
+                return fetchAll(singleValueQueries, itemClass,
+                        singleValueQuery -> executeQuery(singleValueQuery, itemClass, scanSegments, attributeNames));
+            }
+        }
+        final Map<String, com.amazonaws.services.dynamodbv2.model.Condition> conditions = conditions(query,
+                itemConfiguration);
+        if (conditions == null) {
+            return new ArrayList<>();
+        }
+        final List<T> totalItems = new ArrayList<>();
+        final String tableName = tableName(itemConfiguration);
+        if (itemConfiguration.hasIndexOn(query.getAttributeName())) {
+            totalItems.addAll(
+                    readAllPages(queryPages(query, itemConfiguration, conditions, itemClass, attributeNames, null)));
+        } else {
+            logger.debug("Performing table scan with query: " + query + " in " + scanSegments + " segment(s)");
+            if (scanSegments == 1) {
+                totalItems.addAll(
+                        readAllPages(scanPages(tableName, conditions, itemClass, attributeNames, null, null, null)));
+            } else {
+                final List<Callable<List<T>>> segmentScans = new ArrayList<>();
+                for (int segment = 0; segment < scanSegments; segment++) {
+                    final Integer scanSegment = segment;
+                    segmentScans.add(() -> readAllPages(scanPages(tableName, conditions, itemClass, attributeNames,
+                            scanSegment, scanSegments, null)));
+                }
+                for (final List<T> segmentItems : invokeAll(segmentScans)) {
+                    totalItems.addAll(segmentItems);
+                }
+            }
+        }
+
+        return totalItems;
+    }
+
+    /**
+     * @return The DynamoDB conditions for the query keyed by attribute name, or {@code null} if the query has no values
+     *         to match and so cannot match any item
+     */
+    private Map<String, com.amazonaws.services.dynamodbv2.model.Condition> conditions(final AttributeQuery query,
+            final ItemConfiguration itemConfiguration) {
+        final com.amazonaws.services.dynamodbv2.model.Condition condition = condition(query.getAttributeName(),
+                query.getCondition(), itemConfiguration);
+        if (condition == null) {
+            return null;
+        }
+        final Map<String, com.amazonaws.services.dynamodbv2.model.Condition> conditions = new HashMap<>();
+        conditions.put(query.getAttributeName(), condition);
+        if (query instanceof CompoundAttributeQuery) {
+            final CompoundAttributeQuery compoundAttributeQuery = (CompoundAttributeQuery) query;
+            final com.amazonaws.services.dynamodbv2.model.Condition supportingCondition = condition(
+                    compoundAttributeQuery.getSupportingAttributeName(),
+                    compoundAttributeQuery.getSupportingCondition(), itemConfiguration);
+            if (supportingCondition == null) {
+                return null;
+            }
+            conditions.put(compoundAttributeQuery.getSupportingAttributeName(), supportingCondition);
+        }
+        return conditions;
+    }
+
+    private com.amazonaws.services.dynamodbv2.model.Condition condition(final String attributeName,
+            final com.clicktravel.cheddar.infrastructure.persistence.database.query.Condition queryCondition,
+            final ItemConfiguration itemConfiguration) {
         final com.amazonaws.services.dynamodbv2.model.Condition condition = new com.amazonaws.services.dynamodbv2.model.Condition();
+        final Operators comparisonOperator = queryCondition.getComparisonOperator();
 
-        if (query.getCondition().getComparisonOperator() == Operators.NULL) {
+        if (comparisonOperator == Operators.NULL) {
             condition.setComparisonOperator(ComparisonOperator.NULL);
-        } else if (query.getCondition().getComparisonOperator() == Operators.NOT_NULL) {
+        } else if (comparisonOperator == Operators.NOT_NULL) {
             condition.setComparisonOperator(ComparisonOperator.NOT_NULL);
         } else {
-            if (query.getCondition().getComparisonOperator() == Operators.EQUALS) {
+            if (comparisonOperator == Operators.EQUALS) {
                 condition.setComparisonOperator(ComparisonOperator.EQ);
-            } else if (query.getCondition().getComparisonOperator() == Operators.LESS_THAN_OR_EQUALS) {
+            } else if (comparisonOperator == Operators.LESS_THAN_OR_EQUALS) {
                 condition.setComparisonOperator(ComparisonOperator.LE);
-            } else if (query.getCondition().getComparisonOperator() == Operators.GREATER_THAN_OR_EQUALS) {
+            } else if (comparisonOperator == Operators.GREATER_THAN_OR_EQUALS) {
                 condition.setComparisonOperator(ComparisonOperator.GE);
+            } else if (comparisonOperator == Operators.BETWEEN) {
+                condition.setComparisonOperator(ComparisonOperator.BETWEEN);
+            } else if (comparisonOperator == Operators.BEGINS_WITH) {
+                condition.setComparisonOperator(ComparisonOperator.BEGINS_WITH);
             }
 
-            final Collection<AttributeValue> attributeValueList = new ArrayList<>();
+            final boolean isNumber = comparisonOperator != Operators.BEGINS_WITH
+                    && isNumberProperty(itemConfiguration, attributeName);
+            final List<AttributeValue> attributeValueList = new ArrayList<>();
 
-            for (final String value : query.getCondition().getValues()) {
+            for (final String value : queryCondition.getValues()) {
                 if (value != null && !value.isEmpty()) {
-                    attributeValueList.add(new AttributeValue(value));
+                    attributeValueList.add(isNumber ? new AttributeValue().withN(value) : new AttributeValue(value));
                 }
             }
 
             if (attributeValueList.size() == 0) {
-                return new ArrayList<>();
+                return null;
+            }
+            if (comparisonOperator == Operators.BETWEEN && attributeValueList.size() == 1) {
+                attributeValueList.add(attributeValueList.get(0));
             }
 
             condition.setAttributeValueList(attributeValueList);
         }
+        return condition;
+    }
 
-        final Map<String, com.amazonaws.services.dynamodbv2.model.Condition> conditions = new HashMap<>();
-        conditions.put(query.getAttributeName(), condition);
-        final List<T> totalItems = new ArrayList<>();
-        Map<String, AttributeValue> lastEvaluatedKey = null;
-        final String tableName = databaseSchemaHolder.schemaName() + "." + itemConfiguration.tableName();
-        if (itemConfiguration.hasIndexOn(query.getAttributeName())) {
-            do {
-                final String queryAttributeName = query.getAttributeName();
-                final PrimaryKeyDefinition primaryKeyDefinition = itemConfiguration.primaryKeyDefinition();
-                final String primaryKeyPropertyName = primaryKeyDefinition.propertyName();
-                final boolean isPrimaryKeyQuery = queryAttributeName.equals(primaryKeyPropertyName);
-                final QueryRequest queryRequest = new QueryRequest().withTableName(tableName)
-                        .withKeyConditions(conditions).withExclusiveStartKey(lastEvaluatedKey);
-                if (!isPrimaryKeyQuery) {
-                    queryRequest.withIndexName(queryAttributeName + "_idx");
-                }
+    private boolean isNumberProperty(final ItemConfiguration itemConfiguration, final String propertyName) {
+        for (final PropertyDescriptor propertyDescriptor : itemConfiguration.propertyDescriptors()) {
+            if (propertyDescriptor.getName().equals(propertyName)) {
+                final Class<?> propertyType = propertyDescriptor.getPropertyType();
+                return Number.class.isAssignableFrom(propertyType) || propertyType.isPrimitive()
+                        && propertyType != boolean.class && propertyType != char.class;
+            }
+        }
+        return false;
+    }
 
-                final QueryResult queryResult;
-                try {
-                    queryResult = amazonDynamoDbClient.query(queryRequest);
-                } catch (final AmazonServiceException e) {
-                    throw new PersistenceResourceFailureException(
-                            "Failure while attempting DynamoDb Query (" + tableName + ")", e);
-                }
-                totalItems.addAll(marshallIntoObjects(itemClass, queryResult.getItems()));
-                lastEvaluatedKey = queryResult.getLastEvaluatedKey();
-            } while (lastEvaluatedKey != null);
+    /**
+     * Conditions on the attribute queried and on the supporting attribute of its key or index are key conditions; any
+     * other condition filters the items read
+     */
+    private QueryRequest queryRequest(final AttributeQuery query, final ItemConfiguration itemConfiguration,
+            final Map<String, com.amazonaws.services.dynamodbv2.model.Condition> conditions,
+            final Collection<String> attributeNames) {
+        final String queryAttributeName = query.getAttributeName();
+        final String supportingPropertyName = itemConfiguration.supportingPropertyName(queryAttributeName);
+        final Map<String, com.amazonaws.services.dynamodbv2.model.Condition> keyConditions = new HashMap<>();
+        final Map<String, com.amazonaws.services.dynamodbv2.model.Condition> queryFilter = new HashMap<>();
+        for (final Entry<String, com.amazonaws.services.dynamodbv2.model.Condition> entry : conditions.entrySet()) {
+            if (entry.getKey().equals(queryAttributeName) || entry.getKey().equals(supportingPropertyName)) {
+                keyConditions.put(entry.getKey(), entry.getValue());
+            } else {
+                queryFilter.put(entry.getKey(), entry.getValue());
+            }
+        }
+        final QueryRequest queryRequest = new QueryRequest().withTableName(tableName(itemConfiguration))
+                .withKeyConditions(keyConditions).withAttributesToGet(attributeNames);
+        if (!queryFilter.isEmpty()) {
+            queryRequest.withQueryFilter(queryFilter);
+        }
+        if (!queryAttributeName.equals(itemConfiguration.primaryKeyDefinition().propertyName())) {
+            queryRequest.withIndexName(queryAttributeName + "_idx");
+        }
+        return queryRequest;
+    }
 
-        } else {
-            logger.debug("Performing table scan with query: " + query);
-            do {
-                final ScanRequest scanRequest = new ScanRequest().withTableName(tableName).withScanFilter(conditions)
-                        .withExclusiveStartKey(lastEvaluatedKey);
-                final ScanResult scanResult;
-                try {
-                    scanResult = amazonDynamoDbClient.scan(scanRequest);
-                } catch (final AmazonServiceException e) {
-                    throw new PersistenceResourceFailureException(
-                            "Failure while attempting DynamoDb Scan (" + tableName + ")", e);
-                }
-                totalItems.addAll(marshallIntoObjects(itemClass, scanResult.getItems()));
-                lastEvaluatedKey = scanResult.getLastEvaluatedKey();
-            } while (lastEvaluatedKey != null);
+    private QueryResult query(final QueryRequest queryRequest) {
+        try {
+            return amazonDynamoDbClient.query(queryRequest);
+        } catch (final AmazonServiceException e) {
+            throw new PersistenceResourceFailureException(
+                    "Failure while attempting DynamoDb Query (" + queryRequest.getTableName() + ")", e);
         }
+    }
 
-        return totalItems;
+    private ScanResult scan(final ScanRequest scanRequest) {
+        try {
+            return amazonDynamoDbClient.scan(scanRequest);
+        } catch (final AmazonServiceException e) {
+            throw new PersistenceResourceFailureException(
+                    "Failure while attempting DynamoDb Scan (" + scanRequest.getTableName() + ")", e);
+        }
+    }
+
+    private <T extends Item> Supplier<ItemPage<T>> queryPages(final AttributeQuery query,
+            final ItemConfiguration itemConfiguration,
+            final Map<String, com.amazonaws.services.dynamodbv2.model.Condition> conditions, final Class<T> itemClass,
+            final Collection<String> attributeNames, final Map<String, AttributeValue> exclusiveStartKey) {
+        return () -> {
+            final QueryResult queryResult = query(queryRequest(query, itemConfiguration, conditions, attributeNames)
+                    .withExclusiveStartKey(exclusiveStartKey));
+            final Map<String, AttributeValue> lastEvaluatedKey = queryResult.getLastEvaluatedKey();
+            return new ItemPage<>(marshallIntoObjects(itemClass, queryResult.getItems()), lastEvaluatedKey == null
+                    ? null
+                    : queryPages(query, itemConfiguration, conditions, itemClass, attributeNames, lastEvaluatedKey));
+        };
+    }
+
+    private <T extends Item> Supplier<ItemPage<T>> scanPages(final String tableName,
+            final Map<String, com.amazonaws.services.dynamodbv2.model.Condition> conditions, final Class<T> itemClass,
+            final Collection<String> attributeNames, final Integer segment, final Integer totalSegments,
+            final Map<String, AttributeValue> exclusiveStartKey) {
+        return () -> {
+            final ScanRequest scanRequest = new ScanRequest().withTableName(tableName).withScanFilter(conditions)
+                    .withAttributesToGet(attributeNames).withExclusiveStartKey(exclusiveStartKey)
+                    .withSegment(segment).withTotalSegments(totalSegments);
+            final ScanResult scanResult = scan(scanRequest);
+            final Map<String, AttributeValue> lastEvaluatedKey = scanResult.getLastEvaluatedKey();
+            return new ItemPage<>(marshallIntoObjects(itemClass, scanResult.getItems()), lastEvaluatedKey == null
+                    ? null
+                    : scanPages(tableName, conditions, itemClass, attributeNames, segment, totalSegments,
+                            lastEvaluatedKey));
+        };
     }
 
     public <T extends Item> Collection<T> executeQuery(final KeySetQuery query, final Class<T> itemClass) {
+        return executeQuery(query, itemClass, null);
+    }
+
+    private <T extends Item> Collection<T> executeQuery(final KeySetQuery query, final Class<T> itemClass,
+            final Collection<String> attributeNames) {
         final ItemConfiguration itemConfiguration = getItemConfiguration(itemClass);
-        final Collection<Map<String, AttributeValue>> keys = new ArrayList<>();
         if (query.itemIds().size() == 0) {
             return new ArrayList<>();
         }
-        final PrimaryKeyDefinition primaryKeyDefinition = itemConfiguration.primaryKeyDefinition();
-        for (final ItemId itemId : query.itemIds()) {
-            final Map<String, AttributeValue> key = new HashMap<>();
-            key.put(primaryKeyDefinition.propertyName(), new AttributeValue(itemId.value()));
-            if (CompoundPrimaryKeyDefinition.class.isAssignableFrom(primaryKeyDefinition.getClass())) {
-                final CompoundPrimaryKeyDefinition compoundPrimaryKeyDefinition = (CompoundPrimaryKeyDefinition) primaryKeyDefinition;
-                key.put(compoundPrimaryKeyDefinition.supportingPropertyName(),
-                        new AttributeValue(itemId.supportingValue()));
-            }
-            keys.add(key);
-        }
-        final Map<String, KeysAndAttributes> requestItems = new HashMap<>();
-        final KeysAndAttributes keysAndAttributes = new KeysAndAttributes();
-        keysAndAttributes.setKeys(keys);
-        final String tableName = databaseSchemaHolder.schemaName() + "." + itemConfiguration.tableName();
-        requestItems.put(tableName, keysAndAttributes);
-        final BatchGetItemRequest batchGetItemRequest = new BatchGetItemRequest().withRequestItems(requestItems);
-        final BatchGetItemResult batchGetItemResult;
-        try {
-            batchGetItemResult = amazonDynamoDbClient.batchGetItem(batchGetItemRequest);
-        } catch (final AmazonServiceException e) {
-            throw new PersistenceResourceFailureException(
-                    "Failure while attempting DynamoDb Batch Get Item (" + tableName + ")", e);
-        }
-        final List<Map<String, AttributeValue>> itemAttributeMaps = batchGetItemResult.getResponses().get(tableName);
-        return marshallIntoObjects(itemClass, itemAttributeMaps);
+        return marshallIntoObjects(itemClass, batchGetItems(tableName(itemConfiguration),
+                keys(query.itemIds(), itemConfiguration), attributeNames));
+    }
+
+    /**
+     * Each page holds the items for at most {@value #MAX_BATCH_GET_KEYS} keys, retrying any left unprocessed
+     */
+    private <T extends Item> Supplier<ItemPage<T>> keySetPages(final String tableName,
+            final List<Map<String, AttributeValue>> keys, final Class<T> itemClass, final int fromIndex) {
+        return () -> {
+            final int toIndex = Math.min(keys.size(), fromIndex + MAX_BATCH_GET_KEYS);
+            final List<Map<String, AttributeValue>> itemAttributeMaps = batchGetItemsChunk(tableName,
+                    keys.subList(fromIndex, toIndex));
+            return new ItemPage<>(marshallIntoObjects(itemClass, itemAttributeMaps),
+                    toIndex == keys.size() ? null : keySetPages(tableName, keys, itemClass, toIndex));
+        };
+    }
+
+    private String tableName(final ItemConfiguration itemConfiguration) {
+        return databaseSchemaHolder.schemaName() + "." + itemConfiguration.tableName();
     }
 
     /**
-     * Turns the items into DynamoDb PutRequests to allow them to be batch written. These are then bound inside a
-     * BatchWriteItemRequest which allows us to batch write them into DynamoDB. Any requests in the batch that fail to
-     * write are removed from the results, then each successfully written Property has it's version set accordingly.
-     * Maps are used to keep track of which versions belong to which items, and also a map to keep track of which
-     * PutRequest object relates to which Item, so we can remove unsuccessful writes. This will throw an
+     * Turns the items into DynamoDb PutRequests to allow them to be batch written, in Batch Write Item requests of at
+     * most {@value #MAX_BATCH_WRITE_REQUESTS} items sent in parallel. Any requests DynamoDB leaves unprocessed are
+     * retried with backoff; items which are still unprocessed at the retry deadline are left out of the results and
+     * keep their version, and each successfully written item has its version set accordingly. This will throw an
      * IllegalArgumentException if the item being batch written has unique constraints. This method does not implement
      * row-level locking, you will need to implement your own locking to ensure consistency is achieved.
      */
@@ -557,89 +1112,72 @@ public class DynamoDbTemplate extends AbstractDynamoDbTemplate implements BatchD
     public <T extends Item> List<T> batchWrite(final List<T> items, final Class<T> itemClass)
             throws IllegalArgumentException, PersistenceResourceFailureException {
         final ItemConfiguration itemConfiguration = getItemConfiguration(itemClass);
-        final List<T> itemsWritten = new ArrayList<T>();
-        final Map<T, Long> itemVersions = new HashMap<T, Long>();
-        final Map<String, List<WriteRequest>> requestItems = new HashMap<String, List<WriteRequest>>();
-        final Map<PutRequest, T> itemPutRequests = new HashMap<PutRequest, T>();
-
         if (!itemConfiguration.uniqueConstraints().isEmpty()) {
             throw new IllegalArgumentException("Cannot perform batch write for item of type" + itemClass);
         }
 
-        createRequestItems(itemConfiguration, itemVersions, requestItems, items, itemPutRequests);
-
-        final BatchWriteItemRequest itemRequest = new BatchWriteItemRequest().withRequestItems(requestItems);
-
-        try {
-            final BatchWriteItemResult itemResult = amazonDynamoDbClient.batchWriteItem(itemRequest);
-            removeUnprocessedItems(itemsWritten, itemVersions, itemPutRequests, itemResult);
-        } catch (final AmazonServiceException amazonServiceException) {
-            throw new PersistenceResourceFailureException(
-                    "Failed to do Dynamo DB batch write (" + itemConfiguration.tableName() + ")",
-                    amazonServiceException);
+        final List<WriteRequest> writeRequests = new ArrayList<>(items.size());
+        for (final T item : items) {
+            final Map<String, AttributeValue> attributeMap = getAttributeMap(item, itemConfiguration,
+                    newVersion(item));
+            writeRequests.add(new WriteRequest().withPutRequest(new PutRequest().withItem(attributeMap)));
         }
+        final String tableName = tableName(itemConfiguration);
+        final Set<WriteRequest> unprocessedWriteRequests = new HashSet<>(batchWriteItems(tableName, writeRequests));
 
         // any items that were successfully processed will need their versions setting.
-        for (final T item : itemsWritten) {
-            item.setVersion(itemVersions.get(item));
+        final List<T> itemsWritten = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            itemSnapshots.remove(tableName, itemConfiguration.getItemId(items.get(i)));
+            if (!unprocessedWriteRequests.contains(writeRequests.get(i))) {
+                final T item = items.get(i);
+                item.setVersion(newVersion(item));
+                itemsWritten.add(item);
+            }
+        }
+        if (itemsWritten.size() < items.size()) {
+            logger.warn("Batch write of " + items.size() + " items to " + tableName + " left "
+                    + (items.size() - itemsWritten.size()) + " items unwritten");
         }
-
         return itemsWritten;
     }
 
+    private long newVersion(final Item item) {
+        return item.getVersion() != null ? item.getVersion() + 1 : 1l;
+    }
+
     /**
-     * This method removes items which did not process in the batch write. The results of the batch write tell us which
-     * PutRequests were not processed, and from this we can use our maps to find out which items these belonged to.
-     * These items can then be removed from the results and their versions won't be updated.
-     * @param itemsWritten - the successfully written items
-     * @param itemVersions - the map of version to items, so we know which versions belong to which items
-     * @param itemPutRequests - the map of put requests to items, so we know which put request relates to which item
-     * @param itemResult - the result of the batch write, we use this to get the unprocessed items
+     * Deletes the items using DynamoDb DeleteRequests, batched and retried in the same way as
+     * {@link #batchWrite(List, Class)}. This will throw an IllegalArgumentException if the item class has unique
+     * constraints, as their index entries would be left behind.
      */
-    private <T extends Item> void removeUnprocessedItems(final List<T> itemsWritten, final Map<T, Long> itemVersions,
-            final Map<PutRequest, T> itemPutRequests, final BatchWriteItemResult itemResult) {
-        if (itemResult != null && itemResult.getUnprocessedItems() != null) {
-            for (final String tableName : itemResult.getUnprocessedItems().keySet()) {
-                for (final WriteRequest writeRequest : itemResult.getUnprocessedItems().get(tableName)) {
-                    itemVersions.remove(itemPutRequests.get(writeRequest.getPutRequest()));
-                    itemPutRequests.remove(writeRequest.getPutRequest());
-                }
-            }
-
-            itemsWritten.addAll(itemPutRequests.values());
+    @Override
+    public <T extends Item> List<ItemId> batchDelete(final Collection<ItemId> itemIds, final Class<T> itemClass)
+            throws IllegalArgumentException, PersistenceResourceFailureException {
+        final ItemConfiguration itemConfiguration = getItemConfiguration(itemClass);
+        if (!itemConfiguration.uniqueConstraints().isEmpty()) {
+            throw new IllegalArgumentException("Cannot perform batch delete for item of type" + itemClass);
         }
 
-    }
+        final List<ItemId> itemIdList = new ArrayList<>(itemIds);
+        final List<WriteRequest> writeRequests = new ArrayList<>(itemIdList.size());
+        for (final Map<String, AttributeValue> key : keys(itemIdList, itemConfiguration)) {
+            writeRequests.add(new WriteRequest().withDeleteRequest(new DeleteRequest().withKey(key)));
+        }
+        final String tableName = tableName(itemConfiguration);
+        final Set<WriteRequest> unprocessedWriteRequests = new HashSet<>(batchWriteItems(tableName, writeRequests));
 
-    /**
-     * Creates the PutRequests to allow us to perform the batch write. Takes a batch of items and creates a bunch of
-     * WriteRequests for the DynamoDB table we're writing to, then attaches PutRequests to these WriteRequests. We keep
-     * a track of the versions and PutRequests for each item so we can process the results afterwards.
-     * @param itemConfiguration - allows us to know which table we're writing to
-     * @param itemVersions - keeps track of which version belongs to which item
-     * @param requestItems - the requests to be written to DynamoDB, map of table name as the key and the WriteRequest
-     *            as the value.
-     * @param batch - the batch of items to be converted into WriteRequests with PutRequests.
-     * @param itemPutRequests - a map to keep track of which PutRequest belongs to which item to allow us to process the
-     *            results.
-     */
-    private <T extends Item> void createRequestItems(final ItemConfiguration itemConfiguration,
-            final Map<T, Long> itemVersions, final Map<String, List<WriteRequest>> requestItems, final List<T> batch,
-            final Map<PutRequest, T> itemPutRequests) {
-        for (final T item : batch) {
-            final long newVersion = item.getVersion() != null ? item.getVersion() + 1 : 1l;
-            final Map<String, AttributeValue> attributeMap = getAttributeMap(item, itemConfiguration, newVersion);
-            final String tableName = databaseSchemaHolder.schemaName() + "." + itemConfiguration.tableName();
-            List<WriteRequest> writeRequestsForTable = requestItems.get(tableName);
-            if (writeRequestsForTable == null) {
-                writeRequestsForTable = new ArrayList<WriteRequest>();
-                requestItems.put(tableName, writeRequestsForTable);
-            }
-
-            final PutRequest putRequest = new PutRequest().withItem(attributeMap);
-            itemPutRequests.put(putRequest, item);
-            itemVersions.put(item, newVersion);
-            writeRequestsForTable.add(new WriteRequest().withPutRequest(putRequest));
+        final List<ItemId> itemIdsDeleted = new ArrayList<>(itemIdList.size());
+        for (int i = 0; i < itemIdList.size(); i++) {
+            itemSnapshots.remove(tableName, itemIdList.get(i));
+            if (!unprocessedWriteRequests.contains(writeRequests.get(i))) {
+                itemIdsDeleted.add(itemIdList.get(i));
+            }
+        }
+        if (itemIdsDeleted.size() < itemIdList.size()) {
+            logger.warn("Batch delete of " + itemIdList.size() + " items from " + tableName + " left "
+                    + (itemIdList.size() - itemIdsDeleted.size()) + " items undeleted");
         }
+        return itemIdsDeleted;
     }
 }
@@ -17,23 +17,35 @@
 package com.clicktravel.infrastructure.persistence.aws.dynamodb;
 
 import java.beans.PropertyDescriptor;
-import java.io.IOException;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
+import java.math.BigDecimal;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.amazonaws.AmazonServiceException;
 import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDbAttributeCompressor;
 import com.amazonaws.services.dynamodbv2.document.*;
 import com.amazonaws.services.dynamodbv2.document.spec.*;
+import com.amazonaws.services.dynamodbv2.document.internal.InternalUtils;
 import com.amazonaws.services.dynamodbv2.document.utils.ValueMap;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
 import com.amazonaws.services.dynamodbv2.model.ConditionalCheckFailedException;
+import com.amazonaws.services.dynamodbv2.model.Select;
 import com.clicktravel.cheddar.infrastructure.persistence.database.Item;
 import com.clicktravel.cheddar.infrastructure.persistence.database.ItemId;
+import com.clicktravel.cheddar.infrastructure.persistence.database.configuration.CompoundIndexDefinition;
 import com.clicktravel.cheddar.infrastructure.persistence.database.configuration.CompoundPrimaryKeyDefinition;
 import com.clicktravel.cheddar.infrastructure.persistence.database.configuration.DatabaseSchemaHolder;
+import com.clicktravel.cheddar.infrastructure.persistence.database.configuration.DocumentEncoding;
+import com.clicktravel.cheddar.infrastructure.persistence.database.configuration.IndexDefinition;
 import com.clicktravel.cheddar.infrastructure.persistence.database.configuration.ItemConfiguration;
 import com.clicktravel.cheddar.infrastructure.persistence.database.configuration.PrimaryKeyDefinition;
 import com.clicktravel.cheddar.infrastructure.persistence.database.exception.NonExistentItemException;
@@ -51,9 +63,12 @@ import com.fasterxml.jackson.datatype.joda.JodaModule;
 
 public class DynamoDocumentStoreTemplate extends AbstractDynamoDbTemplate {
 
+    private static final String VALIDATION_EXCEPTION_ERROR_CODE = "ValidationException";
+
     private final Logger logger = LoggerFactory.getLogger(this.getClass());
     private DynamoDB dynamoDBClient = null;
     private final ObjectMapper mapper;
+    private final DocumentItemConverter documentItemConverter;
 
     public DynamoDocumentStoreTemplate(final DatabaseSchemaHolder databaseSchemaHolder) {
         super(databaseSchemaHolder);
@@ -62,59 +77,42 @@ public class DynamoDocumentStoreTemplate extends AbstractDynamoDbTemplate {
         mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
         mapper.configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false);
         mapper.registerModule(new JodaModule());
+        documentItemConverter = new DocumentItemConverter(mapper);
     }
 
     @Override
     public void initialize(final AmazonDynamoDB amazonDynamoDbClient) {
         super.initialize(amazonDynamoDbClient);
-        dynamoDBClient = new DynamoDB(amazonDynamoDbClient);
-    }
-
-    /**
-     * Simple method for splitting a list into a list of smaller lists of the supplied length
-     *
-     * @param list
-     * @param length
-     * @return
-     */
-    private <T> List<List<T>> split(final List<T> list, final int length) {
-        final List<List<T>> parts = new ArrayList<List<T>>();
-        final int size = list.size();
-        for (int i = 0; i < size; i += length) {
-            parts.add(new ArrayList<T>(list.subList(i, Math.min(size, i + length))));
-        }
-        return parts;
+        dynamoDBClient = new DynamoDB(this.amazonDynamoDbClient);
     }
 
-    private <T extends Item> List<T> executeQuery(final KeySetQuery query, final Class<T> itemClass) {
+    private <T extends Item> List<T> executeQuery(final KeySetQuery query, final Class<T> itemClass,
+            final Collection<String> attributeNames) {
         final ItemConfiguration itemConfiguration = getItemConfiguration(itemClass);
         final String tableName = databaseSchemaHolder.schemaName() + "." + itemConfiguration.tableName();
-        // max 100 keys per fetch
-        final List<List<ItemId>> split_ids = split(new ArrayList<ItemId>(query.itemIds()), 100);
-        final List<T> fetchedItems = new ArrayList<T>();
-        for (final List<ItemId> ids : split_ids) {
-            final TableKeysAndAttributes keys = new TableKeysAndAttributes(tableName);
-            for (final ItemId id : ids) {
-                keys.addPrimaryKey(getPrimaryKey(id, itemConfiguration));
-            }
-            processBatchRead(dynamoDBClient.batchGetItem(keys), fetchedItems, tableName, itemClass);
-        }
-        return fetchedItems;
+        return toItems(batchGetItems(tableName, keys(query.itemIds(), itemConfiguration), attributeNames), itemClass);
     }
 
-    private <T extends Item> void processBatchRead(final BatchGetItemOutcome outcome, final List<T> fetchedItems,
-            final String tableName, final Class<T> itemClass) {
-        final List<com.amazonaws.services.dynamodbv2.document.Item> items = outcome.getTableItems().get(tableName);
-        for (final com.amazonaws.services.dynamodbv2.document.Item item : items) {
-            fetchedItems.add(stringToItem(item.toJSON(), itemClass));
-        }
-        if (outcome.getUnprocessedKeys().size() == 0) {
-            logger.debug("All items fetched");
-        } else {
-            logger.debug("Still " + outcome.getUnprocessedKeys().size() + " to fetch");
-            processBatchRead(dynamoDBClient.batchGetItemUnprocessed(outcome.getUnprocessedKeys()), fetchedItems,
-                    tableName, itemClass);
+    private <T extends Item> Supplier<ItemPage<T>> keySetPages(final String tableName,
+            final List<Map<String, AttributeValue>> keys, final Class<T> itemClass, final int fromIndex) {
+        return () -> {
+            final int toIndex = Math.min(keys.size(), fromIndex + MAX_BATCH_GET_KEYS);
+            final List<T> fetchedItems = toItems(batchGetItemsChunk(tableName, keys.subList(fromIndex, toIndex)),
+                    itemClass);
+            return new ItemPage<>(fetchedItems,
+                    toIndex == keys.size() ? null : keySetPages(tableName, keys, itemClass, toIndex));
+        };
+    }
+
+    @Override
+    protected <T extends Item> List<T> toItems(final List<Map<String, AttributeValue>> itemAttributeMaps,
+            final Class<T> itemClass) {
+        final List<T> items = new ArrayList<>(itemAttributeMaps.size());
+        for (final com.amazonaws.services.dynamodbv2.document.Item item : InternalUtils
+                .toItemList(itemAttributeMaps)) {
+            items.add(documentItemConverter.toItem(item, itemClass));
         }
+        return items;
     }
 
     @Override
@@ -125,8 +123,8 @@ public class DynamoDocumentStoreTemplate extends AbstractDynamoDbTemplate {
         final Collection<PropertyDescriptor> createdConstraintPropertyDescriptors = createUniqueConstraintIndexes(item,
                 itemConfiguration);
         final String tableName = databaseSchemaHolder.schemaName() + "." + itemConfiguration.tableName();
-        final com.amazonaws.services.dynamodbv2.document.Item awsItem = com.amazonaws.services.dynamodbv2.document.Item
-                .fromJSON(itemToString(item));
+        final com.amazonaws.services.dynamodbv2.document.Item awsItem = toDocument(
+                documentItemConverter.toJsonNode(item), itemConfiguration);
         final PutItemSpec putItemSpec = new PutItemSpec().withItem(awsItem);
 
         final Table table = dynamoDBClient.getTable(tableName);
@@ -150,9 +148,28 @@ public class DynamoDocumentStoreTemplate extends AbstractDynamoDbTemplate {
     @Override
     public <T extends Item> T read(final ItemId itemId, final Class<T> itemClass) throws NonExistentItemException {
         final ItemConfiguration itemConfiguration = getItemConfiguration(itemClass);
-        final String tableName = databaseSchemaHolder.schemaName() + "." + itemConfiguration.tableName();
+        return read(itemId, itemClass,
+                new GetItemSpec().withPrimaryKey(getPrimaryKey(itemId, itemConfiguration)));
+    }
 
-        final GetItemSpec itemSpec = new GetItemSpec().withPrimaryKey(getPrimaryKey(itemId, itemConfiguration));
+    /**
+     * Reads only the key and the named top level attributes of the document, using a projection expression
+     */
+    @Override
+    public <T extends Item> T read(final ItemId itemId, final Class<T> itemClass,
+            final Collection<String> propertyNames) throws NonExistentItemException {
+        final ItemConfiguration itemConfiguration = getItemConfiguration(itemClass);
+        final Map<String, String> nameMap = new HashMap<>();
+        final String projectionExpression = projectionExpression(
+                documentAttributeNames(itemConfiguration, propertyNames), nameMap);
+        return read(itemId, itemClass, new GetItemSpec().withPrimaryKey(getPrimaryKey(itemId, itemConfiguration))
+                .withProjectionExpression(projectionExpression).withNameMap(nameMap));
+    }
+
+    private <T extends Item> T read(final ItemId itemId, final Class<T> itemClass, final GetItemSpec itemSpec)
+            throws NonExistentItemException {
+        final ItemConfiguration itemConfiguration = getItemConfiguration(itemClass);
+        final String tableName = databaseSchemaHolder.schemaName() + "." + itemConfiguration.tableName();
 
         T item = null;
 
@@ -160,12 +177,11 @@ public class DynamoDocumentStoreTemplate extends AbstractDynamoDbTemplate {
 
         final com.amazonaws.services.dynamodbv2.document.Item tableItem = table.getItem(itemSpec);
         if (tableItem != null) {
-            final String tableText = tableItem.toJSON();
-            if (tableText.isEmpty()) {
+            if (tableItem.numberOfAttributes() == 0) {
                 throw new NonExistentItemException(String
                         .format("The document of type [%s] with id [%s] does not exist", itemClass.getName(), itemId));
             }
-            item = stringToItem(tableText, itemClass);
+            item = documentItemConverter.toItem(tableItem, itemClass);
         } else {
             throw new NonExistentItemException(String.format("The document of type [%s] with id [%s] does not exist",
                     itemClass.getName(), itemId));
@@ -181,36 +197,157 @@ public class DynamoDocumentStoreTemplate extends AbstractDynamoDbTemplate {
             return create(item);
         }
 
-        final Expected expectedCondition = new Expected(VERSION_ATTRIBUTE).eq(item.getVersion());
+        final Long expectedVersion = item.getVersion();
         final Long newVersion = item.getVersion() + 1l;
         item.setVersion(newVersion);
 
         final String tableName = databaseSchemaHolder.schemaName() + "." + itemConfiguration.tableName();
-        final String itemJson = itemToString(item);
-        final PrimaryKey primaryKey = new PrimaryKey();
-        final ItemId itemId = itemConfiguration.getItemId(item);
-        final PrimaryKeyDefinition primaryKeyDefinition = itemConfiguration.primaryKeyDefinition();
-        primaryKey.addComponent(primaryKeyDefinition.propertyName(), itemId.value());
-        if (primaryKeyDefinition instanceof CompoundPrimaryKeyDefinition) {
-            primaryKey.addComponent(((CompoundPrimaryKeyDefinition) primaryKeyDefinition).supportingPropertyName(),
-                    itemId.supportingValue());
-        }
+        final JsonNode itemJson = documentItemConverter.toJsonNode(item);
+        final PrimaryKey primaryKey = getPrimaryKey(itemConfiguration.getItemId(item), itemConfiguration);
         final Table table = dynamoDBClient.getTable(tableName);
-        final com.amazonaws.services.dynamodbv2.document.Item previousAwsItem = table.getItem(primaryKey);
-        final String previousItemJson = previousAwsItem.toJSON();
-
-        final String mergedJson = mergeJSONObjects(itemJson, previousItemJson);
-        final com.amazonaws.services.dynamodbv2.document.Item awsItem = com.amazonaws.services.dynamodbv2.document.Item
-                .fromJSON(mergedJson);
-        final PutItemSpec putItemSpec = new PutItemSpec().withItem(awsItem).withExpected(expectedCondition);
         try {
-            table.putItem(putItemSpec);
+            if (itemConfiguration.documentEncoding() == DocumentEncoding.BINARY) {
+                table.putItem(new PutItemSpec().withItem(toDocument(itemJson, itemConfiguration))
+                        .withExpected(new Expected(VERSION_ATTRIBUTE).eq(expectedVersion)));
+            } else {
+                updateItem(table, itemJson, itemConfiguration, primaryKey, expectedVersion);
+            }
         } catch (final ConditionalCheckFailedException e) {
             throw new OptimisticLockException("Conflicting write detected while updating item");
         }
         return item;
     }
 
+    private void updateItem(final Table table, final JsonNode itemJson, final ItemConfiguration itemConfiguration,
+            final PrimaryKey primaryKey, final Long expectedVersion) {
+        try {
+            table.updateItem(generateUpdateItemSpec(itemJson, itemConfiguration, primaryKey, expectedVersion));
+        } catch (final AmazonServiceException e) {
+            if (!VALIDATION_EXCEPTION_ERROR_CODE.equals(e.getErrorCode())) {
+                throw e;
+            }
+            logger.debug("Could not update document paths in place, merging with stored document: " + e.getMessage());
+            mergeAndPutItem(table, itemJson, itemConfiguration, primaryKey, expectedVersion);
+        }
+    }
+
+    /**
+     * Builds a single conditional update which sets every attribute of the document except its key. Nested objects
+     * are set leaf by leaf so that stored attributes not present in the new document are kept, matching the merge
+     * semantics of {@link #merge(JsonNode, JsonNode)} without first reading the stored document.
+     */
+    private UpdateItemSpec generateUpdateItemSpec(final JsonNode itemJson, final ItemConfiguration itemConfiguration,
+            final PrimaryKey primaryKey, final Long expectedVersion) {
+        final Map<String, Object> attributes = compress(documentItemConverter.toDocument(itemJson), itemConfiguration)
+                .asMap();
+        for (final KeyAttribute keyAttribute : primaryKey.getComponents()) {
+            attributes.remove(keyAttribute.getName());
+        }
+        final Map<String, String> nameMap = new HashMap<>();
+        final Map<String, Object> valueMap = new HashMap<>();
+        final List<String> setActions = new ArrayList<>();
+        addSetActions("", attributes, nameMap, valueMap, setActions);
+        nameMap.put("#version", VERSION_ATTRIBUTE);
+        nameMap.put("#cbor", DocumentItemConverter.CBOR_DOCUMENT_ATTRIBUTE);
+        valueMap.put(":expectedVersion", expectedVersion);
+        // Any binary encoded form of the document would otherwise be read in preference to the updated attributes
+        return new UpdateItemSpec().withPrimaryKey(primaryKey)
+                .withUpdateExpression("SET " + String.join(", ", setActions) + " REMOVE #cbor")
+                .withConditionExpression("#version = :expectedVersion").withNameMap(nameMap)
+                .withValueMap(valueMap);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void addSetActions(final String parentPath, final Map<String, Object> attributes,
+            final Map<String, String> nameMap, final Map<String, Object> valueMap, final List<String> setActions) {
+        for (final Map.Entry<String, Object> attribute : attributes.entrySet()) {
+            final String namePlaceholder = "#n" + nameMap.size();
+            nameMap.put(namePlaceholder, attribute.getKey());
+            final String path = parentPath.isEmpty() ? namePlaceholder : parentPath + "." + namePlaceholder;
+            final Object value = attribute.getValue();
+            if (value instanceof Map && !((Map<String, Object>) value).isEmpty()) {
+                addSetActions(path, (Map<String, Object>) value, nameMap, valueMap, setActions);
+            } else {
+                final String valuePlaceholder = ":v" + valueMap.size();
+                valueMap.put(valuePlaceholder, value);
+                if (value instanceof Map) {
+                    setActions.add(path + " = if_not_exists(" + path + ", " + valuePlaceholder + ")");
+                } else {
+                    setActions.add(path + " = " + valuePlaceholder);
+                }
+            }
+        }
+    }
+
+    private void mergeAndPutItem(final Table table, final JsonNode itemJson, final ItemConfiguration itemConfiguration,
+            final PrimaryKey primaryKey, final Long expectedVersion) {
+        final com.amazonaws.services.dynamodbv2.document.Item previousAwsItem = table.getItem(primaryKey);
+        if (previousAwsItem == null) {
+            throw new ConditionalCheckFailedException("The document to update does not exist");
+        }
+        final JsonNode mergedJson = merge(itemJson, documentItemConverter.toJsonNode(previousAwsItem));
+        final com.amazonaws.services.dynamodbv2.document.Item awsItem = compress(
+                documentItemConverter.toDocument(mergedJson), itemConfiguration);
+        table.putItem(new PutItemSpec().withItem(awsItem)
+                .withExpected(new Expected(VERSION_ATTRIBUTE).eq(expectedVersion)));
+    }
+
+    /**
+     * @return Document for the item in the encoding of its configuration
+     */
+    private com.amazonaws.services.dynamodbv2.document.Item toDocument(final JsonNode itemJson,
+            final ItemConfiguration itemConfiguration) {
+        if (itemConfiguration.documentEncoding() == DocumentEncoding.BINARY) {
+            return documentItemConverter.toBinaryDocument(itemJson, unencodedAttributeNames(itemConfiguration));
+        }
+        return compress(documentItemConverter.toDocument(itemJson), itemConfiguration);
+    }
+
+    /**
+     * @return Names of the attributes held separately from the binary encoded document, being those of the key, the
+     *         indexes, the version and any discriminator
+     */
+    private Collection<String> unencodedAttributeNames(final ItemConfiguration itemConfiguration) {
+        final Collection<String> attributeNames = projectionAttributeNames(itemConfiguration,
+                Collections.singleton(VERSION_ATTRIBUTE));
+        for (final IndexDefinition indexDefinition : itemConfiguration.indexDefinitions()) {
+            attributeNames.add(indexDefinition.propertyName());
+            if (indexDefinition instanceof CompoundIndexDefinition) {
+                attributeNames.add(((CompoundIndexDefinition) indexDefinition).supportingPropertyName());
+            }
+        }
+        return attributeNames;
+    }
+
+    /**
+     * Reads the named properties; a binary encoded document can only be read whole
+     */
+    private Collection<String> documentAttributeNames(final ItemConfiguration itemConfiguration,
+            final Collection<String> propertyNames) {
+        final Collection<String> attributeNames = projectionAttributeNames(itemConfiguration, propertyNames);
+        attributeNames.add(DocumentItemConverter.CBOR_DOCUMENT_ATTRIBUTE);
+        return attributeNames;
+    }
+
+    /**
+     * Replaces top level string attributes of the document which are to be compressed with their compressed form
+     */
+    private com.amazonaws.services.dynamodbv2.document.Item compress(
+            final com.amazonaws.services.dynamodbv2.document.Item document,
+            final ItemConfiguration itemConfiguration) {
+        for (final Map.Entry<String, Object> attribute : document.asMap().entrySet()) {
+            final int compressionThreshold = itemConfiguration.compressionThreshold(attribute.getKey());
+            if (compressionThreshold >= 0 && attribute.getValue() instanceof String
+                    && ((String) attribute.getValue()).length() >= compressionThreshold) {
+                final byte[] compressed = DynamoDbAttributeCompressor.compress((String) attribute.getValue());
+                if (compressed != null) {
+                    document.withBinary(attribute.getKey(), compressed);
+                }
+            }
+        }
+        return document;
+    }
+
     @Override
     public void delete(final Item item, final PersistenceExceptionHandler<?>... persistenceExceptionHandlers) {
         final ItemConfiguration itemConfiguration = getItemConfiguration(item.getClass());
@@ -227,12 +364,28 @@ public class DynamoDocumentStoreTemplate extends AbstractDynamoDbTemplate {
 
     @Override
     public <T extends Item> Collection<T> fetch(final Query query, final Class<T> itemClass) {
+        return executeFetch(query, itemClass, null);
+    }
+
+    /**
+     * Reads only the key and the named top level attributes of each document. Queries name the attributes to get, as
+     * their key conditions cannot be combined with a projection expression; scans and Batch Get Item requests use a
+     * projection expression.
+     */
+    @Override
+    public <T extends Item> Collection<T> fetch(final Query query, final Class<T> itemClass,
+            final Collection<String> propertyNames) {
+        return executeFetch(query, itemClass, documentAttributeNames(getItemConfiguration(itemClass), propertyNames));
+    }
+
+    private <T extends Item> Collection<T> executeFetch(final Query query, final Class<T> itemClass,
+            final Collection<String> attributeNames) {
         final long startTimeMillis = System.currentTimeMillis();
         Collection<T> result;
         if (query instanceof AttributeQuery) {
-            result = executeQuery((AttributeQuery) query, itemClass);
+            result = executeQuery((AttributeQuery) query, itemClass, attributeNames);
         } else if (query instanceof KeySetQuery) {
-            result = executeQuery((KeySetQuery) query, itemClass);
+            result = executeQuery((KeySetQuery) query, itemClass, attributeNames);
         } else {
             throw new UnsupportedQueryException(query.getClass());
         }
@@ -241,81 +394,431 @@ public class DynamoDocumentStoreTemplate extends AbstractDynamoDbTemplate {
         return result;
     }
 
-    private <T extends Item> Collection<T> executeQuery(final AttributeQuery query, final Class<T> itemClass) {
+    /**
+     * Limits the Query or Scan to the items still needed with a maximum result size, orders a Query using
+     * {@code ScanIndexForward} and starts from the exclusive start key held in the cursor. A table scan returns items
+     * in no particular order.
+     */
+    @Override
+    public <T extends Item> PagedResult<T> fetch(final Query query, final Class<T> itemClass,
+            final PageRequest pageRequest) {
+        if (!(query instanceof AttributeQuery)) {
+            throw new UnsupportedQueryException(query.getClass());
+        }
+        final ItemCollection<?> itemCollection = itemCollection((AttributeQuery) query, itemClass, null,
+                pageRequest);
+        final List<T> items = new ArrayList<>();
+        final Iterator<com.amazonaws.services.dynamodbv2.document.Item> iterator = itemCollection.iterator();
+        while (iterator != null && iterator.hasNext()) {
+            items.add(documentItemConverter.toItem(iterator.next(), itemClass));
+        }
+        return new PagedResult<>(items, PageCursors.encode(lastEvaluatedKey(itemCollection.getLastLowLevelResult())));
+    }
+
+    private static Map<String, AttributeValue> lastEvaluatedKey(final Object lowLevelResult) {
+        if (lowLevelResult instanceof QueryOutcome) {
+            return ((QueryOutcome) lowLevelResult).getQueryResult().getLastEvaluatedKey();
+        } else if (lowLevelResult instanceof ScanOutcome) {
+            return ((ScanOutcome) lowLevelResult).getScanResult().getLastEvaluatedKey();
+        }
+        return null;
+    }
+
+    private static PrimaryKey primaryKey(final Map<String, AttributeValue> key) {
+        final PrimaryKey primaryKey = new PrimaryKey();
+        for (final Map.Entry<String, Object> component : InternalUtils.toItemList(Collections.singletonList(key))
+                .get(0).attributes()) {
+            primaryKey.addComponent(component.getKey(), component.getValue());
+        }
+        return primaryKey;
+    }
+
+    /**
+     * Streams the items matching the query, reading one page of Query, Scan or Batch Get Item results at a time. An
+     * EQUALS condition with several values on a key or index is read one value at a time.
+     */
+    @Override
+    public <T extends Item> Stream<T> stream(final Query query, final Class<T> itemClass) {
+        if (query instanceof AttributeQuery) {
+            final List<AttributeQuery> singleValueQueries = indexSingleValueQueries((AttributeQuery) query, itemClass);
+            if (singleValueQueries != null) {
+                return streamAll(singleValueQueries, itemClass,
+                        singleValueQuery -> stream(singleValueQuery, itemClass));
+            }
+            return streamPages(
+                    itemCollectionPages(itemCollection((AttributeQuery) query, itemClass, null, null), itemClass));
+        } else if (query instanceof KeySetQuery) {
+            final KeySetQuery keySetQuery = (KeySetQuery) query;
+            if (keySetQuery.itemIds().isEmpty()) {
+                return Collections.<T> emptyList().stream();
+            }
+            final ItemConfiguration itemConfiguration = getItemConfiguration(itemClass);
+            final String tableName = databaseSchemaHolder.schemaName() + "." + itemConfiguration.tableName();
+            return streamPages(
+                    keySetPages(tableName, keys(keySetQuery.itemIds(), itemConfiguration), itemClass, 0));
+        } else {
+            throw new UnsupportedQueryException(query.getClass());
+        }
+    }
+
+    private <T extends Item> Collection<T> executeQuery(final AttributeQuery query, final Class<T> itemClass,
+            final Collection<String> attributeNames) {
+        final List<AttributeQuery> singleValueQueries = indexSingleValueQueries(query, itemClass);
+        if (singleValueQueries != null) {
+            return fetchAll(singleValueQueries, itemClass,
+                    singleValueQuery -> executeQuery(singleValueQuery, itemClass, attributeNames));
+        }
+        final List<T> totalItems = new ArrayList<>();
+        final Iterator<com.amazonaws.services.dynamodbv2.document.Item> iterator = itemCollection(query, itemClass,
+                attributeNames, null).iterator();
+        while (iterator != null && iterator.hasNext()) {
+            final com.amazonaws.services.dynamodbv2.document.Item item = iterator.next();
+            totalItems.add(documentItemConverter.toItem(item, itemClass));
+        }
+        return totalItems;
+    }
+
+    /**
+     * @return One query per value of an EQUALS condition with several values on a key or index, or {@code null} if
+     *         the query is not one
+     */
+    private <T extends Item> List<AttributeQuery> indexSingleValueQueries(final AttributeQuery query,
+            final Class<T> itemClass) {
+        if (!getItemConfiguration(itemClass).hasIndexOn(query.getAttributeName())) {
+            return null;
+        }
+        return singleValueQueries(query);
+    }
+
+    /**
+     * @param attributeNames Names of the attributes to read, or {@code null} for all attributes
+     * @param pageRequest Limit, order and start of a single page to read, or {@code null} to read all matching items
+     */
+    private <T extends Item> ItemCollection<?> itemCollection(final AttributeQuery query, final Class<T> itemClass,
+            final Collection<String> attributeNames, final PageRequest pageRequest) {
         final ItemConfiguration itemConfiguration = getItemConfiguration(itemClass);
         final String tableName = databaseSchemaHolder.schemaName() + "." + itemConfiguration.tableName();
 
         final Table table = dynamoDBClient.getTable(tableName);
-
-        final List<T> totalItems = new ArrayList<>();
+        final Map<String, AttributeValue> exclusiveStartKey = pageRequest == null ? null
+                : PageCursors.decode(pageRequest.getCursor());
 
         if (itemConfiguration.hasIndexOn(query.getAttributeName())
                 && query.getCondition().getComparisonOperator() == Operators.EQUALS) {
 
-            final QuerySpec querySpec = generateQuerySpec(query);
-            final ItemCollection<QueryOutcome> queryOutcome;
-
-            if (itemConfiguration.primaryKeyDefinition().propertyName().equals(query.getAttributeName())) {
-                // if the query is for the has then call query on table
-                queryOutcome = table.query(querySpec);
-            } else {
-                final Index index = table.getIndex(query.getAttributeName() + "_idx");
-                queryOutcome = index.query(querySpec);
+            final QuerySpec querySpec;
+            try {
+                querySpec = generateQuerySpec(query, itemConfiguration, itemClass);
+            } catch (final ReflectiveOperationException e) {
+                throw new PersistenceResourceFailureException(
+                        "Could not create QuerySpec on table " + tableName + " for query: " + query, e);
             }
-
-            final Iterator<com.amazonaws.services.dynamodbv2.document.Item> iterator = queryOutcome.iterator();
-            while (iterator != null && iterator.hasNext()) {
-                final com.amazonaws.services.dynamodbv2.document.Item item = iterator.next();
-                totalItems.add(stringToItem(item.toJSON(), itemClass));
+            if (attributeNames != null) {
+                querySpec.withAttributesToGet(attributeNames.toArray(new String[attributeNames.size()]));
+            }
+            if (pageRequest != null) {
+                querySpec.withMaxResultSize(pageRequest.getLimit())
+                        .withScanIndexForward(pageRequest.getSortOrder() == SortOrder.ASCENDING);
+                if (exclusiveStartKey != null) {
+                    querySpec.withExclusiveStartKey(primaryKey(exclusiveStartKey));
+                }
             }
+
+            return query(table, querySpec, query, itemConfiguration);
         } else {
             logger.debug("Performing table scan with query: " + query);
+            checkScanAttributes(query, itemConfiguration);
             ScanSpec scanSpec = null;
             try {
                 scanSpec = generateScanSpec(query, itemClass);
+                if (attributeNames != null) {
+                    final Map<String, String> nameMap = new HashMap<>();
+                    scanSpec.withProjectionExpression(projectionExpression(attributeNames, nameMap))
+                            .withNameMap(nameMap);
+                }
+                if (pageRequest != null) {
+                    scanSpec.withMaxResultSize(pageRequest.getLimit());
+                    if (exclusiveStartKey != null) {
+                        scanSpec.withExclusiveStartKey(primaryKey(exclusiveStartKey));
+                    }
+                }
             } catch (InstantiationException | IllegalAccessException | IllegalArgumentException
                     | InvocationTargetException | NoSuchMethodException | SecurityException e) {
                 throw new PersistenceResourceFailureException(
                         "Could not create ScanSpec on table " + tableName + " for query: " + query, e);
             }
-            final ItemCollection<ScanOutcome> scanOutcome = table.scan(scanSpec);
+            return table.scan(scanSpec);
+        }
+    }
 
-            final Iterator<com.amazonaws.services.dynamodbv2.document.Item> iterator = scanOutcome.iterator();
-            while (iterator.hasNext()) {
-                final com.amazonaws.services.dynamodbv2.document.Item item = iterator.next();
-                totalItems.add(stringToItem(item.toJSON(), itemClass));
+    private ItemCollection<QueryOutcome> query(final Table table, final QuerySpec querySpec,
+            final AttributeQuery query, final ItemConfiguration itemConfiguration) {
+        if (itemConfiguration.primaryKeyDefinition().propertyName().equals(query.getAttributeName())) {
+            // if the query is for the has then call query on table
+            return table.query(querySpec);
+        } else {
+            final Index index = table.getIndex(query.getAttributeName() + "_idx");
+            return index.query(querySpec);
+        }
+    }
+
+    /**
+     * Counts the items matching the query with Query or Scan requests which select only the count, so no items are
+     * returned; a table scan is split into the scan segments configured. A key set query reads only the keys of the
+     * items.
+     */
+    @Override
+    public <T extends Item> long count(final Query query, final Class<T> itemClass) {
+        if (query instanceof KeySetQuery) {
+            return fetch(query, itemClass, Collections.<String> emptyList()).size();
+        }
+        if (!(query instanceof AttributeQuery)) {
+            throw new UnsupportedQueryException(query.getClass());
+        }
+        final AttributeQuery attributeQuery = (AttributeQuery) query;
+        final List<AttributeQuery> singleValueQueries = indexSingleValueQueries(attributeQuery, itemClass);
+        if (singleValueQueries != null) {
+            return countAll(singleValueQueries, singleValueQuery -> count(singleValueQuery, itemClass));
+        }
+        final ItemConfiguration itemConfiguration = getItemConfiguration(itemClass);
+        final String tableName = databaseSchemaHolder.schemaName() + "." + itemConfiguration.tableName();
+        final Table table = dynamoDBClient.getTable(tableName);
+        if (itemConfiguration.hasIndexOn(attributeQuery.getAttributeName())
+                && attributeQuery.getCondition().getComparisonOperator() == Operators.EQUALS) {
+            final QuerySpec querySpec;
+            try {
+                querySpec = generateQuerySpec(attributeQuery, itemConfiguration, itemClass);
+            } catch (final ReflectiveOperationException e) {
+                throw new PersistenceResourceFailureException(
+                        "Could not create QuerySpec on table " + tableName + " for query: " + query, e);
             }
+            return countQuery(query(table, querySpec.withSelect(Select.COUNT), attributeQuery, itemConfiguration));
+        }
+        checkScanAttributes(attributeQuery, itemConfiguration);
+        final int scanSegments = itemConfiguration.scanSegments();
+        logger.debug("Performing table scan count with query: " + query + " in " + scanSegments + " segment(s)");
+        if (scanSegments == 1) {
+            return countScan(table.scan(countScanSpec(attributeQuery, itemClass, tableName)));
+        }
+        final List<Callable<Long>> segmentScans = new ArrayList<>();
+        for (int segment = 0; segment < scanSegments; segment++) {
+            final ScanSpec scanSpec = countScanSpec(attributeQuery, itemClass, tableName).withSegment(segment)
+                    .withTotalSegments(scanSegments);
+            segmentScans.add(() -> countScan(table.scan(scanSpec)));
+        }
+        long count = 0;
+        for (final Long segmentCount : invokeAll(segmentScans)) {
+            count += segmentCount;
         }
+        return count;
+    }
 
-        return totalItems;
+    private <T extends Item> ScanSpec countScanSpec(final AttributeQuery query, final Class<T> itemClass,
+            final String tableName) {
+        try {
+            return generateScanSpec(query, itemClass).withSelect(Select.COUNT);
+        } catch (InstantiationException | IllegalAccessException | IllegalArgumentException
+                | InvocationTargetException | NoSuchMethodException | SecurityException e) {
+            throw new PersistenceResourceFailureException(
+                    "Could not create ScanSpec on table " + tableName + " for query: " + query, e);
+        }
+    }
+
+    private static long countQuery(final ItemCollection<QueryOutcome> itemCollection) {
+        return sumPageCounts(itemCollection, outcome -> outcome.getQueryResult().getCount());
+    }
+
+    private static long countScan(final ItemCollection<ScanOutcome> itemCollection) {
+        return sumPageCounts(itemCollection, outcome -> outcome.getScanResult().getCount());
+    }
+
+    /**
+     * @param itemCollection Results of a Query or Scan selecting only the count
+     * @param resultCount Reads the count from the low level result of a page
+     * @return The sum of the counts of all the pages
+     */
+    private static <R> long sumPageCounts(final ItemCollection<R> itemCollection,
+            final Function<R, Integer> resultCount) {
+        long count = 0;
+        Page<com.amazonaws.services.dynamodbv2.document.Item, R> page = itemCollection.firstPage();
+        while (page != null) {
+            final Integer pageCount = resultCount.apply(page.getLowLevelResult());
+            if (pageCount != null) {
+                count += pageCount;
+            }
+            page = page.hasNextPage() ? page.nextPage() : null;
+        }
+        return count;
     }
 
-    private QuerySpec generateQuerySpec(final AttributeQuery query) {
+    private <T extends Item, R> Supplier<ItemPage<T>> itemCollectionPages(final ItemCollection<R> itemCollection,
+            final Class<T> itemClass) {
+        return documentPages(itemCollection::firstPage, itemClass);
+    }
+
+    private <T extends Item, R> Supplier<ItemPage<T>> documentPages(
+            final Supplier<Page<com.amazonaws.services.dynamodbv2.document.Item, R>> pageReader,
+            final Class<T> itemClass) {
+        return () -> {
+            final Page<com.amazonaws.services.dynamodbv2.document.Item, R> page = pageReader.get();
+            final List<T> items = new ArrayList<>(page.size());
+            for (final com.amazonaws.services.dynamodbv2.document.Item item : page) {
+                items.add(documentItemConverter.toItem(item, itemClass));
+            }
+            return new ItemPage<>(items, page.hasNextPage() ? documentPages(page::nextPage, itemClass) : null);
+        };
+    }
+
+    /**
+     * A condition on the supporting attribute of the key or index queried is a range key condition; any other
+     * supporting condition filters the items read
+     */
+    private <T extends Item> QuerySpec generateQuerySpec(final AttributeQuery query,
+            final ItemConfiguration itemConfiguration, final Class<T> itemClass) throws ReflectiveOperationException {
         final QuerySpec querySpec = new QuerySpec().withHashKey(query.getAttributeName(),
                 query.getCondition().getValues().iterator().next());
+        if (query instanceof CompoundAttributeQuery) {
+            final CompoundAttributeQuery compoundAttributeQuery = (CompoundAttributeQuery) query;
+            final String supportingAttributeName = compoundAttributeQuery.getSupportingAttributeName();
+            final Condition supportingCondition = compoundAttributeQuery.getSupportingCondition();
+            final Class<?> operandType = getScanSpecOperandType(supportingAttributeName, itemClass);
+            final Operators comparisonOperator = supportingCondition.getComparisonOperator();
+            if (supportingAttributeName.equals(itemConfiguration.supportingPropertyName(query.getAttributeName()))
+                    && comparisonOperator != Operators.NULL && comparisonOperator != Operators.NOT_NULL) {
+                querySpec.withRangeKeyCondition(
+                        rangeKeyCondition(supportingAttributeName, supportingCondition, operandType));
+            } else {
+                querySpec.withQueryFilters(queryFilter(supportingAttributeName, supportingCondition, operandType));
+            }
+        }
         return querySpec;
     }
 
+    private RangeKeyCondition rangeKeyCondition(final String attributeName, final Condition condition,
+            final Class<?> operandType) throws ReflectiveOperationException {
+        final List<String> values = new ArrayList<>(condition.getValues());
+        final RangeKeyCondition rangeKeyCondition = new RangeKeyCondition(attributeName);
+        switch (condition.getComparisonOperator()) {
+            case EQUALS:
+                return rangeKeyCondition.eq(operand(operandType, values.get(0)));
+            case LESS_THAN_OR_EQUALS:
+                return rangeKeyCondition.le(operand(operandType, values.get(0)));
+            case GREATER_THAN_OR_EQUALS:
+                return rangeKeyCondition.ge(operand(operandType, values.get(0)));
+            case BETWEEN:
+                return rangeKeyCondition.between(operand(operandType, values.get(0)),
+                        operand(operandType, values.get(values.size() - 1)));
+            case BEGINS_WITH:
+                return rangeKeyCondition.beginsWith(values.get(0));
+            default:
+                throw new IllegalArgumentException(
+                        "Unsupported range key condition: " + condition.getComparisonOperator());
+        }
+    }
+
+    private QueryFilter queryFilter(final String attributeName, final Condition condition,
+            final Class<?> operandType) throws ReflectiveOperationException {
+        final List<String> values = new ArrayList<>(condition.getValues());
+        final QueryFilter queryFilter = new QueryFilter(attributeName);
+        switch (condition.getComparisonOperator()) {
+            case NULL:
+                return queryFilter.notExist();
+            case NOT_NULL:
+                return queryFilter.exists();
+            case EQUALS:
+                return values.size() == 1 ? queryFilter.eq(values.get(0)) : queryFilter.in(values.toArray());
+            case LESS_THAN_OR_EQUALS:
+                return queryFilter.le(operand(operandType, values.get(0)));
+            case GREATER_THAN_OR_EQUALS:
+                return queryFilter.ge(operand(operandType, values.get(0)));
+            case BETWEEN:
+                return queryFilter.between(operand(operandType, values.get(0)),
+                        operand(operandType, values.get(values.size() - 1)));
+            case BEGINS_WITH:
+                return queryFilter.beginsWith(values.get(0));
+            default:
+                throw new IllegalArgumentException("Unsupported query filter: " + condition.getComparisonOperator());
+        }
+    }
+
+    /**
+     * @return The value as an instance of the type of the attribute compared with it, if the type can be constructed
+     *         from a string
+     */
+    private Object operand(final Class<?> operandType, final String value)
+            throws InstantiationException, IllegalAccessException, InvocationTargetException, NoSuchMethodException {
+        if (operandType == null || operandType == String.class || operandType == boolean.class
+                || operandType == char.class) {
+            return value;
+        }
+        if (operandType.isPrimitive()) {
+            return new BigDecimal(value);
+        }
+        return operandType.getConstructor(String.class).newInstance(value);
+    }
+
+    /**
+     * Properties of binary encoded documents other than keys and indexes are not held as attributes, so cannot be
+     * scanned for
+     */
+    private void checkScanAttributes(final AttributeQuery query, final ItemConfiguration itemConfiguration) {
+        if (itemConfiguration.documentEncoding() != DocumentEncoding.BINARY) {
+            return;
+        }
+        final Collection<String> unencodedAttributeNames = unencodedAttributeNames(itemConfiguration);
+        if (!unencodedAttributeNames.contains(query.getAttributeName()) || query instanceof CompoundAttributeQuery
+                && !unencodedAttributeNames.contains(((CompoundAttributeQuery) query).getSupportingAttributeName())) {
+            throw new IllegalArgumentException("Cannot scan on a binary encoded attribute of item "
+                    + itemConfiguration.itemClass() + " for query: " + query);
+        }
+    }
+
     private <T extends Item> ScanSpec generateScanSpec(final AttributeQuery query, final Class<T> tableItemType)
             throws InstantiationException, IllegalAccessException, IllegalArgumentException, InvocationTargetException,
             NoSuchMethodException, SecurityException {
-        final Class<?> clazz = getScanSpecOperandType(query.getAttributeName(), tableItemType);
-
         ScanSpec scanSpec = new ScanSpec();
 
         final StringBuilder filterExpression = new StringBuilder();
         final ValueMap valueMap = new ValueMap();
-        int valueMapCount = 0;
+        appendFilterExpression(filterExpression, valueMap, query.getAttributeName(), query.getCondition(),
+                tableItemType);
+        if (query instanceof CompoundAttributeQuery) {
+            final CompoundAttributeQuery compoundAttributeQuery = (CompoundAttributeQuery) query;
+            final StringBuilder supportingFilterExpression = new StringBuilder();
+            appendFilterExpression(supportingFilterExpression, valueMap,
+                    compoundAttributeQuery.getSupportingAttributeName(),
+                    compoundAttributeQuery.getSupportingCondition(), tableItemType);
+            if (filterExpression.length() > 0 && supportingFilterExpression.length() > 0) {
+                filterExpression.append(" AND ");
+            }
+            filterExpression.append(supportingFilterExpression);
+        }
+
+        if (filterExpression.length() > 0) {
+            scanSpec = scanSpec.withFilterExpression(filterExpression.toString());
+        }
+        if (valueMap.size() > 0) {
+            scanSpec = scanSpec.withValueMap(valueMap);
+        }
+        return scanSpec;
+    }
 
-        if (query.getCondition().getComparisonOperator() == Operators.NULL) {
-            filterExpression.append("attribute_not_exists(").append(query.getAttributeName()).append(")");
-        } else if (query.getCondition().getComparisonOperator() == Operators.NOT_NULL) {
-            filterExpression.append("attribute_exists(").append(query.getAttributeName()).append(")");
+    private <T extends Item> void appendFilterExpression(final StringBuilder filterExpression,
+            final ValueMap valueMap, final String attributeName, final Condition condition,
+            final Class<T> tableItemType) throws InstantiationException, IllegalAccessException,
+            IllegalArgumentException, InvocationTargetException, NoSuchMethodException, SecurityException {
+        final Class<?> clazz = getScanSpecOperandType(attributeName, tableItemType);
+        int valueMapCount = valueMap.size();
+
+        if (condition.getComparisonOperator() == Operators.NULL) {
+            filterExpression.append("attribute_not_exists(").append(attributeName).append(")");
+        } else if (condition.getComparisonOperator() == Operators.NOT_NULL) {
+            filterExpression.append("attribute_exists(").append(attributeName).append(")");
         } else {
-            if (query.getCondition().getComparisonOperator() == Operators.EQUALS) {
-                filterExpression.append(query.getAttributeName()).append(" IN (");
+            if (condition.getComparisonOperator() == Operators.EQUALS) {
+                filterExpression.append(attributeName).append(" IN (");
 
-                final Iterator<String> valueIterator = query.getCondition().getValues().iterator();
+                final Iterator<String> valueIterator = condition.getValues().iterator();
                 while (valueIterator.hasNext()) {
                     filterExpression.append(":").append(valueMapCount);
                     valueMap.with(":" + valueMapCount, valueIterator.next());
@@ -325,36 +828,38 @@ public class DynamoDocumentStoreTemplate extends AbstractDynamoDbTemplate {
                     }
                 }
                 filterExpression.append(")");
-            } else if (query.getCondition().getComparisonOperator() == Operators.LESS_THAN_OR_EQUALS) {
-                if (query.getCondition().getValues().size() == 1) {
-                    filterExpression.append(query.getAttributeName()).append(" <= ").append(":").append(valueMapCount);
+            } else if (condition.getComparisonOperator() == Operators.LESS_THAN_OR_EQUALS) {
+                if (condition.getValues().size() == 1) {
+                    filterExpression.append(attributeName).append(" <= ").append(":").append(valueMapCount);
                     final Object valueInstance = clazz.getConstructor(String.class)
-                            .newInstance(query.getCondition().getValues().iterator().next());
+                            .newInstance(condition.getValues().iterator().next());
                     valueMap.with(":" + valueMapCount, valueInstance);
                     valueMapCount++;
                 } else {
                     // throw exeption??
                 }
-            } else if (query.getCondition().getComparisonOperator() == Operators.GREATER_THAN_OR_EQUALS) {
-                if (query.getCondition().getValues().size() == 1) {
-                    filterExpression.append(query.getAttributeName()).append(" >= ").append(":").append(valueMapCount);
+            } else if (condition.getComparisonOperator() == Operators.GREATER_THAN_OR_EQUALS) {
+                if (condition.getValues().size() == 1) {
+                    filterExpression.append(attributeName).append(" >= ").append(":").append(valueMapCount);
                     final Object valueInstance = clazz.getConstructor(String.class)
-                            .newInstance(query.getCondition().getValues().iterator().next());
+                            .newInstance(condition.getValues().iterator().next());
                     valueMap.with(":" + valueMapCount, valueInstance);
                     valueMapCount++;
                 } else {
                     // throw exeption??
                 }
+            } else if (condition.getComparisonOperator() == Operators.BETWEEN) {
+                final List<String> values = new ArrayList<>(condition.getValues());
+                filterExpression.append(attributeName).append(" BETWEEN :").append(valueMapCount).append(" AND :")
+                        .append(valueMapCount + 1);
+                valueMap.with(":" + valueMapCount, operand(clazz, values.get(0)));
+                valueMap.with(":" + (valueMapCount + 1), operand(clazz, values.get(values.size() - 1)));
+            } else if (condition.getComparisonOperator() == Operators.BEGINS_WITH) {
+                filterExpression.append("begins_with(").append(attributeName).append(", :").append(valueMapCount)
+                        .append(")");
+                valueMap.with(":" + valueMapCount, condition.getValues().iterator().next());
             }
         }
-
-        if (filterExpression.length() > 0) {
-            scanSpec = scanSpec.withFilterExpression(filterExpression.toString());
-        }
-        if (valueMap.size() > 0) {
-            scanSpec = scanSpec.withValueMap(valueMap);
-        }
-        return scanSpec;
     }
 
     private <T extends Item> Class<?> getScanSpecOperandType(final String fieldName, final Class<T> itemClass) {
@@ -388,17 +893,6 @@ public class DynamoDocumentStoreTemplate extends AbstractDynamoDbTemplate {
         return value.toString();
     }
 
-    private String mergeJSONObjects(final String itemJsonString, final String previousJsonString) {
-        try {
-            final JsonNode itemJson = mapper.readTree(itemJsonString);
-            final JsonNode previousItemJson = mapper.readTree(previousJsonString);
-            final JsonNode mergedItemJson = merge(itemJson, previousItemJson);
-            return mapper.writeValueAsString(mergedItemJson);
-        } catch (final IOException e) {
-            throw new RuntimeException("JSON Exception" + e);
-        }
-    }
-
     public JsonNode merge(final JsonNode newNode, final JsonNode oldNode) {
         final Set<String> allFieldNames = new HashSet<>();
         final Iterator<String> newNodeFieldNames = oldNode.fieldNames();
@@ -432,14 +926,4 @@ public class DynamoDocumentStoreTemplate extends AbstractDynamoDbTemplate {
         }
         return mergedNode;
     }
-
-    private <T extends Item> T stringToItem(final String item, final Class<T> valueType) {
-        T value = null;
-        try {
-            value = mapper.readValue(item, valueType);
-        } catch (final IOException e) {
-            throw new PersistenceResourceFailureException("Failure converting String to item", e);
-        }
-        return value;
-    }
 }
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2014 Click Travel Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.clicktravel.infrastructure.persistence.aws.dynamodb;
+
+import java.util.*;
+import java.util.Map.Entry;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Count-min sketch of how often keys are seen, with a small set of the most frequent keys. Counting a key takes a
+ * fixed number of atomic increments regardless of how many distinct keys have been seen; the set of frequent keys is
+ * only locked when a key is estimated to be seen more often than the least frequent key already held. Estimates never
+ * undercount, but may overcount by a small fraction of the total count.
+ */
+public class HotKeySketch {
+
+    private static final int DEFAULT_DEPTH = 4;
+    private static final int DEFAULT_WIDTH = 1024;
+    private static final int DEFAULT_CAPACITY = 10;
+
+    private final int depth;
+    private final int width;
+    private final int capacity;
+    private final AtomicLongArray counts;
+    private final Map<String, Long> hotKeys = new HashMap<>();
+    private volatile long admissionCount;
+
+    public HotKeySketch() {
+        this(DEFAULT_DEPTH, DEFAULT_WIDTH, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param depth Number of hash functions; more reduces the chance of a large overcount
+     * @param width Number of counters per hash function; more reduces the size of an overcount
+     * @param capacity Number of most frequent keys held
+     */
+    public HotKeySketch(final int depth, final int width, final int capacity) {
+        if (depth < 1 || width < 1 || capacity < 1) {
+            throw new IllegalArgumentException(
+                    "Invalid hot key sketch; depth:" + depth + " width:" + width + " capacity:" + capacity);
+        }
+        this.depth = depth;
+        this.width = width;
+        this.capacity = capacity;
+        counts = new AtomicLongArray(depth * width);
+    }
+
+    public void add(final String key) {
+        final int hash = key.hashCode();
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counts.incrementAndGet(index(hash, row)));
+        }
+        if (estimate >= admissionCount) {
+            admit(key, estimate);
+        }
+    }
+
+    /**
+     * @param key Key to estimate
+     * @return Estimate of the number of times the key has been added, which is never less than the actual number
+     */
+    public long estimate(final String key) {
+        final int hash = key.hashCode();
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counts.get(index(hash, row)));
+        }
+        return estimate;
+    }
+
+    /**
+     * @return Most frequently added keys with the estimate of the number of times each was added, most frequent first
+     */
+    public synchronized Map<String, Long> hotKeys() {
+        final List<Entry<String, Long>> entries = new ArrayList<>(hotKeys.entrySet());
+        entries.sort(Collections.reverseOrder(Entry.comparingByValue()));
+        final Map<String, Long> sortedHotKeys = new LinkedHashMap<>();
+        for (final Entry<String, Long> entry : entries) {
+            sortedHotKeys.put(entry.getKey(), entry.getValue());
+        }
+        return sortedHotKeys;
+    }
+
+    public synchronized void reset() {
+        for (int i = 0; i < counts.length(); i++) {
+            counts.set(i, 0);
+        }
+        hotKeys.clear();
+        admissionCount = 0;
+    }
+
+    private synchronized void admit(final String key, final long estimate) {
+        hotKeys.put(key, estimate);
+        if (hotKeys.size() > capacity) {
+            hotKeys.remove(Collections.min(hotKeys.entrySet(), Entry.comparingByValue()).getKey());
+        }
+        if (hotKeys.size() == capacity) {
+            admissionCount = Collections.min(hotKeys.values());
+        }
+    }
+
+    private int index(final int hash, final int row) {
+        int h = hash + row * 0x9E3779B9;
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        h ^= h >>> 16;
+        return row * width + (h & Integer.MAX_VALUE) % width;
+    }
+
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2014 Click Travel Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.clicktravel.infrastructure.persistence.aws.dynamodb;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * A page of items read from DynamoDB, with the means to read the page which follows it
+ */
+public class ItemPage<T> {
+
+    private final List<T> items;
+    private final Supplier<ItemPage<T>> nextPage;
+
+    /**
+     * @param items Items in this page
+     * @param nextPage Reads the next page when called, or {@code null} if this is the last page
+     */
+    public ItemPage(final List<T> items, final Supplier<ItemPage<T>> nextPage) {
+        this.items = items;
+        this.nextPage = nextPage;
+    }
+
+    public List<T> items() {
+        return items;
+    }
+
+    public Supplier<ItemPage<T>> nextPage() {
+        return nextPage;
+    }
+
+    public boolean isLastPage() {
+        return nextPage == null;
+    }
+
+}
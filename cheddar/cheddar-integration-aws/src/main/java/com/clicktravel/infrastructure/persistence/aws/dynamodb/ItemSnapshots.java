@@ -0,0 +1,106 @@
+/*
+ * Copyright 2014 Click Travel Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.clicktravel.infrastructure.persistence.aws.dynamodb;
+
+import java.util.*;
+import java.util.Map.Entry;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.clicktravel.cheddar.infrastructure.persistence.database.ItemId;
+
+/**
+ * Remembers the attributes of the most recently read or written items, so an update of an item can be limited to the
+ * attributes which differ from those stored. A version alone does not identify what is stored, as an item deleted and
+ * created again can reach the same version, so each item is created with a token unique to that creation, which any
+ * later put of the whole item removes. A snapshot is only used by an update which expects both the version and the
+ * creation token of the snapshot; the conditional write then guarantees the snapshot is what is stored, whichever
+ * copy of the item the update was made to. Items without a creation token are updated in full. The least recently
+ * used snapshots are discarded once the capacity is reached.
+ */
+class ItemSnapshots {
+
+    private final Map<Entry<String, ItemId>, Snapshot> snapshots;
+
+    ItemSnapshots(final int capacity) {
+        snapshots = new LinkedHashMap<Entry<String, ItemId>, Snapshot>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(final Entry<Entry<String, ItemId>, Snapshot> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * @param tableName Table holding the item
+     * @param itemId Id of the item
+     * @param version Version of the item held in the table
+     * @param attributes All attributes of the item held in the table
+     */
+    synchronized void put(final String tableName, final ItemId itemId, final Long version,
+            final Map<String, AttributeValue> attributes) {
+        if (version == null) {
+            return;
+        }
+        snapshots.put(key(tableName, itemId), new Snapshot(version, new HashMap<>(attributes)));
+    }
+
+    /**
+     * @return Attributes of the item if a snapshot of the given version is held, otherwise {@code null}
+     */
+    synchronized Map<String, AttributeValue> get(final String tableName, final ItemId itemId, final Long version) {
+        final Snapshot snapshot = snapshots.get(key(tableName, itemId));
+        return snapshot == null || !snapshot.version.equals(version) ? null : snapshot.attributes;
+    }
+
+    synchronized void remove(final String tableName, final ItemId itemId) {
+        snapshots.remove(key(tableName, itemId));
+    }
+
+    private static Entry<String, ItemId> key(final String tableName, final ItemId itemId) {
+        return new AbstractMap.SimpleImmutableEntry<>(tableName, itemId);
+    }
+
+    /**
+     * @return {@code true} if both attribute values are absent, or are equal disregarding the order of set members
+     */
+    static boolean sameValue(final AttributeValue attributeValue, final AttributeValue otherAttributeValue) {
+        if (attributeValue == null || otherAttributeValue == null) {
+            return attributeValue == otherAttributeValue;
+        }
+        if (attributeValue.getSS() != null && otherAttributeValue.getSS() != null) {
+            return new HashSet<>(attributeValue.getSS()).equals(new HashSet<>(otherAttributeValue.getSS()));
+        }
+        if (attributeValue.getNS() != null && otherAttributeValue.getNS() != null) {
+            return new HashSet<>(attributeValue.getNS()).equals(new HashSet<>(otherAttributeValue.getNS()));
+        }
+        return attributeValue.equals(otherAttributeValue);
+    }
+
+    private static class Snapshot {
+
+        private final Long version;
+        private final Map<String, AttributeValue> attributes;
+
+        private Snapshot(final Long version, final Map<String, AttributeValue> attributes) {
+            this.version = version;
+            this.attributes = attributes;
+        }
+    }
+
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2014 Click Travel Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.clicktravel.infrastructure.persistence.aws.dynamodb;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A block of sequence keys reserved from the database, forming the arithmetic progression {@code firstKey},
+ * {@code firstKey + step}, ... of {@code size} keys. Keys are taken without locking, so a block may be shared by
+ * concurrent callers; a request for more keys than remain exhausts the block and the remaining keys are not issued.
+ */
+public class KeyBlock {
+
+    private final long firstKey;
+    private final long step;
+    private final int size;
+    private final AtomicInteger taken = new AtomicInteger();
+
+    public KeyBlock(final long firstKey, final long step, final int size) {
+        if (step < 1 || size < 0) {
+            throw new IllegalArgumentException("Invalid key block; step:" + step + " size:" + size);
+        }
+        this.firstKey = firstKey;
+        this.step = step;
+        this.size = size;
+    }
+
+    /**
+     * @param keyCount Number of keys to take
+     * @return The keys taken, or {@code null} if fewer than {@code keyCount} keys remain
+     */
+    public List<Long> take(final int keyCount) {
+        final int start = taken.getAndAdd(keyCount);
+        if (start > size - keyCount) {
+            taken.set(size);
+            return null;
+        }
+        final List<Long> keys = new ArrayList<>(keyCount);
+        for (int i = start; i < start + keyCount; i++) {
+            keys.add(firstKey + i * step);
+        }
+        return keys;
+    }
+
+    public int remaining() {
+        return Math.max(0, size - taken.get());
+    }
+
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2014 Click Travel Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.clicktravel.infrastructure.persistence.aws.dynamodb;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.util.BinaryUtils;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Converts between the last evaluated key of a DynamoDB Query or Scan and the opaque cursor handed to callers, from
+ * which the exclusive start key of the request for the next page is recovered
+ */
+final class PageCursors {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private PageCursors() {
+    }
+
+    /**
+     * @param lastEvaluatedKey Last evaluated key of a Query or Scan result, may be {@code null}
+     * @return Cursor for the next page, or {@code null} if there is no next page
+     */
+    static String encode(final Map<String, AttributeValue> lastEvaluatedKey) {
+        if (lastEvaluatedKey == null || lastEvaluatedKey.isEmpty()) {
+            return null;
+        }
+        final Map<String, Map<String, String>> key = new TreeMap<>();
+        for (final Entry<String, AttributeValue> entry : lastEvaluatedKey.entrySet()) {
+            final AttributeValue attributeValue = entry.getValue();
+            final Map<String, String> typedValue = new HashMap<>();
+            if (attributeValue.getS() != null) {
+                typedValue.put("S", attributeValue.getS());
+            } else if (attributeValue.getN() != null) {
+                typedValue.put("N", attributeValue.getN());
+            } else if (attributeValue.getB() != null) {
+                typedValue.put("B",
+                        Base64.getEncoder().encodeToString(BinaryUtils.copyAllBytesFrom(attributeValue.getB())));
+            } else {
+                throw new IllegalStateException("Unsupported key attribute type for " + entry.getKey());
+            }
+            key.put(entry.getKey(), typedValue);
+        }
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(MAPPER.writeValueAsBytes(key));
+        } catch (final IOException e) {
+            throw new IllegalStateException("Could not encode cursor", e);
+        }
+    }
+
+    /**
+     * @param cursor Cursor returned with a previous page, may be {@code null}
+     * @return Exclusive start key for the request reading the next page, or {@code null} to read the first page
+     * @throws IllegalArgumentException If the cursor is not one returned by {@link #encode(Map)}
+     */
+    static Map<String, AttributeValue> decode(final String cursor) {
+        if (cursor == null) {
+            return null;
+        }
+        try {
+            final Map<String, Map<String, String>> key = MAPPER.readValue(Base64.getUrlDecoder().decode(cursor),
+                    new TypeReference<Map<String, Map<String, String>>>() {
+                    });
+            final Map<String, AttributeValue> exclusiveStartKey = new HashMap<>();
+            for (final Entry<String, Map<String, String>> entry : key.entrySet()) {
+                final Map<String, String> typedValue = entry.getValue();
+                final AttributeValue attributeValue;
+                if (typedValue.containsKey("S")) {
+                    attributeValue = new AttributeValue().withS(typedValue.get("S"));
+                } else if (typedValue.containsKey("N")) {
+                    attributeValue = new AttributeValue().withN(typedValue.get("N"));
+                } else if (typedValue.containsKey("B")) {
+                    attributeValue = new AttributeValue()
+                            .withB(ByteBuffer.wrap(Base64.getDecoder().decode(typedValue.get("B"))));
+                } else {
+                    throw new IllegalArgumentException("Invalid cursor: " + cursor);
+                }
+                exclusiveStartKey.put(entry.getKey(), attributeValue);
+            }
+            return exclusiveStartKey;
+        } catch (final IOException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2014 Click Travel Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.clicktravel.infrastructure.persistence.aws.dynamodb;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * Iterates over items read a page at a time. Each page is read on the executor as soon as the caller starts consuming
+ * the page before it, so reading overlaps consumption while at most two pages are held at once. A page is released as
+ * soon as its last item has been returned.
+ */
+public class PrefetchingItemIterator<T> implements Iterator<T>, AutoCloseable {
+
+    private final ExecutorService executorService;
+    private Iterator<T> currentPage = Collections.emptyIterator();
+    private Future<ItemPage<T>> nextPage;
+
+    public PrefetchingItemIterator(final Supplier<ItemPage<T>> firstPage, final ExecutorService executorService) {
+        this.executorService = executorService;
+        nextPage = executorService.submit(firstPage::get);
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!currentPage.hasNext() && nextPage != null) {
+            final ItemPage<T> page = awaitNextPage();
+            currentPage = page.items().iterator();
+            nextPage = page.isLastPage() ? null : executorService.submit(page.nextPage()::get);
+        }
+        return currentPage.hasNext();
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return currentPage.next();
+    }
+
+    /**
+     * Cancels the read of any page not yet consumed
+     */
+    @Override
+    public void close() {
+        if (nextPage != null) {
+            nextPage.cancel(true);
+            nextPage = null;
+        }
+        currentPage = Collections.emptyIterator();
+    }
+
+    private ItemPage<T> awaitNextPage() {
+        try {
+            return nextPage.get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            close();
+            throw new IllegalStateException("Interrupted while waiting for DynamoDb page", e);
+        } catch (final ExecutionException e) {
+            nextPage = null;
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2014 Click Travel Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.clicktravel.infrastructure.persistence.aws.dynamodb;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.*;
+
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.model.*;
+
+/**
+ * Wraps a DynamoDB client so that each request first waits for the {@link AdaptiveRateLimiter} of every table or
+ * index it accesses. Limiters are told of a request throttled when it fails with
+ * {@link ProvisionedThroughputExceededException}, when a batch write leaves items of their table unprocessed, or when
+ * a batch get returns no items and leaves keys of their table unprocessed. A batch get which returns some items may
+ * have stopped at the size limit of a response, so its unprocessed keys are not taken as throttling.
+ *
+ * The wrapper only sees the outcome of the last attempt at a request; attempts retried by the client itself are seen
+ * through a {@link ThrottlingRetryCondition} in the configuration of the client.
+ */
+class RequestRateLimiter implements InvocationHandler {
+
+    private final AmazonDynamoDB amazonDynamoDbClient;
+    private final AdaptiveRateLimiters adaptiveRateLimiters;
+
+    private RequestRateLimiter(final AmazonDynamoDB amazonDynamoDbClient,
+            final AdaptiveRateLimiters adaptiveRateLimiters) {
+        this.amazonDynamoDbClient = amazonDynamoDbClient;
+        this.adaptiveRateLimiters = adaptiveRateLimiters;
+    }
+
+    /**
+     * @param amazonDynamoDbClient Client to wrap
+     * @param adaptiveRateLimiters Rate limiters of the tables and indexes accessed
+     * @return Client limiting the rate of requests made through it
+     */
+    static AmazonDynamoDB rateLimitingClient(final AmazonDynamoDB amazonDynamoDbClient,
+            final AdaptiveRateLimiters adaptiveRateLimiters) {
+        return (AmazonDynamoDB) Proxy.newProxyInstance(AmazonDynamoDB.class.getClassLoader(),
+                new Class<?>[] { AmazonDynamoDB.class },
+                new RequestRateLimiter(amazonDynamoDbClient, adaptiveRateLimiters));
+    }
+
+    @Override
+    public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+        final Map<String, AdaptiveRateLimiter> rateLimiters = args != null && args.length == 1
+                ? rateLimiters(adaptiveRateLimiters, args[0]) : Collections.<String, AdaptiveRateLimiter> emptyMap();
+        for (final AdaptiveRateLimiter rateLimiter : rateLimiters.values()) {
+            rateLimiter.acquire();
+        }
+        final Object result;
+        try {
+            result = method.invoke(amazonDynamoDbClient, args);
+        } catch (final InvocationTargetException e) {
+            if (e.getCause() instanceof ProvisionedThroughputExceededException) {
+                for (final AdaptiveRateLimiter rateLimiter : rateLimiters.values()) {
+                    rateLimiter.onThrottled();
+                }
+            }
+            throw e.getCause();
+        }
+        final Set<String> throttledTableNames = throttledTableNames(result);
+        for (final Map.Entry<String, AdaptiveRateLimiter> entry : rateLimiters.entrySet()) {
+            if (throttledTableNames.contains(entry.getKey())) {
+                entry.getValue().onThrottled();
+            } else {
+                entry.getValue().onSuccess();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return Rate limiter of each table or index accessed by the request, by table name
+     */
+    static Map<String, AdaptiveRateLimiter> rateLimiters(final AdaptiveRateLimiters adaptiveRateLimiters,
+            final Object request) {
+        if (request instanceof GetItemRequest) {
+            return rateLimiter(adaptiveRateLimiters, ((GetItemRequest) request).getTableName(), null);
+        } else if (request instanceof PutItemRequest) {
+            return rateLimiter(adaptiveRateLimiters, ((PutItemRequest) request).getTableName(), null);
+        } else if (request instanceof UpdateItemRequest) {
+            return rateLimiter(adaptiveRateLimiters, ((UpdateItemRequest) request).getTableName(), null);
+        } else if (request instanceof DeleteItemRequest) {
+            return rateLimiter(adaptiveRateLimiters, ((DeleteItemRequest) request).getTableName(), null);
+        } else if (request instanceof QueryRequest) {
+            final QueryRequest queryRequest = (QueryRequest) request;
+            return rateLimiter(adaptiveRateLimiters, queryRequest.getTableName(), queryRequest.getIndexName());
+        } else if (request instanceof ScanRequest) {
+            final ScanRequest scanRequest = (ScanRequest) request;
+            return rateLimiter(adaptiveRateLimiters, scanRequest.getTableName(), scanRequest.getIndexName());
+        } else if (request instanceof BatchGetItemRequest) {
+            return rateLimiters(adaptiveRateLimiters, ((BatchGetItemRequest) request).getRequestItems().keySet());
+        } else if (request instanceof BatchWriteItemRequest) {
+            return rateLimiters(adaptiveRateLimiters, ((BatchWriteItemRequest) request).getRequestItems().keySet());
+        }
+        return Collections.emptyMap();
+    }
+
+    private static Map<String, AdaptiveRateLimiter> rateLimiter(final AdaptiveRateLimiters adaptiveRateLimiters,
+            final String tableName, final String indexName) {
+        return Collections.singletonMap(tableName, adaptiveRateLimiters.rateLimiter(tableName, indexName));
+    }
+
+    private static Map<String, AdaptiveRateLimiter> rateLimiters(final AdaptiveRateLimiters adaptiveRateLimiters,
+            final Set<String> tableNames) {
+        final Map<String, AdaptiveRateLimiter> rateLimiters = new HashMap<>();
+        for (final String tableName : tableNames) {
+            rateLimiters.put(tableName, adaptiveRateLimiters.rateLimiter(tableName, null));
+        }
+        return rateLimiters;
+    }
+
+    private Set<String> throttledTableNames(final Object result) {
+        final Map<String, ?> unprocessed;
+        if (result instanceof BatchGetItemResult) {
+            final BatchGetItemResult batchGetItemResult = (BatchGetItemResult) result;
+            if (hasItems(batchGetItemResult.getResponses())) {
+                return Collections.emptySet();
+            }
+            unprocessed = batchGetItemResult.getUnprocessedKeys();
+        } else if (result instanceof BatchWriteItemResult) {
+            unprocessed = ((BatchWriteItemResult) result).getUnprocessedItems();
+        } else {
+            return Collections.emptySet();
+        }
+        return unprocessed == null ? Collections.<String> emptySet() : unprocessed.keySet();
+    }
+
+    private boolean hasItems(final Map<String, List<Map<String, AttributeValue>>> responses) {
+        if (responses != null) {
+            for (final List<Map<String, AttributeValue>> items : responses.values()) {
+                if (!items.isEmpty()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+}
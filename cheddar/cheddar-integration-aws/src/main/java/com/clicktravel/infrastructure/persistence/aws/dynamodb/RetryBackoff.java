@@ -0,0 +1,72 @@
+/*
+ * Copyright 2014 Click Travel Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.clicktravel.infrastructure.persistence.aws.dynamodb;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Exponential backoff with full jitter for retrying DynamoDB requests which leave work unprocessed. The delay before
+ * retry {@code n} (from 0) is a random time between zero and {@code baseDelayMillis * 2^n}, capped at
+ * {@code maxDelayMillis}. Retries stop once {@code timeoutMillis} have passed since the first attempt.
+ */
+public class RetryBackoff {
+
+    private final long baseDelayMillis;
+    private final long maxDelayMillis;
+    private final long timeoutMillis;
+
+    public RetryBackoff(final long baseDelayMillis, final long maxDelayMillis, final long timeoutMillis) {
+        if (baseDelayMillis < 1 || maxDelayMillis < baseDelayMillis || timeoutMillis < 0) {
+            throw new IllegalArgumentException("Invalid retry backoff; base delay:" + baseDelayMillis
+                    + " max delay:" + maxDelayMillis + " timeout:" + timeoutMillis);
+        }
+        this.baseDelayMillis = baseDelayMillis;
+        this.maxDelayMillis = maxDelayMillis;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * @param startMillis Time of the first attempt, as given by {@link System#currentTimeMillis()}
+     * @return Time after which no more retries should be made
+     */
+    public long deadline(final long startMillis) {
+        return startMillis + timeoutMillis;
+    }
+
+    /**
+     * @param retry Number of retries already made since the last attempt that made progress
+     * @return Randomised delay before the next retry
+     */
+    public long delayMillis(final int retry) {
+        final long ceiling = retry >= Long.numberOfLeadingZeros(baseDelayMillis) - 1 ? maxDelayMillis
+                : Math.min(maxDelayMillis, baseDelayMillis << retry);
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    public long baseDelayMillis() {
+        return baseDelayMillis;
+    }
+
+    public long maxDelayMillis() {
+        return maxDelayMillis;
+    }
+
+    public long timeoutMillis() {
+        return timeoutMillis;
+    }
+
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2014 Click Travel Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.clicktravel.infrastructure.persistence.aws.dynamodb;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntFunction;
+
+/**
+ * Hands out sequence keys from blocks reserved from the database, in the manner of a hi/lo allocator. Keys are taken
+ * from the current block without locking. Once a quarter or less of the current block remains, the next block is
+ * reserved on the executor so that callers seldom wait for the database. A caller which needs the next block before a
+ * worker has started reserving it reserves it itself, so allocation never waits for a free worker. Requests for more
+ * keys than a block holds are reserved directly.
+ */
+public class SequenceKeyAllocator {
+
+    private final int blockSize;
+    private final int refillThreshold;
+    private final IntFunction<KeyBlock> reserveKeys;
+    private final Executor executor;
+    private final AtomicReference<FutureTask<KeyBlock>> nextBlock = new AtomicReference<>();
+    private volatile KeyBlock currentBlock = new KeyBlock(0, 1, 0);
+
+    /**
+     * @param blockSize Number of keys to reserve at a time
+     * @param reserveKeys Reserves the given number of keys from the database
+     * @param executor Executor on which blocks are reserved ahead of need
+     */
+    public SequenceKeyAllocator(final int blockSize, final IntFunction<KeyBlock> reserveKeys, final Executor executor) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("Block size must be more than zero");
+        }
+        this.blockSize = blockSize;
+        refillThreshold = blockSize / 4;
+        this.reserveKeys = reserveKeys;
+        this.executor = executor;
+    }
+
+    public List<Long> allocate(final int keyCount) {
+        if (keyCount > blockSize) {
+            return reserveKeys.apply(keyCount).take(keyCount);
+        }
+        while (true) {
+            final KeyBlock block = currentBlock;
+            final List<Long> keys = block.take(keyCount);
+            if (keys != null) {
+                if (block.remaining() <= refillThreshold) {
+                    reserveNextBlock();
+                }
+                return keys;
+            }
+            replaceCurrentBlock(block);
+        }
+    }
+
+    private void reserveNextBlock() {
+        final FutureTask<KeyBlock> block = new FutureTask<>(() -> reserveKeys.apply(blockSize));
+        if (nextBlock.compareAndSet(null, block)) {
+            try {
+                executor.execute(block);
+            } catch (final RejectedExecutionException e) {
+                // Reserved by the caller which next needs the block
+            }
+        }
+    }
+
+    private synchronized void replaceCurrentBlock(final KeyBlock exhaustedBlock) {
+        if (currentBlock != exhaustedBlock) {
+            return;
+        }
+        reserveNextBlock();
+        final FutureTask<KeyBlock> block = nextBlock.getAndSet(null);
+        block.run();
+        try {
+            currentBlock = block.get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for sequence keys", e);
+        } catch (final ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2014 Click Travel Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.clicktravel.infrastructure.persistence.aws.dynamodb;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.AmazonWebServiceRequest;
+import com.amazonaws.retry.RetryPolicy.RetryCondition;
+import com.amazonaws.retry.RetryUtils;
+
+/**
+ * Decorates the retry condition of a DynamoDB client to tell the {@link AdaptiveRateLimiter} of every table or index
+ * accessed by a request each time an attempt at it is throttled, so that limits adapt while the client is still
+ * retrying. The client only consults its retry condition while retries remain; the throttling of the last attempt is
+ * seen by {@link RequestRateLimiter} instead.
+ */
+class ThrottlingRetryCondition implements RetryCondition {
+
+    private final RetryCondition retryCondition;
+    private final AdaptiveRateLimiters adaptiveRateLimiters;
+
+    ThrottlingRetryCondition(final RetryCondition retryCondition, final AdaptiveRateLimiters adaptiveRateLimiters) {
+        this.retryCondition = retryCondition;
+        this.adaptiveRateLimiters = adaptiveRateLimiters;
+    }
+
+    @Override
+    public boolean shouldRetry(final AmazonWebServiceRequest originalRequest, final AmazonClientException exception,
+            final int retriesAttempted) {
+        if (exception instanceof AmazonServiceException
+                && RetryUtils.isThrottlingException((AmazonServiceException) exception)) {
+            for (final AdaptiveRateLimiter rateLimiter : RequestRateLimiter
+                    .rateLimiters(adaptiveRateLimiters, originalRequest).values()) {
+                rateLimiter.onThrottled();
+            }
+        }
+        return retryCondition.shouldRetry(originalRequest, exception, retriesAttempted);
+    }
+
+}
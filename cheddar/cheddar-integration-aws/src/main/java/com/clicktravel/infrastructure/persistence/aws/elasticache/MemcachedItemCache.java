@@ -61,4 +61,9 @@ public class MemcachedItemCache implements ItemCache {
         }
         memcachedClient.set(key, (int) expire, item);
     }
+
+    @Override
+    public void removeItem(final String key) {
+        memcachedClient.delete(key);
+    }
 }
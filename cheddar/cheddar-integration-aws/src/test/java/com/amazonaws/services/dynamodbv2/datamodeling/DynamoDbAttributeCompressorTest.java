@@ -0,0 +1,85 @@
+/*
+ * Copyright 2014 Click Travel Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.amazonaws.services.dynamodbv2.datamodeling;
+
+import static com.clicktravel.common.random.Randoms.randomString;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.util.Collections;
+
+import org.junit.Test;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+
+public class DynamoDbAttributeCompressorTest {
+
+    @Test
+    public void shouldCompressAndDecompress_withRepetitiveString() throws Exception {
+        // Given
+        final String value = String.join(" ", Collections.nCopies(200, randomString(20))) + "é中";
+
+        // When
+        final byte[] compressed = DynamoDbAttributeCompressor.compress(value);
+
+        // Then
+        assertNotNull(compressed);
+        assertTrue(compressed.length < value.length());
+        assertTrue(DynamoDbAttributeCompressor.isCompressed(compressed));
+        assertEquals(value, DynamoDbAttributeCompressor.decompress(compressed));
+    }
+
+    @Test
+    public void shouldNotCompress_withIncompressibleString() throws Exception {
+        // When
+        final byte[] compressed = DynamoDbAttributeCompressor.compress(randomString(5));
+
+        // Then
+        assertNull(compressed);
+    }
+
+    @Test
+    public void shouldNotCompressAttributeValue_withStringShorterThanThreshold() throws Exception {
+        // Given
+        final AttributeValue attributeValue = new AttributeValue(
+                String.join(" ", Collections.nCopies(20, randomString(10))));
+
+        // When
+        final AttributeValue compressedAttributeValue = DynamoDbAttributeCompressor.compress(attributeValue, 1000);
+
+        // Then
+        assertSame(attributeValue, compressedAttributeValue);
+    }
+
+    @Test
+    public void shouldNotDecompressAttributeValue_withUncompressedBinaryValue() throws Exception {
+        // Given
+        final AttributeValue attributeValue = new AttributeValue()
+                .withB(ByteBuffer.wrap(randomString(10).getBytes("UTF-8")));
+
+        // When
+        final AttributeValue decompressedAttributeValue = DynamoDbAttributeCompressor.decompress(attributeValue);
+
+        // Then
+        assertSame(attributeValue, decompressedAttributeValue);
+    }
+
+}
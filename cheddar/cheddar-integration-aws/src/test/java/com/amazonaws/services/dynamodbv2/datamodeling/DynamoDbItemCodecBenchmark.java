@@ -0,0 +1,100 @@
+/*
+ * Copyright 2014 Click Travel Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.amazonaws.services.dynamodbv2.datamodeling;
+
+import static com.amazonaws.services.dynamodbv2.datamodeling.DynamoDbItemCodecTest.itemConfiguration;
+import static com.amazonaws.services.dynamodbv2.datamodeling.DynamoDbItemCodecTest.randomStubItem;
+import static com.amazonaws.services.dynamodbv2.datamodeling.DynamoDbItemCodecTest.randomStubWithRangeItem;
+
+import java.beans.PropertyDescriptor;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.clicktravel.cheddar.infrastructure.persistence.database.Item;
+import com.clicktravel.cheddar.infrastructure.persistence.database.configuration.ItemConfiguration;
+import com.clicktravel.infrastructure.persistence.aws.dynamodb.StubVariantItem;
+
+/**
+ * Compares the per-call reflective {@link DynamoDbPropertyMarshaller} with the precompiled {@link DynamoDbItemCodec}
+ * when encoding and decoding the stub items of the DynamoDB template test suites. This is not run as part of the build;
+ * run the {@link #main(String[])} method directly.
+ */
+public class DynamoDbItemCodecBenchmark {
+
+    private static final int WARM_UP_ITERATIONS = 20000;
+    private static final int MEASURED_ITERATIONS = 200000;
+
+    public static void main(final String[] args) throws Exception {
+        final List<Item> items = Arrays.asList(randomStubItem(), randomStubWithRangeItem(), new StubVariantItem());
+        for (final Item item : items) {
+            final ItemConfiguration itemConfiguration = itemConfiguration(item.getClass());
+            final DynamoDbItemCodec itemCodec = new DynamoDbItemCodec(itemConfiguration);
+            run(item, itemConfiguration, itemCodec, WARM_UP_ITERATIONS);
+            final long[] nanos = run(item, itemConfiguration, itemCodec, MEASURED_ITERATIONS);
+            System.out.println(String.format(
+                    "%-20s marshaller: %6d ns/item (encode+decode)   codec: %6d ns/item (encode+decode)   x%.1f",
+                    item.getClass().getSimpleName(), nanos[0] / MEASURED_ITERATIONS, nanos[1] / MEASURED_ITERATIONS,
+                    (double) nanos[0] / nanos[1]));
+        }
+    }
+
+    private static long[] run(final Item item, final ItemConfiguration itemConfiguration,
+            final DynamoDbItemCodec itemCodec, final int iterations) throws Exception {
+        final Class<? extends Item> itemClass = item.getClass();
+        long blackhole = 0;
+
+        final long marshallerStart = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            final Map<String, AttributeValue> attributeMap = new HashMap<>();
+            for (final PropertyDescriptor propertyDescriptor : itemConfiguration.propertyDescriptors()) {
+                if (propertyDescriptor.getWriteMethod() != null) {
+                    attributeMap.put(propertyDescriptor.getName(),
+                            DynamoDbPropertyMarshaller.getValue(item, propertyDescriptor));
+                }
+            }
+            final Item decodedItem = itemClass.newInstance();
+            for (final PropertyDescriptor propertyDescriptor : itemConfiguration.propertyDescriptors()) {
+                DynamoDbPropertyMarshaller.setValue(decodedItem, propertyDescriptor,
+                        attributeMap.get(propertyDescriptor.getName()));
+            }
+            blackhole += decodedItem.hashCode();
+        }
+        final long marshallerNanos = System.nanoTime() - marshallerStart;
+
+        final long codecStart = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            final Map<String, AttributeValue> attributeMap = new HashMap<>();
+            for (final DynamoDbPropertyCodec propertyCodec : itemCodec.propertyCodecs()) {
+                if (propertyCodec.isWritable()) {
+                    attributeMap.put(propertyCodec.propertyName(), propertyCodec.getValue(item));
+                }
+            }
+            final Item decodedItem = itemCodec.decode(itemClass.newInstance(), attributeMap);
+            blackhole += decodedItem.hashCode();
+        }
+        final long codecNanos = System.nanoTime() - codecStart;
+
+        if (blackhole == 42) {
+            System.out.print("");
+        }
+        return new long[] { marshallerNanos, codecNanos };
+    }
+
+}
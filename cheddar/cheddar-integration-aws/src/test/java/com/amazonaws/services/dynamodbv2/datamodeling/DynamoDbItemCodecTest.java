@@ -0,0 +1,308 @@
+/*
+ * Copyright 2014 Click Travel Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.amazonaws.services.dynamodbv2.datamodeling;
+
+import static com.clicktravel.common.random.Randoms.randomBoolean;
+import static com.clicktravel.common.random.Randoms.randomDateTime;
+import static com.clicktravel.common.random.Randoms.randomEnum;
+import static com.clicktravel.common.random.Randoms.randomId;
+import static com.clicktravel.common.random.Randoms.randomInt;
+import static com.clicktravel.common.random.Randoms.randomLong;
+import static com.clicktravel.common.random.Randoms.randomString;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.beans.PropertyDescriptor;
+import java.util.*;
+
+import org.joda.time.DateTime;
+import org.junit.Test;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.clicktravel.cheddar.infrastructure.persistence.database.Item;
+import com.clicktravel.cheddar.infrastructure.persistence.database.configuration.CompoundPrimaryKeyDefinition;
+import com.clicktravel.cheddar.infrastructure.persistence.database.configuration.ItemConfiguration;
+import com.clicktravel.cheddar.infrastructure.persistence.database.configuration.ParentItemConfiguration;
+import com.clicktravel.cheddar.infrastructure.persistence.database.configuration.VariantItemConfiguration;
+import com.clicktravel.infrastructure.persistence.aws.dynamodb.StubItem;
+import com.clicktravel.infrastructure.persistence.aws.dynamodb.StubParentItem;
+import com.clicktravel.infrastructure.persistence.aws.dynamodb.StubVariantItem;
+import com.clicktravel.infrastructure.persistence.aws.dynamodb.StubWithRangeItem;
+
+public class DynamoDbItemCodecTest {
+
+    @Test
+    public void shouldEncode_withSameAttributeValuesAsPropertyMarshaller() throws Exception {
+        // Given
+        final Collection<Item> items = Arrays.asList(randomStubItem(), randomStubWithRangeItem(),
+                new StubParentItem(), new StubVariantItem(), randomTypedItem(), new TypedItem());
+
+        for (final Item item : items) {
+            final DynamoDbItemCodec itemCodec = new DynamoDbItemCodec(itemConfiguration(item.getClass()));
+
+            for (final DynamoDbPropertyCodec propertyCodec : itemCodec.propertyCodecs()) {
+                // When
+                final AttributeValue attributeValue = propertyCodec.getValue(item);
+
+                // Then
+                assertEquals(DynamoDbPropertyMarshaller.getValue(item, propertyCodec.propertyDescriptor()),
+                        attributeValue);
+            }
+        }
+    }
+
+    @Test
+    public void shouldDecode_withSamePropertyValuesAsPropertyMarshaller() throws Exception {
+        // Given
+        final Collection<Item> items = Arrays.asList(randomStubItem(), randomStubWithRangeItem(),
+                new StubParentItem(), new StubVariantItem(), randomTypedItem());
+
+        for (final Item item : items) {
+            final DynamoDbItemCodec itemCodec = new DynamoDbItemCodec(itemConfiguration(item.getClass()));
+            final Map<String, AttributeValue> attributeMap = new HashMap<>();
+            for (final DynamoDbPropertyCodec propertyCodec : itemCodec.propertyCodecs()) {
+                attributeMap.put(propertyCodec.propertyName(), propertyCodec.getValue(item));
+            }
+            final Item expectedItem = item.getClass().newInstance();
+            for (final DynamoDbPropertyCodec propertyCodec : itemCodec.propertyCodecs()) {
+                DynamoDbPropertyMarshaller.setValue(expectedItem, propertyCodec.propertyDescriptor(),
+                        attributeMap.get(propertyCodec.propertyName()));
+            }
+
+            // When
+            final Item decodedItem = itemCodec.decode(item.getClass().newInstance(), attributeMap);
+
+            // Then
+            for (final DynamoDbPropertyCodec propertyCodec : itemCodec.propertyCodecs()) {
+                assertEquals(propertyCodec.getPropertyValue(expectedItem), propertyCodec.getPropertyValue(decodedItem));
+            }
+        }
+    }
+
+    @Test
+    public void shouldEncode_withNullForEmptyCollectionAndEmptyString() throws Exception {
+        // Given
+        final TypedItem item = randomTypedItem();
+        item.setLongSetProperty(new HashSet<Long>());
+        item.setStringProperty("");
+        final DynamoDbItemCodec itemCodec = new DynamoDbItemCodec(itemConfiguration(TypedItem.class));
+
+        // When
+        final AttributeValue longSetValue = itemCodec.propertyCodec("longSetProperty").getValue(item);
+        final AttributeValue stringValue = itemCodec.propertyCodec("stringProperty").getValue(item);
+
+        // Then
+        assertNull(longSetValue);
+        assertNull(stringValue);
+    }
+
+    @Test
+    public void shouldEncodeAndDecode_withCompressedProperty() throws Exception {
+        // Given
+        final StubItem item = randomStubItem();
+        final String stringProperty = String.join(",", Collections.nCopies(100, randomString(10)));
+        item.setStringProperty(stringProperty);
+        final ItemConfiguration itemConfiguration = itemConfiguration(StubItem.class);
+        itemConfiguration.registerCompressedProperties(Arrays.asList("stringProperty"));
+        final DynamoDbItemCodec itemCodec = new DynamoDbItemCodec(itemConfiguration);
+
+        // When
+        final AttributeValue attributeValue = itemCodec.propertyCodec("stringProperty").getValue(item);
+        final StubItem decodedItem = itemCodec.decode(new StubItem(),
+                Collections.singletonMap("stringProperty", attributeValue));
+
+        // Then
+        assertNull(attributeValue.getS());
+        assertTrue(attributeValue.getB().remaining() < stringProperty.length());
+        assertEquals(stringProperty, decodedItem.getStringProperty());
+    }
+
+    @Test
+    public void shouldDecode_withUncompressedValueOfCompressedProperty() throws Exception {
+        // Given
+        final String stringProperty = randomString(1000);
+        final ItemConfiguration itemConfiguration = itemConfiguration(StubItem.class);
+        itemConfiguration.registerCompressedProperties(Arrays.asList("stringProperty"));
+        final DynamoDbItemCodec itemCodec = new DynamoDbItemCodec(itemConfiguration);
+
+        // When
+        final StubItem decodedItem = itemCodec.decode(new StubItem(),
+                Collections.singletonMap("stringProperty", new AttributeValue(stringProperty)));
+
+        // Then
+        assertEquals(stringProperty, decodedItem.getStringProperty());
+    }
+
+    @Test
+    public void shouldNotBeWritable_withReadOnlyProperty() throws Exception {
+        // Given
+        final DynamoDbItemCodec itemCodec = new DynamoDbItemCodec(itemConfiguration(StubItem.class));
+
+        // When
+        final DynamoDbPropertyCodec propertyCodec = itemCodec.propertyCodec("class");
+
+        // Then
+        assertFalse(propertyCodec.isWritable());
+    }
+
+    @Test
+    public void shouldProvideCodec_forEveryPropertyDescriptor() throws Exception {
+        // Given
+        final ItemConfiguration itemConfiguration = itemConfiguration(TypedItem.class);
+
+        // When
+        final DynamoDbItemCodec itemCodec = new DynamoDbItemCodec(itemConfiguration);
+
+        // Then
+        assertEquals(itemConfiguration.propertyDescriptors().size(), itemCodec.propertyCodecs().size());
+        for (final PropertyDescriptor propertyDescriptor : itemConfiguration.propertyDescriptors()) {
+            assertEquals(propertyDescriptor, itemCodec.propertyCodec(propertyDescriptor.getName()).propertyDescriptor());
+        }
+    }
+
+    static ItemConfiguration itemConfiguration(final Class<? extends Item> itemClass) {
+        if (itemClass == StubWithRangeItem.class) {
+            return new ItemConfiguration(itemClass, randomString(10),
+                    new CompoundPrimaryKeyDefinition("id", "supportingId"));
+        }
+        if (itemClass == StubVariantItem.class) {
+            return new VariantItemConfiguration(new ParentItemConfiguration(StubParentItem.class, randomString(10)),
+                    itemClass, randomString(5));
+        }
+        return new ItemConfiguration(itemClass, randomString(10));
+    }
+
+    static StubItem randomStubItem() {
+        final StubItem item = new StubItem();
+        item.setId(randomId());
+        item.setStringProperty(randomString(10));
+        item.setStringProperty2(randomString(10));
+        item.setBooleanProperty(randomBoolean());
+        item.setStringSetProperty(new HashSet<>(Arrays.asList(randomString(10), randomString(10))));
+        item.setVersion(randomLong());
+        return item;
+    }
+
+    static StubWithRangeItem randomStubWithRangeItem() {
+        final StubWithRangeItem item = new StubWithRangeItem();
+        item.setId(randomId());
+        item.setSupportingId(randomId());
+        item.setStringProperty(randomString(10));
+        item.setBooleanProperty(randomBoolean());
+        item.setStringSetProperty(new HashSet<>(Arrays.asList(randomString(10), randomString(10))));
+        item.setVersion(randomLong());
+        return item;
+    }
+
+    static TypedItem randomTypedItem() {
+        final TypedItem item = new TypedItem();
+        item.setId(randomId());
+        item.setStringProperty(randomString(10));
+        item.setIntProperty(randomInt(1000));
+        item.setDateTimeProperty(randomDateTime());
+        item.setEnumProperty(randomEnum(StubEnum.class));
+        item.setLongSetProperty(new HashSet<>(Arrays.asList(randomLong(), randomLong())));
+        item.setListProperty(Arrays.asList(randomString(10), randomString(10)));
+        item.setVersion(randomLong());
+        return item;
+    }
+
+    public enum StubEnum {
+        A, B, C
+    }
+
+    public static class TypedItem implements Item {
+
+        private String id;
+        private String stringProperty;
+        private int intProperty;
+        private DateTime dateTimeProperty;
+        private StubEnum enumProperty;
+        private Set<Long> longSetProperty;
+        private List<String> listProperty;
+        private Long version;
+
+        public String getId() {
+            return id;
+        }
+
+        public void setId(final String id) {
+            this.id = id;
+        }
+
+        public String getStringProperty() {
+            return stringProperty;
+        }
+
+        public void setStringProperty(final String stringProperty) {
+            this.stringProperty = stringProperty;
+        }
+
+        public int getIntProperty() {
+            return intProperty;
+        }
+
+        public void setIntProperty(final int intProperty) {
+            this.intProperty = intProperty;
+        }
+
+        public DateTime getDateTimeProperty() {
+            return dateTimeProperty;
+        }
+
+        public void setDateTimeProperty(final DateTime dateTimeProperty) {
+            this.dateTimeProperty = dateTimeProperty;
+        }
+
+        public StubEnum getEnumProperty() {
+            return enumProperty;
+        }
+
+        public void setEnumProperty(final StubEnum enumProperty) {
+            this.enumProperty = enumProperty;
+        }
+
+        public Set<Long> getLongSetProperty() {
+            return longSetProperty;
+        }
+
+        public void setLongSetProperty(final Set<Long> longSetProperty) {
+            this.longSetProperty = longSetProperty;
+        }
+
+        public List<String> getListProperty() {
+            return listProperty;
+        }
+
+        public void setListProperty(final List<String> listProperty) {
+            this.listProperty = listProperty;
+        }
+
+        @Override
+        public Long getVersion() {
+            return version;
+        }
+
+        @Override
+        public void setVersion(final Long version) {
+            this.version = version;
+        }
+    }
+
+}
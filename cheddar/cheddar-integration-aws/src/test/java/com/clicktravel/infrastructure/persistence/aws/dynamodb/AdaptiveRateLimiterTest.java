@@ -0,0 +1,116 @@
+/*
+ * Copyright 2014 Click Travel Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.clicktravel.infrastructure.persistence.aws.dynamodb;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class AdaptiveRateLimiterTest {
+
+    @Test
+    public void shouldNotLimit_withoutThrottling() throws Exception {
+        // Given
+        final AdaptiveRateLimiter adaptiveRateLimiter = new AdaptiveRateLimiter(1, 10, 0.5);
+
+        // When
+        for (int i = 0; i < 100; i++) {
+            adaptiveRateLimiter.acquire();
+            adaptiveRateLimiter.onSuccess();
+        }
+
+        // Then
+        assertFalse(adaptiveRateLimiter.isLimited());
+        assertEquals(Double.POSITIVE_INFINITY, adaptiveRateLimiter.rate(), 0.0);
+    }
+
+    @Test
+    public void shouldLimitToFractionOfObservedRate_onThrottled() throws Exception {
+        // Given
+        final AdaptiveRateLimiter adaptiveRateLimiter = new AdaptiveRateLimiter(1, 10, 0.5);
+        for (int i = 0; i < 100; i++) {
+            adaptiveRateLimiter.acquire();
+        }
+
+        // When
+        adaptiveRateLimiter.onThrottled();
+        adaptiveRateLimiter.onThrottled();
+
+        // Then
+        assertTrue(adaptiveRateLimiter.isLimited());
+        assertTrue(adaptiveRateLimiter.rate() >= 1);
+        assertTrue(adaptiveRateLimiter.rate() <= 50);
+        assertEquals(2, adaptiveRateLimiter.throttledCount());
+    }
+
+    @Test
+    public void shouldIncreaseRate_onSuccessAfterOneSecond() throws Exception {
+        // Given
+        final AdaptiveRateLimiter adaptiveRateLimiter = new AdaptiveRateLimiter(1, 10, 0.5);
+        for (int i = 0; i < 100; i++) {
+            adaptiveRateLimiter.acquire();
+        }
+        adaptiveRateLimiter.onThrottled();
+        final double throttledRate = adaptiveRateLimiter.rate();
+        Thread.sleep(1001);
+
+        // When
+        adaptiveRateLimiter.acquire();
+        adaptiveRateLimiter.onSuccess();
+
+        // Then
+        assertEquals(throttledRate + 10, adaptiveRateLimiter.rate(), 0.0);
+    }
+
+    @Test
+    public void shouldLiftLimit_withObservedRateUnderHalfOfLimit() throws Exception {
+        // Given
+        final AdaptiveRateLimiter adaptiveRateLimiter = new AdaptiveRateLimiter(1, 10, 0.5);
+        for (int i = 0; i < 100; i++) {
+            adaptiveRateLimiter.acquire();
+        }
+        adaptiveRateLimiter.onThrottled();
+        Thread.sleep(1001);
+        adaptiveRateLimiter.acquire();
+        Thread.sleep(1001);
+
+        // When
+        adaptiveRateLimiter.acquire();
+        adaptiveRateLimiter.onSuccess();
+
+        // Then
+        assertFalse(adaptiveRateLimiter.isLimited());
+    }
+
+    @Test
+    public void shouldNotCreateAdaptiveRateLimiter_withInvalidDecreaseFactor() throws Exception {
+        // When
+        IllegalArgumentException actualException = null;
+        try {
+            new AdaptiveRateLimiter(1, 10, 1.5);
+        } catch (final IllegalArgumentException e) {
+            actualException = e;
+        }
+
+        // Then
+        assertNotNull(actualException);
+    }
+
+}
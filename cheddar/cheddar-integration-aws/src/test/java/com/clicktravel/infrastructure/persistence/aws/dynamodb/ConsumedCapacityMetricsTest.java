@@ -0,0 +1,98 @@
+/*
+ * Copyright 2014 Click Travel Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.clicktravel.infrastructure.persistence.aws.dynamodb;
+
+import static com.clicktravel.common.random.Randoms.randomString;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.Capacity;
+import com.amazonaws.services.dynamodbv2.model.ConsumedCapacity;
+
+public class ConsumedCapacityMetricsTest {
+
+    @Test
+    public void shouldRecordConsumedCapacity_perTableIndexAndOperation() throws Exception {
+        // Given
+        final ConsumedCapacityMetrics consumedCapacityMetrics = new ConsumedCapacityMetrics();
+        final String tableName = randomString(10);
+        final String indexName = randomString(10);
+        final ConsumedCapacity queryConsumedCapacity = new ConsumedCapacity().withTableName(tableName)
+                .withCapacityUnits(3.0).withTable(new Capacity().withCapacityUnits(1.0))
+                .addGlobalSecondaryIndexesEntry(indexName, new Capacity().withCapacityUnits(2.0));
+        final ConsumedCapacity putItemConsumedCapacity = new ConsumedCapacity().withTableName(tableName)
+                .withCapacityUnits(1.0);
+
+        // When
+        consumedCapacityMetrics.recordConsumedCapacity("Query", queryConsumedCapacity);
+        consumedCapacityMetrics.recordConsumedCapacity("Query", queryConsumedCapacity);
+        consumedCapacityMetrics.recordConsumedCapacity("PutItem", putItemConsumedCapacity);
+
+        // Then
+        final Map<String, ConsumedCapacityCount> counts = new HashMap<>();
+        for (final ConsumedCapacityCount count : consumedCapacityMetrics.consumedCapacity()) {
+            counts.put(count.indexName() + "/" + count.operation(), count);
+        }
+        assertEquals(3, counts.size());
+        assertEquals(2.0, counts.get("null/Query").readCapacityUnits(), 0.0);
+        assertEquals(4.0, counts.get(indexName + "/Query").readCapacityUnits(), 0.0);
+        assertEquals(0.0, counts.get(indexName + "/Query").writeCapacityUnits(), 0.0);
+        assertEquals(1.0, counts.get("null/PutItem").writeCapacityUnits(), 0.0);
+        assertEquals(0.0, counts.get("null/PutItem").readCapacityUnits(), 0.0);
+    }
+
+    @Test
+    public void shouldRecordPartitionKeys_asHotKeys() throws Exception {
+        // Given
+        final ConsumedCapacityMetrics consumedCapacityMetrics = new ConsumedCapacityMetrics();
+        final String tableName = randomString(10);
+        final String indexName = randomString(10);
+        final String value = randomString(10);
+
+        // When
+        consumedCapacityMetrics.recordPartitionKey(tableName, null, new AttributeValue(value));
+        consumedCapacityMetrics.recordPartitionKey(tableName, indexName, new AttributeValue().withN("42"));
+
+        // Then
+        final Map<String, Long> hotKeys = consumedCapacityMetrics.hotKeys();
+        assertEquals(Long.valueOf(1), hotKeys.get(tableName + ":" + value));
+        assertEquals(Long.valueOf(1), hotKeys.get(tableName + "/" + indexName + ":42"));
+    }
+
+    @Test
+    public void shouldReset() throws Exception {
+        // Given
+        final ConsumedCapacityMetrics consumedCapacityMetrics = new ConsumedCapacityMetrics();
+        consumedCapacityMetrics.recordConsumedCapacity("GetItem",
+                new ConsumedCapacity().withTableName(randomString(10)).withCapacityUnits(1.0));
+        consumedCapacityMetrics.recordPartitionKey(randomString(10), null, new AttributeValue(randomString(10)));
+
+        // When
+        consumedCapacityMetrics.reset();
+
+        // Then
+        assertTrue(consumedCapacityMetrics.consumedCapacity().isEmpty());
+        assertTrue(consumedCapacityMetrics.hotKeys().isEmpty());
+    }
+
+}
@@ -0,0 +1,290 @@
+/*
+ * Copyright 2014 Click Travel Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.clicktravel.infrastructure.persistence.aws.dynamodb;
+
+import static com.clicktravel.common.random.Randoms.randomBoolean;
+import static com.clicktravel.common.random.Randoms.randomDateTime;
+import static com.clicktravel.common.random.Randoms.randomDouble;
+import static com.clicktravel.common.random.Randoms.randomFloat;
+import static com.clicktravel.common.random.Randoms.randomId;
+import static com.clicktravel.common.random.Randoms.randomInt;
+import static com.clicktravel.common.random.Randoms.randomLong;
+import static com.clicktravel.common.random.Randoms.randomString;
+import static org.junit.Assert.assertEquals;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+import org.joda.time.DateTime;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDbAttributeCompressor;
+import com.amazonaws.services.dynamodbv2.document.Item;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.joda.JodaModule;
+
+public class DocumentItemConverterTest {
+
+    private ObjectMapper mapper;
+    private DocumentItemConverter documentItemConverter;
+
+    @Before
+    public void setUp() {
+        mapper = new ObjectMapper();
+        mapper.enableDefaultTyping(ObjectMapper.DefaultTyping.JAVA_LANG_OBJECT);
+        mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        mapper.configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false);
+        mapper.registerModule(new JodaModule());
+        documentItemConverter = new DocumentItemConverter(mapper);
+    }
+
+    @Test
+    public void shouldConvertToDocument_withItem() throws Exception {
+        // Given
+        final StubDocumentItem item = randomStubDocumentItem();
+
+        // When
+        final Item document = documentItemConverter.toDocument(item);
+
+        // Then
+        assertEquals(Item.fromJSON(mapper.writeValueAsString(item)), document);
+    }
+
+    @Test
+    public void shouldConvertToItem_withDocument() throws Exception {
+        // Given
+        final Item document = Item.fromJSON(mapper.writeValueAsString(randomStubDocumentItem()));
+
+        // When
+        final StubDocumentItem item = documentItemConverter.toItem(document, StubDocumentItem.class);
+
+        // Then
+        final StubDocumentItem expectedItem = mapper.readValue(document.toJSON(), StubDocumentItem.class);
+        assertEquals(mapper.writeValueAsString(expectedItem), mapper.writeValueAsString(item));
+    }
+
+    @Test
+    public void shouldConvertToJsonNode_withCompressedString() throws Exception {
+        // Given
+        final String value = String.join(",", Collections.nCopies(100, randomString(10)));
+        final Item document = new Item().withString("id", randomId()).withBinary("stringProperty",
+                DynamoDbAttributeCompressor.compress(value));
+
+        // When
+        final JsonNode jsonNode = documentItemConverter.toJsonNode(document);
+
+        // Then
+        assertEquals(value, jsonNode.get("stringProperty").textValue());
+    }
+
+    @Test
+    public void shouldConvertToItem_withBinaryDocument() throws Exception {
+        // Given
+        final StubDocumentItem item = randomStubDocumentItem();
+        final Item document = documentItemConverter.toBinaryDocument(documentItemConverter.toJsonNode(item),
+                Arrays.asList("id"));
+
+        // When
+        final StubDocumentItem convertedItem = documentItemConverter.toItem(document, StubDocumentItem.class);
+
+        // Then
+        final StubDocumentItem attributeConvertedItem = documentItemConverter
+                .toItem(documentItemConverter.toDocument(item), StubDocumentItem.class);
+        assertEquals(item.getId(), document.getString("id"));
+        assertEquals(2, document.numberOfAttributes());
+        assertEquals(mapper.writeValueAsString(attributeConvertedItem), mapper.writeValueAsString(convertedItem));
+    }
+
+    @Test
+    public void shouldConvertToJsonNode_withStoredDocument() throws Exception {
+        // Given
+        final Item document = new Item().withString("id", randomId()).withNumber("longProperty", randomLong())
+                .withNumber("doubleProperty", new BigDecimal("1.50"))
+                .withNumber("bigDecimalProperty", new BigDecimal("1E+3"))
+                .withBinary("binaryProperty", randomString().getBytes())
+                .withStringSet("stringSetProperty", randomString(), randomString())
+                .withNumberSet("numberSetProperty", randomInt(100), randomLong()).withNull("objectProperty")
+                .withMap("nestedProperty", Collections.<String, Object> singletonMap("nestedString", randomString()));
+
+        // When
+        final JsonNode jsonNode = documentItemConverter.toJsonNode(document);
+
+        // Then
+        assertEquals(mapper.readTree(document.toJSON()), jsonNode);
+    }
+
+    private StubDocumentItem randomStubDocumentItem() {
+        final StubDocumentItem item = new StubDocumentItem();
+        item.setId(randomId());
+        item.setVersion(randomLong());
+        item.setBooleanProperty(randomBoolean());
+        item.setIntProperty(randomInt(Integer.MAX_VALUE));
+        item.setLongProperty(Long.MAX_VALUE - randomInt(100));
+        item.setDoubleProperty(randomDouble());
+        item.setFloatProperty(randomFloat());
+        item.setBigDecimalProperty(new BigDecimal(randomInt(1000)).movePointLeft(2));
+        item.setBinaryProperty(randomString().getBytes());
+        item.setDateTimeProperty(randomDateTime());
+        item.setStringSetProperty(new HashSet<>(Arrays.asList(randomString(), randomString())));
+        item.setObjectProperty(randomDateTime());
+        final Map<String, Object> mapProperty = new HashMap<>();
+        mapProperty.put(randomString(), randomString());
+        mapProperty.put(randomString(), randomInt(100));
+        item.setMapProperty(mapProperty);
+        final StubDocumentItem nestedItem = new StubDocumentItem();
+        nestedItem.setId(randomId());
+        item.setNestedProperty(nestedItem);
+        return item;
+    }
+
+    public static class StubDocumentItem implements com.clicktravel.cheddar.infrastructure.persistence.database.Item {
+
+        private String id;
+        private Long version;
+        private boolean booleanProperty;
+        private int intProperty;
+        private long longProperty;
+        private double doubleProperty;
+        private float floatProperty;
+        private BigDecimal bigDecimalProperty;
+        private byte[] binaryProperty;
+        private DateTime dateTimeProperty;
+        private Set<String> stringSetProperty;
+        private Object objectProperty;
+        private Map<String, Object> mapProperty;
+        private StubDocumentItem nestedProperty;
+
+        public String getId() {
+            return id;
+        }
+
+        public void setId(final String id) {
+            this.id = id;
+        }
+
+        @Override
+        public Long getVersion() {
+            return version;
+        }
+
+        @Override
+        public void setVersion(final Long version) {
+            this.version = version;
+        }
+
+        public boolean isBooleanProperty() {
+            return booleanProperty;
+        }
+
+        public void setBooleanProperty(final boolean booleanProperty) {
+            this.booleanProperty = booleanProperty;
+        }
+
+        public int getIntProperty() {
+            return intProperty;
+        }
+
+        public void setIntProperty(final int intProperty) {
+            this.intProperty = intProperty;
+        }
+
+        public long getLongProperty() {
+            return longProperty;
+        }
+
+        public void setLongProperty(final long longProperty) {
+            this.longProperty = longProperty;
+        }
+
+        public double getDoubleProperty() {
+            return doubleProperty;
+        }
+
+        public void setDoubleProperty(final double doubleProperty) {
+            this.doubleProperty = doubleProperty;
+        }
+
+        public float getFloatProperty() {
+            return floatProperty;
+        }
+
+        public void setFloatProperty(final float floatProperty) {
+            this.floatProperty = floatProperty;
+        }
+
+        public BigDecimal getBigDecimalProperty() {
+            return bigDecimalProperty;
+        }
+
+        public void setBigDecimalProperty(final BigDecimal bigDecimalProperty) {
+            this.bigDecimalProperty = bigDecimalProperty;
+        }
+
+        public byte[] getBinaryProperty() {
+            return binaryProperty;
+        }
+
+        public void setBinaryProperty(final byte[] binaryProperty) {
+            this.binaryProperty = binaryProperty;
+        }
+
+        public DateTime getDateTimeProperty() {
+            return dateTimeProperty;
+        }
+
+        public void setDateTimeProperty(final DateTime dateTimeProperty) {
+            this.dateTimeProperty = dateTimeProperty;
+        }
+
+        public Set<String> getStringSetProperty() {
+            return stringSetProperty;
+        }
+
+        public void setStringSetProperty(final Set<String> stringSetProperty) {
+            this.stringSetProperty = stringSetProperty;
+        }
+
+        public Object getObjectProperty() {
+            return objectProperty;
+        }
+
+        public void setObjectProperty(final Object objectProperty) {
+            this.objectProperty = objectProperty;
+        }
+
+        public Map<String, Object> getMapProperty() {
+            return mapProperty;
+        }
+
+        public void setMapProperty(final Map<String, Object> mapProperty) {
+            this.mapProperty = mapProperty;
+        }
+
+        public StubDocumentItem getNestedProperty() {
+            return nestedProperty;
+        }
+
+        public void setNestedProperty(final StubDocumentItem nestedProperty) {
+            this.nestedProperty = nestedProperty;
+        }
+    }
+
+}
@@ -22,31 +22,48 @@ import static com.clicktravel.common.random.Randoms.randomLong;
 import static com.clicktravel.common.random.Randoms.randomString;
 import static org.hamcrest.CoreMatchers.hasItems;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.*;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.internal.util.collections.Sets;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 
 import com.amazonaws.AmazonServiceException;
 import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDBAsyncClient;
 import com.amazonaws.services.dynamodbv2.model.*;
 import com.clicktravel.cheddar.infrastructure.persistence.database.GeneratedKeyHolder;
+import com.clicktravel.cheddar.infrastructure.persistence.database.Item;
 import com.clicktravel.cheddar.infrastructure.persistence.database.ItemId;
 import com.clicktravel.cheddar.infrastructure.persistence.database.SequenceKeyGenerator;
 import com.clicktravel.cheddar.infrastructure.persistence.database.configuration.*;
 import com.clicktravel.cheddar.infrastructure.persistence.database.exception.ItemConstraintViolationException;
 import com.clicktravel.cheddar.infrastructure.persistence.database.exception.OptimisticLockException;
 import com.clicktravel.cheddar.infrastructure.persistence.database.query.AttributeQuery;
+import com.clicktravel.cheddar.infrastructure.persistence.database.query.CompoundAttributeQuery;
 import com.clicktravel.cheddar.infrastructure.persistence.database.query.Condition;
+import com.clicktravel.cheddar.infrastructure.persistence.database.query.KeySetQuery;
 import com.clicktravel.cheddar.infrastructure.persistence.database.query.Operators;
+import com.clicktravel.cheddar.infrastructure.persistence.database.query.PageRequest;
+import com.clicktravel.cheddar.infrastructure.persistence.database.query.PagedResult;
+import com.clicktravel.cheddar.infrastructure.persistence.database.query.SortOrder;
 import com.clicktravel.cheddar.infrastructure.persistence.exception.PersistenceResourceFailureException;
 import com.clicktravel.common.random.Randoms;
 
@@ -103,6 +120,68 @@ public class DynamoDbTemplateTest {
         assertEquals(stringSetProperty, returnedItem.getStringSetProperty());
     }
 
+    @Test
+    public void shouldRecordConsumedCapacity_withConsumedCapacityMetrics() throws Exception {
+        // Given
+        final ItemId itemId = new ItemId(randomId());
+        final ItemConfiguration itemConfiguration = new ItemConfiguration(StubItem.class, tableName);
+        when(mockDatabaseSchemaHolder.itemConfigurations()).thenReturn(Arrays.asList(itemConfiguration));
+        final Map<String, AttributeValue> itemAttributeMap = new HashMap<>();
+        itemAttributeMap.put("id", new AttributeValue(itemId.value()));
+        final String fullTableName = schemaName + "." + tableName;
+        when(mockAmazonDynamoDbClient.getItem(any(GetItemRequest.class))).thenReturn(new GetItemResult()
+                .withItem(itemAttributeMap).withConsumedCapacity(new ConsumedCapacity().withTableName(fullTableName)
+                        .withCapacityUnits(0.5).withTable(new Capacity().withCapacityUnits(0.5))));
+        final ConsumedCapacityMetrics consumedCapacityMetrics = new ConsumedCapacityMetrics();
+        final DynamoDbTemplate dynamoDbTemplate = new DynamoDbTemplate(mockDatabaseSchemaHolder);
+        dynamoDbTemplate.setConsumedCapacityMetrics(consumedCapacityMetrics);
+        dynamoDbTemplate.initialize(mockAmazonDynamoDbClient);
+
+        // When
+        dynamoDbTemplate.read(itemId, StubItem.class);
+        dynamoDbTemplate.read(itemId, StubItem.class);
+
+        // Then
+        final ArgumentCaptor<GetItemRequest> getItemRequestCaptor = ArgumentCaptor.forClass(GetItemRequest.class);
+        verify(mockAmazonDynamoDbClient, times(2)).getItem(getItemRequestCaptor.capture());
+        assertEquals(ReturnConsumedCapacity.INDEXES.toString(),
+                getItemRequestCaptor.getValue().getReturnConsumedCapacity());
+        final List<ConsumedCapacityCount> consumedCapacityCounts = consumedCapacityMetrics.consumedCapacity();
+        assertEquals(1, consumedCapacityCounts.size());
+        assertEquals(fullTableName, consumedCapacityCounts.get(0).tableName());
+        assertNull(consumedCapacityCounts.get(0).indexName());
+        assertEquals("GetItem", consumedCapacityCounts.get(0).operation());
+        assertEquals(1.0, consumedCapacityCounts.get(0).readCapacityUnits(), 0.0);
+        assertEquals(0.0, consumedCapacityCounts.get(0).writeCapacityUnits(), 0.0);
+        assertEquals(Long.valueOf(2), consumedCapacityMetrics.hotKeys().get(fullTableName + ":" + itemId.value()));
+    }
+
+    @Test
+    public void shouldLimitRequestRate_withProvisionedThroughputExceededException() throws Exception {
+        // Given
+        final ItemConfiguration itemConfiguration = new ItemConfiguration(StubItem.class, tableName);
+        when(mockDatabaseSchemaHolder.itemConfigurations()).thenReturn(Arrays.asList(itemConfiguration));
+        when(mockAmazonDynamoDbClient.getItem(any(GetItemRequest.class)))
+                .thenThrow(new ProvisionedThroughputExceededException(randomString(10)));
+        final AdaptiveRateLimiters adaptiveRateLimiters = new AdaptiveRateLimiters();
+        final DynamoDbTemplate dynamoDbTemplate = new DynamoDbTemplate(mockDatabaseSchemaHolder);
+        dynamoDbTemplate.setAdaptiveRateLimiters(adaptiveRateLimiters);
+        dynamoDbTemplate.initialize(mockAmazonDynamoDbClient);
+
+        // When
+        PersistenceResourceFailureException actualException = null;
+        try {
+            dynamoDbTemplate.read(new ItemId(randomId()), StubItem.class);
+        } catch (final PersistenceResourceFailureException e) {
+            actualException = e;
+        }
+
+        // Then
+        assertNotNull(actualException);
+        assertTrue(adaptiveRateLimiters.isLimited());
+        assertTrue(adaptiveRateLimiters.limitedRates().containsKey(schemaName + "." + tableName));
+    }
+
     @Test
     public void shouldNotRead_withAmazonServiceException() throws Exception {
         // Given
@@ -131,6 +210,252 @@ public class DynamoDbTemplateTest {
         assertEquals(itemId.value(), getItemRequestCaptor.getValue().getKey().get("id").getS());
     }
 
+    @Test
+    public void shouldRead_withItemIdAndItemClassAndPropertyNames() throws Exception {
+        // Given
+        final ItemId itemId = new ItemId(randomId());
+        final ItemConfiguration itemConfiguration = new ItemConfiguration(StubItem.class, tableName);
+        when(mockDatabaseSchemaHolder.itemConfigurations()).thenReturn(Arrays.asList(itemConfiguration));
+        final String stringProperty = randomString(10);
+        final Map<String, AttributeValue> itemAttributeMap = new HashMap<>();
+        itemAttributeMap.put("id", new AttributeValue(itemId.value()));
+        itemAttributeMap.put("stringProperty", new AttributeValue(stringProperty));
+        when(mockAmazonDynamoDbClient.getItem(any(GetItemRequest.class)))
+                .thenReturn(new GetItemResult().withItem(itemAttributeMap));
+        final DynamoDbTemplate dynamoDbTemplate = new DynamoDbTemplate(mockDatabaseSchemaHolder);
+        dynamoDbTemplate.initialize(mockAmazonDynamoDbClient);
+
+        // When
+        final StubItem returnedItem = dynamoDbTemplate.read(itemId, StubItem.class, Arrays.asList("stringProperty"));
+
+        // Then
+        final ArgumentCaptor<GetItemRequest> getItemRequestCaptor = ArgumentCaptor.forClass(GetItemRequest.class);
+        verify(mockAmazonDynamoDbClient).getItem(getItemRequestCaptor.capture());
+        final GetItemRequest getItemRequest = getItemRequestCaptor.getValue();
+        assertEquals("#p0, #p1", getItemRequest.getProjectionExpression());
+        assertEquals("id", getItemRequest.getExpressionAttributeNames().get("#p0"));
+        assertEquals("stringProperty", getItemRequest.getExpressionAttributeNames().get("#p1"));
+        assertNull(getItemRequest.getAttributesToGet());
+        assertEquals(itemId.value(), returnedItem.getId());
+        assertEquals(stringProperty, returnedItem.getStringProperty());
+        assertNull(returnedItem.getStringProperty2());
+    }
+
+    @Test
+    public void shouldNotRead_withUnknownPropertyName() throws Exception {
+        // Given
+        final ItemConfiguration itemConfiguration = new ItemConfiguration(StubItem.class, tableName);
+        when(mockDatabaseSchemaHolder.itemConfigurations()).thenReturn(Arrays.asList(itemConfiguration));
+        final DynamoDbTemplate dynamoDbTemplate = new DynamoDbTemplate(mockDatabaseSchemaHolder);
+        dynamoDbTemplate.initialize(mockAmazonDynamoDbClient);
+
+        // When
+        IllegalArgumentException actualException = null;
+        try {
+            dynamoDbTemplate.read(new ItemId(randomId()), StubItem.class, Arrays.asList(randomString(10)));
+        } catch (final IllegalArgumentException e) {
+            actualException = e;
+        }
+
+        // Then
+        assertNotNull(actualException);
+        verifyZeroInteractions(mockAmazonDynamoDbClient);
+    }
+
+    @Test
+    public void shouldCheckExists_withItemId() throws Exception {
+        // Given
+        final ItemId itemId = new ItemId(randomId());
+        final ItemId missingItemId = new ItemId(randomId());
+        final ItemConfiguration itemConfiguration = new ItemConfiguration(StubItem.class, tableName);
+        when(mockDatabaseSchemaHolder.itemConfigurations()).thenReturn(Arrays.asList(itemConfiguration));
+        when(mockAmazonDynamoDbClient.getItem(any(GetItemRequest.class))).thenAnswer(invocation -> {
+            final GetItemRequest getItemRequest = (GetItemRequest) invocation.getArguments()[0];
+            final AttributeValue id = getItemRequest.getKey().get("id");
+            return itemId.value().equals(id.getS())
+                    ? new GetItemResult().withItem(Collections.singletonMap("id", id)) : new GetItemResult();
+        });
+        final DynamoDbTemplate dynamoDbTemplate = new DynamoDbTemplate(mockDatabaseSchemaHolder);
+        dynamoDbTemplate.initialize(mockAmazonDynamoDbClient);
+
+        // When
+        final boolean exists = dynamoDbTemplate.exists(itemId, StubItem.class);
+        final boolean missingExists = dynamoDbTemplate.exists(missingItemId, StubItem.class);
+
+        // Then
+        assertTrue(exists);
+        assertFalse(missingExists);
+        final ArgumentCaptor<GetItemRequest> getItemRequestCaptor = ArgumentCaptor.forClass(GetItemRequest.class);
+        verify(mockAmazonDynamoDbClient, times(2)).getItem(getItemRequestCaptor.capture());
+        for (final GetItemRequest getItemRequest : getItemRequestCaptor.getAllValues()) {
+            assertEquals("#p0", getItemRequest.getProjectionExpression());
+            assertEquals(Collections.singletonMap("#p0", "id"), getItemRequest.getExpressionAttributeNames());
+        }
+    }
+
+    @Test
+    public void shouldFetch_withAttributeQueryAndPropertyNames() throws Exception {
+        // Given
+        final String stringProperty = randomString(10);
+        final AttributeQuery query = new AttributeQuery("stringProperty",
+                new Condition(Operators.EQUALS, stringProperty));
+        final ItemConfiguration itemConfiguration = new ItemConfiguration(StubItem.class, tableName);
+        when(mockDatabaseSchemaHolder.itemConfigurations()).thenReturn(Arrays.asList(itemConfiguration));
+        final String stringProperty2 = randomString(10);
+        final Map<String, AttributeValue> item = new HashMap<>();
+        item.put("id", new AttributeValue(randomId()));
+        item.put("stringProperty2", new AttributeValue(stringProperty2));
+        when(mockAmazonDynamoDbClient.scan(any(ScanRequest.class)))
+                .thenReturn(new ScanResult().withItems(Arrays.asList(item)));
+        final DynamoDbTemplate dynamoDbTemplate = new DynamoDbTemplate(mockDatabaseSchemaHolder);
+        dynamoDbTemplate.initialize(mockAmazonDynamoDbClient);
+
+        // When
+        final Collection<StubItem> returnedItems = dynamoDbTemplate.fetch(query, StubItem.class,
+                Arrays.asList("stringProperty2"));
+
+        // Then
+        final ArgumentCaptor<ScanRequest> scanRequestCaptor = ArgumentCaptor.forClass(ScanRequest.class);
+        verify(mockAmazonDynamoDbClient).scan(scanRequestCaptor.capture());
+        assertEquals(Arrays.asList("id", "stringProperty2"), scanRequestCaptor.getValue().getAttributesToGet());
+        assertEquals(1, returnedItems.size());
+        assertEquals(stringProperty2, returnedItems.iterator().next().getStringProperty2());
+    }
+
+    @Test
+    public void shouldFetch_withKeySetQueryAndPropertyNames() throws Exception {
+        // Given
+        final ItemId itemId = new ItemId(randomId());
+        final ItemConfiguration itemConfiguration = new ItemConfiguration(StubItem.class, tableName);
+        when(mockDatabaseSchemaHolder.itemConfigurations()).thenReturn(Arrays.asList(itemConfiguration));
+        final String qualifiedTableName = schemaName + "." + tableName;
+        when(mockAmazonDynamoDbClient.batchGetItem(any(BatchGetItemRequest.class))).thenAnswer(
+                invocation -> batchGetItemResult(qualifiedTableName, (BatchGetItemRequest) invocation.getArguments()[0],
+                        0));
+        final DynamoDbTemplate dynamoDbTemplate = new DynamoDbTemplate(mockDatabaseSchemaHolder);
+        dynamoDbTemplate.initialize(mockAmazonDynamoDbClient);
+
+        // When
+        final Collection<StubItem> returnedItems = dynamoDbTemplate.fetch(
+                new KeySetQuery(Collections.singleton(itemId)), StubItem.class, Arrays.asList("stringProperty"));
+
+        // Then
+        final ArgumentCaptor<BatchGetItemRequest> batchGetItemRequestCaptor = ArgumentCaptor
+                .forClass(BatchGetItemRequest.class);
+        verify(mockAmazonDynamoDbClient).batchGetItem(batchGetItemRequestCaptor.capture());
+        final KeysAndAttributes keysAndAttributes = batchGetItemRequestCaptor.getValue().getRequestItems()
+                .get(qualifiedTableName);
+        assertEquals("#p0, #p1", keysAndAttributes.getProjectionExpression());
+        assertEquals("stringProperty", keysAndAttributes.getExpressionAttributeNames().get("#p1"));
+        assertEquals(itemId.value(), returnedItems.iterator().next().getId());
+    }
+
+    @Test
+    public void shouldFetchPage_withCompoundAttributeQueryOnCompoundIndex() throws Exception {
+        // Given
+        final String stringProperty = randomString(10);
+        final String lowerValue = randomString(10);
+        final String upperValue = randomString(10);
+        final CompoundAttributeQuery query = new CompoundAttributeQuery("stringProperty",
+                new Condition(Operators.EQUALS, stringProperty), "stringProperty2",
+                new Condition(Operators.BETWEEN, lowerValue, upperValue));
+        final ItemConfiguration itemConfiguration = new ItemConfiguration(StubItem.class, tableName);
+        itemConfiguration.registerIndexes(
+                Arrays.<IndexDefinition> asList(new CompoundIndexDefinition("stringProperty", "stringProperty2")));
+        when(mockDatabaseSchemaHolder.itemConfigurations()).thenReturn(Arrays.asList(itemConfiguration));
+        final String itemId = randomId();
+        final Map<String, AttributeValue> item = new HashMap<>();
+        item.put("id", new AttributeValue(itemId));
+        item.put("stringProperty", new AttributeValue(stringProperty));
+        final Map<String, AttributeValue> lastEvaluatedKey = new HashMap<>(item);
+        when(mockAmazonDynamoDbClient.query(any(QueryRequest.class)))
+                .thenReturn(new QueryResult().withItems(Arrays.asList(item)).withLastEvaluatedKey(lastEvaluatedKey));
+        final DynamoDbTemplate dynamoDbTemplate = new DynamoDbTemplate(mockDatabaseSchemaHolder);
+        dynamoDbTemplate.initialize(mockAmazonDynamoDbClient);
+
+        // When
+        final PagedResult<StubItem> pagedResult = dynamoDbTemplate.fetch(query, StubItem.class,
+                new PageRequest(1, SortOrder.DESCENDING, null));
+
+        // Then
+        final ArgumentCaptor<QueryRequest> queryRequestCaptor = ArgumentCaptor.forClass(QueryRequest.class);
+        verify(mockAmazonDynamoDbClient).query(queryRequestCaptor.capture());
+        final QueryRequest queryRequest = queryRequestCaptor.getValue();
+        assertEquals("stringProperty_idx", queryRequest.getIndexName());
+        assertEquals(Integer.valueOf(1), queryRequest.getLimit());
+        assertFalse(queryRequest.getScanIndexForward());
+        assertNull(queryRequest.getQueryFilter());
+        final com.amazonaws.services.dynamodbv2.model.Condition rangeKeyCondition = queryRequest.getKeyConditions()
+                .get("stringProperty2");
+        assertEquals(ComparisonOperator.BETWEEN.toString(), rangeKeyCondition.getComparisonOperator());
+        assertEquals(Arrays.asList(new AttributeValue(lowerValue), new AttributeValue(upperValue)),
+                rangeKeyCondition.getAttributeValueList());
+        assertEquals(1, pagedResult.getItems().size());
+        assertEquals(itemId, pagedResult.getItems().get(0).getId());
+        assertEquals(lastEvaluatedKey, PageCursors.decode(pagedResult.getNextCursor()));
+    }
+
+    @Test
+    public void shouldFetchPage_withCompoundAttributeQueryOnNonKeySupportingAttribute() throws Exception {
+        // Given
+        final String prefix = randomString(5);
+        final CompoundAttributeQuery query = new CompoundAttributeQuery("stringProperty",
+                new Condition(Operators.EQUALS, randomString(10)), "stringProperty2",
+                new Condition(Operators.BEGINS_WITH, prefix));
+        final ItemConfiguration itemConfiguration = new ItemConfiguration(StubItem.class, tableName);
+        itemConfiguration.registerIndexes(Arrays.asList(new IndexDefinition("stringProperty")));
+        when(mockDatabaseSchemaHolder.itemConfigurations()).thenReturn(Arrays.asList(itemConfiguration));
+        when(mockAmazonDynamoDbClient.query(any(QueryRequest.class))).thenReturn(new QueryResult());
+        final DynamoDbTemplate dynamoDbTemplate = new DynamoDbTemplate(mockDatabaseSchemaHolder);
+        dynamoDbTemplate.initialize(mockAmazonDynamoDbClient);
+
+        // When
+        final PagedResult<StubItem> pagedResult = dynamoDbTemplate.fetch(query, StubItem.class,
+                new PageRequest(10));
+
+        // Then
+        final ArgumentCaptor<QueryRequest> queryRequestCaptor = ArgumentCaptor.forClass(QueryRequest.class);
+        verify(mockAmazonDynamoDbClient).query(queryRequestCaptor.capture());
+        final QueryRequest queryRequest = queryRequestCaptor.getValue();
+        assertEquals(Collections.singleton("stringProperty"), queryRequest.getKeyConditions().keySet());
+        assertEquals(ComparisonOperator.BEGINS_WITH.toString(),
+                queryRequest.getQueryFilter().get("stringProperty2").getComparisonOperator());
+        assertTrue(queryRequest.getScanIndexForward());
+        assertTrue(pagedResult.getItems().isEmpty());
+        assertFalse(pagedResult.hasNextPage());
+    }
+
+    @Test
+    public void shouldFetchPage_withAttributeQueryScanningUntilLimitReached() throws Exception {
+        // Given
+        final AttributeQuery query = new AttributeQuery("stringProperty2", new Condition(Operators.NOT_NULL));
+        final ItemConfiguration itemConfiguration = new ItemConfiguration(StubItem.class, tableName);
+        when(mockDatabaseSchemaHolder.itemConfigurations()).thenReturn(Arrays.asList(itemConfiguration));
+        final Map<String, AttributeValue> item1 = Collections.singletonMap("id", new AttributeValue(randomId()));
+        final Map<String, AttributeValue> item2 = Collections.singletonMap("id", new AttributeValue(randomId()));
+        final Map<String, AttributeValue> lastEvaluatedKey = Collections.singletonMap("id",
+                new AttributeValue(randomId()));
+        when(mockAmazonDynamoDbClient.scan(any(ScanRequest.class))).thenReturn(
+                new ScanResult().withItems(Arrays.asList(item1)).withLastEvaluatedKey(lastEvaluatedKey),
+                new ScanResult().withItems(Arrays.asList(item2)));
+        final DynamoDbTemplate dynamoDbTemplate = new DynamoDbTemplate(mockDatabaseSchemaHolder);
+        dynamoDbTemplate.initialize(mockAmazonDynamoDbClient);
+
+        // When
+        final PagedResult<StubItem> pagedResult = dynamoDbTemplate.fetch(query, StubItem.class, new PageRequest(2));
+
+        // Then
+        final ArgumentCaptor<ScanRequest> scanRequestCaptor = ArgumentCaptor.forClass(ScanRequest.class);
+        verify(mockAmazonDynamoDbClient, times(2)).scan(scanRequestCaptor.capture());
+        final List<ScanRequest> scanRequests = scanRequestCaptor.getAllValues();
+        assertEquals(Integer.valueOf(2), scanRequests.get(0).getLimit());
+        assertNull(scanRequests.get(0).getExclusiveStartKey());
+        assertEquals(Integer.valueOf(1), scanRequests.get(1).getLimit());
+        assertEquals(lastEvaluatedKey, scanRequests.get(1).getExclusiveStartKey());
+        assertEquals(2, pagedResult.getItems().size());
+        assertNull(pagedResult.getNextCursor());
+    }
+
     @Test
     public void shouldFetch_withAttributeQueryOnPrimaryKey() throws Exception {
         // Given
@@ -222,6 +547,58 @@ public class DynamoDbTemplateTest {
         assertEquals(1, returnedItems.size());
     }
 
+    @Test
+    public void shouldFetch_withAttributeQueryWithSeveralEqualsValuesOnIndex() throws Exception {
+        // Given
+        final String stringProperty1 = randomString(10);
+        final String stringProperty2 = randomString(10);
+        final AttributeQuery query = new AttributeQuery("stringProperty",
+                new Condition(Operators.EQUALS, Sets.newSet(stringProperty1, stringProperty2)));
+        final ItemConfiguration itemConfiguration = new ItemConfiguration(StubItem.class, tableName);
+        itemConfiguration.registerIndexes(Arrays.asList(new IndexDefinition("stringProperty")));
+        final Collection<ItemConfiguration> itemConfigurations = Arrays.asList(itemConfiguration);
+        when(mockDatabaseSchemaHolder.itemConfigurations()).thenReturn(itemConfigurations);
+        final DynamoDbTemplate dynamoDbTemplate = new DynamoDbTemplate(mockDatabaseSchemaHolder);
+        final String itemId1 = randomId();
+        final String itemId2 = randomId();
+        when(mockAmazonDynamoDbClient.query(any(QueryRequest.class))).thenAnswer(invocation -> {
+            final QueryRequest queryRequest = (QueryRequest) invocation.getArguments()[0];
+            final AttributeValue value = queryRequest.getKeyConditions().get("stringProperty").getAttributeValueList()
+                    .get(0);
+            final Map<String, AttributeValue> item1 = new HashMap<>();
+            item1.put("id", new AttributeValue(itemId1));
+            item1.put("stringProperty", value);
+            final Map<String, AttributeValue> item2 = new HashMap<>();
+            item2.put("id", new AttributeValue(itemId2));
+            item2.put("stringProperty", value);
+            return new QueryResult().withItems(
+                    value.getS().equals(stringProperty1) ? Arrays.asList(item1) : Arrays.asList(item1, item2));
+        });
+        dynamoDbTemplate.initialize(mockAmazonDynamoDbClient);
+
+        // When
+        final Collection<StubItem> returnedItems = dynamoDbTemplate.fetch(query, StubItem.class);
+
+        // Then
+        final ArgumentCaptor<QueryRequest> queryRequestArgumentCaptor = ArgumentCaptor.forClass(QueryRequest.class);
+        verify(mockAmazonDynamoDbClient, times(2)).query(queryRequestArgumentCaptor.capture());
+        final Set<AttributeValue> queriedValues = new HashSet<>();
+        for (final QueryRequest queryRequest : queryRequestArgumentCaptor.getAllValues()) {
+            assertEquals("stringProperty_idx", queryRequest.getIndexName());
+            assertEquals("EQ", queryRequest.getKeyConditions().get("stringProperty").getComparisonOperator());
+            assertEquals(1, queryRequest.getKeyConditions().get("stringProperty").getAttributeValueList().size());
+            queriedValues.add(queryRequest.getKeyConditions().get("stringProperty").getAttributeValueList().get(0));
+        }
+        assertEquals(Sets.newSet(new AttributeValue(stringProperty1), new AttributeValue(stringProperty2)),
+                queriedValues);
+        final Set<String> returnedItemIds = new HashSet<>();
+        for (final StubItem returnedItem : returnedItems) {
+            returnedItemIds.add(returnedItem.getId());
+        }
+        assertEquals(2, returnedItems.size());
+        assertEquals(Sets.newSet(itemId1, itemId2), returnedItemIds);
+    }
+
     @Test
     public void shouldFetch_withVariantItemAttributeQueryOnIndex() throws Exception {
         // Given
@@ -363,127 +740,578 @@ public class DynamoDbTemplateTest {
     }
 
     @Test
-    public void shouldCreateItem_withStubItem() throws Exception {
+    public void shouldFetch_withAttributeQueryOnNonIndexedAttributeAndScanSegments() throws Exception {
         // Given
+        final String stringProperty = randomString(10);
+        final AttributeQuery query = new AttributeQuery("stringProperty",
+                new Condition(Operators.EQUALS, stringProperty));
         final ItemConfiguration itemConfiguration = new ItemConfiguration(StubItem.class, tableName);
-        final Collection<ItemConfiguration> itemConfigurations = Arrays.asList(itemConfiguration);
-        when(mockDatabaseSchemaHolder.itemConfigurations()).thenReturn(itemConfigurations);
+        when(mockDatabaseSchemaHolder.itemConfigurations()).thenReturn(Arrays.asList(itemConfiguration));
+        final int scanSegments = 2 + randomInt(5);
+        when(mockAmazonDynamoDbClient.scan(any(ScanRequest.class))).thenAnswer(invocation -> {
+            final ScanRequest scanRequest = (ScanRequest) invocation.getArguments()[0];
+            final Map<String, AttributeValue> item = new HashMap<>();
+            item.put("id", new AttributeValue(String.valueOf(scanRequest.getSegment())));
+            item.put("stringProperty", new AttributeValue(stringProperty));
+            return new ScanResult().withItems(Arrays.asList(item));
+        });
         final DynamoDbTemplate dynamoDbTemplate = new DynamoDbTemplate(mockDatabaseSchemaHolder);
-        final AmazonDynamoDB mockAmazonDynamoDbClient = mock(AmazonDynamoDB.class);
         dynamoDbTemplate.initialize(mockAmazonDynamoDbClient);
-        final StubItem stubItem = new StubItem();
-        stubItem.setId(randomId());
-        final String stringPropertyValue = randomString(10);
-        stubItem.setStringProperty(stringPropertyValue);
 
         // When
-        dynamoDbTemplate.create(stubItem);
+        final Collection<StubItem> returnedItems = dynamoDbTemplate.fetch(query, StubItem.class, scanSegments);
 
         // Then
-        final ArgumentCaptor<PutItemRequest> putItemRequestArgumentCaptor = ArgumentCaptor
-                .forClass(PutItemRequest.class);
-        verify(mockAmazonDynamoDbClient).putItem(putItemRequestArgumentCaptor.capture());
-        final PutItemRequest putItemRequest = putItemRequestArgumentCaptor.getValue();
-        assertEquals(schemaName + "." + tableName, putItemRequest.getTableName());
-        assertEquals(new AttributeValue(stubItem.getId()), putItemRequest.getItem().get("id"));
-        assertEquals(new AttributeValue(stringPropertyValue), putItemRequest.getItem().get("stringProperty"));
-        assertEquals(new ExpectedAttributeValue(false), putItemRequest.getExpected().get("id"));
+        final ArgumentCaptor<ScanRequest> scanRequestArgumentCaptor = ArgumentCaptor.forClass(ScanRequest.class);
+        verify(mockAmazonDynamoDbClient, times(scanSegments)).scan(scanRequestArgumentCaptor.capture());
+        final Set<Integer> segments = new HashSet<>();
+        for (final ScanRequest scanRequest : scanRequestArgumentCaptor.getAllValues()) {
+            assertEquals(schemaName + "." + tableName, scanRequest.getTableName());
+            assertEquals(Integer.valueOf(scanSegments), scanRequest.getTotalSegments());
+            assertEquals("EQ", scanRequest.getScanFilter().get("stringProperty").getComparisonOperator());
+            segments.add(scanRequest.getSegment());
+        }
+        assertEquals(scanSegments, segments.size());
+        final List<String> returnedIds = new ArrayList<>();
+        for (final StubItem returnedItem : returnedItems) {
+            returnedIds.add(returnedItem.getId());
+        }
+        final List<String> expectedIds = new ArrayList<>();
+        for (int segment = 0; segment < scanSegments; segment++) {
+            expectedIds.add(String.valueOf(segment));
+        }
+        assertEquals(expectedIds, returnedIds);
     }
 
     @Test
-    public void shouldNotCreateItem_withStubItemWithExistingPrimaryKey() throws Exception {
+    public void shouldFetch_withAttributeQueryOnNonIndexedAttributeAndScanSegmentsFromItemConfiguration()
+            throws Exception {
         // Given
+        final AttributeQuery query = new AttributeQuery("stringProperty", new Condition(Operators.NOT_NULL));
         final ItemConfiguration itemConfiguration = new ItemConfiguration(StubItem.class, tableName);
-        final Collection<ItemConfiguration> itemConfigurations = Arrays.asList(itemConfiguration);
-        when(mockDatabaseSchemaHolder.itemConfigurations()).thenReturn(itemConfigurations);
+        final int scanSegments = 2 + randomInt(5);
+        itemConfiguration.setScanSegments(scanSegments);
+        when(mockDatabaseSchemaHolder.itemConfigurations()).thenReturn(Arrays.asList(itemConfiguration));
+        when(mockAmazonDynamoDbClient.scan(any(ScanRequest.class))).thenReturn(
+                new ScanResult().withItems(new ArrayList<Map<String, AttributeValue>>()));
         final DynamoDbTemplate dynamoDbTemplate = new DynamoDbTemplate(mockDatabaseSchemaHolder);
-        final AmazonDynamoDB mockAmazonDynamoDbClient = mock(AmazonDynamoDB.class);
         dynamoDbTemplate.initialize(mockAmazonDynamoDbClient);
-        final StubItem stubItem = new StubItem();
-        stubItem.setId(randomId());
-        final String stringPropertyValue = randomString(10);
-        stubItem.setStringProperty(stringPropertyValue);
-        when(mockAmazonDynamoDbClient.putItem(any(PutItemRequest.class)))
-                .thenThrow(ConditionalCheckFailedException.class);
 
         // When
-        ItemConstraintViolationException actualException = null;
-        try {
-            dynamoDbTemplate.create(stubItem);
-        } catch (final ItemConstraintViolationException e) {
-            actualException = e;
-        }
+        dynamoDbTemplate.fetch(query, StubItem.class);
 
         // Then
-        assertNotNull(actualException);
+        final ArgumentCaptor<ScanRequest> scanRequestArgumentCaptor = ArgumentCaptor.forClass(ScanRequest.class);
+        verify(mockAmazonDynamoDbClient, times(scanSegments)).scan(scanRequestArgumentCaptor.capture());
+        for (final ScanRequest scanRequest : scanRequestArgumentCaptor.getAllValues()) {
+            assertEquals(Integer.valueOf(scanSegments), scanRequest.getTotalSegments());
+        }
     }
 
     @Test
-    public void shouldCreateItem_withUniqueConstraint() throws Exception {
+    public void shouldCount_withAttributeQueryOnIndex() throws Exception {
         // Given
+        final String stringProperty = randomString(10);
+        final AttributeQuery query = new AttributeQuery("stringProperty",
+                new Condition(Operators.EQUALS, stringProperty));
         final ItemConfiguration itemConfiguration = new ItemConfiguration(StubItem.class, tableName);
-        itemConfiguration.registerUniqueConstraints(Arrays.asList(new UniqueConstraint("stringProperty")));
-        final Collection<ItemConfiguration> itemConfigurations = Arrays.asList(itemConfiguration);
-        when(mockDatabaseSchemaHolder.itemConfigurations()).thenReturn(itemConfigurations);
+        itemConfiguration.registerIndexes(Arrays.asList(new IndexDefinition("stringProperty")));
+        when(mockDatabaseSchemaHolder.itemConfigurations()).thenReturn(Arrays.asList(itemConfiguration));
+        final int firstPageCount = randomInt(100);
+        final int secondPageCount = randomInt(100);
+        final Map<String, AttributeValue> lastEvaluatedKey = Collections.singletonMap("id",
+                new AttributeValue(randomId()));
+        when(mockAmazonDynamoDbClient.query(any(QueryRequest.class))).thenReturn(
+                new QueryResult().withCount(firstPageCount).withLastEvaluatedKey(lastEvaluatedKey),
+                new QueryResult().withCount(secondPageCount));
         final DynamoDbTemplate dynamoDbTemplate = new DynamoDbTemplate(mockDatabaseSchemaHolder);
-        final AmazonDynamoDB mockAmazonDynamoDbClient = mock(AmazonDynamoDB.class);
         dynamoDbTemplate.initialize(mockAmazonDynamoDbClient);
-        final StubItem stubItem = new StubItem();
-        stubItem.setId(randomId());
-        final String stringPropertyValue = randomString(10);
-        stubItem.setStringProperty(stringPropertyValue);
 
         // When
-        dynamoDbTemplate.create(stubItem);
+        final long count = dynamoDbTemplate.count(query, StubItem.class);
 
         // Then
-        final ArgumentCaptor<PutItemRequest> putItemRequestArgumentCaptor = ArgumentCaptor
-                .forClass(PutItemRequest.class);
-        verify(mockAmazonDynamoDbClient, times(2)).putItem(putItemRequestArgumentCaptor.capture());
-        final List<PutItemRequest> putItemRequests = putItemRequestArgumentCaptor.getAllValues();
-        final Iterator<PutItemRequest> iterator = putItemRequests.iterator();
-        final PutItemRequest putItemRequest1 = iterator.next();
-
-        assertEquals(schemaName + "-indexes." + tableName, putItemRequest1.getTableName());
-        assertEquals(2, putItemRequest1.getItem().size());
-        assertEquals(new AttributeValue("stringProperty"), putItemRequest1.getItem().get("property"));
-        assertEquals(new AttributeValue(stringPropertyValue.toUpperCase()), putItemRequest1.getItem().get("value"));
-        assertEquals(new ExpectedAttributeValue(false), putItemRequest1.getExpected().get("value"));
-
-        final PutItemRequest putItemRequest2 = iterator.next();
-        assertEquals(schemaName + "." + tableName, putItemRequest2.getTableName());
-        assertEquals(new AttributeValue(stubItem.getId()), putItemRequest2.getItem().get("id"));
-        assertEquals(new AttributeValue(stringPropertyValue), putItemRequest2.getItem().get("stringProperty"));
-        assertEquals(new ExpectedAttributeValue(false), putItemRequest2.getExpected().get("id"));
+        final ArgumentCaptor<QueryRequest> queryRequestArgumentCaptor = ArgumentCaptor.forClass(QueryRequest.class);
+        verify(mockAmazonDynamoDbClient, times(2)).query(queryRequestArgumentCaptor.capture());
+        final QueryRequest queryRequest = queryRequestArgumentCaptor.getValue();
+        assertEquals("stringProperty_idx", queryRequest.getIndexName());
+        assertEquals(Select.COUNT.toString(), queryRequest.getSelect());
+        assertEquals(firstPageCount + secondPageCount, count);
     }
 
     @Test
-    public void shouldCreateItem_withUniqueConstraintOnParentItem() throws Exception {
+    public void shouldCount_withAttributeQueryOnNonIndexedAttributeAndScanSegmentsFromItemConfiguration()
+            throws Exception {
         // Given
-        final ParentItemConfiguration parentItemConfiguration = new ParentItemConfiguration(StubItem.class, tableName);
-        parentItemConfiguration.registerUniqueConstraints(Arrays.asList(new UniqueConstraint("stringProperty")));
-        parentItemConfiguration.registerUniqueConstraints(Arrays.asList(new UniqueConstraint("stringProperty")));
-        final VariantItemConfiguration variantItemConfiguration = new VariantItemConfiguration(parentItemConfiguration,
-                StubVariantItem.class, "VARIANT");
-        final Collection<ItemConfiguration> itemConfigurations = Arrays.asList(parentItemConfiguration,
-                variantItemConfiguration);
-        when(mockDatabaseSchemaHolder.itemConfigurations()).thenReturn(itemConfigurations);
+        final AttributeQuery query = new AttributeQuery("stringProperty", new Condition(Operators.NOT_NULL));
+        final ItemConfiguration itemConfiguration = new ItemConfiguration(StubItem.class, tableName);
+        final int scanSegments = 2 + randomInt(5);
+        itemConfiguration.setScanSegments(scanSegments);
+        when(mockDatabaseSchemaHolder.itemConfigurations()).thenReturn(Arrays.asList(itemConfiguration));
+        when(mockAmazonDynamoDbClient.scan(any(ScanRequest.class))).thenAnswer(invocation -> {
+            final ScanRequest scanRequest = (ScanRequest) invocation.getArguments()[0];
+            return new ScanResult().withCount(scanRequest.getSegment() + 1);
+        });
         final DynamoDbTemplate dynamoDbTemplate = new DynamoDbTemplate(mockDatabaseSchemaHolder);
-        final AmazonDynamoDB mockAmazonDynamoDbClient = mock(AmazonDynamoDB.class);
         dynamoDbTemplate.initialize(mockAmazonDynamoDbClient);
-        final StubVariantItem stubVariantItem = new StubVariantItem();
-        stubVariantItem.setId(randomId());
-        final String stringPropertyValue = randomString(10);
-        stubVariantItem.setStringProperty(stringPropertyValue);
 
         // When
-        dynamoDbTemplate.create(stubVariantItem);
+        final long count = dynamoDbTemplate.count(query, StubItem.class);
 
         // Then
-        final ArgumentCaptor<PutItemRequest> putItemRequestArgumentCaptor = ArgumentCaptor
-                .forClass(PutItemRequest.class);
-        verify(mockAmazonDynamoDbClient, times(2)).putItem(putItemRequestArgumentCaptor.capture());
-        final List<PutItemRequest> putItemRequests = putItemRequestArgumentCaptor.getAllValues();
+        final ArgumentCaptor<ScanRequest> scanRequestArgumentCaptor = ArgumentCaptor.forClass(ScanRequest.class);
+        verify(mockAmazonDynamoDbClient, times(scanSegments)).scan(scanRequestArgumentCaptor.capture());
+        final Set<Integer> segments = new HashSet<>();
+        for (final ScanRequest scanRequest : scanRequestArgumentCaptor.getAllValues()) {
+            assertEquals(Integer.valueOf(scanSegments), scanRequest.getTotalSegments());
+            assertEquals(Select.COUNT.toString(), scanRequest.getSelect());
+            segments.add(scanRequest.getSegment());
+        }
+        assertEquals(scanSegments, segments.size());
+        assertEquals(scanSegments * (scanSegments + 1) / 2, count);
+    }
+
+    @Test
+    public void shouldFetch_withParallelScanReturningSameItemsAsSequentialScan() throws Exception {
+        // Given
+        final String stringProperty = randomString(10);
+        final AttributeQuery query = new AttributeQuery("stringProperty",
+                new Condition(Operators.EQUALS, stringProperty));
+        final ItemConfiguration itemConfiguration = new ItemConfiguration(StubItem.class, tableName);
+        when(mockDatabaseSchemaHolder.itemConfigurations()).thenReturn(Arrays.asList(itemConfiguration));
+        final InMemoryAmazonDynamoDb amazonDynamoDbClient = new InMemoryAmazonDynamoDb(1 + randomInt(20));
+        amazonDynamoDbClient.createTable(schemaName + "." + tableName, "id");
+        final DynamoDbTemplate dynamoDbTemplate = new DynamoDbTemplate(mockDatabaseSchemaHolder);
+        dynamoDbTemplate.initialize(amazonDynamoDbClient);
+        for (int i = 0; i < 200 + randomInt(200); i++) {
+            final StubItem item = new StubItem();
+            item.setId(randomId());
+            item.setStringProperty(Randoms.randomBoolean() ? stringProperty : randomString(10));
+            dynamoDbTemplate.create(item);
+        }
+        final Collection<StubItem> sequentialScanItems = dynamoDbTemplate.fetch(query, StubItem.class, 1);
+
+        // When
+        final Collection<StubItem> parallelScanItems = dynamoDbTemplate.fetch(query, StubItem.class,
+                2 + randomInt(10));
+
+        // Then
+        assertEquals(sequentialScanItems.size(), parallelScanItems.size());
+        assertEquals(new HashSet<>(sequentialScanItems), new HashSet<>(parallelScanItems));
+    }
+
+    @Test
+    public void shouldNotFetch_withParallelScanAndAmazonServiceException() throws Exception {
+        // Given
+        final AttributeQuery query = new AttributeQuery("stringProperty", new Condition(Operators.NOT_NULL));
+        final ItemConfiguration itemConfiguration = new ItemConfiguration(StubItem.class, tableName);
+        when(mockDatabaseSchemaHolder.itemConfigurations()).thenReturn(Arrays.asList(itemConfiguration));
+        when(mockAmazonDynamoDbClient.scan(any(ScanRequest.class))).thenThrow(AmazonServiceException.class);
+        final DynamoDbTemplate dynamoDbTemplate = new DynamoDbTemplate(mockDatabaseSchemaHolder);
+        dynamoDbTemplate.initialize(mockAmazonDynamoDbClient);
+
+        // When
+        PersistenceResourceFailureException actualException = null;
+        try {
+            dynamoDbTemplate.fetch(query, StubItem.class, 2 + randomInt(5));
+        } catch (final PersistenceResourceFailureException e) {
+            actualException = e;
+        }
+
+        // Then
+        assertNotNull(actualException);
+    }
+
+    @Test
+    public void shouldStream_withAttributeQueryOnNonIndexedAttributeReturningSameItemsAsFetch() throws Exception {
+        // Given
+        final String stringProperty = randomString(10);
+        final AttributeQuery query = new AttributeQuery("stringProperty",
+                new Condition(Operators.EQUALS, stringProperty));
+        final ItemConfiguration itemConfiguration = new ItemConfiguration(StubItem.class, tableName);
+        when(mockDatabaseSchemaHolder.itemConfigurations()).thenReturn(Arrays.asList(itemConfiguration));
+        final InMemoryAmazonDynamoDb amazonDynamoDbClient = new InMemoryAmazonDynamoDb(1 + randomInt(10));
+        amazonDynamoDbClient.createTable(schemaName + "." + tableName, "id");
+        final DynamoDbTemplate dynamoDbTemplate = new DynamoDbTemplate(mockDatabaseSchemaHolder);
+        dynamoDbTemplate.initialize(amazonDynamoDbClient);
+        for (int i = 0; i < 50 + randomInt(50); i++) {
+            final StubItem item = new StubItem();
+            item.setId(randomId());
+            item.setStringProperty(Randoms.randomBoolean() ? stringProperty : randomString(10));
+            dynamoDbTemplate.create(item);
+        }
+        final Collection<StubItem> fetchedItems = dynamoDbTemplate.fetch(query, StubItem.class);
+
+        // When
+        final List<StubItem> streamedItems;
+        try (final Stream<StubItem> stream = dynamoDbTemplate.stream(query, StubItem.class)) {
+            streamedItems = stream.collect(Collectors.toList());
+        }
+
+        // Then
+        assertEquals(new ArrayList<>(fetchedItems), streamedItems);
+    }
+
+    @Test
+    public void shouldStream_withKeySetQueryInBatchesOfOneHundredKeys() throws Exception {
+        // Given
+        final Set<ItemId> itemIds = new HashSet<>();
+        final int itemCount = 201 + randomInt(100);
+        for (int i = 0; i < itemCount; i++) {
+            itemIds.add(new ItemId(randomId()));
+        }
+        final ItemConfiguration itemConfiguration = new ItemConfiguration(StubItem.class, tableName);
+        when(mockDatabaseSchemaHolder.itemConfigurations()).thenReturn(Arrays.asList(itemConfiguration));
+        final String qualifiedTableName = schemaName + "." + tableName;
+        when(mockAmazonDynamoDbClient.batchGetItem(any(BatchGetItemRequest.class))).thenAnswer(invocation -> {
+            final BatchGetItemRequest batchGetItemRequest = (BatchGetItemRequest) invocation.getArguments()[0];
+            final List<Map<String, AttributeValue>> items = new ArrayList<>();
+            for (final Map<String, AttributeValue> key : batchGetItemRequest.getRequestItems().get(qualifiedTableName)
+                    .getKeys()) {
+                items.add(new HashMap<>(key));
+            }
+            final Map<String, List<Map<String, AttributeValue>>> responses = new HashMap<>();
+            responses.put(qualifiedTableName, items);
+            return new BatchGetItemResult().withResponses(responses);
+        });
+        final DynamoDbTemplate dynamoDbTemplate = new DynamoDbTemplate(mockDatabaseSchemaHolder);
+        dynamoDbTemplate.initialize(mockAmazonDynamoDbClient);
+
+        // When
+        final Set<ItemId> streamedItemIds;
+        try (final Stream<StubItem> stream = dynamoDbTemplate.stream(new KeySetQuery(itemIds), StubItem.class)) {
+            streamedItemIds = stream.map(item -> new ItemId(item.getId())).collect(Collectors.toSet());
+        }
+
+        // Then
+        assertEquals(itemIds, streamedItemIds);
+        final ArgumentCaptor<BatchGetItemRequest> batchGetItemRequestCaptor = ArgumentCaptor
+                .forClass(BatchGetItemRequest.class);
+        verify(mockAmazonDynamoDbClient, times((itemCount + 99) / 100))
+                .batchGetItem(batchGetItemRequestCaptor.capture());
+        for (final BatchGetItemRequest batchGetItemRequest : batchGetItemRequestCaptor.getAllValues()) {
+            assertTrue(batchGetItemRequest.getRequestItems().get(qualifiedTableName).getKeys().size() <= 100);
+        }
+    }
+
+    @Test
+    public void shouldFetch_withKeySetQueryInConcurrentBatchesOfOneHundredKeys() throws Exception {
+        // Given
+        final Set<ItemId> itemIds = new HashSet<>();
+        final int itemCount = 201 + randomInt(300);
+        for (int i = 0; i < itemCount; i++) {
+            itemIds.add(new ItemId(randomId()));
+        }
+        final ItemConfiguration itemConfiguration = new ItemConfiguration(StubItem.class, tableName);
+        when(mockDatabaseSchemaHolder.itemConfigurations()).thenReturn(Arrays.asList(itemConfiguration));
+        final String qualifiedTableName = schemaName + "." + tableName;
+        when(mockAmazonDynamoDbClient.batchGetItem(any(BatchGetItemRequest.class)))
+                .thenAnswer(invocation -> batchGetItemResult(qualifiedTableName,
+                        (BatchGetItemRequest) invocation.getArguments()[0], 0));
+        final DynamoDbTemplate dynamoDbTemplate = new DynamoDbTemplate(mockDatabaseSchemaHolder);
+        dynamoDbTemplate.initialize(mockAmazonDynamoDbClient);
+        dynamoDbTemplate.setBatchGetParallelism(1 + randomInt(4));
+
+        // When
+        final Collection<StubItem> returnedItems = dynamoDbTemplate.fetch(new KeySetQuery(itemIds), StubItem.class);
+
+        // Then
+        final Set<ItemId> returnedItemIds = new HashSet<>();
+        for (final StubItem returnedItem : returnedItems) {
+            returnedItemIds.add(new ItemId(returnedItem.getId()));
+        }
+        assertEquals(itemIds, returnedItemIds);
+        assertEquals(itemCount, returnedItems.size());
+        final ArgumentCaptor<BatchGetItemRequest> batchGetItemRequestCaptor = ArgumentCaptor
+                .forClass(BatchGetItemRequest.class);
+        verify(mockAmazonDynamoDbClient, times((itemCount + 99) / 100))
+                .batchGetItem(batchGetItemRequestCaptor.capture());
+        for (final BatchGetItemRequest batchGetItemRequest : batchGetItemRequestCaptor.getAllValues()) {
+            assertTrue(batchGetItemRequest.getRequestItems().get(qualifiedTableName).getKeys().size() <= 100);
+        }
+    }
+
+    @Test
+    public void shouldFetch_withKeySetQueryAndUnprocessedKeys() throws Exception {
+        // Given
+        final Set<ItemId> itemIds = new HashSet<>();
+        final int itemCount = 10 + randomInt(90);
+        for (int i = 0; i < itemCount; i++) {
+            itemIds.add(new ItemId(randomId()));
+        }
+        final ItemConfiguration itemConfiguration = new ItemConfiguration(StubItem.class, tableName);
+        when(mockDatabaseSchemaHolder.itemConfigurations()).thenReturn(Arrays.asList(itemConfiguration));
+        final String qualifiedTableName = schemaName + "." + tableName;
+        final int throttledRequests = 1 + randomInt(3);
+        when(mockAmazonDynamoDbClient.batchGetItem(any(BatchGetItemRequest.class))).thenAnswer(new Answer<Object>() {
+            private int requests;
+
+            @Override
+            public Object answer(final InvocationOnMock invocation) throws Throwable {
+                final BatchGetItemRequest batchGetItemRequest = (BatchGetItemRequest) invocation.getArguments()[0];
+                final int keyCount = batchGetItemRequest.getRequestItems().get(qualifiedTableName).getKeys().size();
+                final int unprocessedKeyCount = requests++ < throttledRequests ? keyCount : keyCount / 2;
+                return batchGetItemResult(qualifiedTableName, batchGetItemRequest, unprocessedKeyCount);
+            }
+        });
+        final DynamoDbTemplate dynamoDbTemplate = new DynamoDbTemplate(mockDatabaseSchemaHolder);
+        dynamoDbTemplate.initialize(mockAmazonDynamoDbClient);
+        dynamoDbTemplate.setRetryBackoff(new RetryBackoff(1, 5, 10000));
+
+        // When
+        final Collection<StubItem> returnedItems = dynamoDbTemplate.fetch(new KeySetQuery(itemIds), StubItem.class);
+
+        // Then
+        final Set<ItemId> returnedItemIds = new HashSet<>();
+        for (final StubItem returnedItem : returnedItems) {
+            returnedItemIds.add(new ItemId(returnedItem.getId()));
+        }
+        assertEquals(itemIds, returnedItemIds);
+        assertEquals(itemCount, returnedItems.size());
+    }
+
+    @Test
+    public void shouldNotFetch_withKeySetQueryAndKeysUnprocessedUntilDeadline() throws Exception {
+        // Given
+        final Set<ItemId> itemIds = Sets.newSet(new ItemId(randomId()), new ItemId(randomId()));
+        final ItemConfiguration itemConfiguration = new ItemConfiguration(StubItem.class, tableName);
+        when(mockDatabaseSchemaHolder.itemConfigurations()).thenReturn(Arrays.asList(itemConfiguration));
+        final String qualifiedTableName = schemaName + "." + tableName;
+        when(mockAmazonDynamoDbClient.batchGetItem(any(BatchGetItemRequest.class)))
+                .thenAnswer(invocation -> batchGetItemResult(qualifiedTableName,
+                        (BatchGetItemRequest) invocation.getArguments()[0], itemIds.size()));
+        final DynamoDbTemplate dynamoDbTemplate = new DynamoDbTemplate(mockDatabaseSchemaHolder);
+        dynamoDbTemplate.initialize(mockAmazonDynamoDbClient);
+        dynamoDbTemplate.setRetryBackoff(new RetryBackoff(1, 5, 50));
+
+        // When
+        PersistenceResourceFailureException actualException = null;
+        try {
+            dynamoDbTemplate.fetch(new KeySetQuery(itemIds), StubItem.class);
+        } catch (final PersistenceResourceFailureException e) {
+            actualException = e;
+        }
+
+        // Then
+        assertNotNull(actualException);
+        verify(mockAmazonDynamoDbClient, atLeast(2)).batchGetItem(any(BatchGetItemRequest.class));
+    }
+
+    @Test
+    public void shouldFetch_withItemIdsOfSeveralItemClassesInOneBatchGetItemRequest() throws Exception {
+        // Given
+        final String rangeTableName = randomString(10);
+        final ItemConfiguration itemConfiguration = new ItemConfiguration(StubItem.class, tableName);
+        final ItemConfiguration rangeItemConfiguration = new ItemConfiguration(StubWithRangeItem.class,
+                rangeTableName, new CompoundPrimaryKeyDefinition("id", "supportingId"));
+        when(mockDatabaseSchemaHolder.itemConfigurations())
+                .thenReturn(Arrays.asList(itemConfiguration, rangeItemConfiguration));
+        final String qualifiedTableName = schemaName + "." + tableName;
+        final String qualifiedRangeTableName = schemaName + "." + rangeTableName;
+        final Set<ItemId> itemIds = Sets.newSet(new ItemId(randomId()), new ItemId(randomId()));
+        final Set<ItemId> rangeItemIds = Sets.newSet(new ItemId(randomId(), randomId()),
+                new ItemId(randomId(), randomId()), new ItemId(randomId(), randomId()));
+        when(mockAmazonDynamoDbClient.batchGetItem(any(BatchGetItemRequest.class))).thenAnswer(new Answer<Object>() {
+            private int requests;
+
+            @Override
+            public Object answer(final InvocationOnMock invocation) throws Throwable {
+                final BatchGetItemRequest batchGetItemRequest = (BatchGetItemRequest) invocation.getArguments()[0];
+                final Map<String, List<Map<String, AttributeValue>>> responses = new HashMap<>();
+                final Map<String, KeysAndAttributes> unprocessedKeys = new HashMap<>();
+                for (final Map.Entry<String, KeysAndAttributes> entry : batchGetItemRequest.getRequestItems()
+                        .entrySet()) {
+                    final List<Map<String, AttributeValue>> keys = entry.getValue().getKeys();
+                    final int processedKeyCount = requests == 0 && entry.getKey().equals(qualifiedRangeTableName)
+                            ? keys.size() - 1 : keys.size();
+                    responses.put(entry.getKey(), new ArrayList<>(keys.subList(0, processedKeyCount)));
+                    if (processedKeyCount < keys.size()) {
+                        unprocessedKeys.put(entry.getKey(), new KeysAndAttributes()
+                                .withKeys(new ArrayList<>(keys.subList(processedKeyCount, keys.size()))));
+                    }
+                }
+                requests++;
+                return new BatchGetItemResult().withResponses(responses).withUnprocessedKeys(unprocessedKeys);
+            }
+        });
+        final DynamoDbTemplate dynamoDbTemplate = new DynamoDbTemplate(mockDatabaseSchemaHolder);
+        dynamoDbTemplate.initialize(mockAmazonDynamoDbClient);
+        final Map<Class<? extends Item>, Collection<ItemId>> requestedItemIds = new HashMap<>();
+        requestedItemIds.put(StubItem.class, itemIds);
+        requestedItemIds.put(StubWithRangeItem.class, rangeItemIds);
+
+        // When
+        final Map<Class<? extends Item>, Collection<? extends Item>> returnedItems = dynamoDbTemplate
+                .fetch(requestedItemIds);
+
+        // Then
+        final ArgumentCaptor<BatchGetItemRequest> batchGetItemRequestCaptor = ArgumentCaptor
+                .forClass(BatchGetItemRequest.class);
+        verify(mockAmazonDynamoDbClient, times(2)).batchGetItem(batchGetItemRequestCaptor.capture());
+        assertEquals(Sets.newSet(qualifiedTableName, qualifiedRangeTableName),
+                batchGetItemRequestCaptor.getAllValues().get(0).getRequestItems().keySet());
+        final Set<ItemId> returnedItemIds = new HashSet<>();
+        for (final Item item : returnedItems.get(StubItem.class)) {
+            returnedItemIds.add(new ItemId(((StubItem) item).getId()));
+        }
+        final Set<ItemId> returnedRangeItemIds = new HashSet<>();
+        for (final Item item : returnedItems.get(StubWithRangeItem.class)) {
+            final StubWithRangeItem rangeItem = (StubWithRangeItem) item;
+            returnedRangeItemIds.add(new ItemId(rangeItem.getId(), rangeItem.getSupportingId()));
+        }
+        assertEquals(itemIds, returnedItemIds);
+        assertEquals(rangeItemIds, returnedRangeItemIds);
+    }
+
+    @Test
+    public void shouldStopReadingPages_withStreamClosedBeforeLastPage() throws Exception {
+        // Given
+        final AttributeQuery query = new AttributeQuery("stringProperty", new Condition(Operators.NOT_NULL));
+        final ItemConfiguration itemConfiguration = new ItemConfiguration(StubItem.class, tableName);
+        when(mockDatabaseSchemaHolder.itemConfigurations()).thenReturn(Arrays.asList(itemConfiguration));
+        when(mockAmazonDynamoDbClient.scan(any(ScanRequest.class))).thenAnswer(invocation -> {
+            final Map<String, AttributeValue> item = new HashMap<>();
+            item.put("id", new AttributeValue(randomId()));
+            item.put("stringProperty", new AttributeValue(randomString(10)));
+            return new ScanResult().withItems(Arrays.asList(item)).withLastEvaluatedKey(item);
+        });
+        final DynamoDbTemplate dynamoDbTemplate = new DynamoDbTemplate(mockDatabaseSchemaHolder);
+        dynamoDbTemplate.initialize(mockAmazonDynamoDbClient);
+        final int itemsToRead = 1 + randomInt(5);
+
+        // When
+        final List<StubItem> streamedItems;
+        try (final Stream<StubItem> stream = dynamoDbTemplate.stream(query, StubItem.class)) {
+            streamedItems = stream.limit(itemsToRead).collect(Collectors.toList());
+        }
+
+        // Then
+        assertEquals(itemsToRead, streamedItems.size());
+        verify(mockAmazonDynamoDbClient, atMost(itemsToRead + 1)).scan(any(ScanRequest.class));
+    }
+
+    @Test
+    public void shouldCreateItem_withStubItem() throws Exception {
+        // Given
+        final ItemConfiguration itemConfiguration = new ItemConfiguration(StubItem.class, tableName);
+        final Collection<ItemConfiguration> itemConfigurations = Arrays.asList(itemConfiguration);
+        when(mockDatabaseSchemaHolder.itemConfigurations()).thenReturn(itemConfigurations);
+        final DynamoDbTemplate dynamoDbTemplate = new DynamoDbTemplate(mockDatabaseSchemaHolder);
+        final AmazonDynamoDB mockAmazonDynamoDbClient = mock(AmazonDynamoDB.class);
+        dynamoDbTemplate.initialize(mockAmazonDynamoDbClient);
+        final StubItem stubItem = new StubItem();
+        stubItem.setId(randomId());
+        final String stringPropertyValue = randomString(10);
+        stubItem.setStringProperty(stringPropertyValue);
+
+        // When
+        dynamoDbTemplate.create(stubItem);
+
+        // Then
+        final ArgumentCaptor<PutItemRequest> putItemRequestArgumentCaptor = ArgumentCaptor
+                .forClass(PutItemRequest.class);
+        verify(mockAmazonDynamoDbClient).putItem(putItemRequestArgumentCaptor.capture());
+        final PutItemRequest putItemRequest = putItemRequestArgumentCaptor.getValue();
+        assertEquals(schemaName + "." + tableName, putItemRequest.getTableName());
+        assertEquals(new AttributeValue(stubItem.getId()), putItemRequest.getItem().get("id"));
+        assertEquals(new AttributeValue(stringPropertyValue), putItemRequest.getItem().get("stringProperty"));
+        assertEquals(new ExpectedAttributeValue(false), putItemRequest.getExpected().get("id"));
+    }
+
+    @Test
+    public void shouldNotCreateItem_withStubItemWithExistingPrimaryKey() throws Exception {
+        // Given
+        final ItemConfiguration itemConfiguration = new ItemConfiguration(StubItem.class, tableName);
+        final Collection<ItemConfiguration> itemConfigurations = Arrays.asList(itemConfiguration);
+        when(mockDatabaseSchemaHolder.itemConfigurations()).thenReturn(itemConfigurations);
+        final DynamoDbTemplate dynamoDbTemplate = new DynamoDbTemplate(mockDatabaseSchemaHolder);
+        final AmazonDynamoDB mockAmazonDynamoDbClient = mock(AmazonDynamoDB.class);
+        dynamoDbTemplate.initialize(mockAmazonDynamoDbClient);
+        final StubItem stubItem = new StubItem();
+        stubItem.setId(randomId());
+        final String stringPropertyValue = randomString(10);
+        stubItem.setStringProperty(stringPropertyValue);
+        when(mockAmazonDynamoDbClient.putItem(any(PutItemRequest.class)))
+                .thenThrow(ConditionalCheckFailedException.class);
+
+        // When
+        ItemConstraintViolationException actualException = null;
+        try {
+            dynamoDbTemplate.create(stubItem);
+        } catch (final ItemConstraintViolationException e) {
+            actualException = e;
+        }
+
+        // Then
+        assertNotNull(actualException);
+    }
+
+    @Test
+    public void shouldCreateItem_withUniqueConstraint() throws Exception {
+        // Given
+        final ItemConfiguration itemConfiguration = new ItemConfiguration(StubItem.class, tableName);
+        itemConfiguration.registerUniqueConstraints(Arrays.asList(new UniqueConstraint("stringProperty")));
+        final Collection<ItemConfiguration> itemConfigurations = Arrays.asList(itemConfiguration);
+        when(mockDatabaseSchemaHolder.itemConfigurations()).thenReturn(itemConfigurations);
+        final DynamoDbTemplate dynamoDbTemplate = new DynamoDbTemplate(mockDatabaseSchemaHolder);
+        final AmazonDynamoDB mockAmazonDynamoDbClient = mock(AmazonDynamoDB.class);
+        dynamoDbTemplate.initialize(mockAmazonDynamoDbClient);
+        final StubItem stubItem = new StubItem();
+        stubItem.setId(randomId());
+        final String stringPropertyValue = randomString(10);
+        stubItem.setStringProperty(stringPropertyValue);
+
+        // When
+        dynamoDbTemplate.create(stubItem);
+
+        // Then
+        final ArgumentCaptor<PutItemRequest> putItemRequestArgumentCaptor = ArgumentCaptor
+                .forClass(PutItemRequest.class);
+        verify(mockAmazonDynamoDbClient, times(2)).putItem(putItemRequestArgumentCaptor.capture());
+        final List<PutItemRequest> putItemRequests = putItemRequestArgumentCaptor.getAllValues();
+        final Iterator<PutItemRequest> iterator = putItemRequests.iterator();
+        final PutItemRequest putItemRequest1 = iterator.next();
+
+        assertEquals(schemaName + "-indexes." + tableName, putItemRequest1.getTableName());
+        assertEquals(2, putItemRequest1.getItem().size());
+        assertEquals(new AttributeValue("stringProperty"), putItemRequest1.getItem().get("property"));
+        assertEquals(new AttributeValue(stringPropertyValue.toUpperCase()), putItemRequest1.getItem().get("value"));
+        assertEquals(new ExpectedAttributeValue(false), putItemRequest1.getExpected().get("value"));
+
+        final PutItemRequest putItemRequest2 = iterator.next();
+        assertEquals(schemaName + "." + tableName, putItemRequest2.getTableName());
+        assertEquals(new AttributeValue(stubItem.getId()), putItemRequest2.getItem().get("id"));
+        assertEquals(new AttributeValue(stringPropertyValue), putItemRequest2.getItem().get("stringProperty"));
+        assertEquals(new ExpectedAttributeValue(false), putItemRequest2.getExpected().get("id"));
+    }
+
+    @Test
+    public void shouldCreateItem_withUniqueConstraintOnParentItem() throws Exception {
+        // Given
+        final ParentItemConfiguration parentItemConfiguration = new ParentItemConfiguration(StubItem.class, tableName);
+        parentItemConfiguration.registerUniqueConstraints(Arrays.asList(new UniqueConstraint("stringProperty")));
+        parentItemConfiguration.registerUniqueConstraints(Arrays.asList(new UniqueConstraint("stringProperty")));
+        final VariantItemConfiguration variantItemConfiguration = new VariantItemConfiguration(parentItemConfiguration,
+                StubVariantItem.class, "VARIANT");
+        final Collection<ItemConfiguration> itemConfigurations = Arrays.asList(parentItemConfiguration,
+                variantItemConfiguration);
+        when(mockDatabaseSchemaHolder.itemConfigurations()).thenReturn(itemConfigurations);
+        final DynamoDbTemplate dynamoDbTemplate = new DynamoDbTemplate(mockDatabaseSchemaHolder);
+        final AmazonDynamoDB mockAmazonDynamoDbClient = mock(AmazonDynamoDB.class);
+        dynamoDbTemplate.initialize(mockAmazonDynamoDbClient);
+        final StubVariantItem stubVariantItem = new StubVariantItem();
+        stubVariantItem.setId(randomId());
+        final String stringPropertyValue = randomString(10);
+        stubVariantItem.setStringProperty(stringPropertyValue);
+
+        // When
+        dynamoDbTemplate.create(stubVariantItem);
+
+        // Then
+        final ArgumentCaptor<PutItemRequest> putItemRequestArgumentCaptor = ArgumentCaptor
+                .forClass(PutItemRequest.class);
+        verify(mockAmazonDynamoDbClient, times(2)).putItem(putItemRequestArgumentCaptor.capture());
+        final List<PutItemRequest> putItemRequests = putItemRequestArgumentCaptor.getAllValues();
         final Iterator<PutItemRequest> iterator = putItemRequests.iterator();
         final PutItemRequest putItemRequest1 = iterator.next();
 
@@ -633,84 +1461,293 @@ public class DynamoDbTemplateTest {
         final Collection<ItemConfiguration> itemConfigurations = Arrays.asList(itemConfiguration);
         when(mockDatabaseSchemaHolder.itemConfigurations()).thenReturn(itemConfigurations);
         final DynamoDbTemplate dynamoDbTemplate = new DynamoDbTemplate(mockDatabaseSchemaHolder);
-        final AmazonDynamoDB mockAmazonDynamoDbClient = mock(AmazonDynamoDB.class);
+        final AmazonDynamoDB mockAmazonDynamoDbClient = mock(AmazonDynamoDB.class);
+        dynamoDbTemplate.initialize(mockAmazonDynamoDbClient);
+        when(mockAmazonDynamoDbClient.putItem(any(PutItemRequest.class))).thenReturn(null)
+                .thenThrow(AmazonServiceException.class);
+        final StubItem stubItem = new StubItem();
+        stubItem.setId(randomId());
+        final String stringPropertyValue = randomString(10);
+        stubItem.setStringProperty(stringPropertyValue);
+
+        // When
+        PersistenceResourceFailureException actualException = null;
+        try {
+            dynamoDbTemplate.create(stubItem);
+        } catch (final PersistenceResourceFailureException e) {
+            actualException = e;
+        }
+
+        // Then
+        final ArgumentCaptor<PutItemRequest> putItemRequestArgumentCaptor = ArgumentCaptor
+                .forClass(PutItemRequest.class);
+        final ArgumentCaptor<DeleteItemRequest> deleteItemRequestArgumentCaptor = ArgumentCaptor
+                .forClass(DeleteItemRequest.class);
+        verify(mockAmazonDynamoDbClient, times(2)).putItem(putItemRequestArgumentCaptor.capture());
+        verify(mockAmazonDynamoDbClient).deleteItem(deleteItemRequestArgumentCaptor.capture());
+        final List<PutItemRequest> putItemRequests = putItemRequestArgumentCaptor.getAllValues();
+        final Iterator<PutItemRequest> iterator = putItemRequests.iterator();
+        final PutItemRequest putItemRequest1 = iterator.next();
+
+        assertEquals(schemaName + "-indexes." + tableName, putItemRequest1.getTableName());
+        assertEquals(2, putItemRequest1.getItem().size());
+        assertEquals(new AttributeValue("stringProperty"), putItemRequest1.getItem().get("property"));
+        assertEquals(new AttributeValue(stringPropertyValue.toUpperCase()), putItemRequest1.getItem().get("value"));
+        assertEquals(new ExpectedAttributeValue(false), putItemRequest1.getExpected().get("value"));
+
+        final PutItemRequest putItemRequest2 = iterator.next();
+        assertEquals(schemaName + "." + tableName, putItemRequest2.getTableName());
+        assertEquals(new AttributeValue(stubItem.getId()), putItemRequest2.getItem().get("id"));
+        assertEquals(new AttributeValue(stringPropertyValue), putItemRequest2.getItem().get("stringProperty"));
+        assertEquals(new ExpectedAttributeValue(false), putItemRequest2.getExpected().get("id"));
+        assertNotNull(actualException);
+
+        final DeleteItemRequest deleteItemRequest = deleteItemRequestArgumentCaptor.getValue();
+        assertEquals(schemaName + "-indexes." + tableName, deleteItemRequest.getTableName());
+        assertEquals(2, deleteItemRequest.getKey().size());
+        assertEquals(new AttributeValue("stringProperty"), deleteItemRequest.getKey().get("property"));
+        assertEquals(new AttributeValue(stubItem.getStringProperty().toUpperCase()),
+                deleteItemRequest.getKey().get("value"));
+    }
+
+    @Test
+    public void shouldUpdateItem_withStubItem() throws Exception {
+        // Given
+        final ItemConfiguration itemConfiguration = new ItemConfiguration(StubItem.class, tableName);
+        final Collection<ItemConfiguration> itemConfigurations = Arrays.asList(itemConfiguration);
+        when(mockDatabaseSchemaHolder.itemConfigurations()).thenReturn(itemConfigurations);
+        final DynamoDbTemplate dynamoDbTemplate = new DynamoDbTemplate(mockDatabaseSchemaHolder);
+        final AmazonDynamoDB mockAmazonDynamoDbClient = mock(AmazonDynamoDB.class);
+        dynamoDbTemplate.initialize(mockAmazonDynamoDbClient);
+        final StubItem stubItem = new StubItem();
+        stubItem.setId(randomId());
+        final String stringPropertyValue = randomString(10);
+        stubItem.setStringProperty(stringPropertyValue);
+        final Long oldVersion = randomLong();
+        stubItem.setVersion(oldVersion);
+
+        // When
+        dynamoDbTemplate.update(stubItem);
+
+        // Then
+        final ArgumentCaptor<UpdateItemRequest> updateItemRequestArgumentCaptor = ArgumentCaptor
+                .forClass(UpdateItemRequest.class);
+        verify(mockAmazonDynamoDbClient).updateItem(updateItemRequestArgumentCaptor.capture());
+        final UpdateItemRequest updateItemRequest = updateItemRequestArgumentCaptor.getValue();
+        assertEquals(schemaName + "." + tableName, updateItemRequest.getTableName());
+        final Map<String, AttributeValue> key = new HashMap<>();
+        key.put("id", new AttributeValue(stubItem.getId()));
+        assertEquals(key, updateItemRequest.getKey());
+        assertEquals(updateItemRequest.getAttributeUpdates().size(), 5);
+        assertEquals(
+                new AttributeValueUpdate().withAction(AttributeAction.PUT)
+                        .withValue(new AttributeValue(stringPropertyValue)),
+                updateItemRequest.getAttributeUpdates().get("stringProperty"));
+        assertEquals(new ExpectedAttributeValue(new AttributeValue().withN(String.valueOf(oldVersion))),
+                updateItemRequest.getExpected().get("version"));
+    }
+
+    @Test
+    public void shouldUpdateItem_withOnlyAttributesChangedSinceRead() throws Exception {
+        // Given
+        final ItemConfiguration itemConfiguration = new ItemConfiguration(StubItem.class, tableName);
+        when(mockDatabaseSchemaHolder.itemConfigurations()).thenReturn(Arrays.asList(itemConfiguration));
+        final ItemId itemId = new ItemId(randomId());
+        final Long oldVersion = randomLong();
+        final Map<String, AttributeValue> itemAttributeMap = new HashMap<>();
+        itemAttributeMap.put("id", new AttributeValue(itemId.value()));
+        itemAttributeMap.put("stringProperty", new AttributeValue(randomString(10)));
+        itemAttributeMap.put("stringProperty2", new AttributeValue(randomString(10)));
+        itemAttributeMap.put("booleanProperty", new AttributeValue().withN("1"));
+        itemAttributeMap.put("stringSetProperty", new AttributeValue().withSS(randomString(10), randomString(10)));
+        itemAttributeMap.put("version", new AttributeValue().withN(String.valueOf(oldVersion)));
+        final AttributeValue creationToken = new AttributeValue(randomId());
+        itemAttributeMap.put("_creationToken", creationToken);
+        when(mockAmazonDynamoDbClient.getItem(any(GetItemRequest.class)))
+                .thenReturn(new GetItemResult().withItem(itemAttributeMap));
+        final DynamoDbTemplate dynamoDbTemplate = new DynamoDbTemplate(mockDatabaseSchemaHolder);
+        dynamoDbTemplate.initialize(mockAmazonDynamoDbClient);
+        final StubItem stubItem = dynamoDbTemplate.read(itemId, StubItem.class);
+        final String stringPropertyValue = randomString(10);
+        stubItem.setStringProperty(stringPropertyValue);
+        stubItem.setStringProperty2(null);
+
+        // When
+        dynamoDbTemplate.update(stubItem);
+
+        // Then
+        final ArgumentCaptor<UpdateItemRequest> updateItemRequestArgumentCaptor = ArgumentCaptor
+                .forClass(UpdateItemRequest.class);
+        verify(mockAmazonDynamoDbClient).updateItem(updateItemRequestArgumentCaptor.capture());
+        final UpdateItemRequest updateItemRequest = updateItemRequestArgumentCaptor.getValue();
+        assertEquals(new HashSet<>(Arrays.asList("stringProperty", "stringProperty2", "version")),
+                updateItemRequest.getAttributeUpdates().keySet());
+        assertEquals(
+                new AttributeValueUpdate().withAction(AttributeAction.PUT)
+                        .withValue(new AttributeValue(stringPropertyValue)),
+                updateItemRequest.getAttributeUpdates().get("stringProperty"));
+        assertEquals(new AttributeValueUpdate().withAction(AttributeAction.DELETE),
+                updateItemRequest.getAttributeUpdates().get("stringProperty2"));
+        assertEquals(new ExpectedAttributeValue(new AttributeValue().withN(String.valueOf(oldVersion))),
+                updateItemRequest.getExpected().get("version"));
+        assertEquals(new ExpectedAttributeValue(creationToken), updateItemRequest.getExpected().get("_creationToken"));
+        assertEquals(Long.valueOf(oldVersion + 1), stubItem.getVersion());
+    }
+
+    @Test
+    public void shouldUpdateItem_withAllAttributes_withCreationTokenNotRead() throws Exception {
+        // Given
+        final ItemConfiguration itemConfiguration = new ItemConfiguration(StubItem.class, tableName);
+        when(mockDatabaseSchemaHolder.itemConfigurations()).thenReturn(Arrays.asList(itemConfiguration));
+        final ItemId itemId = new ItemId(randomId());
+        final Map<String, AttributeValue> itemAttributeMap = new HashMap<>();
+        itemAttributeMap.put("id", new AttributeValue(itemId.value()));
+        itemAttributeMap.put("stringProperty", new AttributeValue(randomString(10)));
+        itemAttributeMap.put("version", new AttributeValue().withN(String.valueOf(randomLong())));
+        when(mockAmazonDynamoDbClient.getItem(any(GetItemRequest.class)))
+                .thenReturn(new GetItemResult().withItem(itemAttributeMap));
+        final DynamoDbTemplate dynamoDbTemplate = new DynamoDbTemplate(mockDatabaseSchemaHolder);
+        dynamoDbTemplate.initialize(mockAmazonDynamoDbClient);
+        final StubItem stubItem = dynamoDbTemplate.read(itemId, StubItem.class);
+
+        // When
+        dynamoDbTemplate.update(stubItem);
+
+        // Then
+        final ArgumentCaptor<UpdateItemRequest> updateItemRequestArgumentCaptor = ArgumentCaptor
+                .forClass(UpdateItemRequest.class);
+        verify(mockAmazonDynamoDbClient).updateItem(updateItemRequestArgumentCaptor.capture());
+        final UpdateItemRequest updateItemRequest = updateItemRequestArgumentCaptor.getValue();
+        assertEquals(5, updateItemRequest.getAttributeUpdates().size());
+        assertFalse(updateItemRequest.getExpected().containsKey("_creationToken"));
+    }
+
+    @Test
+    public void shouldUpdateItem_withAllAttributes_withItemCreatedAgainSinceRead() throws Exception {
+        // Given
+        final ItemConfiguration itemConfiguration = new ItemConfiguration(StubItem.class, tableName);
+        when(mockDatabaseSchemaHolder.itemConfigurations()).thenReturn(Arrays.asList(itemConfiguration));
+        final ItemId itemId = new ItemId(randomId());
+        final Map<String, AttributeValue> itemAttributeMap = new HashMap<>();
+        itemAttributeMap.put("id", new AttributeValue(itemId.value()));
+        itemAttributeMap.put("stringProperty", new AttributeValue(randomString(10)));
+        itemAttributeMap.put("booleanProperty", new AttributeValue().withN("1"));
+        itemAttributeMap.put("version", new AttributeValue().withN(String.valueOf(randomLong())));
+        itemAttributeMap.put("_creationToken", new AttributeValue(randomId()));
+        when(mockAmazonDynamoDbClient.getItem(any(GetItemRequest.class)))
+                .thenReturn(new GetItemResult().withItem(itemAttributeMap));
+        when(mockAmazonDynamoDbClient.updateItem(any(UpdateItemRequest.class)))
+                .thenThrow(new ConditionalCheckFailedException(randomString())).thenReturn(new UpdateItemResult());
+        final DynamoDbTemplate dynamoDbTemplate = new DynamoDbTemplate(mockDatabaseSchemaHolder);
+        dynamoDbTemplate.initialize(mockAmazonDynamoDbClient);
+        final StubItem stubItem = dynamoDbTemplate.read(itemId, StubItem.class);
+        stubItem.setStringProperty(randomString(10));
+
+        // When
+        dynamoDbTemplate.update(stubItem);
+
+        // Then
+        final ArgumentCaptor<UpdateItemRequest> updateItemRequestArgumentCaptor = ArgumentCaptor
+                .forClass(UpdateItemRequest.class);
+        verify(mockAmazonDynamoDbClient, times(2)).updateItem(updateItemRequestArgumentCaptor.capture());
+        final UpdateItemRequest partialUpdateItemRequest = updateItemRequestArgumentCaptor.getAllValues().get(0);
+        assertEquals(new HashSet<>(Arrays.asList("stringProperty", "version")),
+                partialUpdateItemRequest.getAttributeUpdates().keySet());
+        assertEquals(new ExpectedAttributeValue(itemAttributeMap.get("_creationToken")),
+                partialUpdateItemRequest.getExpected().get("_creationToken"));
+        final UpdateItemRequest fullUpdateItemRequest = updateItemRequestArgumentCaptor.getAllValues().get(1);
+        assertEquals(5, fullUpdateItemRequest.getAttributeUpdates().size());
+        assertFalse(fullUpdateItemRequest.getExpected().containsKey("_creationToken"));
+    }
+
+    @Test
+    public void shouldUpdateItem_withOnlyAttributesChangedSincePreviousUpdate() throws Exception {
+        // Given
+        final ItemConfiguration itemConfiguration = new ItemConfiguration(StubItem.class, tableName);
+        when(mockDatabaseSchemaHolder.itemConfigurations()).thenReturn(Arrays.asList(itemConfiguration));
+        final DynamoDbTemplate dynamoDbTemplate = new DynamoDbTemplate(mockDatabaseSchemaHolder);
+        dynamoDbTemplate.initialize(mockAmazonDynamoDbClient);
+        final StubItem stubItem = new StubItem();
+        stubItem.setId(randomId());
+        stubItem.setStringProperty(randomString(10));
+        stubItem.setStringSetProperty(Sets.newSet(randomString(10), randomString(10)));
+        dynamoDbTemplate.create(stubItem);
+        stubItem.setStringProperty(randomString(10));
+        dynamoDbTemplate.update(stubItem);
+        stubItem.setBooleanProperty(!stubItem.isBooleanProperty());
+
+        // When
+        dynamoDbTemplate.update(stubItem);
+
+        // Then
+        final ArgumentCaptor<PutItemRequest> putItemRequestArgumentCaptor = ArgumentCaptor
+                .forClass(PutItemRequest.class);
+        verify(mockAmazonDynamoDbClient).putItem(putItemRequestArgumentCaptor.capture());
+        final AttributeValue creationToken = putItemRequestArgumentCaptor.getValue().getItem().get("_creationToken");
+        assertNotNull(creationToken);
+        final ArgumentCaptor<UpdateItemRequest> updateItemRequestArgumentCaptor = ArgumentCaptor
+                .forClass(UpdateItemRequest.class);
+        verify(mockAmazonDynamoDbClient, times(2)).updateItem(updateItemRequestArgumentCaptor.capture());
+        final List<UpdateItemRequest> updateItemRequests = updateItemRequestArgumentCaptor.getAllValues();
+        assertEquals(new HashSet<>(Arrays.asList("stringProperty", "version")),
+                updateItemRequests.get(0).getAttributeUpdates().keySet());
+        assertEquals(new HashSet<>(Arrays.asList("booleanProperty", "version")),
+                updateItemRequests.get(1).getAttributeUpdates().keySet());
+        for (final UpdateItemRequest updateItemRequest : updateItemRequests) {
+            assertEquals(new ExpectedAttributeValue(creationToken),
+                    updateItemRequest.getExpected().get("_creationToken"));
+        }
+    }
+
+    @Test
+    public void shouldUpdateItem_withAllAttributes_withPreviousUpdateOfAllAttributes() throws Exception {
+        // Given
+        final ItemConfiguration itemConfiguration = new ItemConfiguration(StubItem.class, tableName);
+        when(mockDatabaseSchemaHolder.itemConfigurations()).thenReturn(Arrays.asList(itemConfiguration));
+        final DynamoDbTemplate dynamoDbTemplate = new DynamoDbTemplate(mockDatabaseSchemaHolder);
         dynamoDbTemplate.initialize(mockAmazonDynamoDbClient);
-        when(mockAmazonDynamoDbClient.putItem(any(PutItemRequest.class))).thenReturn(null)
-                .thenThrow(AmazonServiceException.class);
         final StubItem stubItem = new StubItem();
         stubItem.setId(randomId());
-        final String stringPropertyValue = randomString(10);
-        stubItem.setStringProperty(stringPropertyValue);
+        stubItem.setStringProperty(randomString(10));
+        stubItem.setVersion(randomLong());
+        dynamoDbTemplate.update(stubItem);
+        stubItem.setBooleanProperty(!stubItem.isBooleanProperty());
 
         // When
-        PersistenceResourceFailureException actualException = null;
-        try {
-            dynamoDbTemplate.create(stubItem);
-        } catch (final PersistenceResourceFailureException e) {
-            actualException = e;
-        }
+        dynamoDbTemplate.update(stubItem);
 
         // Then
-        final ArgumentCaptor<PutItemRequest> putItemRequestArgumentCaptor = ArgumentCaptor
-                .forClass(PutItemRequest.class);
-        final ArgumentCaptor<DeleteItemRequest> deleteItemRequestArgumentCaptor = ArgumentCaptor
-                .forClass(DeleteItemRequest.class);
-        verify(mockAmazonDynamoDbClient, times(2)).putItem(putItemRequestArgumentCaptor.capture());
-        verify(mockAmazonDynamoDbClient).deleteItem(deleteItemRequestArgumentCaptor.capture());
-        final List<PutItemRequest> putItemRequests = putItemRequestArgumentCaptor.getAllValues();
-        final Iterator<PutItemRequest> iterator = putItemRequests.iterator();
-        final PutItemRequest putItemRequest1 = iterator.next();
-
-        assertEquals(schemaName + "-indexes." + tableName, putItemRequest1.getTableName());
-        assertEquals(2, putItemRequest1.getItem().size());
-        assertEquals(new AttributeValue("stringProperty"), putItemRequest1.getItem().get("property"));
-        assertEquals(new AttributeValue(stringPropertyValue.toUpperCase()), putItemRequest1.getItem().get("value"));
-        assertEquals(new ExpectedAttributeValue(false), putItemRequest1.getExpected().get("value"));
-
-        final PutItemRequest putItemRequest2 = iterator.next();
-        assertEquals(schemaName + "." + tableName, putItemRequest2.getTableName());
-        assertEquals(new AttributeValue(stubItem.getId()), putItemRequest2.getItem().get("id"));
-        assertEquals(new AttributeValue(stringPropertyValue), putItemRequest2.getItem().get("stringProperty"));
-        assertEquals(new ExpectedAttributeValue(false), putItemRequest2.getExpected().get("id"));
-        assertNotNull(actualException);
-
-        final DeleteItemRequest deleteItemRequest = deleteItemRequestArgumentCaptor.getValue();
-        assertEquals(schemaName + "-indexes." + tableName, deleteItemRequest.getTableName());
-        assertEquals(2, deleteItemRequest.getKey().size());
-        assertEquals(new AttributeValue("stringProperty"), deleteItemRequest.getKey().get("property"));
-        assertEquals(new AttributeValue(stubItem.getStringProperty().toUpperCase()),
-                deleteItemRequest.getKey().get("value"));
+        final ArgumentCaptor<UpdateItemRequest> updateItemRequestArgumentCaptor = ArgumentCaptor
+                .forClass(UpdateItemRequest.class);
+        verify(mockAmazonDynamoDbClient, times(2)).updateItem(updateItemRequestArgumentCaptor.capture());
+        assertEquals(5, updateItemRequestArgumentCaptor.getAllValues().get(1).getAttributeUpdates().size());
     }
 
     @Test
-    public void shouldUpdateItem_withStubItem() throws Exception {
+    public void shouldUpdateItem_withChangedPropertyNames() throws Exception {
         // Given
         final ItemConfiguration itemConfiguration = new ItemConfiguration(StubItem.class, tableName);
-        final Collection<ItemConfiguration> itemConfigurations = Arrays.asList(itemConfiguration);
-        when(mockDatabaseSchemaHolder.itemConfigurations()).thenReturn(itemConfigurations);
+        when(mockDatabaseSchemaHolder.itemConfigurations()).thenReturn(Arrays.asList(itemConfiguration));
         final DynamoDbTemplate dynamoDbTemplate = new DynamoDbTemplate(mockDatabaseSchemaHolder);
-        final AmazonDynamoDB mockAmazonDynamoDbClient = mock(AmazonDynamoDB.class);
         dynamoDbTemplate.initialize(mockAmazonDynamoDbClient);
         final StubItem stubItem = new StubItem();
         stubItem.setId(randomId());
         final String stringPropertyValue = randomString(10);
         stubItem.setStringProperty(stringPropertyValue);
+        stubItem.setStringProperty2(randomString(10));
         final Long oldVersion = randomLong();
         stubItem.setVersion(oldVersion);
 
         // When
-        dynamoDbTemplate.update(stubItem);
+        dynamoDbTemplate.update(stubItem, Arrays.asList("stringProperty"));
 
         // Then
         final ArgumentCaptor<UpdateItemRequest> updateItemRequestArgumentCaptor = ArgumentCaptor
                 .forClass(UpdateItemRequest.class);
         verify(mockAmazonDynamoDbClient).updateItem(updateItemRequestArgumentCaptor.capture());
         final UpdateItemRequest updateItemRequest = updateItemRequestArgumentCaptor.getValue();
-        assertEquals(schemaName + "." + tableName, updateItemRequest.getTableName());
-        final Map<String, AttributeValue> key = new HashMap<>();
-        key.put("id", new AttributeValue(stubItem.getId()));
-        assertEquals(key, updateItemRequest.getKey());
-        assertEquals(updateItemRequest.getAttributeUpdates().size(), 5);
+        assertEquals(new HashSet<>(Arrays.asList("stringProperty", "version")),
+                updateItemRequest.getAttributeUpdates().keySet());
         assertEquals(
                 new AttributeValueUpdate().withAction(AttributeAction.PUT)
                         .withValue(new AttributeValue(stringPropertyValue)),
@@ -719,6 +1756,57 @@ public class DynamoDbTemplateTest {
                 updateItemRequest.getExpected().get("version"));
     }
 
+    @Test
+    public void shouldUpdateItem_withAllAttributes_withVersionDifferentFromRead() throws Exception {
+        // Given
+        final ItemConfiguration itemConfiguration = new ItemConfiguration(StubItem.class, tableName);
+        when(mockDatabaseSchemaHolder.itemConfigurations()).thenReturn(Arrays.asList(itemConfiguration));
+        final ItemId itemId = new ItemId(randomId());
+        final Map<String, AttributeValue> itemAttributeMap = new HashMap<>();
+        itemAttributeMap.put("id", new AttributeValue(itemId.value()));
+        itemAttributeMap.put("stringProperty", new AttributeValue(randomString(10)));
+        itemAttributeMap.put("version", new AttributeValue().withN("1"));
+        when(mockAmazonDynamoDbClient.getItem(any(GetItemRequest.class)))
+                .thenReturn(new GetItemResult().withItem(itemAttributeMap));
+        final DynamoDbTemplate dynamoDbTemplate = new DynamoDbTemplate(mockDatabaseSchemaHolder);
+        dynamoDbTemplate.initialize(mockAmazonDynamoDbClient);
+        final StubItem stubItem = dynamoDbTemplate.read(itemId, StubItem.class);
+        stubItem.setVersion(2l + randomInt(100));
+
+        // When
+        dynamoDbTemplate.update(stubItem);
+
+        // Then
+        final ArgumentCaptor<UpdateItemRequest> updateItemRequestArgumentCaptor = ArgumentCaptor
+                .forClass(UpdateItemRequest.class);
+        verify(mockAmazonDynamoDbClient).updateItem(updateItemRequestArgumentCaptor.capture());
+        assertEquals(5, updateItemRequestArgumentCaptor.getValue().getAttributeUpdates().size());
+    }
+
+    @Test
+    public void shouldNotUpdateItem_withUnknownChangedPropertyName() throws Exception {
+        // Given
+        final ItemConfiguration itemConfiguration = new ItemConfiguration(StubItem.class, tableName);
+        when(mockDatabaseSchemaHolder.itemConfigurations()).thenReturn(Arrays.asList(itemConfiguration));
+        final DynamoDbTemplate dynamoDbTemplate = new DynamoDbTemplate(mockDatabaseSchemaHolder);
+        dynamoDbTemplate.initialize(mockAmazonDynamoDbClient);
+        final StubItem stubItem = new StubItem();
+        stubItem.setId(randomId());
+        stubItem.setVersion(randomLong());
+
+        // When
+        IllegalArgumentException actualException = null;
+        try {
+            dynamoDbTemplate.update(stubItem, Arrays.asList(randomString(10)));
+        } catch (final IllegalArgumentException e) {
+            actualException = e;
+        }
+
+        // Then
+        assertNotNull(actualException);
+        verifyZeroInteractions(mockAmazonDynamoDbClient);
+    }
+
     @Test
     public void shouldNotUpdateItem_withOptimisticLockException() throws Exception {
         // Given
@@ -834,35 +1922,28 @@ public class DynamoDbTemplateTest {
         when(mockDatabaseSchemaHolder.itemConfigurations()).thenReturn(itemConfigurations);
         final DynamoDbTemplate dynamoDbTemplate = new DynamoDbTemplate(mockDatabaseSchemaHolder);
         final AmazonDynamoDB mockAmazonDynamoDbClient = mock(AmazonDynamoDB.class);
-        final GetItemResult mockGetItemResult = mock(GetItemResult.class);
-        when(mockAmazonDynamoDbClient.getItem(any(GetItemRequest.class))).thenReturn(mockGetItemResult);
         final Map<String, AttributeValue> attributeMap = new HashMap<>();
         attributeMap.put("id", new AttributeValue(stubItem.getId()));
         attributeMap.put("stringProperty", new AttributeValue(previousStringPropertyValue));
         attributeMap.put("version", new AttributeValue().withN(String.valueOf(oldVersion)));
-        when(mockGetItemResult.getItem()).thenReturn(attributeMap);
+        when(mockAmazonDynamoDbClient.updateItem(any(UpdateItemRequest.class)))
+                .thenReturn(new UpdateItemResult().withAttributes(attributeMap));
         dynamoDbTemplate.initialize(mockAmazonDynamoDbClient);
 
         // When
         dynamoDbTemplate.update(stubItem);
 
         // Then
-        final ArgumentCaptor<GetItemRequest> getItemRequestArgumentCaptor = ArgumentCaptor
-                .forClass(GetItemRequest.class);
         final ArgumentCaptor<PutItemRequest> putItemRequestArgumentCaptor = ArgumentCaptor
                 .forClass(PutItemRequest.class);
         final ArgumentCaptor<UpdateItemRequest> updateItemRequestArgumentCaptor = ArgumentCaptor
                 .forClass(UpdateItemRequest.class);
         final ArgumentCaptor<DeleteItemRequest> deleteItemRequestArgumentCaptor = ArgumentCaptor
                 .forClass(DeleteItemRequest.class);
-        verify(mockAmazonDynamoDbClient).getItem(getItemRequestArgumentCaptor.capture());
+        verify(mockAmazonDynamoDbClient, never()).getItem(any(GetItemRequest.class));
         verify(mockAmazonDynamoDbClient).putItem(putItemRequestArgumentCaptor.capture());
         verify(mockAmazonDynamoDbClient).updateItem(updateItemRequestArgumentCaptor.capture());
         verify(mockAmazonDynamoDbClient).deleteItem(deleteItemRequestArgumentCaptor.capture());
-        final GetItemRequest getItemRequest = getItemRequestArgumentCaptor.getValue();
-        assertEquals(schemaName + "." + tableName, getItemRequest.getTableName());
-        assertEquals(new AttributeValue(stubItem.getId()), getItemRequest.getKey().get("id"));
-
         final PutItemRequest putIndexRequest = putItemRequestArgumentCaptor.getValue();
         assertEquals(schemaName + "-indexes." + tableName, putIndexRequest.getTableName());
         assertEquals(2, putIndexRequest.getItem().size());
@@ -882,6 +1963,7 @@ public class DynamoDbTemplateTest {
                 updateItemRequest.getAttributeUpdates().get("stringProperty"));
         assertEquals(new ExpectedAttributeValue(new AttributeValue().withN(String.valueOf(oldVersion))),
                 updateItemRequest.getExpected().get("version"));
+        assertEquals(ReturnValue.UPDATED_OLD.toString(), updateItemRequest.getReturnValues());
 
         final DeleteItemRequest deleteIndexRequest = deleteItemRequestArgumentCaptor.getValue();
         assertEquals(schemaName + "-indexes." + tableName, deleteIndexRequest.getTableName());
@@ -910,36 +1992,29 @@ public class DynamoDbTemplateTest {
         when(mockDatabaseSchemaHolder.itemConfigurations()).thenReturn(itemConfigurations);
         final DynamoDbTemplate dynamoDbTemplate = new DynamoDbTemplate(mockDatabaseSchemaHolder);
         final AmazonDynamoDB mockAmazonDynamoDbClient = mock(AmazonDynamoDB.class);
-        final GetItemResult mockGetItemResult = mock(GetItemResult.class);
-        when(mockAmazonDynamoDbClient.getItem(any(GetItemRequest.class))).thenReturn(mockGetItemResult);
         final Map<String, AttributeValue> attributeMap = new HashMap<>();
         attributeMap.put("id", new AttributeValue(stubVariantItem.getId()));
         attributeMap.put("stringProperty", new AttributeValue(previousStringPropertyValue));
         attributeMap.put("version", new AttributeValue().withN(String.valueOf(oldVersion)));
         attributeMap.put("discriminator", new AttributeValue("VARIANT"));
-        when(mockGetItemResult.getItem()).thenReturn(attributeMap);
+        when(mockAmazonDynamoDbClient.updateItem(any(UpdateItemRequest.class)))
+                .thenReturn(new UpdateItemResult().withAttributes(attributeMap));
         dynamoDbTemplate.initialize(mockAmazonDynamoDbClient);
 
         // When
         dynamoDbTemplate.update(stubVariantItem);
 
         // Then
-        final ArgumentCaptor<GetItemRequest> getItemRequestArgumentCaptor = ArgumentCaptor
-                .forClass(GetItemRequest.class);
         final ArgumentCaptor<PutItemRequest> putItemRequestArgumentCaptor = ArgumentCaptor
                 .forClass(PutItemRequest.class);
         final ArgumentCaptor<UpdateItemRequest> updateItemRequestArgumentCaptor = ArgumentCaptor
                 .forClass(UpdateItemRequest.class);
         final ArgumentCaptor<DeleteItemRequest> deleteItemRequestArgumentCaptor = ArgumentCaptor
                 .forClass(DeleteItemRequest.class);
-        verify(mockAmazonDynamoDbClient).getItem(getItemRequestArgumentCaptor.capture());
+        verify(mockAmazonDynamoDbClient, never()).getItem(any(GetItemRequest.class));
         verify(mockAmazonDynamoDbClient).putItem(putItemRequestArgumentCaptor.capture());
         verify(mockAmazonDynamoDbClient).updateItem(updateItemRequestArgumentCaptor.capture());
         verify(mockAmazonDynamoDbClient).deleteItem(deleteItemRequestArgumentCaptor.capture());
-        final GetItemRequest getItemRequest = getItemRequestArgumentCaptor.getValue();
-        assertEquals(schemaName + "." + tableName, getItemRequest.getTableName());
-        assertEquals(new AttributeValue(stubVariantItem.getId()), getItemRequest.getKey().get("id"));
-
         final PutItemRequest putIndexRequest = putItemRequestArgumentCaptor.getValue();
         assertEquals(schemaName + "-indexes." + tableName, putIndexRequest.getTableName());
         assertEquals(2, putIndexRequest.getItem().size());
@@ -987,36 +2062,29 @@ public class DynamoDbTemplateTest {
         when(mockDatabaseSchemaHolder.itemConfigurations()).thenReturn(itemConfigurations);
         final DynamoDbTemplate dynamoDbTemplate = new DynamoDbTemplate(mockDatabaseSchemaHolder);
         final AmazonDynamoDB mockAmazonDynamoDbClient = mock(AmazonDynamoDB.class);
-        final GetItemResult mockGetItemResult = mock(GetItemResult.class);
-        when(mockAmazonDynamoDbClient.getItem(any(GetItemRequest.class))).thenReturn(mockGetItemResult);
         final Map<String, AttributeValue> attributeMap = new HashMap<>();
         attributeMap.put("id", new AttributeValue(stubVariantItem.getId()));
         attributeMap.put("stringProperty", new AttributeValue(previousStringPropertyValue));
         attributeMap.put("version", new AttributeValue().withN(String.valueOf(oldVersion)));
         attributeMap.put("discriminator", new AttributeValue("VARIANT"));
-        when(mockGetItemResult.getItem()).thenReturn(attributeMap);
+        when(mockAmazonDynamoDbClient.updateItem(any(UpdateItemRequest.class)))
+                .thenReturn(new UpdateItemResult().withAttributes(attributeMap));
         dynamoDbTemplate.initialize(mockAmazonDynamoDbClient);
 
         // When
         dynamoDbTemplate.update(stubVariantItem);
 
         // Then
-        final ArgumentCaptor<GetItemRequest> getItemRequestArgumentCaptor = ArgumentCaptor
-                .forClass(GetItemRequest.class);
         final ArgumentCaptor<PutItemRequest> putItemRequestArgumentCaptor = ArgumentCaptor
                 .forClass(PutItemRequest.class);
         final ArgumentCaptor<UpdateItemRequest> updateItemRequestArgumentCaptor = ArgumentCaptor
                 .forClass(UpdateItemRequest.class);
         final ArgumentCaptor<DeleteItemRequest> deleteItemRequestArgumentCaptor = ArgumentCaptor
                 .forClass(DeleteItemRequest.class);
-        verify(mockAmazonDynamoDbClient).getItem(getItemRequestArgumentCaptor.capture());
+        verify(mockAmazonDynamoDbClient, never()).getItem(any(GetItemRequest.class));
         verify(mockAmazonDynamoDbClient).putItem(putItemRequestArgumentCaptor.capture());
         verify(mockAmazonDynamoDbClient).updateItem(updateItemRequestArgumentCaptor.capture());
         verify(mockAmazonDynamoDbClient).deleteItem(deleteItemRequestArgumentCaptor.capture());
-        final GetItemRequest getItemRequest = getItemRequestArgumentCaptor.getValue();
-        assertEquals(schemaName + "." + tableName, getItemRequest.getTableName());
-        assertEquals(new AttributeValue(stubVariantItem.getId()), getItemRequest.getKey().get("id"));
-
         final PutItemRequest putIndexRequest = putItemRequestArgumentCaptor.getValue();
         assertEquals(schemaName + "-indexes." + tableName, putIndexRequest.getTableName());
         assertEquals(2, putIndexRequest.getItem().size());
@@ -1060,32 +2128,25 @@ public class DynamoDbTemplateTest {
         when(mockDatabaseSchemaHolder.itemConfigurations()).thenReturn(itemConfigurations);
         final DynamoDbTemplate dynamoDbTemplate = new DynamoDbTemplate(mockDatabaseSchemaHolder);
         final AmazonDynamoDB mockAmazonDynamoDbClient = mock(AmazonDynamoDB.class);
-        final GetItemResult mockGetItemResult = mock(GetItemResult.class);
-        when(mockAmazonDynamoDbClient.getItem(any(GetItemRequest.class))).thenReturn(mockGetItemResult);
         final Map<String, AttributeValue> attributeMap = new HashMap<>();
         attributeMap.put("id", new AttributeValue(stubItem.getId()));
         attributeMap.put("version", new AttributeValue().withN(String.valueOf(oldVersion)));
-        when(mockGetItemResult.getItem()).thenReturn(attributeMap);
+        when(mockAmazonDynamoDbClient.updateItem(any(UpdateItemRequest.class)))
+                .thenReturn(new UpdateItemResult().withAttributes(attributeMap));
         dynamoDbTemplate.initialize(mockAmazonDynamoDbClient);
 
         // When
         dynamoDbTemplate.update(stubItem);
 
         // Then
-        final ArgumentCaptor<GetItemRequest> getItemRequestArgumentCaptor = ArgumentCaptor
-                .forClass(GetItemRequest.class);
         final ArgumentCaptor<UpdateItemRequest> updateItemRequestArgumentCaptor = ArgumentCaptor
                 .forClass(UpdateItemRequest.class);
         final ArgumentCaptor<PutItemRequest> putItemRequestArgumentCaptor = ArgumentCaptor
                 .forClass(PutItemRequest.class);
-        verify(mockAmazonDynamoDbClient).getItem(getItemRequestArgumentCaptor.capture());
+        verify(mockAmazonDynamoDbClient, never()).getItem(any(GetItemRequest.class));
         verify(mockAmazonDynamoDbClient).updateItem(updateItemRequestArgumentCaptor.capture());
         verify(mockAmazonDynamoDbClient).putItem(putItemRequestArgumentCaptor.capture());
         verify(mockAmazonDynamoDbClient, never()).deleteItem(any(DeleteItemRequest.class));
-        final GetItemRequest getItemRequest = getItemRequestArgumentCaptor.getValue();
-        assertEquals(schemaName + "." + tableName, getItemRequest.getTableName());
-        assertEquals(new AttributeValue(stubItem.getId()), getItemRequest.getKey().get("id"));
-
         final PutItemRequest putIndexRequest = putItemRequestArgumentCaptor.getValue();
         assertEquals(schemaName + "-indexes." + tableName, putIndexRequest.getTableName());
         assertEquals(2, putIndexRequest.getItem().size());
@@ -1124,32 +2185,25 @@ public class DynamoDbTemplateTest {
         when(mockDatabaseSchemaHolder.itemConfigurations()).thenReturn(itemConfigurations);
         final DynamoDbTemplate dynamoDbTemplate = new DynamoDbTemplate(mockDatabaseSchemaHolder);
         final AmazonDynamoDB mockAmazonDynamoDbClient = mock(AmazonDynamoDB.class);
-        final GetItemResult mockGetItemResult = mock(GetItemResult.class);
-        when(mockAmazonDynamoDbClient.getItem(any(GetItemRequest.class))).thenReturn(mockGetItemResult);
         final Map<String, AttributeValue> attributeMap = new HashMap<>();
         attributeMap.put("id", new AttributeValue(stubItem.getId()));
         attributeMap.put("stringProperty", new AttributeValue(previousStringPropertyValue));
         attributeMap.put("version", new AttributeValue().withN(String.valueOf(oldVersion)));
-        when(mockGetItemResult.getItem()).thenReturn(attributeMap);
+        when(mockAmazonDynamoDbClient.updateItem(any(UpdateItemRequest.class)))
+                .thenReturn(new UpdateItemResult().withAttributes(attributeMap));
         dynamoDbTemplate.initialize(mockAmazonDynamoDbClient);
 
         // When
         dynamoDbTemplate.update(stubItem);
 
         // Then
-        final ArgumentCaptor<GetItemRequest> getItemRequestArgumentCaptor = ArgumentCaptor
-                .forClass(GetItemRequest.class);
         final ArgumentCaptor<UpdateItemRequest> updateItemRequestArgumentCaptor = ArgumentCaptor
                 .forClass(UpdateItemRequest.class);
         final ArgumentCaptor<DeleteItemRequest> deleteItemRequestArgumentCaptor = ArgumentCaptor
                 .forClass(DeleteItemRequest.class);
-        verify(mockAmazonDynamoDbClient).getItem(getItemRequestArgumentCaptor.capture());
+        verify(mockAmazonDynamoDbClient, never()).getItem(any(GetItemRequest.class));
         verify(mockAmazonDynamoDbClient).updateItem(updateItemRequestArgumentCaptor.capture());
         verify(mockAmazonDynamoDbClient).deleteItem(deleteItemRequestArgumentCaptor.capture());
-        final GetItemRequest getItemRequest = getItemRequestArgumentCaptor.getValue();
-        assertEquals(schemaName + "." + tableName, getItemRequest.getTableName());
-        assertEquals(new AttributeValue(stubItem.getId()), getItemRequest.getKey().get("id"));
-
         final UpdateItemRequest updateItemRequest = updateItemRequestArgumentCaptor.getValue();
         assertEquals(schemaName + "." + tableName, updateItemRequest.getTableName());
         final Map<String, AttributeValue> key = new HashMap<>();
@@ -1185,14 +2239,7 @@ public class DynamoDbTemplateTest {
         when(mockDatabaseSchemaHolder.itemConfigurations()).thenReturn(itemConfigurations);
         final DynamoDbTemplate dynamoDbTemplate = new DynamoDbTemplate(mockDatabaseSchemaHolder);
         final AmazonDynamoDB mockAmazonDynamoDbClient = mock(AmazonDynamoDB.class);
-        final GetItemResult mockGetItemResult = mock(GetItemResult.class);
-        when(mockAmazonDynamoDbClient.getItem(any(GetItemRequest.class))).thenReturn(mockGetItemResult);
         when(mockAmazonDynamoDbClient.updateItem(any(UpdateItemRequest.class))).thenThrow(AmazonServiceException.class);
-        final Map<String, AttributeValue> attributeMap = new HashMap<>();
-        attributeMap.put("id", new AttributeValue(stubItem.getId()));
-        attributeMap.put("stringProperty", new AttributeValue(previousStringPropertyValue));
-        attributeMap.put("version", new AttributeValue().withN(String.valueOf(oldVersion)));
-        when(mockGetItemResult.getItem()).thenReturn(attributeMap);
         dynamoDbTemplate.initialize(mockAmazonDynamoDbClient);
 
         // When
@@ -1205,22 +2252,16 @@ public class DynamoDbTemplateTest {
         }
 
         // Then
-        final ArgumentCaptor<GetItemRequest> getItemRequestArgumentCaptor = ArgumentCaptor
-                .forClass(GetItemRequest.class);
         final ArgumentCaptor<PutItemRequest> putItemRequestArgumentCaptor = ArgumentCaptor
                 .forClass(PutItemRequest.class);
         final ArgumentCaptor<UpdateItemRequest> updateItemRequestArgumentCaptor = ArgumentCaptor
                 .forClass(UpdateItemRequest.class);
         final ArgumentCaptor<DeleteItemRequest> deleteItemRequestArgumentCaptor = ArgumentCaptor
                 .forClass(DeleteItemRequest.class);
-        verify(mockAmazonDynamoDbClient).getItem(getItemRequestArgumentCaptor.capture());
+        verify(mockAmazonDynamoDbClient, never()).getItem(any(GetItemRequest.class));
         verify(mockAmazonDynamoDbClient).putItem(putItemRequestArgumentCaptor.capture());
         verify(mockAmazonDynamoDbClient).updateItem(updateItemRequestArgumentCaptor.capture());
         verify(mockAmazonDynamoDbClient).deleteItem(deleteItemRequestArgumentCaptor.capture());
-        final GetItemRequest getItemRequest = getItemRequestArgumentCaptor.getValue();
-        assertEquals(schemaName + "." + tableName, getItemRequest.getTableName());
-        assertEquals(new AttributeValue(stubItem.getId()), getItemRequest.getKey().get("id"));
-
         final PutItemRequest putIndexRequest = putItemRequestArgumentCaptor.getValue();
         assertEquals(schemaName + "-indexes." + tableName, putIndexRequest.getTableName());
         assertEquals(2, putIndexRequest.getItem().size());
@@ -1266,10 +2307,65 @@ public class DynamoDbTemplateTest {
         when(mockDatabaseSchemaHolder.itemConfigurations()).thenReturn(itemConfigurations);
         final DynamoDbTemplate dynamoDbTemplate = new DynamoDbTemplate(mockDatabaseSchemaHolder);
         final AmazonDynamoDB mockAmazonDynamoDbClient = mock(AmazonDynamoDB.class);
+        when(mockAmazonDynamoDbClient.putItem(any(PutItemRequest.class)))
+                .thenThrow(ConditionalCheckFailedException.class);
+        final Map<String, AttributeValue> attributeMap = new HashMap<>();
+        attributeMap.put("stringProperty", new AttributeValue(stringPropertyValue));
+        attributeMap.put("version", new AttributeValue().withN(String.valueOf(oldVersion)));
+        when(mockAmazonDynamoDbClient.updateItem(any(UpdateItemRequest.class)))
+                .thenReturn(new UpdateItemResult().withAttributes(attributeMap));
+        dynamoDbTemplate.initialize(mockAmazonDynamoDbClient);
+
+        // When
+        dynamoDbTemplate.update(stubItem);
+
+        // Then
+        final ArgumentCaptor<UpdateItemRequest> updateItemRequestArgumentCaptor = ArgumentCaptor
+                .forClass(UpdateItemRequest.class);
+        verify(mockAmazonDynamoDbClient, never()).getItem(any(GetItemRequest.class));
+        verify(mockAmazonDynamoDbClient).putItem(any(PutItemRequest.class));
+        verify(mockAmazonDynamoDbClient).updateItem(updateItemRequestArgumentCaptor.capture());
+        verify(mockAmazonDynamoDbClient, never()).deleteItem(any(DeleteItemRequest.class));
+
+        final UpdateItemRequest updateItemRequest = updateItemRequestArgumentCaptor.getValue();
+        assertEquals(schemaName + "." + tableName, updateItemRequest.getTableName());
+        final Map<String, AttributeValue> key = new HashMap<>();
+        key.put("id", new AttributeValue(stubItem.getId()));
+        assertEquals(key, updateItemRequest.getKey());
+        assertEquals(updateItemRequest.getAttributeUpdates().size(), 5);
+        assertEquals(
+                new AttributeValueUpdate().withAction(AttributeAction.PUT)
+                        .withValue(new AttributeValue(stringPropertyValue)),
+                updateItemRequest.getAttributeUpdates().get("stringProperty"));
+        assertEquals(new ExpectedAttributeValue(new AttributeValue().withN(String.valueOf(oldVersion))),
+                updateItemRequest.getExpected().get("version"));
+        assertEquals(new ExpectedAttributeValue(new AttributeValue(stringPropertyValue)),
+                updateItemRequest.getExpected().get("stringProperty"));
+    }
+
+    @Test
+    public void shouldUpdateItem_withStubItemAndUniqueConstraintPropertyModifiedButDifferentCase() throws Exception {
+        // Given
+        final StubItem stubItem = new StubItem();
+        stubItem.setId(randomId());
+        final String stringPropertyValue = randomString(10);
+        stubItem.setStringProperty(stringPropertyValue);
+        final long oldVersion = randomInt(100);
+        stubItem.setVersion(oldVersion);
+        final ItemConfiguration itemConfiguration = new ItemConfiguration(StubItem.class, tableName);
+        itemConfiguration.registerUniqueConstraints(Arrays.asList(new UniqueConstraint("stringProperty")));
+        final Collection<ItemConfiguration> itemConfigurations = Arrays.asList(itemConfiguration);
+        when(mockDatabaseSchemaHolder.itemConfigurations()).thenReturn(itemConfigurations);
+        final DynamoDbTemplate dynamoDbTemplate = new DynamoDbTemplate(mockDatabaseSchemaHolder);
+        final AmazonDynamoDB mockAmazonDynamoDbClient = mock(AmazonDynamoDB.class);
+        when(mockAmazonDynamoDbClient.putItem(any(PutItemRequest.class)))
+                .thenThrow(ConditionalCheckFailedException.class);
+        when(mockAmazonDynamoDbClient.updateItem(any(UpdateItemRequest.class)))
+                .thenThrow(ConditionalCheckFailedException.class).thenReturn(new UpdateItemResult());
         final GetItemResult mockGetItemResult = mock(GetItemResult.class);
         when(mockAmazonDynamoDbClient.getItem(any(GetItemRequest.class))).thenReturn(mockGetItemResult);
         final Map<String, AttributeValue> attributeMap = new HashMap<>();
-        attributeMap.put("stringProperty", new AttributeValue(stringPropertyValue));
+        attributeMap.put("stringProperty", new AttributeValue(stringPropertyValue.toLowerCase()));
         attributeMap.put("version", new AttributeValue().withN(String.valueOf(oldVersion)));
         when(mockGetItemResult.getItem()).thenReturn(attributeMap);
         dynamoDbTemplate.initialize(mockAmazonDynamoDbClient);
@@ -1283,76 +2379,171 @@ public class DynamoDbTemplateTest {
         final ArgumentCaptor<UpdateItemRequest> updateItemRequestArgumentCaptor = ArgumentCaptor
                 .forClass(UpdateItemRequest.class);
         verify(mockAmazonDynamoDbClient).getItem(getItemRequestArgumentCaptor.capture());
-        verify(mockAmazonDynamoDbClient).updateItem(updateItemRequestArgumentCaptor.capture());
+        verify(mockAmazonDynamoDbClient).putItem(any(PutItemRequest.class));
+        verify(mockAmazonDynamoDbClient, times(2)).updateItem(updateItemRequestArgumentCaptor.capture());
+        verify(mockAmazonDynamoDbClient, never()).deleteItem(any(DeleteItemRequest.class));
         final GetItemRequest getItemRequest = getItemRequestArgumentCaptor.getValue();
         assertEquals(schemaName + "." + tableName, getItemRequest.getTableName());
         assertEquals(new AttributeValue(stubItem.getId()), getItemRequest.getKey().get("id"));
         assertThat(getItemRequest.getAttributesToGet(), hasItems("version", "stringProperty"));
 
-        final UpdateItemRequest updateItemRequest = updateItemRequestArgumentCaptor.getValue();
-        assertEquals(schemaName + "." + tableName, updateItemRequest.getTableName());
-        final Map<String, AttributeValue> key = new HashMap<>();
-        key.put("id", new AttributeValue(stubItem.getId()));
-        assertEquals(key, updateItemRequest.getKey());
-        assertEquals(updateItemRequest.getAttributeUpdates().size(), 5);
-        assertEquals(
-                new AttributeValueUpdate().withAction(AttributeAction.PUT)
-                        .withValue(new AttributeValue(stringPropertyValue)),
-                updateItemRequest.getAttributeUpdates().get("stringProperty"));
-        assertEquals(new ExpectedAttributeValue(new AttributeValue().withN(String.valueOf(oldVersion))),
-                updateItemRequest.getExpected().get("version"));
+        final UpdateItemRequest firstUpdateItemRequest = updateItemRequestArgumentCaptor.getAllValues().get(0);
+        assertEquals(new ExpectedAttributeValue(new AttributeValue(stringPropertyValue)),
+                firstUpdateItemRequest.getExpected().get("stringProperty"));
+        final UpdateItemRequest updateItemRequest = updateItemRequestArgumentCaptor.getAllValues().get(1);
+        assertEquals(schemaName + "." + tableName, updateItemRequest.getTableName());
+        final Map<String, AttributeValue> key = new HashMap<>();
+        key.put("id", new AttributeValue(stubItem.getId()));
+        assertEquals(key, updateItemRequest.getKey());
+        assertEquals(updateItemRequest.getAttributeUpdates().size(), 5);
+        assertEquals(
+                new AttributeValueUpdate().withAction(AttributeAction.PUT)
+                        .withValue(new AttributeValue(stringPropertyValue)),
+                updateItemRequest.getAttributeUpdates().get("stringProperty"));
+        assertEquals(new ExpectedAttributeValue(new AttributeValue().withN(String.valueOf(oldVersion))),
+                updateItemRequest.getExpected().get("version"));
+        assertNull(updateItemRequest.getExpected().get("stringProperty"));
+    }
+
+    @Test
+    public void shouldNotUpdateItem_withStubItemAndUniqueConstraintPropertyIndexedForOtherItem() throws Exception {
+        // Given
+        final StubItem stubItem = new StubItem();
+        stubItem.setId(randomId());
+        stubItem.setStringProperty(randomString(10));
+        final long oldVersion = randomInt(100);
+        stubItem.setVersion(oldVersion);
+        final ItemConfiguration itemConfiguration = new ItemConfiguration(StubItem.class, tableName);
+        itemConfiguration.registerUniqueConstraints(Arrays.asList(new UniqueConstraint("stringProperty")));
+        final Collection<ItemConfiguration> itemConfigurations = Arrays.asList(itemConfiguration);
+        when(mockDatabaseSchemaHolder.itemConfigurations()).thenReturn(itemConfigurations);
+        final DynamoDbTemplate dynamoDbTemplate = new DynamoDbTemplate(mockDatabaseSchemaHolder);
+        final AmazonDynamoDB mockAmazonDynamoDbClient = mock(AmazonDynamoDB.class);
+        when(mockAmazonDynamoDbClient.putItem(any(PutItemRequest.class)))
+                .thenThrow(ConditionalCheckFailedException.class);
+        when(mockAmazonDynamoDbClient.updateItem(any(UpdateItemRequest.class)))
+                .thenThrow(ConditionalCheckFailedException.class);
+        final GetItemResult mockGetItemResult = mock(GetItemResult.class);
+        when(mockAmazonDynamoDbClient.getItem(any(GetItemRequest.class))).thenReturn(mockGetItemResult);
+        final Map<String, AttributeValue> attributeMap = new HashMap<>();
+        attributeMap.put("stringProperty", new AttributeValue(randomString(10)));
+        attributeMap.put("version", new AttributeValue().withN(String.valueOf(oldVersion)));
+        when(mockGetItemResult.getItem()).thenReturn(attributeMap);
+        dynamoDbTemplate.initialize(mockAmazonDynamoDbClient);
+
+        // When
+        ItemConstraintViolationException actualException = null;
+        try {
+            dynamoDbTemplate.update(stubItem);
+        } catch (final ItemConstraintViolationException e) {
+            actualException = e;
+        }
+
+        // Then
+        assertNotNull(actualException);
+        verify(mockAmazonDynamoDbClient).getItem(any(GetItemRequest.class));
+        verify(mockAmazonDynamoDbClient, times(2)).putItem(any(PutItemRequest.class));
+        verify(mockAmazonDynamoDbClient).updateItem(any(UpdateItemRequest.class));
+        verify(mockAmazonDynamoDbClient, never()).deleteItem(any(DeleteItemRequest.class));
     }
 
     @Test
-    public void shouldUpdateItem_withStubItemAndUniqueConstraintPropertyModifiedButDifferentCase() throws Exception {
+    public void shouldUpdateItem_withStubItemAndSeveralUniqueConstraintPropertiesWithoutReadingItem()
+            throws Exception {
         // Given
         final StubItem stubItem = new StubItem();
         stubItem.setId(randomId());
         final String stringPropertyValue = randomString(10);
+        final String stringProperty2Value = randomString(10);
+        final String previousStringPropertyValue = randomString(10);
+        final String previousStringProperty2Value = randomString(10);
         stubItem.setStringProperty(stringPropertyValue);
+        stubItem.setStringProperty2(stringProperty2Value);
         final long oldVersion = randomInt(100);
         stubItem.setVersion(oldVersion);
         final ItemConfiguration itemConfiguration = new ItemConfiguration(StubItem.class, tableName);
-        itemConfiguration.registerUniqueConstraints(Arrays.asList(new UniqueConstraint("stringProperty")));
+        itemConfiguration.registerUniqueConstraints(
+                Arrays.asList(new UniqueConstraint("stringProperty"), new UniqueConstraint("stringProperty2")));
         final Collection<ItemConfiguration> itemConfigurations = Arrays.asList(itemConfiguration);
         when(mockDatabaseSchemaHolder.itemConfigurations()).thenReturn(itemConfigurations);
         final DynamoDbTemplate dynamoDbTemplate = new DynamoDbTemplate(mockDatabaseSchemaHolder);
         final AmazonDynamoDB mockAmazonDynamoDbClient = mock(AmazonDynamoDB.class);
-        final GetItemResult mockGetItemResult = mock(GetItemResult.class);
-        when(mockAmazonDynamoDbClient.getItem(any(GetItemRequest.class))).thenReturn(mockGetItemResult);
         final Map<String, AttributeValue> attributeMap = new HashMap<>();
-        attributeMap.put("stringProperty", new AttributeValue(stringPropertyValue.toLowerCase()));
+        attributeMap.put("stringProperty", new AttributeValue(previousStringPropertyValue));
+        attributeMap.put("stringProperty2", new AttributeValue(previousStringProperty2Value));
         attributeMap.put("version", new AttributeValue().withN(String.valueOf(oldVersion)));
-        when(mockGetItemResult.getItem()).thenReturn(attributeMap);
+        when(mockAmazonDynamoDbClient.updateItem(any(UpdateItemRequest.class)))
+                .thenReturn(new UpdateItemResult().withAttributes(attributeMap));
         dynamoDbTemplate.initialize(mockAmazonDynamoDbClient);
 
         // When
         dynamoDbTemplate.update(stubItem);
 
         // Then
-        final ArgumentCaptor<GetItemRequest> getItemRequestArgumentCaptor = ArgumentCaptor
-                .forClass(GetItemRequest.class);
-        final ArgumentCaptor<UpdateItemRequest> updateItemRequestArgumentCaptor = ArgumentCaptor
-                .forClass(UpdateItemRequest.class);
-        verify(mockAmazonDynamoDbClient).getItem(getItemRequestArgumentCaptor.capture());
-        verify(mockAmazonDynamoDbClient).updateItem(updateItemRequestArgumentCaptor.capture());
-        final GetItemRequest getItemRequest = getItemRequestArgumentCaptor.getValue();
-        assertEquals(schemaName + "." + tableName, getItemRequest.getTableName());
-        assertEquals(new AttributeValue(stubItem.getId()), getItemRequest.getKey().get("id"));
-        assertThat(getItemRequest.getAttributesToGet(), hasItems("version", "stringProperty"));
+        final ArgumentCaptor<PutItemRequest> putItemRequestArgumentCaptor = ArgumentCaptor
+                .forClass(PutItemRequest.class);
+        final ArgumentCaptor<DeleteItemRequest> deleteItemRequestArgumentCaptor = ArgumentCaptor
+                .forClass(DeleteItemRequest.class);
+        verify(mockAmazonDynamoDbClient, never()).getItem(any(GetItemRequest.class));
+        verify(mockAmazonDynamoDbClient, times(2)).putItem(putItemRequestArgumentCaptor.capture());
+        verify(mockAmazonDynamoDbClient).updateItem(any(UpdateItemRequest.class));
+        verify(mockAmazonDynamoDbClient, times(2)).deleteItem(deleteItemRequestArgumentCaptor.capture());
+        final Set<AttributeValue> putIndexValues = new HashSet<>();
+        for (final PutItemRequest putItemRequest : putItemRequestArgumentCaptor.getAllValues()) {
+            putIndexValues.add(putItemRequest.getItem().get("value"));
+        }
+        assertEquals(Sets.newSet(new AttributeValue(stringPropertyValue.toUpperCase()),
+                new AttributeValue(stringProperty2Value.toUpperCase())), putIndexValues);
+        final Set<AttributeValue> deletedIndexValues = new HashSet<>();
+        for (final DeleteItemRequest deleteItemRequest : deleteItemRequestArgumentCaptor.getAllValues()) {
+            deletedIndexValues.add(deleteItemRequest.getKey().get("value"));
+        }
+        assertEquals(Sets.newSet(new AttributeValue(previousStringPropertyValue.toUpperCase()),
+                new AttributeValue(previousStringProperty2Value.toUpperCase())), deletedIndexValues);
+    }
 
-        final UpdateItemRequest updateItemRequest = updateItemRequestArgumentCaptor.getValue();
-        assertEquals(schemaName + "." + tableName, updateItemRequest.getTableName());
-        final Map<String, AttributeValue> key = new HashMap<>();
-        key.put("id", new AttributeValue(stubItem.getId()));
-        assertEquals(key, updateItemRequest.getKey());
-        assertEquals(updateItemRequest.getAttributeUpdates().size(), 5);
-        assertEquals(
-                new AttributeValueUpdate().withAction(AttributeAction.PUT)
-                        .withValue(new AttributeValue(stringPropertyValue)),
-                updateItemRequest.getAttributeUpdates().get("stringProperty"));
-        assertEquals(new ExpectedAttributeValue(new AttributeValue().withN(String.valueOf(oldVersion))),
-                updateItemRequest.getExpected().get("version"));
+    @Test
+    public void shouldNotCreateItem_withSeveralUniqueConstraintsAndOneDuplicate() throws Exception {
+        // Given
+        final ItemConfiguration itemConfiguration = new ItemConfiguration(StubItem.class, tableName);
+        itemConfiguration.registerUniqueConstraints(
+                Arrays.asList(new UniqueConstraint("stringProperty"), new UniqueConstraint("stringProperty2")));
+        final Collection<ItemConfiguration> itemConfigurations = Arrays.asList(itemConfiguration);
+        when(mockDatabaseSchemaHolder.itemConfigurations()).thenReturn(itemConfigurations);
+        final DynamoDbTemplate dynamoDbTemplate = new DynamoDbTemplate(mockDatabaseSchemaHolder);
+        final AmazonDynamoDB mockAmazonDynamoDbClient = mock(AmazonDynamoDB.class);
+        dynamoDbTemplate.initialize(mockAmazonDynamoDbClient);
+        final StubItem stubItem = new StubItem();
+        stubItem.setId(randomId());
+        final String stringPropertyValue = randomString(10);
+        stubItem.setStringProperty(stringPropertyValue);
+        stubItem.setStringProperty2(randomString(10));
+        when(mockAmazonDynamoDbClient.putItem(any(PutItemRequest.class))).thenAnswer(invocation -> {
+            final PutItemRequest putItemRequest = (PutItemRequest) invocation.getArguments()[0];
+            if (new AttributeValue("stringProperty2").equals(putItemRequest.getItem().get("property"))) {
+                throw new ConditionalCheckFailedException("Duplicate");
+            }
+            return new PutItemResult();
+        });
+
+        // When
+        ItemConstraintViolationException actualException = null;
+        try {
+            dynamoDbTemplate.create(stubItem);
+        } catch (final ItemConstraintViolationException e) {
+            actualException = e;
+        }
+
+        // Then
+        assertNotNull(actualException);
+        verify(mockAmazonDynamoDbClient, times(2)).putItem(any(PutItemRequest.class));
+        final ArgumentCaptor<DeleteItemRequest> deleteItemRequestArgumentCaptor = ArgumentCaptor
+                .forClass(DeleteItemRequest.class);
+        verify(mockAmazonDynamoDbClient).deleteItem(deleteItemRequestArgumentCaptor.capture());
+        assertEquals(new AttributeValue("stringProperty"),
+                deleteItemRequestArgumentCaptor.getValue().getKey().get("property"));
+        assertEquals(new AttributeValue(stringPropertyValue.toUpperCase()),
+                deleteItemRequestArgumentCaptor.getValue().getKey().get("value"));
     }
 
     @Test
@@ -1614,6 +2805,62 @@ public class DynamoDbTemplateTest {
                 deleteItemRequest2.getKey().get("value"));
     }
 
+    @Test
+    public void shouldFetchAsync_withKeySetQueryInBatchesAndSaturatedExecutor() throws Exception {
+        // Given
+        final Set<ItemId> itemIds = new HashSet<>();
+        final int itemCount = 201 + randomInt(300);
+        for (int i = 0; i < itemCount; i++) {
+            itemIds.add(new ItemId(randomId()));
+        }
+        final ItemConfiguration itemConfiguration = new ItemConfiguration(StubItem.class, tableName);
+        when(mockDatabaseSchemaHolder.itemConfigurations()).thenReturn(Arrays.asList(itemConfiguration));
+        final String qualifiedTableName = schemaName + "." + tableName;
+        when(mockAmazonDynamoDbClient.batchGetItem(any(BatchGetItemRequest.class)))
+                .thenAnswer(invocation -> batchGetItemResult(qualifiedTableName,
+                        (BatchGetItemRequest) invocation.getArguments()[0], 0));
+        final int poolSize = 1 + randomInt(3);
+        final ExecutorService executorService = Executors.newFixedThreadPool(poolSize);
+        final DynamoDbTemplate dynamoDbTemplate = new DynamoDbTemplate(mockDatabaseSchemaHolder);
+        dynamoDbTemplate.initialize(mockAmazonDynamoDbClient);
+        dynamoDbTemplate.setExecutorService(executorService);
+        dynamoDbTemplate.setAsyncExecutorService(executorService);
+
+        // When
+        final List<CompletableFuture<Collection<StubItem>>> futures = new ArrayList<>();
+        for (int i = 0; i < poolSize * 2; i++) {
+            futures.add(dynamoDbTemplate.async().fetch(new KeySetQuery(itemIds), StubItem.class));
+        }
+
+        // Then
+        try {
+            for (final CompletableFuture<Collection<StubItem>> future : futures) {
+                assertEquals(itemCount, future.get(10, TimeUnit.SECONDS).size());
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    public void shouldRunAsyncOperationsOnExecutorOfAsyncClient_withAsyncClient() throws Exception {
+        // Given
+        final AmazonDynamoDBAsyncClient mockAmazonDynamoDbAsyncClient = mock(AmazonDynamoDBAsyncClient.class);
+        final ExecutorService mockExecutorService = mock(ExecutorService.class);
+        when(mockAmazonDynamoDbAsyncClient.getExecutorService()).thenReturn(mockExecutorService);
+        final DynamoDbTemplate dynamoDbTemplate = new DynamoDbTemplate(mockDatabaseSchemaHolder);
+        dynamoDbTemplate.initialize(mockAmazonDynamoDbAsyncClient);
+
+        // When
+        final CompletableFuture<StubItem> future = dynamoDbTemplate.async().read(new ItemId(randomId()),
+                StubItem.class);
+
+        // Then
+        assertFalse(future.isDone());
+        verify(mockExecutorService).execute(any(Runnable.class));
+        verify(mockAmazonDynamoDbAsyncClient, never()).getItem(any(GetItemRequest.class));
+    }
+
     @Test
     public void shouldGenerateKeys_withSequenceKeyGenerator() throws Exception {
         // Given
@@ -1701,6 +2948,108 @@ public class DynamoDbTemplateTest {
         assertNotNull(actualException);
     }
 
+    @Test
+    public void shouldGenerateKeys_withBlockSizeReservingKeysOnce() throws Exception {
+        // Given
+        final String sequenceName = randomString(10);
+        final SequenceConfiguration sequenceConfiguration = new SequenceConfiguration(sequenceName, 1, 10, 1);
+        when(mockDatabaseSchemaHolder.sequenceConfigurations()).thenReturn(Arrays.asList(sequenceConfiguration));
+        final DynamoDbTemplate dynamoDbTemplate = new DynamoDbTemplate(mockDatabaseSchemaHolder);
+        dynamoDbTemplate.initialize(mockAmazonDynamoDbClient);
+        when(mockAmazonDynamoDbClient.updateItem(any(UpdateItemRequest.class))).thenReturn(new UpdateItemResult()
+                .withAttributes(Collections.singletonMap("currentValue", new AttributeValue().withN("10"))));
+
+        // When
+        final Collection<Long> keys = new ArrayList<>();
+        keys.addAll(dynamoDbTemplate.generateKeys(new SequenceKeyGenerator(sequenceName)).keys());
+        keys.addAll(dynamoDbTemplate.generateKeys(new SequenceKeyGenerator(sequenceName, 2)).keys());
+
+        // Then
+        final ArgumentCaptor<UpdateItemRequest> updateItemRequestArgumentCaptor = ArgumentCaptor
+                .forClass(UpdateItemRequest.class);
+        verify(mockAmazonDynamoDbClient).updateItem(updateItemRequestArgumentCaptor.capture());
+        assertEquals("10", updateItemRequestArgumentCaptor.getValue().getAttributeUpdates().get("currentValue")
+                .getValue().getN());
+        assertThat(keys, hasItems(1l, 2l, 3l));
+        assertEquals(3, keys.size());
+    }
+
+    @Test
+    public void shouldGenerateKeys_withShardedSequence() throws Exception {
+        // Given
+        final String sequenceName = randomString(10);
+        final int shardCount = 4;
+        final SequenceConfiguration sequenceConfiguration = new SequenceConfiguration(sequenceName, 1, 1,
+                shardCount);
+        when(mockDatabaseSchemaHolder.sequenceConfigurations()).thenReturn(Arrays.asList(sequenceConfiguration));
+        final DynamoDbTemplate dynamoDbTemplate = new DynamoDbTemplate(mockDatabaseSchemaHolder);
+        dynamoDbTemplate.initialize(mockAmazonDynamoDbClient);
+        final Map<String, AttributeValue> shardAttributes = new HashMap<>();
+        shardAttributes.put("rangeEnd", new AttributeValue().withN("2000"));
+        shardAttributes.put("rangeRemaining", new AttributeValue().withN("500"));
+        when(mockAmazonDynamoDbClient.updateItem(any(UpdateItemRequest.class)))
+                .thenReturn(new UpdateItemResult().withAttributes(shardAttributes));
+
+        // When
+        final GeneratedKeyHolder generatedKeyHolder = dynamoDbTemplate
+                .generateKeys(new SequenceKeyGenerator(sequenceName));
+
+        // Then
+        final ArgumentCaptor<UpdateItemRequest> updateItemRequestArgumentCaptor = ArgumentCaptor
+                .forClass(UpdateItemRequest.class);
+        verify(mockAmazonDynamoDbClient).updateItem(updateItemRequestArgumentCaptor.capture());
+        final String shardName = updateItemRequestArgumentCaptor.getValue().getKey().get("name").getS();
+        assertTrue(shardName.startsWith(sequenceName + "#"));
+        final int shard = Integer.parseInt(shardName.substring(sequenceName.length() + 1));
+        assertTrue(shard >= 0 && shard < shardCount);
+        assertEquals("1", updateItemRequestArgumentCaptor.getValue().getExpressionAttributeValues().get(":keyCount")
+                .getN());
+        assertEquals(Arrays.asList(1500l), generatedKeyHolder.keys());
+        verify(mockAmazonDynamoDbClient, never()).putItem(any(PutItemRequest.class));
+    }
+
+    @Test
+    public void shouldGenerateKeys_withShardingEnabledOnUsedSequence() throws Exception {
+        // Given
+        final String sequenceName = randomString(10);
+        final SequenceConfiguration sequenceConfiguration = new SequenceConfiguration(sequenceName, 1, 1, 4);
+        when(mockDatabaseSchemaHolder.sequenceConfigurations()).thenReturn(Arrays.asList(sequenceConfiguration));
+        final DynamoDbTemplate dynamoDbTemplate = new DynamoDbTemplate(mockDatabaseSchemaHolder);
+        dynamoDbTemplate.initialize(mockAmazonDynamoDbClient);
+        final long usedValue = 5000;
+        when(mockAmazonDynamoDbClient.updateItem(any(UpdateItemRequest.class))).thenAnswer(invocation -> {
+            final UpdateItemRequest updateItemRequest = (UpdateItemRequest) invocation.getArguments()[0];
+            if (!updateItemRequest.getKey().get("name").getS().equals(sequenceName)) {
+                throw new ConditionalCheckFailedException(randomString(10));
+            }
+            final long keyCount = Long
+                    .parseLong(updateItemRequest.getAttributeUpdates().get("currentValue").getValue().getN());
+            return new UpdateItemResult().withAttributes(Collections.singletonMap("currentValue",
+                    new AttributeValue().withN(String.valueOf(usedValue + keyCount))));
+        });
+
+        // When
+        final GeneratedKeyHolder generatedKeyHolder = dynamoDbTemplate
+                .generateKeys(new SequenceKeyGenerator(sequenceName, 2));
+
+        // Then
+        assertEquals(Arrays.asList(usedValue + 1, usedValue + 2), generatedKeyHolder.keys());
+        final ArgumentCaptor<UpdateItemRequest> updateItemRequestArgumentCaptor = ArgumentCaptor
+                .forClass(UpdateItemRequest.class);
+        verify(mockAmazonDynamoDbClient, times(2)).updateItem(updateItemRequestArgumentCaptor.capture());
+        final UpdateItemRequest sequenceUpdateItemRequest = updateItemRequestArgumentCaptor.getAllValues().get(1);
+        assertEquals(sequenceName, sequenceUpdateItemRequest.getKey().get("name").getS());
+        assertEquals("1000", sequenceUpdateItemRequest.getAttributeUpdates().get("currentValue").getValue().getN());
+        final ArgumentCaptor<PutItemRequest> putItemRequestArgumentCaptor = ArgumentCaptor
+                .forClass(PutItemRequest.class);
+        verify(mockAmazonDynamoDbClient).putItem(putItemRequestArgumentCaptor.capture());
+        final Map<String, AttributeValue> shardItem = putItemRequestArgumentCaptor.getValue().getItem();
+        assertEquals(updateItemRequestArgumentCaptor.getAllValues().get(0).getKey().get("name"),
+                shardItem.get("name"));
+        assertEquals(String.valueOf(usedValue + 1000), shardItem.get("rangeEnd").getN());
+        assertEquals("998", shardItem.get("rangeRemaining").getN());
+    }
+
     @Test
     public void shouldBatchWriteItems_withListOfItems_NoUnprocessedItems() throws Exception {
         // Given
@@ -1927,4 +3276,204 @@ public class DynamoDbTemplateTest {
 
     }
 
+    @Test
+    public void shouldBatchWriteItems_withMoreThanTwentyFiveItemsAndUnprocessedItems() throws Exception {
+        // Given
+        final ItemConfiguration itemConfiguration = new ItemConfiguration(StubItem.class, tableName);
+        when(mockDatabaseSchemaHolder.itemConfigurations()).thenReturn(Arrays.asList(itemConfiguration));
+        final String qualifiedTableName = schemaName + "." + tableName;
+        final List<StubItem> stubItems = new ArrayList<>();
+        final int numberOfItems = 26 + randomInt(200);
+        for (int i = 0; i < numberOfItems; i++) {
+            final StubItem stubItem = new StubItem();
+            stubItem.setId(randomId());
+            stubItem.setStringProperty(randomString(10));
+            stubItems.add(stubItem);
+        }
+        final Set<WriteRequest> deferredWriteRequests = Collections.synchronizedSet(new HashSet<>());
+        final Set<String> writtenIds = Collections.synchronizedSet(new HashSet<>());
+        when(mockAmazonDynamoDbClient.batchWriteItem(any(BatchWriteItemRequest.class))).thenAnswer(invocation -> {
+            final BatchWriteItemRequest batchWriteItemRequest = (BatchWriteItemRequest) invocation.getArguments()[0];
+            final List<WriteRequest> writeRequests = batchWriteItemRequest.getRequestItems().get(qualifiedTableName);
+            assertTrue(writeRequests.size() <= 25);
+            final List<WriteRequest> unprocessedWriteRequests = new ArrayList<>();
+            for (int i = 0; i < writeRequests.size(); i++) {
+                final WriteRequest writeRequest = writeRequests.get(i);
+                if (i % 2 == 0 && deferredWriteRequests.add(writeRequest)) {
+                    unprocessedWriteRequests.add(writeRequest);
+                } else {
+                    writtenIds.add(writeRequest.getPutRequest().getItem().get("id").getS());
+                }
+            }
+            return new BatchWriteItemResult()
+                    .withUnprocessedItems(Collections.singletonMap(qualifiedTableName, unprocessedWriteRequests));
+        });
+        final DynamoDbTemplate dynamoDbTemplate = new DynamoDbTemplate(mockDatabaseSchemaHolder);
+        dynamoDbTemplate.initialize(mockAmazonDynamoDbClient);
+        dynamoDbTemplate.setBatchWriteParallelism(1 + randomInt(4));
+        dynamoDbTemplate.setRetryBackoff(new RetryBackoff(1, 5, 10000));
+
+        // When
+        final List<StubItem> returnedItems = dynamoDbTemplate.batchWrite(stubItems, StubItem.class);
+
+        // Then
+        assertEquals(stubItems, returnedItems);
+        assertEquals(numberOfItems, writtenIds.size());
+        for (final StubItem returnedItem : returnedItems) {
+            assertEquals(Long.valueOf(1), returnedItem.getVersion());
+        }
+    }
+
+    @Test
+    public void shouldBatchWriteItems_withItemsUnprocessedUntilDeadline() throws Exception {
+        // Given
+        final ItemConfiguration itemConfiguration = new ItemConfiguration(StubItem.class, tableName);
+        when(mockDatabaseSchemaHolder.itemConfigurations()).thenReturn(Arrays.asList(itemConfiguration));
+        final String qualifiedTableName = schemaName + "." + tableName;
+        final StubItem stubItem = new StubItem();
+        stubItem.setId(randomId());
+        final Long version = randomLong();
+        stubItem.setVersion(version);
+        when(mockAmazonDynamoDbClient.batchWriteItem(any(BatchWriteItemRequest.class))).thenAnswer(invocation -> {
+            final BatchWriteItemRequest batchWriteItemRequest = (BatchWriteItemRequest) invocation.getArguments()[0];
+            return new BatchWriteItemResult().withUnprocessedItems(batchWriteItemRequest.getRequestItems());
+        });
+        final DynamoDbTemplate dynamoDbTemplate = new DynamoDbTemplate(mockDatabaseSchemaHolder);
+        dynamoDbTemplate.initialize(mockAmazonDynamoDbClient);
+        dynamoDbTemplate.setRetryBackoff(new RetryBackoff(1, 5, 50));
+
+        // When
+        final List<StubItem> returnedItems = dynamoDbTemplate.batchWrite(Arrays.asList(stubItem), StubItem.class);
+
+        // Then
+        assertTrue(returnedItems.isEmpty());
+        assertEquals(version, stubItem.getVersion());
+        verify(mockAmazonDynamoDbClient, atLeast(2)).batchWriteItem(any(BatchWriteItemRequest.class));
+    }
+
+    @Test
+    public void shouldBatchWriteItems_withThrottledRequestRetried() throws Exception {
+        // Given
+        final ItemConfiguration itemConfiguration = new ItemConfiguration(StubItem.class, tableName);
+        when(mockDatabaseSchemaHolder.itemConfigurations()).thenReturn(Arrays.asList(itemConfiguration));
+        final StubItem stubItem = new StubItem();
+        stubItem.setId(randomId());
+        when(mockAmazonDynamoDbClient.batchWriteItem(any(BatchWriteItemRequest.class)))
+                .thenThrow(new ProvisionedThroughputExceededException(randomString(10)))
+                .thenReturn(new BatchWriteItemResult());
+        final DynamoDbTemplate dynamoDbTemplate = new DynamoDbTemplate(mockDatabaseSchemaHolder);
+        dynamoDbTemplate.initialize(mockAmazonDynamoDbClient);
+        dynamoDbTemplate.setRetryBackoff(new RetryBackoff(1, 5, 10000));
+
+        // When
+        final List<StubItem> returnedItems = dynamoDbTemplate.batchWrite(Arrays.asList(stubItem), StubItem.class);
+
+        // Then
+        assertEquals(Arrays.asList(stubItem), returnedItems);
+        assertEquals(Long.valueOf(1), stubItem.getVersion());
+        verify(mockAmazonDynamoDbClient, times(2)).batchWriteItem(any(BatchWriteItemRequest.class));
+    }
+
+    @Test
+    public void shouldBatchWriteItems_withRequestThrottledUntilDeadline() throws Exception {
+        // Given
+        final ItemConfiguration itemConfiguration = new ItemConfiguration(StubItem.class, tableName);
+        when(mockDatabaseSchemaHolder.itemConfigurations()).thenReturn(Arrays.asList(itemConfiguration));
+        final StubItem stubItem = new StubItem();
+        stubItem.setId(randomId());
+        final Long version = randomLong();
+        stubItem.setVersion(version);
+        when(mockAmazonDynamoDbClient.batchWriteItem(any(BatchWriteItemRequest.class)))
+                .thenThrow(new ProvisionedThroughputExceededException(randomString(10)));
+        final DynamoDbTemplate dynamoDbTemplate = new DynamoDbTemplate(mockDatabaseSchemaHolder);
+        dynamoDbTemplate.initialize(mockAmazonDynamoDbClient);
+        dynamoDbTemplate.setRetryBackoff(new RetryBackoff(1, 5, 50));
+
+        // When
+        final List<StubItem> returnedItems = dynamoDbTemplate.batchWrite(Arrays.asList(stubItem), StubItem.class);
+
+        // Then
+        assertTrue(returnedItems.isEmpty());
+        assertEquals(version, stubItem.getVersion());
+        verify(mockAmazonDynamoDbClient, atLeast(2)).batchWriteItem(any(BatchWriteItemRequest.class));
+    }
+
+    @Test
+    public void shouldBatchDeleteItems_withItemIds() throws Exception {
+        // Given
+        final ItemConfiguration itemConfiguration = new ItemConfiguration(StubItem.class, tableName);
+        when(mockDatabaseSchemaHolder.itemConfigurations()).thenReturn(Arrays.asList(itemConfiguration));
+        final String qualifiedTableName = schemaName + "." + tableName;
+        final List<ItemId> itemIds = new ArrayList<>();
+        final int numberOfItems = 1 + randomInt(100);
+        for (int i = 0; i < numberOfItems; i++) {
+            itemIds.add(new ItemId(randomId()));
+        }
+        when(mockAmazonDynamoDbClient.batchWriteItem(any(BatchWriteItemRequest.class)))
+                .thenReturn(new BatchWriteItemResult());
+        final DynamoDbTemplate dynamoDbTemplate = new DynamoDbTemplate(mockDatabaseSchemaHolder);
+        dynamoDbTemplate.initialize(mockAmazonDynamoDbClient);
+
+        // When
+        final List<ItemId> deletedItemIds = dynamoDbTemplate.batchDelete(itemIds, StubItem.class);
+
+        // Then
+        assertEquals(itemIds, deletedItemIds);
+        final ArgumentCaptor<BatchWriteItemRequest> batchWriteItemRequestCaptor = ArgumentCaptor
+                .forClass(BatchWriteItemRequest.class);
+        verify(mockAmazonDynamoDbClient, times((numberOfItems + 24) / 25))
+                .batchWriteItem(batchWriteItemRequestCaptor.capture());
+        final Set<ItemId> requestedItemIds = new HashSet<>();
+        for (final BatchWriteItemRequest batchWriteItemRequest : batchWriteItemRequestCaptor.getAllValues()) {
+            for (final WriteRequest writeRequest : batchWriteItemRequest.getRequestItems().get(qualifiedTableName)) {
+                assertNull(writeRequest.getPutRequest());
+                requestedItemIds.add(new ItemId(writeRequest.getDeleteRequest().getKey().get("id").getS()));
+            }
+        }
+        assertEquals(new HashSet<>(itemIds), requestedItemIds);
+    }
+
+    @Test
+    public void shouldNotBatchDeleteItems_withUniqueConstraints() throws Exception {
+        // Given
+        final ItemConfiguration itemConfiguration = new ItemConfiguration(StubItem.class, tableName);
+        itemConfiguration.registerUniqueConstraints(Arrays.asList(new UniqueConstraint("stringProperty")));
+        when(mockDatabaseSchemaHolder.itemConfigurations()).thenReturn(Arrays.asList(itemConfiguration));
+        final DynamoDbTemplate dynamoDbTemplate = new DynamoDbTemplate(mockDatabaseSchemaHolder);
+        dynamoDbTemplate.initialize(mockAmazonDynamoDbClient);
+
+        // When
+        IllegalArgumentException actualException = null;
+        try {
+            dynamoDbTemplate.batchDelete(Arrays.asList(new ItemId(randomId())), StubItem.class);
+        } catch (final IllegalArgumentException e) {
+            actualException = e;
+        }
+
+        // Then
+        assertNotNull(actualException);
+        verifyZeroInteractions(mockAmazonDynamoDbClient);
+    }
+
+    /**
+     * @return Result returning an item for each requested key, except the last {@code unprocessedKeyCount} keys which
+     *         are returned as unprocessed
+     */
+    private static BatchGetItemResult batchGetItemResult(final String tableName,
+            final BatchGetItemRequest batchGetItemRequest, final int unprocessedKeyCount) {
+        final List<Map<String, AttributeValue>> keys = batchGetItemRequest.getRequestItems().get(tableName).getKeys();
+        final int processedKeyCount = keys.size() - unprocessedKeyCount;
+        final List<Map<String, AttributeValue>> items = new ArrayList<>();
+        for (final Map<String, AttributeValue> key : keys.subList(0, processedKeyCount)) {
+            items.add(new HashMap<>(key));
+        }
+        final BatchGetItemResult batchGetItemResult = new BatchGetItemResult()
+                .withResponses(Collections.singletonMap(tableName, items));
+        if (unprocessedKeyCount > 0) {
+            batchGetItemResult.setUnprocessedKeys(Collections.singletonMap(tableName,
+                    new KeysAndAttributes().withKeys(new ArrayList<>(keys.subList(processedKeyCount, keys.size())))));
+        }
+        return batchGetItemResult;
+    }
+
 }
@@ -19,20 +19,22 @@ package com.clicktravel.infrastructure.persistence.aws.dynamodb;
 import static com.clicktravel.common.random.Randoms.randomId;
 import static com.clicktravel.common.random.Randoms.randomString;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.powermock.api.mockito.PowerMockito.whenNew;
 
-import java.util.Arrays;
-import java.util.Collection;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -41,22 +43,32 @@ import org.mockito.ArgumentCaptor;
 import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
 
+import com.amazonaws.AmazonServiceException;
 import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
 import com.amazonaws.services.dynamodbv2.document.*;
+import com.amazonaws.services.dynamodbv2.document.internal.InternalUtils;
 import com.amazonaws.services.dynamodbv2.document.spec.DeleteItemSpec;
 import com.amazonaws.services.dynamodbv2.document.spec.GetItemSpec;
 import com.amazonaws.services.dynamodbv2.document.spec.PutItemSpec;
 import com.amazonaws.services.dynamodbv2.document.spec.QuerySpec;
-import com.amazonaws.services.dynamodbv2.model.ConditionalCheckFailedException;
+import com.amazonaws.services.dynamodbv2.document.spec.UpdateItemSpec;
+import com.amazonaws.services.dynamodbv2.model.*;
 import com.clicktravel.cheddar.infrastructure.persistence.database.ItemId;
+import com.clicktravel.cheddar.infrastructure.persistence.database.configuration.CompoundPrimaryKeyDefinition;
 import com.clicktravel.cheddar.infrastructure.persistence.database.configuration.DatabaseSchemaHolder;
+import com.clicktravel.cheddar.infrastructure.persistence.database.configuration.DocumentEncoding;
 import com.clicktravel.cheddar.infrastructure.persistence.database.configuration.IndexDefinition;
 import com.clicktravel.cheddar.infrastructure.persistence.database.configuration.ItemConfiguration;
 import com.clicktravel.cheddar.infrastructure.persistence.database.exception.NonExistentItemException;
 import com.clicktravel.cheddar.infrastructure.persistence.database.exception.OptimisticLockException;
 import com.clicktravel.cheddar.infrastructure.persistence.database.query.AttributeQuery;
+import com.clicktravel.cheddar.infrastructure.persistence.database.query.CompoundAttributeQuery;
 import com.clicktravel.cheddar.infrastructure.persistence.database.query.Condition;
+import com.clicktravel.cheddar.infrastructure.persistence.database.query.KeySetQuery;
 import com.clicktravel.cheddar.infrastructure.persistence.database.query.Operators;
+import com.clicktravel.cheddar.infrastructure.persistence.database.query.PageRequest;
+import com.clicktravel.cheddar.infrastructure.persistence.database.query.PagedResult;
+import com.clicktravel.cheddar.infrastructure.persistence.database.query.SortOrder;
 import com.clicktravel.common.random.Randoms;
 
 @SuppressWarnings({ "deprecation", "unchecked" })
@@ -118,6 +130,60 @@ public class DynamoDocumentStoreTemplateTest {
         assertEquals(stubItem.getStringSetProperty(), returnedItem.getStringSetProperty());
     }
 
+    @Test
+    public void shouldCreate_withBinaryDocumentEncoding() {
+        // Given
+        final ItemId itemId = new ItemId(randomId());
+        final StubItem stubItem = generateRandomStubItem(itemId);
+        final ItemConfiguration itemConfiguration = new ItemConfiguration(StubItem.class, tableName);
+        itemConfiguration.setDocumentEncoding(DocumentEncoding.BINARY);
+        when(mockDatabaseSchemaHolder.itemConfigurations()).thenReturn(Arrays.asList(itemConfiguration));
+        final Table mockTable = mock(Table.class);
+        when(mockDynamoDBClient.getTable(any(String.class))).thenReturn(mockTable);
+        final DynamoDocumentStoreTemplate dynamoDocumentStoreTemplate = new DynamoDocumentStoreTemplate(
+                mockDatabaseSchemaHolder);
+        dynamoDocumentStoreTemplate.initialize(mockAmazonDynamoDbClient);
+
+        // When
+        dynamoDocumentStoreTemplate.create(stubItem);
+
+        // Then
+        final ArgumentCaptor<PutItemSpec> putItemSpecCaptor = ArgumentCaptor.forClass(PutItemSpec.class);
+        verify(mockTable).putItem(putItemSpecCaptor.capture());
+        final Item document = putItemSpecCaptor.getValue().getItem();
+        assertEquals(itemId.value(), document.get("id"));
+        assertEquals(1L, document.getLong("version"));
+        assertFalse(document.isPresent("stringProperty"));
+        assertNotNull(document.getBinary("_cbor"));
+    }
+
+    @Test
+    public void shouldRead_withBinaryDocument() throws Exception {
+        // Given
+        final ItemId itemId = new ItemId(randomId());
+        final StubItem stubItem = generateRandomStubItem(itemId);
+        final ItemConfiguration itemConfiguration = new ItemConfiguration(StubItem.class, tableName);
+        itemConfiguration.setDocumentEncoding(DocumentEncoding.BINARY);
+        when(mockDatabaseSchemaHolder.itemConfigurations()).thenReturn(Arrays.asList(itemConfiguration));
+        final Table mockTable = mock(Table.class);
+        when(mockDynamoDBClient.getTable(any(String.class))).thenReturn(mockTable);
+        final DynamoDocumentStoreTemplate dynamoDocumentStoreTemplate = new DynamoDocumentStoreTemplate(
+                mockDatabaseSchemaHolder);
+        dynamoDocumentStoreTemplate.initialize(mockAmazonDynamoDbClient);
+        dynamoDocumentStoreTemplate.create(stubItem);
+        final ArgumentCaptor<PutItemSpec> putItemSpecCaptor = ArgumentCaptor.forClass(PutItemSpec.class);
+        verify(mockTable).putItem(putItemSpecCaptor.capture());
+        when(mockTable.getItem(any(GetItemSpec.class))).thenReturn(putItemSpecCaptor.getValue().getItem());
+
+        // When
+        final StubItem returnedItem = dynamoDocumentStoreTemplate.read(itemId, StubItem.class);
+
+        // Then
+        assertEquals(stubItem.getStringProperty(), returnedItem.getStringProperty());
+        assertEquals(stubItem.getStringSetProperty(), returnedItem.getStringSetProperty());
+        assertEquals(Long.valueOf(1), returnedItem.getVersion());
+    }
+
     @Test
     public void shouldQueryTable() {
         // Given
@@ -174,6 +240,169 @@ public class DynamoDocumentStoreTemplateTest {
         verify(mockIndex.query(any(QuerySpec.class)));
     }
 
+    @SuppressWarnings("unchecked")
+    @Test
+    public void shouldCount_withAttributeQueryOnIndex() {
+        // Given
+        final ItemId itemId = new ItemId(randomId());
+        final ItemConfiguration itemConfiguration = new ItemConfiguration(StubItem.class, tableName);
+        itemConfiguration.registerIndexes(Arrays.asList(new IndexDefinition("stringProperty")));
+        when(mockDatabaseSchemaHolder.itemConfigurations()).thenReturn(Arrays.asList(itemConfiguration));
+
+        final Table mockTable = mock(Table.class);
+        when(mockDynamoDBClient.getTable(any(String.class))).thenReturn(mockTable);
+        final Index mockIndex = mock(Index.class);
+        when(mockTable.getIndex(anyString())).thenReturn(mockIndex);
+        final ItemCollection<QueryOutcome> outcome = mock(ItemCollection.class);
+        final int firstPageCount = Randoms.randomInt(100);
+        final int secondPageCount = Randoms.randomInt(100);
+        final StubPage secondPage = new StubPage(Collections.<Item> emptyList(), null,
+                new QueryResult().withCount(secondPageCount));
+        when(outcome.firstPage()).thenReturn(new StubPage(Collections.<Item> emptyList(), secondPage,
+                new QueryResult().withCount(firstPageCount)));
+        when(mockIndex.query(any(QuerySpec.class))).thenReturn(outcome);
+
+        final DynamoDocumentStoreTemplate dynamoDocumentStoreTemplate = new DynamoDocumentStoreTemplate(
+                mockDatabaseSchemaHolder);
+        dynamoDocumentStoreTemplate.initialize(mockAmazonDynamoDbClient);
+
+        // When
+        final long count = dynamoDocumentStoreTemplate.count(
+                new AttributeQuery("stringProperty", new Condition(Operators.EQUALS, itemId.value())), StubItem.class);
+
+        // Then
+        final ArgumentCaptor<QuerySpec> querySpecCaptor = ArgumentCaptor.forClass(QuerySpec.class);
+        verify(mockIndex).query(querySpecCaptor.capture());
+        assertEquals(Select.COUNT.toString(), querySpecCaptor.getValue().getRequest().getSelect());
+        assertEquals(firstPageCount + secondPageCount, count);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void shouldFetchPage_withCompoundAttributeQueryOnCompoundPrimaryKey() {
+        // Given
+        final ItemId itemId = new ItemId(randomId());
+        final String lowerValue = randomString(10);
+        final String upperValue = randomString(10);
+        final ItemConfiguration itemConfiguration = new ItemConfiguration(StubItem.class, tableName,
+                new CompoundPrimaryKeyDefinition("id", "stringProperty"));
+        when(mockDatabaseSchemaHolder.itemConfigurations()).thenReturn(Arrays.asList(itemConfiguration));
+
+        final Table mockTable = mock(Table.class);
+        when(mockDynamoDBClient.getTable(any(String.class))).thenReturn(mockTable);
+
+        final DynamoDocumentStoreTemplate dynamoDocumentStoreTemplate = new DynamoDocumentStoreTemplate(
+                mockDatabaseSchemaHolder);
+        dynamoDocumentStoreTemplate.initialize(mockAmazonDynamoDbClient);
+
+        final Map<String, AttributeValue> lastEvaluatedKey = new HashMap<>();
+        lastEvaluatedKey.put("id", new AttributeValue(itemId.value()));
+        lastEvaluatedKey.put("stringProperty", new AttributeValue(lowerValue));
+        final ItemCollection<QueryOutcome> outcome = mock(ItemCollection.class);
+        when(outcome.getLastLowLevelResult())
+                .thenReturn(new QueryOutcome(new QueryResult().withLastEvaluatedKey(lastEvaluatedKey)));
+        when(mockTable.query(any(QuerySpec.class))).thenReturn(outcome);
+        final CompoundAttributeQuery query = new CompoundAttributeQuery("id",
+                new Condition(Operators.EQUALS, itemId.value()), "stringProperty",
+                new Condition(Operators.BETWEEN, lowerValue, upperValue));
+
+        // When
+        final PagedResult<StubItem> pagedResult = dynamoDocumentStoreTemplate.fetch(query, StubItem.class,
+                new PageRequest(5, SortOrder.DESCENDING, null));
+
+        // Then
+        final ArgumentCaptor<QuerySpec> querySpecCaptor = ArgumentCaptor.forClass(QuerySpec.class);
+        verify(mockTable).query(querySpecCaptor.capture());
+        final QuerySpec querySpec = querySpecCaptor.getValue();
+        assertEquals("stringProperty", querySpec.getRangeKeyCondition().getAttrName());
+        assertEquals(KeyConditions.BETWEEN, querySpec.getRangeKeyCondition().getKeyCondition());
+        assertEquals(Arrays.asList(lowerValue, upperValue),
+                Arrays.asList(querySpec.getRangeKeyCondition().getValues()));
+        assertEquals(Integer.valueOf(5), querySpec.getMaxResultSize());
+        assertFalse(querySpec.isScanIndexForward());
+        assertTrue(pagedResult.getItems().isEmpty());
+        assertEquals(lastEvaluatedKey, PageCursors.decode(pagedResult.getNextCursor()));
+    }
+
+    @Test
+    public void shouldStream_withAttributeQueryOnTableAndMultiplePages() {
+        // Given
+        final ItemConfiguration itemConfiguration = new ItemConfiguration(StubItem.class, tableName);
+        final Collection<ItemConfiguration> itemConfigurations = Arrays.asList(itemConfiguration);
+        when(mockDatabaseSchemaHolder.itemConfigurations()).thenReturn(itemConfigurations);
+
+        final Table mockTable = mock(Table.class);
+        when(mockDynamoDBClient.getTable(any(String.class))).thenReturn(mockTable);
+
+        final DynamoDocumentStoreTemplate dynamoDocumentStoreTemplate = new DynamoDocumentStoreTemplate(
+                mockDatabaseSchemaHolder);
+        dynamoDocumentStoreTemplate.initialize(mockAmazonDynamoDbClient);
+
+        final StubItem stubItem1 = generateRandomStubItem(new ItemId(randomId()));
+        final StubItem stubItem2 = generateRandomStubItem(new ItemId(randomId()));
+        final Item tableItem1 = Item.fromJSON(dynamoDocumentStoreTemplate.itemToString(stubItem1));
+        final Item tableItem2 = Item.fromJSON(dynamoDocumentStoreTemplate.itemToString(stubItem2));
+        final StubPage secondPage = new StubPage(Arrays.asList(tableItem2), null);
+        final StubPage firstPage = new StubPage(Arrays.asList(tableItem1), secondPage);
+        final ItemCollection<QueryOutcome> outcome = mock(ItemCollection.class);
+        when(outcome.firstPage()).thenReturn(firstPage);
+        when(mockTable.query(any(QuerySpec.class))).thenReturn(outcome);
+
+        // When
+        final List<StubItem> returnedItems;
+        try (final Stream<StubItem> stream = dynamoDocumentStoreTemplate
+                .stream(new AttributeQuery("id", new Condition(Operators.EQUALS, stubItem1.getId())), StubItem.class)) {
+            returnedItems = stream.collect(Collectors.toList());
+        }
+
+        // Then
+        assertEquals(Arrays.asList(stubItem1, stubItem2), returnedItems);
+    }
+
+    @Test
+    public void shouldFetch_withKeySetQueryAndUnprocessedKeys() {
+        // Given
+        final ItemId itemId1 = new ItemId(randomId());
+        final ItemId itemId2 = new ItemId(randomId());
+        final ItemConfiguration itemConfiguration = new ItemConfiguration(StubItem.class, tableName);
+        final Collection<ItemConfiguration> itemConfigurations = Arrays.asList(itemConfiguration);
+        when(mockDatabaseSchemaHolder.itemConfigurations()).thenReturn(itemConfigurations);
+        final String qualifiedTableName = schemaName + "." + tableName;
+        final List<BatchGetItemRequest> batchGetItemRequests = new ArrayList<>();
+        when(mockAmazonDynamoDbClient.batchGetItem(any(BatchGetItemRequest.class))).thenAnswer(invocation -> {
+            final BatchGetItemRequest batchGetItemRequest = (BatchGetItemRequest) invocation.getArguments()[0];
+            batchGetItemRequests.add(batchGetItemRequest);
+            final List<Map<String, AttributeValue>> keys = batchGetItemRequest.getRequestItems()
+                    .get(qualifiedTableName).getKeys();
+            final Map<String, AttributeValue> item = new HashMap<>(keys.get(0));
+            item.put("stringProperty", new AttributeValue(randomString(10)));
+            final BatchGetItemResult batchGetItemResult = new BatchGetItemResult()
+                    .withResponses(Collections.singletonMap(qualifiedTableName, Arrays.asList(item)));
+            if (keys.size() > 1) {
+                batchGetItemResult.setUnprocessedKeys(Collections.singletonMap(qualifiedTableName,
+                        new KeysAndAttributes().withKeys(keys.subList(1, keys.size()))));
+            }
+            return batchGetItemResult;
+        });
+
+        final DynamoDocumentStoreTemplate dynamoDocumentStoreTemplate = new DynamoDocumentStoreTemplate(
+                mockDatabaseSchemaHolder);
+        dynamoDocumentStoreTemplate.initialize(mockAmazonDynamoDbClient);
+
+        // When
+        final Collection<StubItem> returnedItems = dynamoDocumentStoreTemplate
+                .fetch(new KeySetQuery(new HashSet<>(Arrays.asList(itemId1, itemId2))), StubItem.class);
+
+        // Then
+        assertEquals(2, batchGetItemRequests.size());
+        final Set<String> returnedItemIds = new HashSet<>();
+        for (final StubItem returnedItem : returnedItems) {
+            assertNotNull(returnedItem.getStringProperty());
+            returnedItemIds.add(returnedItem.getId());
+        }
+        assertEquals(new HashSet<>(Arrays.asList(itemId1.value(), itemId2.value())), returnedItemIds);
+    }
+
     @Test
     public void shouldNotCreate_withItem() {
         // Given
@@ -224,11 +453,9 @@ public class DynamoDocumentStoreTemplateTest {
         final Table mockTable = mock(Table.class);
         when(mockDynamoDBClient.getTable(any(String.class))).thenReturn(mockTable);
 
-        final Item mockTableItem = mock(Item.class);
-        when(mockTable.getItem(any(GetItemSpec.class))).thenReturn(mockTableItem);
-
         final StubItem stubItem = generateRandomStubItem(itemId);
-        when(mockTableItem.toJSON()).thenReturn(dynamoDocumentStoreTemplate.itemToString(stubItem));
+        final Item tableItem = Item.fromJSON(dynamoDocumentStoreTemplate.itemToString(stubItem));
+        when(mockTable.getItem(any(GetItemSpec.class))).thenReturn(tableItem);
 
         // When
         final StubItem returnedItem = dynamoDocumentStoreTemplate.read(itemId, StubItem.class);
@@ -296,7 +523,7 @@ public class DynamoDocumentStoreTemplateTest {
         final Item mockTableItem = mock(Item.class);
         when(mockTable.getItem(any(GetItemSpec.class))).thenReturn(mockTableItem);
 
-        when(mockTableItem.toJSON()).thenReturn("");
+        when(mockTableItem.numberOfAttributes()).thenReturn(0);
 
         NonExistentItemException thrownException = null;
         // When
@@ -315,24 +542,59 @@ public class DynamoDocumentStoreTemplateTest {
         // Given
         final ItemId itemId = new ItemId(randomId());
         final StubItem stubItem = generateRandomStubItem(itemId);
-        final StubItem previousStubItem = generateRandomStubItem(itemId);
+        final Long previousVersion = stubItem.getVersion();
         final ItemConfiguration itemConfiguration = new ItemConfiguration(StubItem.class, tableName);
         final Collection<ItemConfiguration> itemConfigurations = Arrays.asList(itemConfiguration);
         final Table mockTable = mock(Table.class);
-        final Item mockTableItem = mock(Item.class);
-        final PrimaryKey primaryKey = new PrimaryKey();
-        primaryKey.addComponent("id", itemId.value());
-        final Item previousItem = mock(Item.class);
 
         when(mockDatabaseSchemaHolder.itemConfigurations()).thenReturn(itemConfigurations);
         when(mockDynamoDBClient.getTable(schemaName + "." + tableName)).thenReturn(mockTable);
-        when(mockTable.getItem(any(PrimaryKey.class))).thenReturn(previousItem);
 
         final DynamoDocumentStoreTemplate dynamoDocumentStoreTemplate = new DynamoDocumentStoreTemplate(
                 mockDatabaseSchemaHolder);
-        when(previousItem.toJSON()).thenReturn(dynamoDocumentStoreTemplate.itemToString(previousStubItem));
-        when(mockTableItem.toJSON()).thenReturn(dynamoDocumentStoreTemplate.itemToString(stubItem));
+        dynamoDocumentStoreTemplate.initialize(mockAmazonDynamoDbClient);
 
+        // When
+        final StubItem returnedItem = dynamoDocumentStoreTemplate.update(stubItem);
+
+        // Then
+        final ArgumentCaptor<UpdateItemSpec> updateItemSpecCaptor = ArgumentCaptor.forClass(UpdateItemSpec.class);
+        verify(mockTable).updateItem(updateItemSpecCaptor.capture());
+        verify(mockTable, never()).getItem(any(PrimaryKey.class));
+        verify(mockTable, never()).putItem(any(PutItemSpec.class));
+        final UpdateItemSpec spec = updateItemSpecCaptor.getValue();
+        assertEquals(itemId.value(), spec.getKeyComponents().iterator().next().getValue());
+        assertEquals("#version = :expectedVersion", spec.getConditionExpression());
+        assertEquals(previousVersion, spec.getValueMap().get(":expectedVersion"));
+        assertFalse(spec.getNameMap().containsValue("id"));
+        assertEquals(stubItem.getStringProperty(), setValue(spec, "stringProperty"));
+        assertEquals(stubItem.getStringProperty2(), setValue(spec, "stringProperty2"));
+        assertEquals(previousVersion + 1, ((Number) setValue(spec, "version")).longValue());
+        assertEquals(itemId.value(), returnedItem.getId());
+        assertEquals(Long.valueOf(previousVersion + 1), returnedItem.getVersion());
+    }
+
+    @Test
+    public void shouldUpdate_withItemAndInvalidDocumentPath() {
+        // Given
+        final ItemId itemId = new ItemId(randomId());
+        final StubItem stubItem = generateRandomStubItem(itemId);
+        final Long previousVersion = stubItem.getVersion();
+        final StubItem previousStubItem = generateRandomStubItem(itemId);
+        final ItemConfiguration itemConfiguration = new ItemConfiguration(StubItem.class, tableName);
+        final Collection<ItemConfiguration> itemConfigurations = Arrays.asList(itemConfiguration);
+        final Table mockTable = mock(Table.class);
+        final AmazonServiceException validationException = new AmazonServiceException(randomString());
+        validationException.setErrorCode("ValidationException");
+
+        when(mockDatabaseSchemaHolder.itemConfigurations()).thenReturn(itemConfigurations);
+        when(mockDynamoDBClient.getTable(schemaName + "." + tableName)).thenReturn(mockTable);
+        when(mockTable.updateItem(any(UpdateItemSpec.class))).thenThrow(validationException);
+
+        final DynamoDocumentStoreTemplate dynamoDocumentStoreTemplate = new DynamoDocumentStoreTemplate(
+                mockDatabaseSchemaHolder);
+        when(mockTable.getItem(any(PrimaryKey.class)))
+                .thenReturn(Item.fromJSON(dynamoDocumentStoreTemplate.itemToString(previousStubItem)));
         dynamoDocumentStoreTemplate.initialize(mockAmazonDynamoDbClient);
 
         // When
@@ -343,36 +605,26 @@ public class DynamoDocumentStoreTemplateTest {
         verify(mockTable).putItem(putItemRequestCaptor.capture());
         final PutItemSpec spec = putItemRequestCaptor.getValue();
         assertEquals(itemId.value(), spec.getItem().get("id"));
+        assertEquals(stubItem.getStringProperty(), spec.getItem().get("stringProperty"));
+        assertEquals(previousVersion + 1, spec.getItem().getLong("version"));
         assertEquals(itemId.value(), returnedItem.getId());
-        assertEquals(stubItem.getStringProperty(), returnedItem.getStringProperty());
-        assertEquals(stubItem.getStringProperty2(), returnedItem.getStringProperty2());
-        assertEquals(stubItem.getStringSetProperty(), returnedItem.getStringSetProperty());
     }
 
     @Test
-    public void shouldNotUpdate_withPutItemException() {
+    public void shouldNotUpdate_withConditionalCheckFailedException() {
         // Given
         final ItemId itemId = new ItemId(randomId());
         final StubItem stubItem = generateRandomStubItem(itemId);
-        final StubItem previousStubItem = generateRandomStubItem(itemId);
         final ItemConfiguration itemConfiguration = new ItemConfiguration(StubItem.class, tableName);
         final Collection<ItemConfiguration> itemConfigurations = Arrays.asList(itemConfiguration);
         final Table mockTable = mock(Table.class);
-        final Item mockTableItem = mock(Item.class);
-        final PrimaryKey primaryKey = new PrimaryKey();
-        primaryKey.addComponent("id", itemId.value());
-        final Item previousItem = mock(Item.class);
 
         when(mockDatabaseSchemaHolder.itemConfigurations()).thenReturn(itemConfigurations);
         when(mockDynamoDBClient.getTable(schemaName + "." + tableName)).thenReturn(mockTable);
-        when(mockTable.getItem(any(PrimaryKey.class))).thenReturn(previousItem);
+        when(mockTable.updateItem(any(UpdateItemSpec.class))).thenThrow(ConditionalCheckFailedException.class);
 
         final DynamoDocumentStoreTemplate dynamoDocumentStoreTemplate = new DynamoDocumentStoreTemplate(
                 mockDatabaseSchemaHolder);
-        when(previousItem.toJSON()).thenReturn(dynamoDocumentStoreTemplate.itemToString(previousStubItem));
-        when(mockTableItem.toJSON()).thenReturn(dynamoDocumentStoreTemplate.itemToString(stubItem));
-        when(mockTable.putItem(any(PutItemSpec.class))).thenThrow(ConditionalCheckFailedException.class);
-
         dynamoDocumentStoreTemplate.initialize(mockAmazonDynamoDbClient);
 
         // When
@@ -385,6 +637,7 @@ public class DynamoDocumentStoreTemplateTest {
 
         // Then
         assertNotNull(thrownException);
+        verify(mockTable, never()).putItem(any(PutItemSpec.class));
     }
 
     @Test
@@ -411,6 +664,106 @@ public class DynamoDocumentStoreTemplateTest {
         verify(mockTable).deleteItem(getItemRequestCaptor.capture());
     }
 
+    private Object setValue(final UpdateItemSpec spec, final String attributeName) {
+        for (final Map.Entry<String, String> name : spec.getNameMap().entrySet()) {
+            if (name.getValue().equals(attributeName)) {
+                for (final String setAction : spec.getUpdateExpression().substring("SET ".length())
+                        .split(" REMOVE ")[0].split(", ")) {
+                    final String[] pathAndValue = setAction.split(" = ");
+                    if (pathAndValue[0].equals(name.getKey())) {
+                        return spec.getValueMap().get(pathAndValue[1]);
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    @Test
+    public void shouldRecordConsumedCapacity_withConsumedCapacityMetricsOnReadAndUpdate() throws Exception {
+        // Given
+        final ItemId itemId = new ItemId(randomId());
+        final StubItem stubItem = generateRandomStubItem(itemId);
+        final ItemConfiguration itemConfiguration = new ItemConfiguration(StubItem.class, tableName);
+        when(mockDatabaseSchemaHolder.itemConfigurations()).thenReturn(Arrays.asList(itemConfiguration));
+        final String fullTableName = schemaName + "." + tableName;
+        whenNewDynamoDbWrapsClient();
+        final ConsumedCapacityMetrics consumedCapacityMetrics = new ConsumedCapacityMetrics();
+        final DynamoDocumentStoreTemplate dynamoDocumentStoreTemplate = new DynamoDocumentStoreTemplate(
+                mockDatabaseSchemaHolder);
+        dynamoDocumentStoreTemplate.setConsumedCapacityMetrics(consumedCapacityMetrics);
+        dynamoDocumentStoreTemplate.initialize(mockAmazonDynamoDbClient);
+        final Item tableItem = Item.fromJSON(dynamoDocumentStoreTemplate.itemToString(stubItem));
+        when(mockAmazonDynamoDbClient.getItem(any(GetItemRequest.class))).thenReturn(new GetItemResult()
+                .withItem(InternalUtils.toAttributeValues(tableItem)).withConsumedCapacity(new ConsumedCapacity()
+                        .withTableName(fullTableName).withCapacityUnits(0.5)));
+        when(mockAmazonDynamoDbClient.updateItem(any(UpdateItemRequest.class))).thenReturn(new UpdateItemResult()
+                .withConsumedCapacity(new ConsumedCapacity().withTableName(fullTableName).withCapacityUnits(1.0)));
+
+        // When
+        final StubItem readItem = dynamoDocumentStoreTemplate.read(itemId, StubItem.class);
+        dynamoDocumentStoreTemplate.update(readItem);
+
+        // Then
+        final ArgumentCaptor<GetItemRequest> getItemRequestCaptor = ArgumentCaptor.forClass(GetItemRequest.class);
+        verify(mockAmazonDynamoDbClient).getItem(getItemRequestCaptor.capture());
+        assertEquals(ReturnConsumedCapacity.INDEXES.toString(),
+                getItemRequestCaptor.getValue().getReturnConsumedCapacity());
+        final ArgumentCaptor<UpdateItemRequest> updateItemRequestCaptor = ArgumentCaptor
+                .forClass(UpdateItemRequest.class);
+        verify(mockAmazonDynamoDbClient).updateItem(updateItemRequestCaptor.capture());
+        assertEquals(ReturnConsumedCapacity.INDEXES.toString(),
+                updateItemRequestCaptor.getValue().getReturnConsumedCapacity());
+        final Map<String, ConsumedCapacityCount> consumedCapacityCounts = consumedCapacityMetrics.consumedCapacity()
+                .stream().collect(Collectors.toMap(ConsumedCapacityCount::operation, count -> count));
+        assertEquals(2, consumedCapacityCounts.size());
+        assertEquals(fullTableName, consumedCapacityCounts.get("GetItem").tableName());
+        assertEquals(0.5, consumedCapacityCounts.get("GetItem").readCapacityUnits(), 0.0);
+        assertEquals(fullTableName, consumedCapacityCounts.get("UpdateItem").tableName());
+        assertEquals(1.0, consumedCapacityCounts.get("UpdateItem").writeCapacityUnits(), 0.0);
+    }
+
+    @Test
+    public void shouldLimitRequestRate_withProvisionedThroughputExceededExceptionOnCreate() throws Exception {
+        // Given
+        final StubItem stubItem = generateRandomStubItem(new ItemId(randomId()));
+        final ItemConfiguration itemConfiguration = new ItemConfiguration(StubItem.class, tableName);
+        when(mockDatabaseSchemaHolder.itemConfigurations()).thenReturn(Arrays.asList(itemConfiguration));
+        when(mockAmazonDynamoDbClient.putItem(any(PutItemRequest.class)))
+                .thenThrow(new ProvisionedThroughputExceededException(randomString(10)));
+        whenNewDynamoDbWrapsClient();
+        final AdaptiveRateLimiters adaptiveRateLimiters = new AdaptiveRateLimiters();
+        final DynamoDocumentStoreTemplate dynamoDocumentStoreTemplate = new DynamoDocumentStoreTemplate(
+                mockDatabaseSchemaHolder);
+        dynamoDocumentStoreTemplate.setAdaptiveRateLimiters(adaptiveRateLimiters);
+        dynamoDocumentStoreTemplate.initialize(mockAmazonDynamoDbClient);
+
+        // When
+        ProvisionedThroughputExceededException actualException = null;
+        try {
+            dynamoDocumentStoreTemplate.create(stubItem);
+        } catch (final ProvisionedThroughputExceededException e) {
+            actualException = e;
+        }
+
+        // Then
+        assertNotNull(actualException);
+        final AdaptiveRateLimiter rateLimiter = adaptiveRateLimiters.rateLimiter(schemaName + "." + tableName, null);
+        assertEquals(1, rateLimiter.throttledCount());
+        assertTrue(rateLimiter.isLimited());
+        assertTrue(adaptiveRateLimiters.limitedRates().containsKey(schemaName + "." + tableName));
+    }
+
+    private void whenNewDynamoDbWrapsClient() throws Exception {
+        whenNew(DynamoDB.class).withParameterTypes(AmazonDynamoDB.class).withArguments(any(AmazonDynamoDB.class))
+                .thenAnswer(newInvocation -> {
+                    final AmazonDynamoDB wrappedClient = (AmazonDynamoDB) newInvocation.getArguments()[0];
+                    when(mockDynamoDBClient.getTable(anyString())).thenAnswer(getTableInvocation -> new Table(
+                            wrappedClient, (String) getTableInvocation.getArguments()[0]));
+                    return mockDynamoDBClient;
+                });
+    }
+
     private StubItem generateRandomStubItem(final ItemId itemId) {
         final StubItem item = new StubItem();
         item.setBooleanProperty(Randoms.randomBoolean());
@@ -426,4 +779,28 @@ public class DynamoDocumentStoreTemplateTest {
         return item;
     }
 
+    private static class StubPage extends Page<Item, QueryOutcome> {
+
+        private final StubPage nextPage;
+
+        private StubPage(final List<Item> items, final StubPage nextPage) {
+            this(items, nextPage, new QueryResult());
+        }
+
+        private StubPage(final List<Item> items, final StubPage nextPage, final QueryResult queryResult) {
+            super(items, new QueryOutcome(queryResult));
+            this.nextPage = nextPage;
+        }
+
+        @Override
+        public boolean hasNextPage() {
+            return nextPage != null;
+        }
+
+        @Override
+        public Page<Item, QueryOutcome> nextPage() {
+            return nextPage;
+        }
+    }
+
 }
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2014 Click Travel Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.clicktravel.infrastructure.persistence.aws.dynamodb;
+
+import static com.clicktravel.common.random.Randoms.randomString;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class HotKeySketchTest {
+
+    @Test
+    public void shouldReturnHotKeys_withMostFrequentKeysFirst() throws Exception {
+        // Given
+        final HotKeySketch hotKeySketch = new HotKeySketch(4, 256, 2);
+        final String hottestKey = randomString(10);
+        final String hotKey = randomString(10);
+        for (int i = 0; i < 100; i++) {
+            hotKeySketch.add(hottestKey);
+            hotKeySketch.add(randomString(10));
+            if (i % 2 == 0) {
+                hotKeySketch.add(hotKey);
+            }
+        }
+
+        // When
+        final Map<String, Long> hotKeys = hotKeySketch.hotKeys();
+
+        // Then
+        assertEquals(Arrays.asList(hottestKey, hotKey), new ArrayList<>(hotKeys.keySet()));
+        assertTrue(hotKeys.get(hottestKey) >= 100);
+        assertTrue(hotKeys.get(hotKey) >= 50);
+    }
+
+    @Test
+    public void shouldNotUndercount_withManyKeys() throws Exception {
+        // Given
+        final HotKeySketch hotKeySketch = new HotKeySketch(4, 64, 1);
+        final String key = randomString(10);
+
+        // When
+        for (int i = 0; i < 1000; i++) {
+            hotKeySketch.add(randomString(10));
+            if (i % 10 == 0) {
+                hotKeySketch.add(key);
+            }
+        }
+
+        // Then
+        assertTrue(hotKeySketch.estimate(key) >= 100);
+    }
+
+    @Test
+    public void shouldReset() throws Exception {
+        // Given
+        final HotKeySketch hotKeySketch = new HotKeySketch();
+        final String key = randomString(10);
+        hotKeySketch.add(key);
+
+        // When
+        hotKeySketch.reset();
+
+        // Then
+        assertEquals(0, hotKeySketch.estimate(key));
+        assertTrue(hotKeySketch.hotKeys().isEmpty());
+    }
+
+}
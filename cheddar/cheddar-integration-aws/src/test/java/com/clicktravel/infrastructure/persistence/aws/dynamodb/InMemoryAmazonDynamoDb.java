@@ -0,0 +1,226 @@
+/*
+ * Copyright 2014 Click Travel Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.clicktravel.infrastructure.persistence.aws.dynamodb;
+
+import java.util.*;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import com.amazonaws.services.dynamodbv2.AbstractAmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.model.*;
+
+/**
+ * Local stand-in for DynamoDB holding tables in memory, for tests which need a client behaving like DynamoDB rather
+ * than a mock. Items are held in key order and scans return at most {@code pageSize} items per page, honouring
+ * {@code Segment} and {@code TotalSegments}.
+ */
+public class InMemoryAmazonDynamoDb extends AbstractAmazonDynamoDB {
+
+    private final Map<String, Table> tables = new ConcurrentHashMap<>();
+    private final int pageSize;
+
+    public InMemoryAmazonDynamoDb(final int pageSize) {
+        this.pageSize = pageSize;
+    }
+
+    @Override
+    public CreateTableResult createTable(final CreateTableRequest createTableRequest) {
+        String hashKeyName = null;
+        String rangeKeyName = null;
+        for (final KeySchemaElement keySchemaElement : createTableRequest.getKeySchema()) {
+            if (KeyType.HASH.toString().equals(keySchemaElement.getKeyType())) {
+                hashKeyName = keySchemaElement.getAttributeName();
+            } else {
+                rangeKeyName = keySchemaElement.getAttributeName();
+            }
+        }
+        tables.put(createTableRequest.getTableName(), new Table(hashKeyName, rangeKeyName));
+        return new CreateTableResult();
+    }
+
+    public void createTable(final String tableName, final String hashKeyName) {
+        createTable(new CreateTableRequest().withTableName(tableName)
+                .withKeySchema(new KeySchemaElement(hashKeyName, KeyType.HASH)));
+    }
+
+    @Override
+    public PutItemResult putItem(final PutItemRequest putItemRequest) {
+        final Table table = table(putItemRequest.getTableName());
+        final String key = table.key(putItemRequest.getItem());
+        checkExpected(putItemRequest.getExpected(), table.items.get(key));
+        table.items.put(key, new HashMap<>(putItemRequest.getItem()));
+        return new PutItemResult();
+    }
+
+    @Override
+    public GetItemResult getItem(final GetItemRequest getItemRequest) {
+        final Table table = table(getItemRequest.getTableName());
+        final Map<String, AttributeValue> item = table.items.get(table.key(getItemRequest.getKey()));
+        return new GetItemResult().withItem(item == null ? null : new HashMap<>(item));
+    }
+
+    @Override
+    public DeleteItemResult deleteItem(final DeleteItemRequest deleteItemRequest) {
+        final Table table = table(deleteItemRequest.getTableName());
+        final String key = table.key(deleteItemRequest.getKey());
+        checkExpected(deleteItemRequest.getExpected(), table.items.get(key));
+        table.items.remove(key);
+        return new DeleteItemResult();
+    }
+
+    @Override
+    public ScanResult scan(final ScanRequest scanRequest) {
+        final Table table = table(scanRequest.getTableName());
+        final Integer segment = scanRequest.getSegment();
+        final Integer totalSegments = scanRequest.getTotalSegments();
+        final Map<String, Map<String, AttributeValue>> remainingItems = scanRequest.getExclusiveStartKey() == null
+                ? table.items : table.items.tailMap(table.key(scanRequest.getExclusiveStartKey()), false);
+        final List<Map<String, AttributeValue>> items = new ArrayList<>();
+        int scannedCount = 0;
+        Map<String, AttributeValue> lastEvaluatedKey = null;
+        for (final Entry<String, Map<String, AttributeValue>> entry : remainingItems.entrySet()) {
+            final Map<String, AttributeValue> item = entry.getValue();
+            if (totalSegments != null && table.segment(item, totalSegments) != segment) {
+                continue;
+            }
+            if (scannedCount == pageSize) {
+                break;
+            }
+            scannedCount++;
+            lastEvaluatedKey = table.keyAttributes(item);
+            if (matches(item, scanRequest.getScanFilter())) {
+                items.add(new HashMap<>(item));
+            }
+        }
+        if (scannedCount < pageSize) {
+            lastEvaluatedKey = null;
+        }
+        return new ScanResult().withItems(items).withCount(items.size()).withScannedCount(scannedCount)
+                .withLastEvaluatedKey(lastEvaluatedKey);
+    }
+
+    private Table table(final String tableName) {
+        final Table table = tables.get(tableName);
+        if (table == null) {
+            throw new ResourceNotFoundException("Table not found: " + tableName);
+        }
+        return table;
+    }
+
+    private static void checkExpected(final Map<String, ExpectedAttributeValue> expected,
+            final Map<String, AttributeValue> existingItem) {
+        if (expected == null) {
+            return;
+        }
+        for (final Entry<String, ExpectedAttributeValue> entry : expected.entrySet()) {
+            final AttributeValue existingValue = existingItem == null ? null : existingItem.get(entry.getKey());
+            final ExpectedAttributeValue expectedAttributeValue = entry.getValue();
+            final boolean satisfied;
+            if (Boolean.FALSE.equals(expectedAttributeValue.getExists())) {
+                satisfied = existingValue == null;
+            } else {
+                satisfied = expectedAttributeValue.getValue().equals(existingValue);
+            }
+            if (!satisfied) {
+                throw new ConditionalCheckFailedException("The conditional request failed");
+            }
+        }
+    }
+
+    private static boolean matches(final Map<String, AttributeValue> item, final Map<String, Condition> conditions) {
+        if (conditions == null) {
+            return true;
+        }
+        for (final Entry<String, Condition> entry : conditions.entrySet()) {
+            final AttributeValue value = item.get(entry.getKey());
+            final Condition condition = entry.getValue();
+            final ComparisonOperator comparisonOperator = ComparisonOperator.fromValue(condition.getComparisonOperator());
+            switch (comparisonOperator) {
+                case NULL:
+                    if (value != null) {
+                        return false;
+                    }
+                    break;
+                case NOT_NULL:
+                    if (value == null) {
+                        return false;
+                    }
+                    break;
+                default:
+                    if (value == null || !matches(scalar(value), comparisonOperator, condition.getAttributeValueList())) {
+                        return false;
+                    }
+            }
+        }
+        return true;
+    }
+
+    private static boolean matches(final String value, final ComparisonOperator comparisonOperator,
+            final List<AttributeValue> attributeValueList) {
+        final String operand = scalar(attributeValueList.get(0));
+        switch (comparisonOperator) {
+            case EQ:
+                return value.equals(operand);
+            case LE:
+                return value.compareTo(operand) <= 0;
+            case GE:
+                return value.compareTo(operand) >= 0;
+            case BEGINS_WITH:
+                return value.startsWith(operand);
+            case BETWEEN:
+                return value.compareTo(operand) >= 0 && value.compareTo(scalar(attributeValueList.get(1))) <= 0;
+            default:
+                throw new UnsupportedOperationException("Comparison operator not supported: " + comparisonOperator);
+        }
+    }
+
+    private static String scalar(final AttributeValue attributeValue) {
+        return attributeValue.getS() != null ? attributeValue.getS() : attributeValue.getN();
+    }
+
+    private static class Table {
+
+        private final String hashKeyName;
+        private final String rangeKeyName;
+        private final ConcurrentSkipListMap<String, Map<String, AttributeValue>> items = new ConcurrentSkipListMap<>();
+
+        private Table(final String hashKeyName, final String rangeKeyName) {
+            this.hashKeyName = hashKeyName;
+            this.rangeKeyName = rangeKeyName;
+        }
+
+        private String key(final Map<String, AttributeValue> attributes) {
+            final String hashKey = scalar(attributes.get(hashKeyName));
+            return rangeKeyName == null ? hashKey : hashKey + "\u0000" + scalar(attributes.get(rangeKeyName));
+        }
+
+        private Map<String, AttributeValue> keyAttributes(final Map<String, AttributeValue> item) {
+            final Map<String, AttributeValue> key = new HashMap<>();
+            key.put(hashKeyName, item.get(hashKeyName));
+            if (rangeKeyName != null) {
+                key.put(rangeKeyName, item.get(rangeKeyName));
+            }
+            return key;
+        }
+
+        private int segment(final Map<String, AttributeValue> item, final int totalSegments) {
+            return (scalar(item.get(hashKeyName)).hashCode() & Integer.MAX_VALUE) % totalSegments;
+        }
+    }
+
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2014 Click Travel Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.clicktravel.infrastructure.persistence.aws.dynamodb;
+
+import static com.clicktravel.common.random.Randoms.randomId;
+import static com.clicktravel.common.random.Randoms.randomLong;
+import static com.clicktravel.common.random.Randoms.randomString;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.clicktravel.cheddar.infrastructure.persistence.database.ItemId;
+
+public class ItemSnapshotsTest {
+
+    @Test
+    public void shouldGetSnapshot_withSameVersion() throws Exception {
+        // Given
+        final ItemSnapshots itemSnapshots = new ItemSnapshots(10);
+        final String tableName = randomString(10);
+        final ItemId itemId = new ItemId(randomId(), randomId());
+        final Long version = randomLong();
+        final Map<String, AttributeValue> attributes = Collections.singletonMap("id",
+                new AttributeValue(itemId.value()));
+        itemSnapshots.put(tableName, itemId, version, attributes);
+
+        // When
+        final Map<String, AttributeValue> snapshot = itemSnapshots.get(tableName, itemId, version);
+
+        // Then
+        assertEquals(attributes, snapshot);
+    }
+
+    @Test
+    public void shouldNotGetSnapshot_withDifferentVersion() throws Exception {
+        // Given
+        final ItemSnapshots itemSnapshots = new ItemSnapshots(10);
+        final String tableName = randomString(10);
+        final ItemId itemId = new ItemId(randomId());
+        final Long version = randomLong();
+        itemSnapshots.put(tableName, itemId, version, Collections.<String, AttributeValue> emptyMap());
+
+        // When
+        final Map<String, AttributeValue> snapshot = itemSnapshots.get(tableName, itemId, version + 1);
+
+        // Then
+        assertNull(snapshot);
+    }
+
+    @Test
+    public void shouldDiscardLeastRecentlyUsedSnapshot_withCapacityReached() throws Exception {
+        // Given
+        final ItemSnapshots itemSnapshots = new ItemSnapshots(2);
+        final String tableName = randomString(10);
+        final ItemId itemId1 = new ItemId(randomId());
+        final ItemId itemId2 = new ItemId(randomId());
+        final ItemId itemId3 = new ItemId(randomId());
+        final Map<String, AttributeValue> attributes = Collections.<String, AttributeValue> emptyMap();
+        itemSnapshots.put(tableName, itemId1, 1l, attributes);
+        itemSnapshots.put(tableName, itemId2, 1l, attributes);
+        itemSnapshots.get(tableName, itemId1, 1l);
+
+        // When
+        itemSnapshots.put(tableName, itemId3, 1l, attributes);
+
+        // Then
+        assertEquals(attributes, itemSnapshots.get(tableName, itemId1, 1l));
+        assertNull(itemSnapshots.get(tableName, itemId2, 1l));
+        assertEquals(attributes, itemSnapshots.get(tableName, itemId3, 1l));
+    }
+
+    @Test
+    public void shouldHaveSameValue_withStringSetsInDifferentOrder() throws Exception {
+        // Given
+        final String value1 = randomString(10);
+        final String value2 = randomString(10);
+
+        // When
+        final boolean sameValue = ItemSnapshots.sameValue(new AttributeValue().withSS(value1, value2),
+                new AttributeValue().withSS(value2, value1));
+
+        // Then
+        assertTrue(sameValue);
+    }
+
+    @Test
+    public void shouldNotHaveSameValue_withOneValueAbsent() throws Exception {
+        // When
+        final boolean sameValue = ItemSnapshots.sameValue(new AttributeValue(randomString(10)), null);
+
+        // Then
+        assertFalse(sameValue);
+    }
+
+}
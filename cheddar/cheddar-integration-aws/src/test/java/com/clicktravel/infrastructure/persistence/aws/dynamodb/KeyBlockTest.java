@@ -0,0 +1,65 @@
+/*
+ * Copyright 2014 Click Travel Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.clicktravel.infrastructure.persistence.aws.dynamodb;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+public class KeyBlockTest {
+
+    @Test
+    public void shouldTakeKeys_withArithmeticProgression() throws Exception {
+        // Given
+        final KeyBlock keyBlock = new KeyBlock(5, 3, 4);
+
+        // When
+        final List<Long> firstKeys = keyBlock.take(1);
+        final List<Long> nextKeys = keyBlock.take(3);
+
+        // Then
+        assertEquals(Arrays.asList(5L), firstKeys);
+        assertEquals(Arrays.asList(8L, 11L, 14L), nextKeys);
+        assertEquals(0, keyBlock.remaining());
+    }
+
+    @Test
+    public void shouldNotTakeKeys_withFewerKeysRemaining() throws Exception {
+        // Given
+        final KeyBlock keyBlock = new KeyBlock(1, 1, 3);
+        keyBlock.take(2);
+
+        // When
+        final List<Long> keys = keyBlock.take(2);
+
+        // Then
+        assertNull(keys);
+        assertEquals(0, keyBlock.remaining());
+        assertNull(keyBlock.take(1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotCreate_withZeroStep() throws Exception {
+        // When
+        new KeyBlock(1, 0, 10);
+    }
+
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2014 Click Travel Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.clicktravel.infrastructure.persistence.aws.dynamodb;
+
+import static com.clicktravel.common.random.Randoms.randomId;
+import static com.clicktravel.common.random.Randoms.randomLong;
+import static com.clicktravel.common.random.Randoms.randomString;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+
+public class PageCursorsTest {
+
+    @Test
+    public void shouldDecodeEncodedCursor_withLastEvaluatedKey() throws Exception {
+        // Given
+        final Map<String, AttributeValue> lastEvaluatedKey = new HashMap<>();
+        lastEvaluatedKey.put("id", new AttributeValue(randomId()));
+        lastEvaluatedKey.put("sequence", new AttributeValue().withN(String.valueOf(randomLong())));
+        lastEvaluatedKey.put("token", new AttributeValue().withB(ByteBuffer.wrap(randomString(10).getBytes())));
+
+        // When
+        final String cursor = PageCursors.encode(lastEvaluatedKey);
+
+        // Then
+        assertNotNull(cursor);
+        assertEquals(lastEvaluatedKey, PageCursors.decode(cursor));
+    }
+
+    @Test
+    public void shouldNotEncodeCursor_withNoLastEvaluatedKey() throws Exception {
+        // When
+        final String cursor = PageCursors.encode(null);
+
+        // Then
+        assertNull(cursor);
+        assertNull(PageCursors.decode(null));
+    }
+
+    @Test
+    public void shouldNotDecodeCursor_withInvalidCursor() throws Exception {
+        // Given
+        final String cursor = randomString(10) + "!";
+
+        // When
+        IllegalArgumentException actualException = null;
+        try {
+            PageCursors.decode(cursor);
+        } catch (final IllegalArgumentException e) {
+            actualException = e;
+        }
+
+        // Then
+        assertNotNull(actualException);
+    }
+
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2014 Click Travel Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.clicktravel.infrastructure.persistence.aws.dynamodb;
+
+import static com.clicktravel.common.random.Randoms.randomId;
+import static com.clicktravel.common.random.Randoms.randomString;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.BatchGetItemRequest;
+import com.amazonaws.services.dynamodbv2.model.BatchGetItemResult;
+import com.amazonaws.services.dynamodbv2.model.KeysAndAttributes;
+
+public class RequestRateLimiterTest {
+
+    @Test
+    public void shouldNotRecordThrottling_withBatchGetReturningItemsAndUnprocessedKeys() throws Exception {
+        // Given
+        final String tableName = randomString(10);
+        final AdaptiveRateLimiters adaptiveRateLimiters = new AdaptiveRateLimiters();
+        final AmazonDynamoDB mockAmazonDynamoDbClient = mock(AmazonDynamoDB.class);
+        when(mockAmazonDynamoDbClient.batchGetItem(any(BatchGetItemRequest.class))).thenReturn(new BatchGetItemResult()
+                .withResponses(Collections.singletonMap(tableName, Collections.singletonList(key())))
+                .withUnprocessedKeys(unprocessedKeys(tableName)));
+        final AmazonDynamoDB amazonDynamoDbClient = RequestRateLimiter.rateLimitingClient(mockAmazonDynamoDbClient,
+                adaptiveRateLimiters);
+
+        // When
+        amazonDynamoDbClient.batchGetItem(batchGetItemRequest(tableName));
+
+        // Then
+        assertEquals(0, adaptiveRateLimiters.rateLimiter(tableName, null).throttledCount());
+    }
+
+    @Test
+    public void shouldRecordThrottling_withBatchGetReturningOnlyUnprocessedKeys() throws Exception {
+        // Given
+        final String tableName = randomString(10);
+        final AdaptiveRateLimiters adaptiveRateLimiters = new AdaptiveRateLimiters();
+        final AmazonDynamoDB mockAmazonDynamoDbClient = mock(AmazonDynamoDB.class);
+        final List<Map<String, AttributeValue>> items = Collections.emptyList();
+        when(mockAmazonDynamoDbClient.batchGetItem(any(BatchGetItemRequest.class))).thenReturn(new BatchGetItemResult()
+                .withResponses(Collections.singletonMap(tableName, items))
+                .withUnprocessedKeys(unprocessedKeys(tableName)));
+        final AmazonDynamoDB amazonDynamoDbClient = RequestRateLimiter.rateLimitingClient(mockAmazonDynamoDbClient,
+                adaptiveRateLimiters);
+
+        // When
+        amazonDynamoDbClient.batchGetItem(batchGetItemRequest(tableName));
+
+        // Then
+        assertEquals(1, adaptiveRateLimiters.rateLimiter(tableName, null).throttledCount());
+    }
+
+    private BatchGetItemRequest batchGetItemRequest(final String tableName) {
+        return new BatchGetItemRequest().withRequestItems(unprocessedKeys(tableName));
+    }
+
+    private Map<String, KeysAndAttributes> unprocessedKeys(final String tableName) {
+        final List<Map<String, AttributeValue>> keys = Collections.singletonList(key());
+        return Collections.singletonMap(tableName, new KeysAndAttributes().withKeys(keys));
+    }
+
+    private Map<String, AttributeValue> key() {
+        return Collections.singletonMap("id", new AttributeValue(randomId()));
+    }
+
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2014 Click Travel Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.clicktravel.infrastructure.persistence.aws.dynamodb;
+
+import static com.clicktravel.common.random.Randoms.randomInt;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class RetryBackoffTest {
+
+    @Test
+    public void shouldReturnDelay_withinExponentialCeiling() throws Exception {
+        // Given
+        final long baseDelayMillis = 1 + randomInt(100);
+        final long maxDelayMillis = baseDelayMillis * 64;
+        final RetryBackoff retryBackoff = new RetryBackoff(baseDelayMillis, maxDelayMillis, 1000);
+
+        for (int retry = 0; retry < 100; retry++) {
+            // When
+            final long delayMillis = retryBackoff.delayMillis(retry);
+
+            // Then
+            assertTrue(delayMillis >= 0);
+            assertTrue(delayMillis <= Math.min(maxDelayMillis, baseDelayMillis << Math.min(retry, 6)));
+        }
+    }
+
+    @Test
+    public void shouldReturnDeadline_withStartTime() throws Exception {
+        // Given
+        final long timeoutMillis = randomInt(10000);
+        final RetryBackoff retryBackoff = new RetryBackoff(1, 10, timeoutMillis);
+        final long startMillis = System.currentTimeMillis();
+
+        // When
+        final long deadline = retryBackoff.deadline(startMillis);
+
+        // Then
+        assertEquals(startMillis + timeoutMillis, deadline);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotCreate_withMaxDelayLessThanBaseDelay() throws Exception {
+        // When
+        new RetryBackoff(10, 9, 1000);
+    }
+
+}
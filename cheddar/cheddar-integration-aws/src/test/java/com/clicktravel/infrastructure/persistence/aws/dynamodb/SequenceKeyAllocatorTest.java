@@ -0,0 +1,140 @@
+/*
+ * Copyright 2014 Click Travel Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.clicktravel.infrastructure.persistence.aws.dynamodb;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+
+import org.junit.Test;
+
+public class SequenceKeyAllocatorTest {
+
+    @Test
+    public void shouldAllocateKeys_withBlocksReservedAheadOfNeed() throws Exception {
+        // Given
+        final AtomicInteger reservations = new AtomicInteger();
+        final SequenceKeyAllocator sequenceKeyAllocator = new SequenceKeyAllocator(4,
+                counter(new AtomicLong(), reservations), Runnable::run);
+
+        // When
+        final List<Long> keys = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            keys.addAll(sequenceKeyAllocator.allocate(1));
+        }
+
+        // Then
+        assertEquals(Arrays.asList(1L, 2L, 3L, 4L, 5L, 6L), keys);
+        assertEquals(2, reservations.get());
+    }
+
+    @Test
+    public void shouldReserveKeysDirectly_withKeyCountMoreThanBlockSize() throws Exception {
+        // Given
+        final AtomicInteger reservations = new AtomicInteger();
+        final SequenceKeyAllocator sequenceKeyAllocator = new SequenceKeyAllocator(4,
+                counter(new AtomicLong(), reservations), Runnable::run);
+
+        // When
+        final List<Long> keys = sequenceKeyAllocator.allocate(5);
+
+        // Then
+        assertEquals(Arrays.asList(1L, 2L, 3L, 4L, 5L), keys);
+        assertEquals(1, reservations.get());
+    }
+
+    @Test
+    public void shouldNotAllocateKeys_withReservationFailure() throws Exception {
+        // Given
+        final SequenceKeyAllocator sequenceKeyAllocator = new SequenceKeyAllocator(4, keyCount -> {
+            throw new IllegalStateException();
+        }, Runnable::run);
+
+        // When
+        IllegalStateException actualException = null;
+        try {
+            sequenceKeyAllocator.allocate(1);
+        } catch (final IllegalStateException e) {
+            actualException = e;
+        }
+
+        // Then
+        assertNotNull(actualException);
+    }
+
+    @Test
+    public void shouldAllocateKeys_withExecutorNotRunningReservations() throws Exception {
+        // Given
+        final List<Runnable> queuedReservations = new ArrayList<>();
+        final SequenceKeyAllocator sequenceKeyAllocator = new SequenceKeyAllocator(4,
+                counter(new AtomicLong(), new AtomicInteger()), queuedReservations::add);
+
+        // When
+        final List<Long> keys = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            keys.addAll(sequenceKeyAllocator.allocate(1));
+        }
+
+        // Then
+        assertEquals(Arrays.asList(1L, 2L, 3L, 4L, 5L, 6L), keys);
+        assertEquals(2, queuedReservations.size());
+    }
+
+    @Test
+    public void shouldAllocateUniqueKeys_withConcurrentCallers() throws Exception {
+        // Given
+        final ExecutorService executorService = Executors.newFixedThreadPool(8);
+        final SequenceKeyAllocator sequenceKeyAllocator = new SequenceKeyAllocator(16,
+                counter(new AtomicLong(), new AtomicInteger()), executorService);
+        final List<Callable<List<Long>>> callers = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            callers.add(() -> {
+                final List<Long> keys = new ArrayList<>();
+                for (int j = 0; j < 500; j++) {
+                    keys.addAll(sequenceKeyAllocator.allocate(1 + j % 3));
+                }
+                return keys;
+            });
+        }
+
+        // When
+        final List<Long> keys = new ArrayList<>();
+        try {
+            for (final Future<List<Long>> future : executorService.invokeAll(callers)) {
+                keys.addAll(future.get());
+            }
+        } finally {
+            executorService.shutdown();
+        }
+
+        // Then
+        assertEquals(keys.size(), new HashSet<>(keys).size());
+    }
+
+    private IntFunction<KeyBlock> counter(final AtomicLong counter, final AtomicInteger reservations) {
+        return keyCount -> {
+            reservations.incrementAndGet();
+            return new KeyBlock(counter.getAndAdd(keyCount) + 1, 1, keyCount);
+        };
+    }
+
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2014 Click Travel Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.clicktravel.infrastructure.persistence.aws.dynamodb;
+
+import static com.clicktravel.common.random.Randoms.randomString;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.retry.RetryPolicy;
+import com.amazonaws.services.dynamodbv2.model.ProvisionedThroughputExceededException;
+import com.amazonaws.services.dynamodbv2.model.QueryRequest;
+
+public class ThrottlingRetryConditionTest {
+
+    @Test
+    public void shouldRecordThrottledAttemptAndRetry_withProvisionedThroughputExceeded() throws Exception {
+        // Given
+        final String tableName = randomString(10);
+        final String indexName = randomString(10);
+        final AdaptiveRateLimiters adaptiveRateLimiters = new AdaptiveRateLimiters();
+        final RetryPolicy retryPolicy = adaptiveRateLimiters.retryPolicy();
+        final ProvisionedThroughputExceededException exception = new ProvisionedThroughputExceededException(
+                randomString(10));
+        exception.setErrorCode("ProvisionedThroughputExceededException");
+
+        // When
+        final boolean shouldRetry = retryPolicy.getRetryCondition().shouldRetry(
+                new QueryRequest().withTableName(tableName).withIndexName(indexName), exception, 0);
+
+        // Then
+        assertTrue(shouldRetry);
+        assertEquals(1, adaptiveRateLimiters.rateLimiter(tableName, indexName).throttledCount());
+        assertEquals(0, adaptiveRateLimiters.rateLimiter(tableName, null).throttledCount());
+    }
+
+    @Test
+    public void shouldNotRecordThrottledAttempt_withOtherServiceException() throws Exception {
+        // Given
+        final String tableName = randomString(10);
+        final AdaptiveRateLimiters adaptiveRateLimiters = new AdaptiveRateLimiters();
+        final RetryPolicy retryPolicy = adaptiveRateLimiters.retryPolicy();
+        final AmazonServiceException exception = new AmazonServiceException(randomString(10));
+        exception.setErrorCode("InternalServerError");
+        exception.setStatusCode(500);
+
+        // When
+        retryPolicy.getRetryCondition().shouldRetry(new QueryRequest().withTableName(tableName), exception, 0);
+
+        // Then
+        assertEquals(0, adaptiveRateLimiters.rateLimiter(tableName, null).throttledCount());
+    }
+
+}
@@ -94,6 +94,18 @@ public class MemcachedItemCacheTest {
         verify(memcachedClient).set(key, (int) expire, item);
     }
 
+    @Test
+    public void shouldRemoveItem() {
+        // Given
+        final String key = Randoms.randomString();
+
+        // When
+        memcachedItemCache.removeItem(key);
+
+        // Then
+        verify(memcachedClient).delete(key);
+    }
+
     @Test
     public void shouldNotPutItem_failExpireToLarge() {
         // Given
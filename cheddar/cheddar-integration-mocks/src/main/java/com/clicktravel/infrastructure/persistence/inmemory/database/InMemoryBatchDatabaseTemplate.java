@@ -17,11 +17,16 @@
 package com.clicktravel.infrastructure.persistence.inmemory.database;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
+import com.clicktravel.cheddar.infrastructure.persistence.database.AsyncBatchDatabaseTemplate;
 import com.clicktravel.cheddar.infrastructure.persistence.database.BatchDatabaseTemplate;
+import com.clicktravel.cheddar.infrastructure.persistence.database.ExecutorAsyncBatchDatabaseTemplate;
 import com.clicktravel.cheddar.infrastructure.persistence.database.Item;
+import com.clicktravel.cheddar.infrastructure.persistence.database.ItemId;
 import com.clicktravel.cheddar.infrastructure.persistence.database.configuration.DatabaseSchemaHolder;
+import com.clicktravel.cheddar.infrastructure.persistence.database.exception.NonExistentItemException;
 
 public class InMemoryBatchDatabaseTemplate extends InMemoryDatabaseTemplate implements BatchDatabaseTemplate {
 
@@ -29,6 +34,11 @@ public class InMemoryBatchDatabaseTemplate extends InMemoryDatabaseTemplate impl
         super(databaseSchemaHolder);
     }
 
+    @Override
+    public AsyncBatchDatabaseTemplate async() {
+        return new ExecutorAsyncBatchDatabaseTemplate(this, Runnable::run);
+    }
+
     @Override
     public <T extends Item> List<T> batchWrite(final List<T> items, final Class<T> itemClass) {
         final List<T> updatedItems = new ArrayList<>();
@@ -39,4 +49,18 @@ public class InMemoryBatchDatabaseTemplate extends InMemoryDatabaseTemplate impl
         return updatedItems;
     }
 
+    @Override
+    public <T extends Item> List<ItemId> batchDelete(final Collection<ItemId> itemIds, final Class<T> itemClass) {
+        final List<ItemId> deletedItemIds = new ArrayList<>();
+        for (final ItemId itemId : itemIds) {
+            try {
+                delete(read(itemId, itemClass));
+            } catch (final NonExistentItemException e) {
+                // Deleting an item which does not exist is not an error
+            }
+            deletedItemIds.add(itemId);
+        }
+        return deletedItemIds;
+    }
+
 }
@@ -16,16 +16,21 @@
  */
 package com.clicktravel.infrastructure.persistence.inmemory.database;
 
+import java.beans.IntrospectionException;
 import java.beans.PropertyDescriptor;
 import java.lang.reflect.Method;
 import java.util.*;
 import java.util.Map.Entry;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import com.clicktravel.cheddar.infrastructure.persistence.database.*;
+import com.clicktravel.cheddar.infrastructure.persistence.database.configuration.CompoundPrimaryKeyDefinition;
 import com.clicktravel.cheddar.infrastructure.persistence.database.configuration.DatabaseSchemaHolder;
 import com.clicktravel.cheddar.infrastructure.persistence.database.configuration.ItemConfiguration;
+import com.clicktravel.cheddar.infrastructure.persistence.database.configuration.PrimaryKeyDefinition;
 import com.clicktravel.cheddar.infrastructure.persistence.database.configuration.UniqueConstraint;
 import com.clicktravel.cheddar.infrastructure.persistence.database.exception.ItemConstraintViolationException;
 import com.clicktravel.cheddar.infrastructure.persistence.database.exception.NonExistentItemException;
@@ -66,6 +71,12 @@ public class InMemoryDatabaseTemplate extends AbstractDatabaseTemplate implement
         throw new NonExistentItemException("Item with identifier [" + itemId.value() + "] did not exist");
     }
 
+    @Override
+    public <T extends Item> T read(final ItemId itemId, final Class<T> itemClass,
+            final Collection<String> propertyNames) throws NonExistentItemException {
+        return projection(read(itemId, itemClass), propertyNames);
+    }
+
     @Override
     public <T extends Item> T create(final T item,
             final PersistenceExceptionHandler<?>... persistenceExceptionHandlers) {
@@ -201,10 +212,27 @@ public class InMemoryDatabaseTemplate extends AbstractDatabaseTemplate implement
 
     @Override
     public <T extends Item> Collection<T> fetch(final Query query, final Class<T> itemClass) {
+        return stream(query, itemClass).collect(Collectors.toList());
+    }
+
+    @Override
+    public <T extends Item> Collection<T> fetch(final Query query, final Class<T> itemClass,
+            final Collection<String> propertyNames) {
+        return stream(query, itemClass).map(item -> projection(item, propertyNames)).collect(Collectors.toList());
+    }
+
+    /**
+     * Items are deserialized one at a time as the stream is consumed, from a snapshot of the items held when the
+     * stream is created
+     */
+    @Override
+    public <T extends Item> Stream<T> stream(final Query query, final Class<T> itemClass) {
         if (query instanceof AttributeQuery) {
-            return executeQuery((AttributeQuery) query, itemClass);
+            final AttributeQuery attributeQuery = (AttributeQuery) query;
+            return streamAllItems(itemClass).filter(item -> matches(attributeQuery, item));
         } else if (query instanceof KeySetQuery) {
-            return executeQuery((KeySetQuery) query, itemClass);
+            final KeySetQuery keySetQuery = (KeySetQuery) query;
+            return streamAllItems(itemClass).filter(item -> keySetQuery.itemIds().contains(getItemId(item)));
         } else {
             throw new UnsupportedQueryException(query.getClass());
         }
@@ -259,87 +287,92 @@ public class InMemoryDatabaseTemplate extends AbstractDatabaseTemplate implement
         return new SerializedItem(repositoryItem);
     }
 
-    private <T extends Item> Collection<T> executeQuery(final KeySetQuery query, final Class<T> itemClass) {
-        final Map<ItemId, T> allItems = getAllItems(itemClass);
-        final Collection<T> matches = new ArrayList<>();
-        for (final Entry<ItemId, T> entry : allItems.entrySet()) {
-            if (query.itemIds().contains(entry.getKey())) {
-                matches.add(entry.getValue());
-            }
+    private boolean matches(final AttributeQuery query, final Item item) {
+        if (query instanceof CompoundAttributeQuery) {
+            final CompoundAttributeQuery compoundAttributeQuery = (CompoundAttributeQuery) query;
+            return matches(query.getAttributeName(), query.getCondition(), item) && matches(
+                    compoundAttributeQuery.getSupportingAttributeName(),
+                    compoundAttributeQuery.getSupportingCondition(), item);
         }
-        return matches;
+        return matches(query.getAttributeName(), query.getCondition(), item);
     }
 
-    private <T extends Item> Collection<T> executeQuery(final AttributeQuery query, final Class<T> itemClass) {
-        final Map<ItemId, T> allItems = getAllItems(itemClass);
-        final Collection<T> matches = new ArrayList<>();
-        for (final T item : allItems.values()) {
-            final String attribute = query.getAttributeName();
-            try {
-                final Method getter = new PropertyDescriptor(attribute, item.getClass()).getReadMethod();
-                final Object itemPropertyValue = getter.invoke(item);
-                final Class<?> itemPropertyType = getter.getReturnType();
-                final Condition condition = query.getCondition();
-                final Set<String> values = condition.getValues();
-                String singleValue = null;
-                if (values != null && !values.isEmpty()) {
-                    singleValue = values.iterator().next();
-                }
-                final boolean isSingleItemProperty = !Collection.class.isAssignableFrom(itemPropertyType);
-                String singleItemPropertyValue = null;
-                if (isSingleItemProperty) {
-                    singleItemPropertyValue = String.valueOf(itemPropertyValue);
-                }
-                switch (query.getCondition().getComparisonOperator()) {
-                    case NULL:
-                        if (itemPropertyValue == null) {
-                            matches.add(item);
-                        }
-                        break;
-                    case NOT_NULL:
-                        if (itemPropertyValue != null) {
-                            matches.add(item);
-                        }
-                        break;
-                    case LESS_THAN_OR_EQUALS:
-                        if (isSingleItemProperty && singleItemPropertyValue.compareTo(singleValue) <= 0) {
-                            matches.add(item);
-                        }
-                        break;
-                    case GREATER_THAN_OR_EQUALS:
-                        if (isSingleItemProperty && singleItemPropertyValue.compareTo(singleValue) >= 0) {
-                            matches.add(item);
-                        }
-                        break;
-                    case EQUALS:
-                        if (isSingleItemProperty && singleItemPropertyValue.equals(singleValue)) {
-                            matches.add(item);
-                        } else if (values.equals(itemPropertyValue)) {
-                            matches.add(item);
-                        }
-                        break;
-                    default:
-                        break;
-                }
-            } catch (final Exception e) {
-                throw new IllegalStateException(
-                        "No getter for property [" + attribute + "] on class: [" + item.getClass() + "]");
+    private boolean matches(final String attribute, final Condition condition, final Item item) {
+        try {
+            final Method getter = new PropertyDescriptor(attribute, item.getClass()).getReadMethod();
+            final Object itemPropertyValue = getter.invoke(item);
+            final Class<?> itemPropertyType = getter.getReturnType();
+            final Set<String> values = condition.getValues();
+            String singleValue = null;
+            if (values != null && !values.isEmpty()) {
+                singleValue = values.iterator().next();
             }
-
+            final boolean isSingleItemProperty = !Collection.class.isAssignableFrom(itemPropertyType);
+            String singleItemPropertyValue = null;
+            if (isSingleItemProperty) {
+                singleItemPropertyValue = String.valueOf(itemPropertyValue);
+            }
+            switch (condition.getComparisonOperator()) {
+                case NULL:
+                    return itemPropertyValue == null;
+                case NOT_NULL:
+                    return itemPropertyValue != null;
+                case LESS_THAN_OR_EQUALS:
+                    return isSingleItemProperty && singleItemPropertyValue.compareTo(singleValue) <= 0;
+                case GREATER_THAN_OR_EQUALS:
+                    return isSingleItemProperty && singleItemPropertyValue.compareTo(singleValue) >= 0;
+                case EQUALS:
+                    return isSingleItemProperty && values.contains(singleItemPropertyValue)
+                            || values.equals(itemPropertyValue);
+                case BETWEEN:
+                    final List<String> bounds = new ArrayList<>(values);
+                    return isSingleItemProperty && itemPropertyValue != null
+                            && singleItemPropertyValue.compareTo(bounds.get(0)) >= 0
+                            && singleItemPropertyValue.compareTo(bounds.get(bounds.size() - 1)) <= 0;
+                case BEGINS_WITH:
+                    return isSingleItemProperty && itemPropertyValue != null
+                            && singleItemPropertyValue.startsWith(singleValue);
+                default:
+                    return false;
+            }
+        } catch (final Exception e) {
+            throw new IllegalStateException(
+                    "No getter for property [" + attribute + "] on class: [" + item.getClass() + "]");
         }
-        return matches;
     }
 
-    private <T extends Item> Map<ItemId, T> getAllItems(final Class<T> itemClass) {
-        final Map<ItemId, T> allItems = new HashMap<>();
-        final String tableName = getItemTableName(itemClass);
-        for (final SerializedItem serializedItem : getItemMap(tableName).values()) {
-            final T item = serializedItem.getEntity(itemClass);
-            if (itemClass.isAssignableFrom(item.getClass())) {
-                allItems.put(getItemId(item), item);
+    /**
+     * @return A new item of the same class holding only the key and named properties of the given item
+     */
+    @SuppressWarnings("unchecked")
+    private <T extends Item> T projection(final T item, final Collection<String> propertyNames) {
+        final PrimaryKeyDefinition primaryKeyDefinition = getItemConfiguration(item.getClass()).primaryKeyDefinition();
+        final Collection<String> projectedPropertyNames = new HashSet<>(propertyNames);
+        projectedPropertyNames.add(primaryKeyDefinition.propertyName());
+        if (primaryKeyDefinition instanceof CompoundPrimaryKeyDefinition) {
+            projectedPropertyNames.add(((CompoundPrimaryKeyDefinition) primaryKeyDefinition).supportingPropertyName());
+        }
+        try {
+            final T projectedItem = (T) item.getClass().newInstance();
+            for (final String propertyName : projectedPropertyNames) {
+                final PropertyDescriptor propertyDescriptor = new PropertyDescriptor(propertyName, item.getClass());
+                propertyDescriptor.getWriteMethod().invoke(projectedItem,
+                        propertyDescriptor.getReadMethod().invoke(item));
             }
+            return projectedItem;
+        } catch (final IntrospectionException e) {
+            throw new IllegalArgumentException("Unknown property in " + propertyNames + " for item " + item.getClass(),
+                    e);
+        } catch (final ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not copy properties of item " + item.getClass(), e);
         }
-        return allItems;
+    }
+
+    private <T extends Item> Stream<T> streamAllItems(final Class<T> itemClass) {
+        final String tableName = getItemTableName(itemClass);
+        return new ArrayList<>(getItemMap(tableName).values()).stream()
+                .map(serializedItem -> serializedItem.getEntity(itemClass))
+                .filter(item -> itemClass.isAssignableFrom(item.getClass()));
     }
 
     private Map<ItemId, SerializedItem> getItemMap(final String tableName) {
@@ -350,6 +383,14 @@ public class InMemoryDatabaseTemplate extends AbstractDatabaseTemplate implement
         return itemMap;
     }
 
+    /**
+     * @return Asynchronous view of this template, whose operations run on the calling thread and return completed
+     *         futures
+     */
+    public AsyncDatabaseTemplate async() {
+        return new ExecutorAsyncDatabaseTemplate(this, Runnable::run);
+    }
+
     @Override
     public void reset() {
         for (final Entry<String, Map<ItemId, SerializedItem>> entry : items.entrySet()) {
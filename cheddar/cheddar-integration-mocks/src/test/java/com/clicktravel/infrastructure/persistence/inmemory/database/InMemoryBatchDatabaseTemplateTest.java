@@ -17,19 +17,27 @@
 package com.clicktravel.infrastructure.persistence.inmemory.database;
 
 import static com.clicktravel.common.random.Randoms.randomBoolean;
+import static com.clicktravel.common.random.Randoms.randomId;
 import static com.clicktravel.common.random.Randoms.randomString;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.internal.util.collections.Sets;
 
+import com.clicktravel.cheddar.infrastructure.persistence.database.AsyncBatchDatabaseTemplate;
+import com.clicktravel.cheddar.infrastructure.persistence.database.ItemId;
 import com.clicktravel.cheddar.infrastructure.persistence.database.configuration.*;
+import com.clicktravel.cheddar.infrastructure.persistence.database.exception.NonExistentItemException;
 
 public class InMemoryBatchDatabaseTemplateTest {
 
@@ -151,4 +159,63 @@ public class InMemoryBatchDatabaseTemplateTest {
 
     }
 
+    @Test
+    public void shouldDelete_viaBatchDelete_withItemIds() {
+        // Given
+        final InMemoryBatchDatabaseTemplate databaseTemplate = new InMemoryBatchDatabaseTemplate(databaseSchemaHolder);
+        final StubItem createdItem = dataGenerator.randomStubItem();
+        databaseTemplate.create(createdItem);
+        final StubItem remainingItem = dataGenerator.randomStubItem();
+        databaseTemplate.create(remainingItem);
+        final List<ItemId> itemIds = Arrays.asList(new ItemId(createdItem.getId()), new ItemId(randomId()));
+
+        // When
+        final List<ItemId> deletedItemIds = databaseTemplate.batchDelete(itemIds, StubItem.class);
+
+        // Then
+        assertEquals(itemIds, deletedItemIds);
+        NonExistentItemException actualException = null;
+        try {
+            databaseTemplate.read(new ItemId(createdItem.getId()), StubItem.class);
+        } catch (final NonExistentItemException e) {
+            actualException = e;
+        }
+        assertNotNull(actualException);
+        assertEquals(remainingItem.getId(), databaseTemplate.read(new ItemId(remainingItem.getId()), StubItem.class)
+                .getId());
+    }
+
+    @Test
+    public void shouldBatchWriteAndRead_viaAsyncTemplate_withCompletedFutures() throws Exception {
+        // Given
+        final InMemoryBatchDatabaseTemplate databaseTemplate = new InMemoryBatchDatabaseTemplate(databaseSchemaHolder);
+        final AsyncBatchDatabaseTemplate asyncDatabaseTemplate = databaseTemplate.async();
+        final StubItem stubItem = dataGenerator.randomStubItem();
+        stubItem.setVersion(null);
+
+        // When
+        final CompletableFuture<List<StubItem>> writtenItems = asyncDatabaseTemplate
+                .batchWrite(Arrays.asList(stubItem), StubItem.class);
+        final CompletableFuture<StubItem> readItem = asyncDatabaseTemplate.read(new ItemId(stubItem.getId()),
+                StubItem.class);
+
+        // Then
+        assertTrue(writtenItems.isDone());
+        assertEquals(1, writtenItems.get().size());
+        assertEquals(stubItem.getStringProperty(), readItem.get().getStringProperty());
+    }
+
+    @Test
+    public void shouldCompleteExceptionally_viaAsyncTemplate_withNonExistentItem() throws Exception {
+        // Given
+        final InMemoryBatchDatabaseTemplate databaseTemplate = new InMemoryBatchDatabaseTemplate(databaseSchemaHolder);
+
+        // When
+        final CompletableFuture<StubItem> readItem = databaseTemplate.async().read(new ItemId(randomId()),
+                StubItem.class);
+
+        // Then
+        assertTrue(readItem.handle((item, e) -> e).get() instanceof NonExistentItemException);
+    }
+
 }
@@ -22,10 +22,13 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 
 import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.hamcrest.core.Is;
 import org.junit.Before;
@@ -339,6 +342,75 @@ public class InMemoryDatabaseTemplateTest {
         assertThat(itemResults, hasItems(createdItem1, createdItem2));
     }
 
+    @Test
+    public void shouldFetch_withAttributeQueryWithSeveralEqualsValues() throws Exception {
+        // Given
+        final String stringProperty1 = randomString(10);
+        final String stringProperty2 = randomString(10);
+        final AttributeQuery query = new AttributeQuery(STRING_PROPERTY,
+                new Condition(Operators.EQUALS, Sets.newSet(stringProperty1, stringProperty2)));
+        final InMemoryDatabaseTemplate databaseTemplate = new InMemoryDatabaseTemplate(databaseSchemaHolder);
+        final StubItem createdItem1 = dataGenerator.stubItemWithStringProperty(stringProperty1);
+        final StubItem createdItem2 = dataGenerator.stubItemWithStringProperty(stringProperty2);
+        databaseTemplate.create(createdItem1);
+        databaseTemplate.create(createdItem2);
+        databaseTemplate.create(dataGenerator.randomStubItem());
+
+        // When
+        final Collection<StubItem> itemResults = databaseTemplate.fetch(query, StubItem.class);
+
+        // Then
+        assertEquals(2, itemResults.size());
+        assertThat(itemResults, hasItems(createdItem1, createdItem2));
+    }
+
+    @Test
+    public void shouldStream_withAttributeQueryAndMultipleItems() throws Exception {
+        // Given
+        final String stringProperty = randomString(10);
+        final AttributeQuery query = new AttributeQuery(STRING_PROPERTY,
+                new Condition(Operators.EQUALS, stringProperty));
+        final InMemoryDatabaseTemplate databaseTemplate = new InMemoryDatabaseTemplate(databaseSchemaHolder);
+        final StubItem createdItem1 = dataGenerator.stubItemWithStringProperty(stringProperty);
+        final StubItem createdItem2 = dataGenerator.stubItemWithStringProperty(stringProperty);
+        databaseTemplate.create(createdItem1);
+        databaseTemplate.create(createdItem2);
+        databaseTemplate.create(dataGenerator.randomStubItem());
+
+        // When
+        final List<StubItem> itemResults;
+        try (final Stream<StubItem> stream = databaseTemplate.stream(query, StubItem.class)) {
+            itemResults = stream.collect(Collectors.toList());
+        }
+
+        // Then
+        assertEquals(2, itemResults.size());
+        assertThat(itemResults, hasItems(createdItem1, createdItem2));
+    }
+
+    @Test
+    public void shouldStream_withKeySetQuery() throws Exception {
+        // Given
+        final InMemoryDatabaseTemplate databaseTemplate = new InMemoryDatabaseTemplate(databaseSchemaHolder);
+        final StubItem createdItem1 = dataGenerator.randomStubItem();
+        final StubItem createdItem2 = dataGenerator.randomStubItem();
+        databaseTemplate.create(createdItem1);
+        databaseTemplate.create(createdItem2);
+        databaseTemplate.create(dataGenerator.randomStubItem());
+        final KeySetQuery query = new KeySetQuery(
+                Sets.newSet(new ItemId(createdItem1.getId()), new ItemId(createdItem2.getId())));
+
+        // When
+        final List<StubItem> itemResults;
+        try (final Stream<StubItem> stream = databaseTemplate.stream(query, StubItem.class)) {
+            itemResults = stream.collect(Collectors.toList());
+        }
+
+        // Then
+        assertEquals(2, itemResults.size());
+        assertThat(itemResults, hasItems(createdItem1, createdItem2));
+    }
+
     @Test
     public void shouldFetchUnique_withAttributeQuery() throws Exception {
         // Given
@@ -397,6 +469,114 @@ public class InMemoryDatabaseTemplateTest {
         assertEquals(createdStubItem, item);
     }
 
+    @Test
+    public void shouldReadItem_withPropertyNames() throws Exception {
+        // Given
+        final InMemoryDatabaseTemplate databaseTemplate = new InMemoryDatabaseTemplate(databaseSchemaHolder);
+        final StubItem createdItem = dataGenerator.randomStubItem();
+        databaseTemplate.create(createdItem);
+        final ItemId itemId = new ItemId(createdItem.getId());
+
+        // When
+        final StubItem item = databaseTemplate.read(itemId, StubItem.class, Arrays.asList(STRING_PROPERTY));
+
+        // Then
+        assertEquals(createdItem.getId(), item.getId());
+        assertEquals(createdItem.getStringProperty(), item.getStringProperty());
+        assertNull(item.getStringProperty2());
+        assertNull(item.getVersion());
+    }
+
+    @Test
+    public void shouldFetch_withAttributeQueryAndPropertyNames() throws Exception {
+        // Given
+        final InMemoryDatabaseTemplate databaseTemplate = new InMemoryDatabaseTemplate(databaseSchemaHolder);
+        final StubItem createdItem = dataGenerator.randomStubItem();
+        databaseTemplate.create(createdItem);
+        final AttributeQuery query = new AttributeQuery(STRING_PROPERTY,
+                new Condition(Operators.EQUALS, createdItem.getStringProperty()));
+
+        // When
+        final Collection<StubItem> items = databaseTemplate.fetch(query, StubItem.class,
+                Arrays.asList("stringProperty2"));
+
+        // Then
+        assertEquals(1, items.size());
+        final StubItem item = items.iterator().next();
+        assertEquals(createdItem.getId(), item.getId());
+        assertEquals(createdItem.getStringProperty2(), item.getStringProperty2());
+        assertNull(item.getStringProperty());
+    }
+
+    @Test
+    public void shouldFetch_withCompoundAttributeQueryBetween() throws Exception {
+        // Given
+        final InMemoryDatabaseTemplate databaseTemplate = new InMemoryDatabaseTemplate(databaseSchemaHolder);
+        final String id = randomId();
+        createStubWithRangeItems(databaseTemplate, id, "2016-01-01", "2016-02-01", "2016-03-01");
+        final CompoundAttributeQuery query = new CompoundAttributeQuery("id", new Condition(Operators.EQUALS, id),
+                "supportingId", new Condition(Operators.BETWEEN, "2016-01-15", "2016-02-15"));
+
+        // When
+        final Collection<StubWithRangeItem> items = databaseTemplate.fetch(query, StubWithRangeItem.class);
+
+        // Then
+        assertEquals(1, items.size());
+        assertEquals("2016-02-01", items.iterator().next().getSupportingId());
+    }
+
+    @Test
+    public void shouldFetchPages_withCompoundAttributeQueryBeginsWithAndDescendingOrder() throws Exception {
+        // Given
+        final InMemoryDatabaseTemplate databaseTemplate = new InMemoryDatabaseTemplate(databaseSchemaHolder);
+        final String id = randomId();
+        createStubWithRangeItems(databaseTemplate, id, "2016-02-01", "2015-12-31", "2016-03-01", "2016-01-01");
+        final CompoundAttributeQuery query = new CompoundAttributeQuery("id", new Condition(Operators.EQUALS, id),
+                "supportingId", new Condition(Operators.BEGINS_WITH, "2016"));
+
+        // When
+        final PagedResult<StubWithRangeItem> firstPage = databaseTemplate.fetch(query, StubWithRangeItem.class,
+                new PageRequest(2, SortOrder.DESCENDING, null));
+        final PagedResult<StubWithRangeItem> secondPage = databaseTemplate.fetch(query, StubWithRangeItem.class,
+                new PageRequest(2, SortOrder.DESCENDING, firstPage.getNextCursor()));
+
+        // Then
+        assertEquals(Arrays.asList("2016-03-01", "2016-02-01"), supportingIds(firstPage.getItems()));
+        assertNotNull(firstPage.getNextCursor());
+        assertEquals(Arrays.asList("2016-01-01"), supportingIds(secondPage.getItems()));
+        assertNull(secondPage.getNextCursor());
+    }
+
+    private void createStubWithRangeItems(final InMemoryDatabaseTemplate databaseTemplate, final String id,
+            final String... supportingIds) {
+        for (final String supportingId : supportingIds) {
+            final StubWithRangeItem item = dataGenerator.randomStubWithRangeItem();
+            item.setId(id);
+            item.setSupportingId(supportingId);
+            databaseTemplate.create(item);
+        }
+    }
+
+    private List<String> supportingIds(final Collection<StubWithRangeItem> items) {
+        return items.stream().map(StubWithRangeItem::getSupportingId).collect(Collectors.toList());
+    }
+
+    @Test
+    public void shouldCheckExists_withItemId() throws Exception {
+        // Given
+        final InMemoryDatabaseTemplate databaseTemplate = new InMemoryDatabaseTemplate(databaseSchemaHolder);
+        final StubItem createdItem = dataGenerator.randomStubItem();
+        databaseTemplate.create(createdItem);
+
+        // When
+        final boolean exists = databaseTemplate.exists(new ItemId(createdItem.getId()), StubItem.class);
+        final boolean unknownExists = databaseTemplate.exists(new ItemId(randomId()), StubItem.class);
+
+        // Then
+        assertTrue(exists);
+        assertFalse(unknownExists);
+    }
+
     @Test
     public void shouldDeleteItem_withItem() throws Exception {
         // Given
@@ -87,12 +87,8 @@ public class PersistedTracker<T1 extends Process, T2 extends Item> implements Tr
 
     @Override
     public void checkProcessDoesNotExist(final ProcessId processId) throws InvalidProcessStatusException {
-        try {
-            databaseTemplate.read(new ItemId(processId.id()), processItemClass);
+        if (databaseTemplate.exists(new ItemId(processId.id()), processItemClass)) {
             throw new InvalidProcessStatusException(processClass, "Process not started");
-        } catch (final NonExistentItemException e) {
-            // This is a positive outcome for this method signature
-            return;
         }
     }
 }
@@ -0,0 +1,323 @@
+/*
+ * Copyright 2014 Click Travel Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.clicktravel.cheddar.infrastructure.persistence.cache;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.clicktravel.cheddar.infrastructure.persistence.database.*;
+import com.clicktravel.cheddar.infrastructure.persistence.database.configuration.CompoundPrimaryKeyDefinition;
+import com.clicktravel.cheddar.infrastructure.persistence.database.configuration.DatabaseSchemaHolder;
+import com.clicktravel.cheddar.infrastructure.persistence.database.configuration.ItemConfiguration;
+import com.clicktravel.cheddar.infrastructure.persistence.database.exception.NonExistentItemException;
+import com.clicktravel.cheddar.infrastructure.persistence.database.exception.NonUniqueResultException;
+import com.clicktravel.cheddar.infrastructure.persistence.database.exception.handler.PersistenceExceptionHandler;
+import com.clicktravel.cheddar.infrastructure.persistence.database.query.KeySetQuery;
+import com.clicktravel.cheddar.infrastructure.persistence.database.query.PageRequest;
+import com.clicktravel.cheddar.infrastructure.persistence.database.query.PagedResult;
+import com.clicktravel.cheddar.infrastructure.persistence.database.query.Query;
+
+/**
+ * Decorates a {@link DatabaseTemplate} to read items through an {@link ItemCache}. Only items of classes whose
+ * {@link ItemConfiguration} sets a cache TTL are cached; all other operations are delegated unchanged.
+ *
+ * Reads by id and {@link KeySetQuery} fetches are served from the cache where possible. Items read, created or updated
+ * through this template are stored in the cache unless it already holds a newer version of them, and items deleted,
+ * or whose update fails, through this template are removed from it. A failure of the cache is logged and treated as a
+ * miss, and never fails the database operation. Changes made other than through this template are seen once the cached
+ * copy expires.
+ */
+public class CachingDatabaseTemplate implements DatabaseTemplate {
+
+    private static final long DEFAULT_CACHE_TIMEOUT_SECONDS = 1;
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+    private final DatabaseTemplate databaseTemplate;
+    private final ItemCache itemCache;
+    private final String schemaName;
+    private final Map<Class<? extends Item>, ItemConfiguration> itemConfigurations = new HashMap<>();
+    private final long cacheTimeoutSeconds;
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+
+    public CachingDatabaseTemplate(final DatabaseTemplate databaseTemplate, final ItemCache itemCache,
+            final DatabaseSchemaHolder databaseSchemaHolder) {
+        this(databaseTemplate, itemCache, databaseSchemaHolder, DEFAULT_CACHE_TIMEOUT_SECONDS);
+    }
+
+    /**
+     * @param databaseTemplate Template to read and write items through
+     * @param itemCache Cache holding the items read
+     * @param databaseSchemaHolder Schema configuring which item classes are cached and for how long
+     * @param cacheTimeoutSeconds Time after which a read from the cache is given up, and treated as a miss
+     */
+    public CachingDatabaseTemplate(final DatabaseTemplate databaseTemplate, final ItemCache itemCache,
+            final DatabaseSchemaHolder databaseSchemaHolder, final long cacheTimeoutSeconds) {
+        this.databaseTemplate = databaseTemplate;
+        this.itemCache = itemCache;
+        schemaName = databaseSchemaHolder.schemaName();
+        for (final ItemConfiguration itemConfiguration : databaseSchemaHolder.itemConfigurations()) {
+            if (itemConfiguration.cacheTtlSeconds() > 0) {
+                itemConfigurations.put(itemConfiguration.itemClass(), itemConfiguration);
+            }
+        }
+        this.cacheTimeoutSeconds = cacheTimeoutSeconds;
+    }
+
+    @Override
+    public <T extends Item> T read(final ItemId itemId, final Class<T> itemClass) throws NonExistentItemException {
+        final ItemConfiguration itemConfiguration = itemConfigurations.get(itemClass);
+        if (itemConfiguration == null) {
+            return databaseTemplate.read(itemId, itemClass);
+        }
+        final T cachedItem = cachedItem(itemConfiguration, itemId, itemClass);
+        if (cachedItem != null) {
+            return cachedItem;
+        }
+        final T item = databaseTemplate.read(itemId, itemClass);
+        cache(itemConfiguration, item);
+        return item;
+    }
+
+    @Override
+    public <T extends Item> T read(final ItemId itemId, final Class<T> itemClass,
+            final Collection<String> propertyNames) throws NonExistentItemException {
+        return databaseTemplate.read(itemId, itemClass, propertyNames);
+    }
+
+    @Override
+    public <T extends Item> boolean exists(final ItemId itemId, final Class<T> itemClass) {
+        final ItemConfiguration itemConfiguration = itemConfigurations.get(itemClass);
+        if (itemConfiguration != null && cachedItem(itemConfiguration, itemId, itemClass) != null) {
+            return true;
+        }
+        return databaseTemplate.exists(itemId, itemClass);
+    }
+
+    @Override
+    public <T extends Item> T create(final T item, final PersistenceExceptionHandler<?>... persistenceExceptionHandlers) {
+        final T createdItem = databaseTemplate.create(item, persistenceExceptionHandlers);
+        final ItemConfiguration itemConfiguration = itemConfigurations.get(item.getClass());
+        if (itemConfiguration != null) {
+            cache(itemConfiguration, createdItem);
+        }
+        return createdItem;
+    }
+
+    @Override
+    public <T extends Item> T update(final T item, final PersistenceExceptionHandler<?>... persistenceExceptionHandlers) {
+        final ItemConfiguration itemConfiguration = itemConfigurations.get(item.getClass());
+        final T updatedItem;
+        try {
+            updatedItem = databaseTemplate.update(item, persistenceExceptionHandlers);
+        } catch (final RuntimeException e) {
+            if (itemConfiguration != null) {
+                uncache(itemConfiguration, item);
+            }
+            throw e;
+        }
+        if (itemConfiguration != null) {
+            cache(itemConfiguration, updatedItem);
+        }
+        return updatedItem;
+    }
+
+    /**
+     * Removes the item from the cache whether or not the delete succeeds, since a failed delete may be due to the
+     * cached copy being stale
+     */
+    @Override
+    public void delete(final Item item, final PersistenceExceptionHandler<?>... persistenceExceptionHandlers) {
+        try {
+            databaseTemplate.delete(item, persistenceExceptionHandlers);
+        } finally {
+            final ItemConfiguration itemConfiguration = itemConfigurations.get(item.getClass());
+            if (itemConfiguration != null) {
+                uncache(itemConfiguration, item);
+            }
+        }
+    }
+
+    @Override
+    public <T extends Item> Collection<T> fetch(final Query query, final Class<T> itemClass) {
+        final ItemConfiguration itemConfiguration = itemConfigurations.get(itemClass);
+        if (itemConfiguration == null || !(query instanceof KeySetQuery)) {
+            return databaseTemplate.fetch(query, itemClass);
+        }
+        final Collection<T> items = new ArrayList<>();
+        final Collection<ItemId> uncachedItemIds = new ArrayList<>();
+        for (final ItemId itemId : ((KeySetQuery) query).itemIds()) {
+            final T cachedItem = cachedItem(itemConfiguration, itemId, itemClass);
+            if (cachedItem != null) {
+                items.add(cachedItem);
+            } else {
+                uncachedItemIds.add(itemId);
+            }
+        }
+        if (!uncachedItemIds.isEmpty()) {
+            for (final T item : databaseTemplate.fetch(new KeySetQuery(uncachedItemIds), itemClass)) {
+                cache(itemConfiguration, item);
+                items.add(item);
+            }
+        }
+        return items;
+    }
+
+    @Override
+    public <T extends Item> Collection<T> fetch(final Query query, final Class<T> itemClass,
+            final Collection<String> propertyNames) {
+        return databaseTemplate.fetch(query, itemClass, propertyNames);
+    }
+
+    @Override
+    public <T extends Item> PagedResult<T> fetch(final Query query, final Class<T> itemClass,
+            final PageRequest pageRequest) {
+        return databaseTemplate.fetch(query, itemClass, pageRequest);
+    }
+
+    @Override
+    public <T extends Item> Stream<T> stream(final Query query, final Class<T> itemClass) {
+        return databaseTemplate.stream(query, itemClass);
+    }
+
+    @Override
+    public <T extends Item> long count(final Query query, final Class<T> itemClass) {
+        return databaseTemplate.count(query, itemClass);
+    }
+
+    /**
+     * Serves the items of cached classes from the cache where possible, fetching all the others together
+     */
+    @Override
+    public Map<Class<? extends Item>, Collection<? extends Item>> fetch(
+            final Map<Class<? extends Item>, Collection<ItemId>> itemIds) {
+        final Map<Class<? extends Item>, Collection<Item>> items = new LinkedHashMap<>();
+        final Map<Class<? extends Item>, Collection<ItemId>> uncachedItemIds = new LinkedHashMap<>();
+        for (final Map.Entry<Class<? extends Item>, Collection<ItemId>> entry : itemIds.entrySet()) {
+            final ItemConfiguration itemConfiguration = itemConfigurations.get(entry.getKey());
+            final Collection<Item> cachedItems = new ArrayList<>();
+            final Collection<ItemId> classUncachedItemIds = new ArrayList<>();
+            for (final ItemId itemId : entry.getValue()) {
+                final Item cachedItem = itemConfiguration == null ? null
+                        : cachedItem(itemConfiguration, itemId, entry.getKey());
+                if (cachedItem != null) {
+                    cachedItems.add(cachedItem);
+                } else {
+                    classUncachedItemIds.add(itemId);
+                }
+            }
+            items.put(entry.getKey(), cachedItems);
+            if (!classUncachedItemIds.isEmpty()) {
+                uncachedItemIds.put(entry.getKey(), classUncachedItemIds);
+            }
+        }
+        if (!uncachedItemIds.isEmpty()) {
+            for (final Map.Entry<Class<? extends Item>, Collection<? extends Item>> entry : databaseTemplate
+                    .fetch(uncachedItemIds).entrySet()) {
+                final ItemConfiguration itemConfiguration = itemConfigurations.get(entry.getKey());
+                for (final Item item : entry.getValue()) {
+                    if (itemConfiguration != null) {
+                        cache(itemConfiguration, item);
+                    }
+                    items.get(entry.getKey()).add(item);
+                }
+            }
+        }
+        return new LinkedHashMap<>(items);
+    }
+
+    @Override
+    public <T extends Item> T fetchUnique(final Query query, final Class<T> itemClass) throws NonUniqueResultException {
+        return databaseTemplate.fetchUnique(query, itemClass);
+    }
+
+    @Override
+    public GeneratedKeyHolder generateKeys(final SequenceKeyGenerator sequenceKeyGenerator) {
+        return databaseTemplate.generateKeys(sequenceKeyGenerator);
+    }
+
+    /**
+     * @return Number of reads by id served from the cache
+     */
+    public long hitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * @return Number of reads by id of cached item classes not served from the cache
+     */
+    public long missCount() {
+        return missCount.get();
+    }
+
+    private <T extends Item> T cachedItem(final ItemConfiguration itemConfiguration, final ItemId itemId,
+            final Class<T> itemClass) {
+        final String key = cacheKey(itemConfiguration, itemId);
+        Object cachedItem = null;
+        try {
+            cachedItem = itemCache.getItem(key, cacheTimeoutSeconds);
+        } catch (final RuntimeException e) {
+            logger.debug("Unable to get item from cache: " + key, e);
+        }
+        if (itemClass.isInstance(cachedItem)) {
+            hitCount.incrementAndGet();
+            return itemClass.cast(cachedItem);
+        }
+        missCount.incrementAndGet();
+        return null;
+    }
+
+    private void cache(final ItemConfiguration itemConfiguration, final Item item) {
+        final String key = cacheKey(itemConfiguration, itemConfiguration.getItemId(item));
+        try {
+            final Object cachedItem = itemCache.getItem(key, cacheTimeoutSeconds);
+            if (cachedItem instanceof Item && isNewer(((Item) cachedItem).getVersion(), item.getVersion())) {
+                return;
+            }
+            itemCache.putItem(key, item, itemConfiguration.cacheTtlSeconds());
+        } catch (final RuntimeException e) {
+            logger.debug("Unable to put item in cache: " + key, e);
+        }
+    }
+
+    private void uncache(final ItemConfiguration itemConfiguration, final Item item) {
+        final String key = cacheKey(itemConfiguration, itemConfiguration.getItemId(item));
+        try {
+            itemCache.removeItem(key);
+        } catch (final RuntimeException e) {
+            logger.warn("Unable to remove item from cache: " + key, e);
+        }
+    }
+
+    private boolean isNewer(final Long version, final Long otherVersion) {
+        return version != null && otherVersion != null && version > otherVersion;
+    }
+
+    private String cacheKey(final ItemConfiguration itemConfiguration, final ItemId itemId) {
+        final StringBuilder key = new StringBuilder(schemaName).append('-').append(itemConfiguration.tableName())
+                .append(':').append(itemId.value());
+        if (CompoundPrimaryKeyDefinition.class.isAssignableFrom(itemConfiguration.primaryKeyDefinition().getClass())) {
+            key.append(':').append(itemId.supportingValue());
+        }
+        return key.toString();
+    }
+
+}
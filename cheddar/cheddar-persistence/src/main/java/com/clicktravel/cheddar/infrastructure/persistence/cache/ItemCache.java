@@ -35,4 +35,10 @@ public interface ItemCache {
      */
     void putItem(String key, Object item, long expire);
 
+    /**
+     * Removes an item from the cache, if present
+     * @param key the item is stored against
+     */
+    void removeItem(String key);
+
 }
@@ -16,20 +16,169 @@
  */
 package com.clicktravel.cheddar.infrastructure.persistence.database;
 
+import java.beans.IntrospectionException;
+import java.beans.PropertyDescriptor;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import com.clicktravel.cheddar.infrastructure.persistence.database.exception.NonExistentItemException;
 import com.clicktravel.cheddar.infrastructure.persistence.database.exception.NonUniqueResultException;
+import com.clicktravel.cheddar.infrastructure.persistence.database.query.CompoundAttributeQuery;
+import com.clicktravel.cheddar.infrastructure.persistence.database.query.KeySetQuery;
+import com.clicktravel.cheddar.infrastructure.persistence.database.query.PageRequest;
+import com.clicktravel.cheddar.infrastructure.persistence.database.query.PagedResult;
 import com.clicktravel.cheddar.infrastructure.persistence.database.query.Query;
+import com.clicktravel.cheddar.infrastructure.persistence.database.query.SortOrder;
 
 public abstract class AbstractDatabaseTemplate implements DatabaseTemplate {
 
+    /**
+     * Stops reading from the store as soon as a second matching item is found
+     */
     @Override
     public <T extends Item> T fetchUnique(final Query query, final Class<T> itemClass) throws NonUniqueResultException {
-        final Collection<T> items = this.fetch(query, itemClass);
+        final List<T> items;
+        try (final Stream<T> stream = this.stream(query, itemClass)) {
+            items = stream.limit(2).collect(Collectors.toList());
+        }
         if (items.size() != 1) {
             throw new NonUniqueResultException(itemClass, items);
         }
-        return items.iterator().next();
+        return items.get(0);
+    }
+
+    /**
+     * Default implementation which reads the item with no properties other than its key
+     */
+    @Override
+    public <T extends Item> boolean exists(final ItemId itemId, final Class<T> itemClass) {
+        try {
+            read(itemId, itemClass, Collections.<String> emptyList());
+            return true;
+        } catch (final NonExistentItemException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Default implementation which reads every property of the item. Implementations able to read only some
+     * properties should override this.
+     */
+    @Override
+    public <T extends Item> T read(final ItemId itemId, final Class<T> itemClass,
+            final Collection<String> propertyNames) throws NonExistentItemException {
+        return this.read(itemId, itemClass);
+    }
+
+    /**
+     * Default implementation which fetches every property of the items. Implementations able to read only some
+     * properties should override this.
+     */
+    @Override
+    public <T extends Item> Collection<T> fetch(final Query query, final Class<T> itemClass,
+            final Collection<String> propertyNames) {
+        return this.fetch(query, itemClass);
+    }
+
+    /**
+     * Default implementation which pages the result of {@link #fetch(Query, Class)} in memory, ordering the items of a
+     * {@link CompoundAttributeQuery} by its supporting attribute. The cursor is the position of the next page in the
+     * result, so items created or deleted between requests may shift the pages that follow.
+     */
+    @Override
+    public <T extends Item> PagedResult<T> fetch(final Query query, final Class<T> itemClass,
+            final PageRequest pageRequest) {
+        final List<T> items = new ArrayList<>(this.fetch(query, itemClass));
+        if (query instanceof CompoundAttributeQuery) {
+            final String supportingAttributeName = ((CompoundAttributeQuery) query).getSupportingAttributeName();
+            items.sort((item1, item2) -> compare(propertyValue(item1, supportingAttributeName),
+                    propertyValue(item2, supportingAttributeName)));
+        }
+        if (pageRequest.getSortOrder() == SortOrder.DESCENDING) {
+            Collections.reverse(items);
+        }
+        final int fromIndex = Math.min(items.size(), position(pageRequest.getCursor()));
+        final int toIndex = Math.min(items.size(), fromIndex + pageRequest.getLimit());
+        return new PagedResult<>(new ArrayList<>(items.subList(fromIndex, toIndex)),
+                toIndex < items.size() ? String.valueOf(toIndex) : null);
+    }
+
+    private static int position(final String cursor) {
+        if (cursor == null) {
+            return 0;
+        }
+        try {
+            final int position = Integer.parseInt(cursor);
+            if (position < 0) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            return position;
+        } catch (final NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+
+    private static Object propertyValue(final Item item, final String propertyName) {
+        try {
+            return new PropertyDescriptor(propertyName, item.getClass()).getReadMethod().invoke(item);
+        } catch (final IntrospectionException | ReflectiveOperationException e) {
+            throw new IllegalStateException(
+                    "No getter for property [" + propertyName + "] on class: [" + item.getClass() + "]", e);
+        }
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static int compare(final Object value1, final Object value2) {
+        if (value1 == null) {
+            return value2 == null ? 0 : -1;
+        }
+        if (value2 == null) {
+            return 1;
+        }
+        if (value1 instanceof Comparable) {
+            return ((Comparable) value1).compareTo(value2);
+        }
+        return String.valueOf(value1).compareTo(String.valueOf(value2));
+    }
+
+    /**
+     * Default implementation which materializes the result of {@link #fetch(Query, Class)}. Implementations able to
+     * read results incrementally should override this.
+     */
+    @Override
+    public <T extends Item> Stream<T> stream(final Query query, final Class<T> itemClass) {
+        return this.fetch(query, itemClass).stream();
+    }
+
+    /**
+     * Default implementation which counts the items of {@link #stream(Query, Class)}. Implementations able to count
+     * items without reading them should override this.
+     */
+    @Override
+    public <T extends Item> long count(final Query query, final Class<T> itemClass) {
+        try (final Stream<T> stream = this.stream(query, itemClass)) {
+            return stream.count();
+        }
+    }
+
+    /**
+     * Default implementation which fetches the items of each class in turn with a {@link KeySetQuery}.
+     * Implementations able to read the keys of several classes together should override this.
+     */
+    @Override
+    public Map<Class<? extends Item>, Collection<? extends Item>> fetch(
+            final Map<Class<? extends Item>, Collection<ItemId>> itemIds) {
+        final Map<Class<? extends Item>, Collection<? extends Item>> items = new LinkedHashMap<>();
+        for (final Map.Entry<Class<? extends Item>, Collection<ItemId>> entry : itemIds.entrySet()) {
+            items.put(entry.getKey(), this.fetch(new KeySetQuery(entry.getValue()), entry.getKey()));
+        }
+        return items;
     }
 
 }
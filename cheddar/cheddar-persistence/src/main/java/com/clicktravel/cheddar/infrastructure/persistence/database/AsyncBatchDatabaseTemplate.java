@@ -0,0 +1,39 @@
+/*
+ * Copyright 2014 Click Travel Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.clicktravel.cheddar.infrastructure.persistence.database;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Asynchronous counterpart of {@link BatchDatabaseTemplate}
+ */
+public interface AsyncBatchDatabaseTemplate extends AsyncDatabaseTemplate {
+
+    /**
+     * @see BatchDatabaseTemplate#batchWrite(List, Class)
+     */
+    <T extends Item> CompletableFuture<List<T>> batchWrite(final List<T> items, final Class<T> itemClass);
+
+    /**
+     * @see BatchDatabaseTemplate#batchDelete(Collection, Class)
+     */
+    <T extends Item> CompletableFuture<List<ItemId>> batchDelete(final Collection<ItemId> itemIds,
+            final Class<T> itemClass);
+
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2014 Click Travel Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.clicktravel.cheddar.infrastructure.persistence.database;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import com.clicktravel.cheddar.infrastructure.persistence.database.exception.handler.PersistenceExceptionHandler;
+import com.clicktravel.cheddar.infrastructure.persistence.database.query.PageRequest;
+import com.clicktravel.cheddar.infrastructure.persistence.database.query.PagedResult;
+import com.clicktravel.cheddar.infrastructure.persistence.database.query.Query;
+
+/**
+ * Asynchronous counterpart of {@link DatabaseTemplate}. Each operation returns straight away with a future of its
+ * result. A failed operation completes its future exceptionally with the same exception the corresponding
+ * {@link DatabaseTemplate} operation would throw, e.g. a
+ * {@link com.clicktravel.cheddar.infrastructure.persistence.database.exception.NonExistentItemException} or
+ * {@link com.clicktravel.cheddar.infrastructure.persistence.database.exception.OptimisticLockException}.
+ */
+public interface AsyncDatabaseTemplate {
+
+    <T extends Item> CompletableFuture<T> read(final ItemId itemId, Class<T> itemClass);
+
+    <T extends Item> CompletableFuture<T> read(final ItemId itemId, Class<T> itemClass,
+            Collection<String> propertyNames);
+
+    <T extends Item> CompletableFuture<Boolean> exists(final ItemId itemId, Class<T> itemClass);
+
+    <T extends Item> CompletableFuture<T> create(T item, PersistenceExceptionHandler<?>... persistenceExceptionHandlers);
+
+    <T extends Item> CompletableFuture<T> update(T item, PersistenceExceptionHandler<?>... persistenceExceptionHandlers);
+
+    CompletableFuture<Void> delete(Item item, PersistenceExceptionHandler<?>... persistenceExceptionHandlers);
+
+    <T extends Item> CompletableFuture<Collection<T>> fetch(final Query query, Class<T> itemClass);
+
+    <T extends Item> CompletableFuture<Collection<T>> fetch(final Query query, Class<T> itemClass,
+            Collection<String> propertyNames);
+
+    <T extends Item> CompletableFuture<PagedResult<T>> fetch(final Query query, Class<T> itemClass,
+            PageRequest pageRequest);
+
+    CompletableFuture<Map<Class<? extends Item>, Collection<? extends Item>>> fetch(
+            Map<Class<? extends Item>, Collection<ItemId>> itemIds);
+
+    <T extends Item> CompletableFuture<T> fetchUnique(final Query query, Class<T> itemClass);
+
+    <T extends Item> CompletableFuture<Long> count(final Query query, Class<T> itemClass);
+
+    CompletableFuture<GeneratedKeyHolder> generateKeys(SequenceKeyGenerator sequenceKeyGenerator);
+
+}
@@ -16,19 +16,32 @@
  */
 package com.clicktravel.cheddar.infrastructure.persistence.database;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface BatchDatabaseTemplate extends DatabaseTemplate {
     /**
-     * Batch write a list of items (max 25) to the store. This operation is non-transactional, does not support unique
-     * constraints and does not support optimistic locking. These must be taken into consideration when implementing
-     * this operation.
+     * Batch write a list of items, of any size, to the store. This operation is non-transactional, does not support
+     * unique constraints and does not support optimistic locking. These must be taken into consideration when
+     * implementing this operation. Items the store does not accept straight away are retried until they are written
+     * or the store's retry deadline passes.
      * @param items - a list of items to be batch written
      * @param itemClass - the class of the item being batch written. This allows us to reject any batch writes for a
      *            class that has unique constraints.
-     * @return a list of the successfully written items from the batch. Any unsuccessful writes are removed before
-     *         returning.
+     * @return a list of the successfully written items, in the order given. Any items which could not be written are
+     *         absent from this list and keep their original version.
      */
     <T extends Item> List<T> batchWrite(final List<T> items, final Class<T> itemClass);
 
+    /**
+     * Batch delete items, of any number, from the store. As with {@link #batchWrite(List, Class)} this operation is
+     * non-transactional, does not support unique constraints and does not support optimistic locking. Deleting an item
+     * which does not exist is not an error.
+     * @param itemIds - the ids of the items to be deleted
+     * @param itemClass - the class of the items being deleted
+     * @return the ids of the items successfully deleted. Any ids of items which could not be deleted are absent from
+     *         this list.
+     */
+    <T extends Item> List<ItemId> batchDelete(final Collection<ItemId> itemIds, final Class<T> itemClass);
+
 }
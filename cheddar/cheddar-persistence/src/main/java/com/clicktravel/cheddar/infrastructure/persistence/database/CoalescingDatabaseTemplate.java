@@ -0,0 +1,279 @@
+/*
+ * Copyright 2014 Click Travel Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.clicktravel.cheddar.infrastructure.persistence.database;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+import com.clicktravel.cheddar.infrastructure.persistence.database.exception.NonExistentItemException;
+import com.clicktravel.cheddar.infrastructure.persistence.database.exception.NonUniqueResultException;
+import com.clicktravel.cheddar.infrastructure.persistence.database.exception.handler.PersistenceExceptionHandler;
+import com.clicktravel.cheddar.infrastructure.persistence.database.query.KeySetQuery;
+import com.clicktravel.cheddar.infrastructure.persistence.database.query.PageRequest;
+import com.clicktravel.cheddar.infrastructure.persistence.database.query.PagedResult;
+import com.clicktravel.cheddar.infrastructure.persistence.database.query.Query;
+
+/**
+ * Decorates a {@link DatabaseTemplate} so that concurrent identical reads share one request. While a
+ * {@link #read(ItemId, Class)} or {@link KeySetQuery} fetch is in flight, the same call made on other threads waits for
+ * its result instead of making its own request. A call waits at most the configured time, after which it makes its own
+ * request. All other operations are delegated unchanged.
+ *
+ * Only reads of {@link Serializable} item classes are shared. Each waiting call receives its own deep copy of the
+ * items read, made by serializing them, so callers never share any state; if the items cannot be copied the call
+ * makes its own request. A call never waits for a read which started before the last create, update or delete made
+ * through this template on the same thread, so a thread always reads its own writes.
+ */
+public class CoalescingDatabaseTemplate implements DatabaseTemplate {
+
+    private static final long DEFAULT_WAIT_TIMEOUT_MILLIS = 5000;
+
+    private final DatabaseTemplate databaseTemplate;
+    private final long waitTimeoutMillis;
+    private final ConcurrentMap<List<Object>, InFlightRequest> inFlightRequests = new ConcurrentHashMap<>();
+    private final AtomicLong writeCount = new AtomicLong();
+    private final ThreadLocal<Long> lastWrite = ThreadLocal.withInitial(() -> 0L);
+    private final AtomicLong collapsedCount = new AtomicLong();
+    private final AtomicLong timedOutCount = new AtomicLong();
+
+    public CoalescingDatabaseTemplate(final DatabaseTemplate databaseTemplate) {
+        this(databaseTemplate, DEFAULT_WAIT_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * @param databaseTemplate Template to read and write items through
+     * @param waitTimeoutMillis Maximum time a call waits for an identical call in flight before making its own request
+     */
+    public CoalescingDatabaseTemplate(final DatabaseTemplate databaseTemplate, final long waitTimeoutMillis) {
+        if (waitTimeoutMillis < 0) {
+            throw new IllegalArgumentException("Wait timeout must not be negative");
+        }
+        this.databaseTemplate = databaseTemplate;
+        this.waitTimeoutMillis = waitTimeoutMillis;
+    }
+
+    @Override
+    public <T extends Item> T read(final ItemId itemId, final Class<T> itemClass) throws NonExistentItemException {
+        if (!Serializable.class.isAssignableFrom(itemClass)) {
+            return databaseTemplate.read(itemId, itemClass);
+        }
+        return coalesce(Arrays.asList(itemClass, itemId), () -> databaseTemplate.read(itemId, itemClass),
+                item -> copy(item, itemClass));
+    }
+
+    @Override
+    public <T extends Item> T read(final ItemId itemId, final Class<T> itemClass,
+            final Collection<String> propertyNames) throws NonExistentItemException {
+        return databaseTemplate.read(itemId, itemClass, propertyNames);
+    }
+
+    @Override
+    public <T extends Item> boolean exists(final ItemId itemId, final Class<T> itemClass) {
+        return databaseTemplate.exists(itemId, itemClass);
+    }
+
+    @Override
+    public <T extends Item> T create(final T item, final PersistenceExceptionHandler<?>... persistenceExceptionHandlers) {
+        try {
+            return databaseTemplate.create(item, persistenceExceptionHandlers);
+        } finally {
+            recordWrite();
+        }
+    }
+
+    @Override
+    public <T extends Item> T update(final T item, final PersistenceExceptionHandler<?>... persistenceExceptionHandlers) {
+        try {
+            return databaseTemplate.update(item, persistenceExceptionHandlers);
+        } finally {
+            recordWrite();
+        }
+    }
+
+    @Override
+    public void delete(final Item item, final PersistenceExceptionHandler<?>... persistenceExceptionHandlers) {
+        try {
+            databaseTemplate.delete(item, persistenceExceptionHandlers);
+        } finally {
+            recordWrite();
+        }
+    }
+
+    @Override
+    public <T extends Item> Collection<T> fetch(final Query query, final Class<T> itemClass) {
+        if (!(query instanceof KeySetQuery) || !Serializable.class.isAssignableFrom(itemClass)) {
+            return databaseTemplate.fetch(query, itemClass);
+        }
+        return coalesce(Arrays.asList(itemClass, query), () -> databaseTemplate.fetch(query, itemClass),
+                items -> copy(items, itemClass));
+    }
+
+    @Override
+    public <T extends Item> Collection<T> fetch(final Query query, final Class<T> itemClass,
+            final Collection<String> propertyNames) {
+        return databaseTemplate.fetch(query, itemClass, propertyNames);
+    }
+
+    @Override
+    public <T extends Item> PagedResult<T> fetch(final Query query, final Class<T> itemClass,
+            final PageRequest pageRequest) {
+        return databaseTemplate.fetch(query, itemClass, pageRequest);
+    }
+
+    @Override
+    public <T extends Item> Stream<T> stream(final Query query, final Class<T> itemClass) {
+        return databaseTemplate.stream(query, itemClass);
+    }
+
+    @Override
+    public <T extends Item> long count(final Query query, final Class<T> itemClass) {
+        return databaseTemplate.count(query, itemClass);
+    }
+
+    @Override
+    public Map<Class<? extends Item>, Collection<? extends Item>> fetch(
+            final Map<Class<? extends Item>, Collection<ItemId>> itemIds) {
+        return databaseTemplate.fetch(itemIds);
+    }
+
+    @Override
+    public <T extends Item> T fetchUnique(final Query query, final Class<T> itemClass) throws NonUniqueResultException {
+        return databaseTemplate.fetchUnique(query, itemClass);
+    }
+
+    @Override
+    public GeneratedKeyHolder generateKeys(final SequenceKeyGenerator sequenceKeyGenerator) {
+        return databaseTemplate.generateKeys(sequenceKeyGenerator);
+    }
+
+    /**
+     * @return Number of calls served by the result of an identical call already in flight
+     */
+    public long collapsedCount() {
+        return collapsedCount.get();
+    }
+
+    /**
+     * @return Number of calls which gave up waiting for an identical call in flight and made their own request
+     */
+    public long timedOutCount() {
+        return timedOutCount.get();
+    }
+
+    private void recordWrite() {
+        lastWrite.set(writeCount.incrementAndGet());
+    }
+
+    @SuppressWarnings("unchecked")
+    private <R> R coalesce(final List<Object> key, final Supplier<R> request, final UnaryOperator<R> copy) {
+        final InFlightRequest inFlightRequest = new InFlightRequest(writeCount.get());
+        final InFlightRequest identicalRequest = inFlightRequests.putIfAbsent(key, inFlightRequest);
+        if (identicalRequest != null) {
+            if (identicalRequest.writesBefore < lastWrite.get()) {
+                return request.get();
+            }
+            final R result;
+            try {
+                result = (R) identicalRequest.future.get(waitTimeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (final TimeoutException e) {
+                timedOutCount.incrementAndGet();
+                return request.get();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for identical read in flight", e);
+            } catch (final ExecutionException e) {
+                collapsedCount.incrementAndGet();
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw new IllegalStateException(e.getCause());
+            }
+            final R resultCopy;
+            try {
+                resultCopy = copy.apply(result);
+            } catch (final UncheckedIOException e) {
+                return request.get();
+            }
+            collapsedCount.incrementAndGet();
+            return resultCopy;
+        }
+        try {
+            final R result = request.get();
+            inFlightRequest.future.complete(result);
+            return result;
+        } catch (final RuntimeException | Error e) {
+            inFlightRequest.future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlightRequests.remove(key, inFlightRequest);
+        }
+    }
+
+    /**
+     * @param item Item, or collection of items, to copy
+     * @param itemClass Class of the items, whose class loader resolves the classes of the copy
+     * @return Deep copy of the item or collection of items, made by serializing it
+     * @throws UncheckedIOException If the item cannot be serialized and deserialized
+     */
+    @SuppressWarnings("unchecked")
+    private <R> R copy(final R item, final Class<?> itemClass) {
+        if (item == null) {
+            return null;
+        }
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (final ObjectOutputStream objectOutputStream = new ObjectOutputStream(bytes)) {
+            objectOutputStream.writeObject(item instanceof Collection ? new ArrayList<>((Collection<?>) item) : item);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        final ClassLoader classLoader = itemClass.getClassLoader();
+        try (final ObjectInputStream objectInputStream = new ObjectInputStream(
+                new ByteArrayInputStream(bytes.toByteArray())) {
+            @Override
+            protected Class<?> resolveClass(final ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+                try {
+                    return Class.forName(desc.getName(), false, classLoader);
+                } catch (final ClassNotFoundException e) {
+                    return super.resolveClass(desc);
+                }
+            }
+        }) {
+            return (R) objectInputStream.readObject();
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (final ClassNotFoundException e) {
+            throw new UncheckedIOException(new IOException(e));
+        }
+    }
+
+    private static class InFlightRequest {
+
+        private final CompletableFuture<Object> future = new CompletableFuture<>();
+        private final long writesBefore;
+
+        private InFlightRequest(final long writesBefore) {
+            this.writesBefore = writesBefore;
+        }
+
+    }
+
+}
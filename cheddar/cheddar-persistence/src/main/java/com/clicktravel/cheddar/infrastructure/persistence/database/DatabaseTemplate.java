@@ -17,10 +17,14 @@
 package com.clicktravel.cheddar.infrastructure.persistence.database;
 
 import java.util.Collection;
+import java.util.Map;
+import java.util.stream.Stream;
 
 import com.clicktravel.cheddar.infrastructure.persistence.database.exception.NonExistentItemException;
 import com.clicktravel.cheddar.infrastructure.persistence.database.exception.NonUniqueResultException;
 import com.clicktravel.cheddar.infrastructure.persistence.database.exception.handler.PersistenceExceptionHandler;
+import com.clicktravel.cheddar.infrastructure.persistence.database.query.PageRequest;
+import com.clicktravel.cheddar.infrastructure.persistence.database.query.PagedResult;
 import com.clicktravel.cheddar.infrastructure.persistence.database.query.Query;
 
 public interface DatabaseTemplate {
@@ -34,6 +38,27 @@ public interface DatabaseTemplate {
      */
     <T extends Item> T read(final ItemId itemId, Class<T> itemClass) throws NonExistentItemException;
 
+    /**
+     * Read a single item identified by its id from the store, populating only the named properties and those making up
+     * its key. The item returned is partial and must not be used to update the store.
+     * @param itemId Id of the item to read
+     * @param itemClass Class of the item
+     * @param propertyNames Names of the properties to read
+     * @return Item with the specified itemId and only the named properties populated
+     * @throws NonExistentItemException - this exception will be thrown if not matching item could located in the
+     *             persistence store
+     */
+    <T extends Item> T read(final ItemId itemId, Class<T> itemClass, Collection<String> propertyNames)
+            throws NonExistentItemException;
+
+    /**
+     * Check whether an item identified by its id exists in the store, without reading its properties
+     * @param itemId Id of the item
+     * @param itemClass Class of the item
+     * @return {@code true} if the item exists
+     */
+    <T extends Item> boolean exists(final ItemId itemId, Class<T> itemClass);
+
     <T extends Item> T create(T item, PersistenceExceptionHandler<?>... persistenceExceptionHandlers);
 
     <T extends Item> T update(T item, PersistenceExceptionHandler<?>... persistenceExceptionHandlers);
@@ -42,6 +67,54 @@ public interface DatabaseTemplate {
 
     <T extends Item> Collection<T> fetch(final Query query, Class<T> itemClass);
 
+    /**
+     * Fetch the items matching the query, populating only the named properties and those making up their keys. The
+     * items returned are partial and must not be used to update the store.
+     * @param query Query to execute
+     * @param itemClass Class of the items to fetch
+     * @param propertyNames Names of the properties to read
+     * @return The matching items with only the named properties populated
+     */
+    <T extends Item> Collection<T> fetch(final Query query, Class<T> itemClass, Collection<String> propertyNames);
+
+    /**
+     * Fetch a single page of the items matching the query. Items are ordered by the supporting attribute of the key or
+     * index queried, so a {@link com.clicktravel.cheddar.infrastructure.persistence.database.query.CompoundAttributeQuery}
+     * can select a range of them, such as the latest few.
+     * @param query Query to execute
+     * @param itemClass Class of the items to fetch
+     * @param pageRequest Maximum number of items, their order and the cursor of the previous page if any
+     * @return The items in the page with the cursor of the next page, if any
+     */
+    <T extends Item> PagedResult<T> fetch(final Query query, Class<T> itemClass, PageRequest pageRequest);
+
+    /**
+     * Fetch the items matching the query as a lazily evaluated stream. Items are read from the store page by page as
+     * the stream is consumed, so the full result is never held in memory at once. The stream should be closed if it is
+     * not consumed fully, to release any read in progress.
+     * @param query Query to execute
+     * @param itemClass Class of the items to fetch
+     * @return Stream of the matching items
+     */
+    <T extends Item> Stream<T> stream(final Query query, Class<T> itemClass);
+
+    /**
+     * Count the items matching the query without returning them
+     * @param query Query to execute
+     * @param itemClass Class of the items to count
+     * @return Number of matching items
+     */
+    <T extends Item> long count(final Query query, Class<T> itemClass);
+
+    /**
+     * Fetch the items of several classes identified by their ids, reading the keys of every class together in as few
+     * requests to the store as possible. Items which do not exist are absent from the result.
+     * @param itemIds Ids of the items to fetch, by item class
+     * @return The items fetched, by item class, with an entry for every class requested
+     */
+    Map<Class<? extends Item>, Collection<? extends Item>> fetch(
+            Map<Class<? extends Item>, Collection<ItemId>> itemIds);
+
     <T extends Item> T fetchUnique(final Query query, Class<T> itemClass) throws NonUniqueResultException;
 
     GeneratedKeyHolder generateKeys(SequenceKeyGenerator sequenceKeyGenerator);
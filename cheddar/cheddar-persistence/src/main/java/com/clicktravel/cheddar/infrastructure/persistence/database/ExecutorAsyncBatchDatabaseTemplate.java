@@ -0,0 +1,50 @@
+/*
+ * Copyright 2014 Click Travel Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.clicktravel.cheddar.infrastructure.persistence.database;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Adapts a {@link BatchDatabaseTemplate} to {@link AsyncBatchDatabaseTemplate} by running each operation on an
+ * executor
+ */
+public class ExecutorAsyncBatchDatabaseTemplate extends ExecutorAsyncDatabaseTemplate implements
+        AsyncBatchDatabaseTemplate {
+
+    private final BatchDatabaseTemplate batchDatabaseTemplate;
+
+    public ExecutorAsyncBatchDatabaseTemplate(final BatchDatabaseTemplate batchDatabaseTemplate,
+            final Executor executor) {
+        super(batchDatabaseTemplate, executor);
+        this.batchDatabaseTemplate = batchDatabaseTemplate;
+    }
+
+    @Override
+    public <T extends Item> CompletableFuture<List<T>> batchWrite(final List<T> items, final Class<T> itemClass) {
+        return submit(() -> batchDatabaseTemplate.batchWrite(items, itemClass));
+    }
+
+    @Override
+    public <T extends Item> CompletableFuture<List<ItemId>> batchDelete(final Collection<ItemId> itemIds,
+            final Class<T> itemClass) {
+        return submit(() -> batchDatabaseTemplate.batchDelete(itemIds, itemClass));
+    }
+
+}
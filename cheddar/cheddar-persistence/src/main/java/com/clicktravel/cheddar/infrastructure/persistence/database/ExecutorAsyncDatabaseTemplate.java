@@ -0,0 +1,135 @@
+/*
+ * Copyright 2014 Click Travel Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.clicktravel.cheddar.infrastructure.persistence.database;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+import com.clicktravel.cheddar.infrastructure.persistence.database.exception.handler.PersistenceExceptionHandler;
+import com.clicktravel.cheddar.infrastructure.persistence.database.query.PageRequest;
+import com.clicktravel.cheddar.infrastructure.persistence.database.query.PagedResult;
+import com.clicktravel.cheddar.infrastructure.persistence.database.query.Query;
+
+/**
+ * Adapts a {@link DatabaseTemplate} to {@link AsyncDatabaseTemplate} by running each operation on an executor. A
+ * failed operation completes its future exceptionally with the exception thrown by the template, unwrapped.
+ */
+public class ExecutorAsyncDatabaseTemplate implements AsyncDatabaseTemplate {
+
+    private final DatabaseTemplate databaseTemplate;
+    private final Executor executor;
+
+    public ExecutorAsyncDatabaseTemplate(final DatabaseTemplate databaseTemplate, final Executor executor) {
+        this.databaseTemplate = databaseTemplate;
+        this.executor = executor;
+    }
+
+    @Override
+    public <T extends Item> CompletableFuture<T> read(final ItemId itemId, final Class<T> itemClass) {
+        return submit(() -> databaseTemplate.read(itemId, itemClass));
+    }
+
+    @Override
+    public <T extends Item> CompletableFuture<T> read(final ItemId itemId, final Class<T> itemClass,
+            final Collection<String> propertyNames) {
+        return submit(() -> databaseTemplate.read(itemId, itemClass, propertyNames));
+    }
+
+    @Override
+    public <T extends Item> CompletableFuture<Boolean> exists(final ItemId itemId, final Class<T> itemClass) {
+        return submit(() -> databaseTemplate.exists(itemId, itemClass));
+    }
+
+    @Override
+    public <T extends Item> CompletableFuture<T> create(final T item,
+            final PersistenceExceptionHandler<?>... persistenceExceptionHandlers) {
+        return submit(() -> databaseTemplate.create(item, persistenceExceptionHandlers));
+    }
+
+    @Override
+    public <T extends Item> CompletableFuture<T> update(final T item,
+            final PersistenceExceptionHandler<?>... persistenceExceptionHandlers) {
+        return submit(() -> databaseTemplate.update(item, persistenceExceptionHandlers));
+    }
+
+    @Override
+    public CompletableFuture<Void> delete(final Item item,
+            final PersistenceExceptionHandler<?>... persistenceExceptionHandlers) {
+        return submit(() -> {
+            databaseTemplate.delete(item, persistenceExceptionHandlers);
+            return null;
+        });
+    }
+
+    @Override
+    public <T extends Item> CompletableFuture<Collection<T>> fetch(final Query query, final Class<T> itemClass) {
+        return submit(() -> databaseTemplate.fetch(query, itemClass));
+    }
+
+    @Override
+    public <T extends Item> CompletableFuture<Collection<T>> fetch(final Query query, final Class<T> itemClass,
+            final Collection<String> propertyNames) {
+        return submit(() -> databaseTemplate.fetch(query, itemClass, propertyNames));
+    }
+
+    @Override
+    public <T extends Item> CompletableFuture<PagedResult<T>> fetch(final Query query, final Class<T> itemClass,
+            final PageRequest pageRequest) {
+        return submit(() -> databaseTemplate.fetch(query, itemClass, pageRequest));
+    }
+
+    @Override
+    public CompletableFuture<Map<Class<? extends Item>, Collection<? extends Item>>> fetch(
+            final Map<Class<? extends Item>, Collection<ItemId>> itemIds) {
+        return submit(() -> databaseTemplate.fetch(itemIds));
+    }
+
+    @Override
+    public <T extends Item> CompletableFuture<T> fetchUnique(final Query query, final Class<T> itemClass) {
+        return submit(() -> databaseTemplate.fetchUnique(query, itemClass));
+    }
+
+    @Override
+    public <T extends Item> CompletableFuture<Long> count(final Query query, final Class<T> itemClass) {
+        return submit(() -> databaseTemplate.count(query, itemClass));
+    }
+
+    @Override
+    public CompletableFuture<GeneratedKeyHolder> generateKeys(final SequenceKeyGenerator sequenceKeyGenerator) {
+        return submit(() -> databaseTemplate.generateKeys(sequenceKeyGenerator));
+    }
+
+    protected final <R> CompletableFuture<R> submit(final Supplier<R> operation) {
+        final CompletableFuture<R> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                try {
+                    future.complete(operation.get());
+                } catch (final Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (final RuntimeException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+}
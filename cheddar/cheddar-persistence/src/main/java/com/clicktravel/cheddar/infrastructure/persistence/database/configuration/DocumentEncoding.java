@@ -0,0 +1,36 @@
+/*
+ * Copyright 2014 Click Travel Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.clicktravel.cheddar.infrastructure.persistence.database.configuration;
+
+/**
+ * How a document store holds the properties of an item
+ */
+public enum DocumentEncoding {
+
+    /**
+     * Each property is held as a separate attribute
+     */
+    ATTRIBUTES,
+
+    /**
+     * The whole item is held as one compact binary value. Key and indexed properties are also held as separate
+     * attributes, so that items can still be looked up by them; other properties cannot be used in query conditions.
+     * Items held as attributes can still be read.
+     */
+    BINARY
+
+}
@@ -25,7 +25,9 @@ import java.lang.reflect.Method;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 
 import com.clicktravel.cheddar.infrastructure.persistence.database.Item;
 import com.clicktravel.cheddar.infrastructure.persistence.database.ItemId;
@@ -38,6 +40,12 @@ public class ItemConfiguration {
     private final Map<String, PropertyDescriptor> properties = new HashMap<>();
     private final Map<String, IndexDefinition> indexDefinitions;
     private final Map<String, UniqueConstraint> uniqueConstraints;
+    private int scanSegments = 1;
+    private long cacheTtlSeconds;
+    private final Set<String> compressedPropertyNames = new HashSet<>();
+    private int compressionThreshold;
+    private DocumentEncoding documentEncoding = DocumentEncoding.ATTRIBUTES;
+    private boolean unconditionalWrites;
 
     public ItemConfiguration(final Class<? extends Item> itemClass, final String tableName) {
         this(itemClass, tableName, new PrimaryKeyDefinition("id"));
@@ -93,6 +101,16 @@ public class ItemConfiguration {
             }
             final Class<?> propertyType = propertyDescriptor.getPropertyType();
             indexDefinition.setPropertyType(propertyType);
+            if (CompoundIndexDefinition.class.isAssignableFrom(indexDefinition.getClass())) {
+                final CompoundIndexDefinition compoundIndexDefinition = (CompoundIndexDefinition) indexDefinition;
+                final String indexSupportingPropertyName = compoundIndexDefinition.supportingPropertyName();
+                final PropertyDescriptor supportingPropertyDescriptor = properties.get(indexSupportingPropertyName);
+                if (supportingPropertyDescriptor == null) {
+                    throw new IllegalStateException(
+                            "No property found '" + indexSupportingPropertyName + "' for item :" + itemClass);
+                }
+                compoundIndexDefinition.setSupportingPropertyType(supportingPropertyDescriptor.getPropertyType());
+            }
             this.indexDefinitions.put(indexPropertyName, indexDefinition);
         }
     }
@@ -110,11 +128,136 @@ public class ItemConfiguration {
         }
     }
 
+    /**
+     * Sets the number of segments a full table scan for this item class is split into, each segment being read in
+     * parallel. Defaults to 1, i.e. a sequential scan.
+     * @param scanSegments Number of scan segments, at least 1
+     */
+    public void setScanSegments(final int scanSegments) {
+        if (scanSegments < 1) {
+            throw new IllegalArgumentException("Scan segments must be at least 1 for item :" + itemClass);
+        }
+        this.scanSegments = scanSegments;
+    }
+
+    /**
+     * Sets how long items of this class read through a caching template are held in its item cache. Defaults to 0,
+     * i.e. items of this class are not cached. Items cached must be storable by the cache, e.g. serializable.
+     * @param cacheTtlSeconds Time to live of cached items in seconds, or 0 to not cache them
+     */
+    public void setCacheTtlSeconds(final long cacheTtlSeconds) {
+        if (cacheTtlSeconds < 0) {
+            throw new IllegalArgumentException("Cache TTL must not be negative for item :" + itemClass);
+        }
+        this.cacheTtlSeconds = cacheTtlSeconds;
+    }
+
+    /**
+     * Registers properties whose string values are always stored compressed, where the database supports it. Key,
+     * indexed and unique constraint properties cannot be compressed, nor can compressed properties be used in query
+     * conditions.
+     * @param propertyNames Names of the properties to compress
+     */
+    public void registerCompressedProperties(final Collection<String> propertyNames) {
+        for (final String propertyName : propertyNames) {
+            if (!properties.containsKey(propertyName)) {
+                throw new IllegalStateException("No property found '" + propertyName + "' for item :" + itemClass);
+            }
+            if (!isCompressible(propertyName)) {
+                throw new IllegalArgumentException(
+                        "Key, indexed or unique property '" + propertyName + "' cannot be compressed for item :"
+                                + itemClass);
+            }
+            compressedPropertyNames.add(propertyName);
+        }
+    }
+
+    /**
+     * Sets the length, in characters, from which the string value of any property which can be compressed is stored
+     * compressed, where the database supports it. Defaults to 0, i.e. only registered compressed properties are
+     * compressed.
+     * @param compressionThreshold Length from which values are compressed, or 0 to not compress by length
+     */
+    public void setCompressionThreshold(final int compressionThreshold) {
+        if (compressionThreshold < 0) {
+            throw new IllegalArgumentException("Compression threshold must not be negative for item :" + itemClass);
+        }
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    /**
+     * @param propertyName Name of a property
+     * @return Length from which the string values of the property are stored compressed, or -1 if they are never
+     *         compressed
+     */
+    public int compressionThreshold(final String propertyName) {
+        if (!properties.containsKey(propertyName) || !isCompressible(propertyName)) {
+            return -1;
+        }
+        if (compressedPropertyNames.contains(propertyName)) {
+            return 0;
+        }
+        return compressionThreshold > 0 ? compressionThreshold : -1;
+    }
+
+    /**
+     * Sets how items of this class are held by a document store. Defaults to {@link DocumentEncoding#ATTRIBUTES}.
+     * @param documentEncoding Encoding of the items in a document store
+     */
+    public void setDocumentEncoding(final DocumentEncoding documentEncoding) {
+        if (documentEncoding == null) {
+            throw new IllegalArgumentException("Document encoding must be set for item :" + itemClass);
+        }
+        this.documentEncoding = documentEncoding;
+    }
+
+    /**
+     * Allows creates and deletes of items of this class made within a transaction to be applied on commit without
+     * checking that the item does not already exist, or that its version is unchanged, so that they can be batched.
+     * Defaults to {@code false}. Items of classes with unique constraints are always written with their checks.
+     * @param unconditionalWrites {@code true} to allow creates and deletes to be applied without their checks
+     */
+    public void setUnconditionalWrites(final boolean unconditionalWrites) {
+        this.unconditionalWrites = unconditionalWrites;
+    }
+
+    private boolean isCompressible(final String propertyName) {
+        if (hasIndexOn(propertyName) || uniqueConstraints.containsKey(propertyName)
+                || propertyName.equals(supportingPropertyName(primaryKeyDefinition.propertyName()))) {
+            return false;
+        }
+        for (final IndexDefinition indexDefinition : indexDefinitions.values()) {
+            if (propertyName.equals(supportingPropertyName(indexDefinition.propertyName()))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     public boolean hasIndexOn(final String propertyName) {
         return primaryKeyDefinition.propertyName().equals(propertyName)
                 || indexDefinitions().stream().map(IndexDefinition::propertyName).anyMatch(propertyName::equals);
     }
 
+    /**
+     * @param propertyName Name of a property with an index, either the primary key or an index definition
+     * @return The name of the supporting property ordering the items indexed by the property, or {@code null} if the
+     *         key or index on the property is not compound
+     */
+    public String supportingPropertyName(final String propertyName) {
+        if (primaryKeyDefinition.propertyName().equals(propertyName)) {
+            if (CompoundPrimaryKeyDefinition.class.isAssignableFrom(primaryKeyDefinition.getClass())) {
+                return ((CompoundPrimaryKeyDefinition) primaryKeyDefinition).supportingPropertyName();
+            }
+            return null;
+        }
+        final IndexDefinition indexDefinition = indexDefinitions.get(propertyName);
+        if (indexDefinition != null && CompoundIndexDefinition.class.isAssignableFrom(indexDefinition.getClass())) {
+            return ((CompoundIndexDefinition) indexDefinition).supportingPropertyName();
+        }
+        return null;
+    }
+
     public ItemId getItemId(final Item item) {
         final Method readMethod = properties.get(primaryKeyDefinition.propertyName()).getReadMethod();
         try {
@@ -159,4 +302,24 @@ public class ItemConfiguration {
         return Collections.unmodifiableCollection(uniqueConstraints.values());
     }
 
+    public int scanSegments() {
+        return scanSegments;
+    }
+
+    public long cacheTtlSeconds() {
+        return cacheTtlSeconds;
+    }
+
+    public DocumentEncoding documentEncoding() {
+        return documentEncoding;
+    }
+
+    /**
+     * @return {@code true} if creates and deletes of items of this class may be applied without their checks, as they
+     *         have no unique constraints and unconditional writes are allowed
+     */
+    public boolean unconditionalWrites() {
+        return unconditionalWrites && uniqueConstraints.isEmpty();
+    }
+
 }
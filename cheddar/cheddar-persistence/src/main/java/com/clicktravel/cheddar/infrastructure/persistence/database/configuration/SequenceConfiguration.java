@@ -21,6 +21,12 @@ package com.clicktravel.cheddar.infrastructure.persistence.database.configuratio
  *
  * Underlying database mechanisms may use this configuration to create sequences and seed them with a starting value.
  * The sequence name is typically unique within the context of the database schema.
+ *
+ * A block size greater than one allows keys to be reserved from the database a block at a time and handed out
+ * locally; keys in a block left unused when the application stops are never issued. A shard count greater than one
+ * spreads the sequence over that many counters, each handing out keys from a range it reserves from the sequence, so
+ * the keys stay unique but are no longer issued in ascending order. The shard count may be changed once keys have
+ * been generated; keys left in the ranges of shards no longer used are never issued.
  */
 public class SequenceConfiguration {
 
@@ -28,16 +34,33 @@ public class SequenceConfiguration {
 
     private final long startingValue;
 
+    private final int blockSize;
+
+    private final int shardCount;
+
     public SequenceConfiguration(final String sequenceName) {
         this(sequenceName, 1);
     }
 
     public SequenceConfiguration(final String sequenceName, final long startingValue) {
+        this(sequenceName, startingValue, 1, 1);
+    }
+
+    public SequenceConfiguration(final String sequenceName, final long startingValue, final int blockSize,
+            final int shardCount) {
         if (sequenceName == null || sequenceName.isEmpty()) {
             throw new IllegalArgumentException("Sequence name must not be empty");
         }
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("Block size must be more than zero");
+        }
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("Shard count must be more than zero");
+        }
         this.sequenceName = sequenceName;
         this.startingValue = startingValue;
+        this.blockSize = blockSize;
+        this.shardCount = shardCount;
     }
 
     public String sequenceName() {
@@ -48,4 +71,12 @@ public class SequenceConfiguration {
         return startingValue;
     }
 
+    public int blockSize() {
+        return blockSize;
+    }
+
+    public int shardCount() {
+        return shardCount;
+    }
+
 }
@@ -16,7 +16,7 @@
  */
 package com.clicktravel.cheddar.infrastructure.persistence.database.query;
 
-import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.Set;
 
 public class Condition {
@@ -26,7 +26,7 @@ public class Condition {
 
     public Condition(final Operators comparisonOperator, final Set<String> values) {
         this.comparisonOperator = comparisonOperator;
-        this.values = new HashSet<>();
+        this.values = new LinkedHashSet<>();
         setValues(values);
     }
 
@@ -70,13 +70,27 @@ public class Condition {
 
     public Condition(final Operators comparisonOperator, final String value) {
         this.comparisonOperator = comparisonOperator;
-        values = new HashSet<>();
+        values = new LinkedHashSet<>();
         setValue(value);
     }
 
+    /**
+     * Creates a condition on a range of values, as needed by {@link Operators#BETWEEN}. The values are held in the
+     * order given, so the lower value is always the first value; if both are equal a single value is held.
+     * @param comparisonOperator Comparison operator
+     * @param lowerValue Lower bound of the range, inclusive
+     * @param upperValue Upper bound of the range, inclusive
+     */
+    public Condition(final Operators comparisonOperator, final String lowerValue, final String upperValue) {
+        this.comparisonOperator = comparisonOperator;
+        values = new LinkedHashSet<>();
+        values.add(lowerValue);
+        values.add(upperValue);
+    }
+
     public Condition(final Operators comparisonOperator) {
         this.comparisonOperator = comparisonOperator;
-        values = new HashSet<>();
+        values = new LinkedHashSet<>();
     }
 
     public Operators getComparisonOperator() {
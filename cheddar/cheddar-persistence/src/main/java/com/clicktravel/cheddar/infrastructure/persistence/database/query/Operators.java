@@ -23,5 +23,7 @@ public enum Operators {
     GREATER_THAN_OR_EQUALS,
     NULL,
     NOT_NULL,
+    BETWEEN,
+    BEGINS_WITH,
 
 }
\ No newline at end of file
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2014 Click Travel Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.clicktravel.cheddar.infrastructure.persistence.database.query;
+
+/**
+ * Requests a single page of the items matching a query: at most a given number of items, in a given order, continuing
+ * from the cursor returned with a previous page
+ */
+public class PageRequest {
+
+    private final int limit;
+    private final SortOrder sortOrder;
+    private final String cursor;
+
+    /**
+     * Requests the first page of items in ascending order
+     * @param limit Maximum number of items in the page
+     */
+    public PageRequest(final int limit) {
+        this(limit, SortOrder.ASCENDING, null);
+    }
+
+    /**
+     * @param limit Maximum number of items in the page
+     * @param sortOrder Order of the items
+     * @param cursor Cursor returned with the previous page, or {@code null} for the first page
+     */
+    public PageRequest(final int limit, final SortOrder sortOrder, final String cursor) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Page limit must be at least 1");
+        }
+        if (sortOrder == null) {
+            throw new IllegalArgumentException("Sort order must be specified");
+        }
+        this.limit = limit;
+        this.sortOrder = sortOrder;
+        this.cursor = cursor;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public SortOrder getSortOrder() {
+        return sortOrder;
+    }
+
+    public String getCursor() {
+        return cursor;
+    }
+
+    @Override
+    public String toString() {
+        return "PageRequest [limit=" + limit + ", sortOrder=" + sortOrder + ", cursor=" + cursor + "]";
+    }
+
+}
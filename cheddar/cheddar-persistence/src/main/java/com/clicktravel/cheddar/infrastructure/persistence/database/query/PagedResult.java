@@ -0,0 +1,54 @@
+/*
+ * Copyright 2014 Click Travel Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.clicktravel.cheddar.infrastructure.persistence.database.query;
+
+import java.util.List;
+
+/**
+ * A page of the items matching a query, with an opaque cursor from which the next page can be requested
+ */
+public class PagedResult<T> {
+
+    private final List<T> items;
+    private final String nextCursor;
+
+    /**
+     * @param items Items in this page
+     * @param nextCursor Cursor to request the next page with, or {@code null} if there are no more items
+     */
+    public PagedResult(final List<T> items, final String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    /**
+     * @return Cursor to pass in the {@link PageRequest} for the next page, or {@code null} if this is the last page. A
+     *         page read with this cursor may still be empty.
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean hasNextPage() {
+        return nextCursor != null;
+    }
+
+}
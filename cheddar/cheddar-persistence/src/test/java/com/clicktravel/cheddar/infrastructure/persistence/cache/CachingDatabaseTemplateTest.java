@@ -0,0 +1,231 @@
+/*
+ * Copyright 2014 Click Travel Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.clicktravel.cheddar.infrastructure.persistence.cache;
+
+import static com.clicktravel.common.random.Randoms.randomInt;
+import static com.clicktravel.common.random.Randoms.randomString;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.*;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.clicktravel.cheddar.infrastructure.persistence.database.DatabaseTemplate;
+import com.clicktravel.cheddar.infrastructure.persistence.database.ItemId;
+import com.clicktravel.cheddar.infrastructure.persistence.database.StubItem;
+import com.clicktravel.cheddar.infrastructure.persistence.database.configuration.DatabaseSchemaHolder;
+import com.clicktravel.cheddar.infrastructure.persistence.database.configuration.ItemConfiguration;
+import com.clicktravel.cheddar.infrastructure.persistence.database.exception.OptimisticLockException;
+import com.clicktravel.cheddar.infrastructure.persistence.database.query.KeySetQuery;
+
+public class CachingDatabaseTemplateTest {
+
+    private DatabaseTemplate mockDatabaseTemplate;
+    private ItemCache mockItemCache;
+    private String schemaName;
+    private String tableName;
+    private long cacheTtlSeconds;
+    private CachingDatabaseTemplate cachingDatabaseTemplate;
+
+    @Before
+    public void setUp() {
+        mockDatabaseTemplate = mock(DatabaseTemplate.class);
+        mockItemCache = mock(ItemCache.class);
+        schemaName = randomString(10);
+        tableName = randomString(10);
+        cacheTtlSeconds = 1 + randomInt(3600);
+        final ItemConfiguration itemConfiguration = new ItemConfiguration(StubItem.class, tableName);
+        itemConfiguration.setCacheTtlSeconds(cacheTtlSeconds);
+        cachingDatabaseTemplate = new CachingDatabaseTemplate(mockDatabaseTemplate, mockItemCache,
+                new DatabaseSchemaHolder(schemaName, Arrays.asList(itemConfiguration)));
+    }
+
+    @Test
+    public void shouldReadItem_withCachedItem() throws Exception {
+        // Given
+        final StubItem item = new StubItem();
+        final ItemId itemId = new ItemId(item.getId());
+        when(mockItemCache.getItem(eq(cacheKey(itemId)), anyLong())).thenReturn(item);
+
+        // When
+        final StubItem returnedItem = cachingDatabaseTemplate.read(itemId, StubItem.class);
+
+        // Then
+        assertSame(item, returnedItem);
+        verify(mockDatabaseTemplate, never()).read(itemId, StubItem.class);
+        assertEquals(1, cachingDatabaseTemplate.hitCount());
+        assertEquals(0, cachingDatabaseTemplate.missCount());
+    }
+
+    @Test
+    public void shouldReadItemAndCacheIt_withCacheMiss() throws Exception {
+        // Given
+        final StubItem item = new StubItem();
+        final ItemId itemId = new ItemId(item.getId());
+        when(mockDatabaseTemplate.read(itemId, StubItem.class)).thenReturn(item);
+
+        // When
+        final StubItem returnedItem = cachingDatabaseTemplate.read(itemId, StubItem.class);
+
+        // Then
+        assertSame(item, returnedItem);
+        verify(mockItemCache).putItem(cacheKey(itemId), item, cacheTtlSeconds);
+        assertEquals(0, cachingDatabaseTemplate.hitCount());
+        assertEquals(1, cachingDatabaseTemplate.missCount());
+    }
+
+    @Test
+    public void shouldNotCacheItem_withNewerVersionCached() throws Exception {
+        // Given
+        final StubItem item = new StubItem();
+        final StubItem newerItem = new StubItem();
+        newerItem.setId(item.getId());
+        newerItem.setVersion(item.getVersion() + 1);
+        final ItemId itemId = new ItemId(item.getId());
+        when(mockItemCache.getItem(eq(cacheKey(itemId)), anyLong())).thenReturn(null, newerItem);
+        when(mockDatabaseTemplate.read(itemId, StubItem.class)).thenReturn(item);
+
+        // When
+        cachingDatabaseTemplate.read(itemId, StubItem.class);
+
+        // Then
+        verify(mockItemCache, never()).putItem(anyString(), any(), anyLong());
+    }
+
+    @Test
+    public void shouldReadItemWithoutCache_withItemClassNotCached() throws Exception {
+        // Given
+        final ItemConfiguration itemConfiguration = new ItemConfiguration(StubItem.class, tableName);
+        final CachingDatabaseTemplate cachingDatabaseTemplate = new CachingDatabaseTemplate(mockDatabaseTemplate,
+                mockItemCache, new DatabaseSchemaHolder(schemaName, Arrays.asList(itemConfiguration)));
+        final StubItem item = new StubItem();
+        final ItemId itemId = new ItemId(item.getId());
+        when(mockDatabaseTemplate.read(itemId, StubItem.class)).thenReturn(item);
+
+        // When
+        final StubItem returnedItem = cachingDatabaseTemplate.read(itemId, StubItem.class);
+
+        // Then
+        assertSame(item, returnedItem);
+        verifyZeroInteractions(mockItemCache);
+    }
+
+    @Test
+    public void shouldUpdateItemAndRefreshCache_withItem() throws Exception {
+        // Given
+        final StubItem item = new StubItem();
+        final StubItem updatedItem = new StubItem();
+        updatedItem.setId(item.getId());
+        updatedItem.setVersion(item.getVersion() + 1);
+        when(mockItemCache.getItem(eq(cacheKey(new ItemId(item.getId()))), anyLong())).thenReturn(item);
+        when(mockDatabaseTemplate.update(item)).thenReturn(updatedItem);
+
+        // When
+        final StubItem returnedItem = cachingDatabaseTemplate.update(item);
+
+        // Then
+        assertSame(updatedItem, returnedItem);
+        verify(mockItemCache).putItem(cacheKey(new ItemId(item.getId())), updatedItem, cacheTtlSeconds);
+    }
+
+    @Test
+    public void shouldDeleteItemAndRemoveFromCache_withItem() throws Exception {
+        // Given
+        final StubItem item = new StubItem();
+
+        // When
+        cachingDatabaseTemplate.delete(item);
+
+        // Then
+        verify(mockDatabaseTemplate).delete(item);
+        verify(mockItemCache).removeItem(cacheKey(new ItemId(item.getId())));
+    }
+
+    @Test
+    public void shouldRemoveItemFromCache_withOptimisticLockExceptionOnUpdate() throws Exception {
+        // Given
+        final StubItem item = new StubItem();
+        when(mockDatabaseTemplate.update(item)).thenThrow(new OptimisticLockException(randomString(10)));
+
+        // When
+        OptimisticLockException actualException = null;
+        try {
+            cachingDatabaseTemplate.update(item);
+        } catch (final OptimisticLockException e) {
+            actualException = e;
+        }
+
+        // Then
+        assertNotNull(actualException);
+        verify(mockItemCache).removeItem(cacheKey(new ItemId(item.getId())));
+        verify(mockItemCache, never()).putItem(anyString(), any(), anyLong());
+    }
+
+    @Test
+    public void shouldReadItemFromDatabase_withCacheFailure() throws Exception {
+        // Given
+        final StubItem item = new StubItem();
+        final ItemId itemId = new ItemId(item.getId());
+        when(mockItemCache.getItem(eq(cacheKey(itemId)), anyLong())).thenThrow(new IllegalStateException());
+        when(mockDatabaseTemplate.read(itemId, StubItem.class)).thenReturn(item);
+
+        // When
+        final StubItem returnedItem = cachingDatabaseTemplate.read(itemId, StubItem.class);
+
+        // Then
+        assertSame(item, returnedItem);
+        assertEquals(0, cachingDatabaseTemplate.hitCount());
+        assertEquals(1, cachingDatabaseTemplate.missCount());
+    }
+
+    @Test
+    public void shouldFetchUncachedItemsOnly_withKeySetQuery() throws Exception {
+        // Given
+        final StubItem cachedItem = new StubItem();
+        final StubItem uncachedItem = new StubItem();
+        final ItemId cachedItemId = new ItemId(cachedItem.getId());
+        final ItemId uncachedItemId = new ItemId(uncachedItem.getId());
+        when(mockItemCache.getItem(eq(cacheKey(cachedItemId)), anyLong())).thenReturn(cachedItem);
+        final KeySetQuery uncachedQuery = new KeySetQuery(Arrays.asList(uncachedItemId));
+        when(mockDatabaseTemplate.fetch(uncachedQuery, StubItem.class)).thenReturn(Arrays.asList(uncachedItem));
+
+        // When
+        final Collection<StubItem> items = cachingDatabaseTemplate
+                .fetch(new KeySetQuery(Arrays.asList(cachedItemId, uncachedItemId)), StubItem.class);
+
+        // Then
+        assertEquals(2, items.size());
+        assertTrue(items.containsAll(Arrays.asList(cachedItem, uncachedItem)));
+        verify(mockItemCache).putItem(cacheKey(uncachedItemId), uncachedItem, cacheTtlSeconds);
+        assertEquals(1, cachingDatabaseTemplate.hitCount());
+        assertEquals(1, cachingDatabaseTemplate.missCount());
+    }
+
+    private String cacheKey(final ItemId itemId) {
+        return schemaName + "-" + tableName + ":" + itemId.value();
+    }
+
+}
@@ -17,18 +17,25 @@
 package com.clicktravel.cheddar.infrastructure.persistence.database;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
 
 import org.junit.Test;
 
 import com.clicktravel.cheddar.infrastructure.persistence.database.exception.NonExistentItemException;
 import com.clicktravel.cheddar.infrastructure.persistence.database.exception.NonUniqueResultException;
 import com.clicktravel.cheddar.infrastructure.persistence.database.exception.handler.PersistenceExceptionHandler;
-import com.clicktravel.cheddar.infrastructure.persistence.database.query.Query;
+import com.clicktravel.cheddar.infrastructure.persistence.database.query.*;
 
 public class AbstractDatabaseTemplateTest {
 
@@ -133,4 +140,254 @@ public class AbstractDatabaseTemplateTest {
         // Then
         assertNotNull(actualException);
     }
+
+    @Test
+    public void shouldNotFetchUnique_withUnboundedStreamFromQuery() throws Exception {
+        // Given
+        final AtomicInteger itemsRead = new AtomicInteger();
+        final AtomicBoolean streamClosed = new AtomicBoolean();
+        final Query mockQuery = mock(Query.class);
+        final AbstractDatabaseTemplate databaseTemplate = new AbstractDatabaseTemplate() {
+
+            @Override
+            public <T extends Item> T update(final T item,
+                    final PersistenceExceptionHandler<?>... persistenceExceptionHandlers) {
+                return null;
+            }
+
+            @Override
+            public <T extends Item> T read(final ItemId key, final Class<T> itemClass) throws NonExistentItemException {
+                return null;
+            }
+
+            @Override
+            public <T extends Item> Collection<T> fetch(final Query query, final Class<T> itemClass) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public <T extends Item> Stream<T> stream(final Query query, final Class<T> itemClass) {
+                return Stream.generate(() -> {
+                    itemsRead.incrementAndGet();
+                    try {
+                        return itemClass.newInstance();
+                    } catch (final ReflectiveOperationException e) {
+                        throw new IllegalStateException(e);
+                    }
+                }).onClose(() -> streamClosed.set(true));
+            }
+
+            @Override
+            public void delete(final Item item, final PersistenceExceptionHandler<?>... persistenceExceptionHandlers) {
+            }
+
+            @Override
+            public <T extends Item> T create(final T item,
+                    final PersistenceExceptionHandler<?>... persistenceExceptionHandlers) {
+                return null;
+            }
+
+            @Override
+            public GeneratedKeyHolder generateKeys(final SequenceKeyGenerator sequenceKeyGenerator) {
+                return null;
+            }
+
+        };
+
+        // When
+        NonUniqueResultException actualException = null;
+        try {
+            databaseTemplate.fetchUnique(mockQuery, StubItem.class);
+        } catch (final NonUniqueResultException e) {
+            actualException = e;
+        }
+
+        // Then
+        assertNotNull(actualException);
+        assertEquals(2, itemsRead.get());
+        assertTrue(streamClosed.get());
+    }
+
+    @Test
+    public void shouldExist_withItemRead() throws Exception {
+        // Given
+        final AbstractDatabaseTemplate databaseTemplate = readingDatabaseTemplate(true);
+
+        // When
+        final boolean exists = databaseTemplate.exists(new ItemId("id"), StubItem.class);
+
+        // Then
+        assertTrue(exists);
+    }
+
+    @Test
+    public void shouldNotExist_withNonExistentItemException() throws Exception {
+        // Given
+        final AbstractDatabaseTemplate databaseTemplate = readingDatabaseTemplate(false);
+
+        // When
+        final boolean exists = databaseTemplate.exists(new ItemId("id"), StubItem.class);
+
+        // Then
+        assertFalse(exists);
+    }
+
+    @Test
+    public void shouldFetchPages_withCompoundAttributeQueryAndDescendingOrder() throws Exception {
+        // Given
+        final StubItem item1 = stubItem("a");
+        final StubItem item2 = stubItem("c");
+        final StubItem item3 = stubItem("b");
+        final AbstractDatabaseTemplate databaseTemplate = fetchingDatabaseTemplate(Arrays.asList(item1, item2, item3));
+        final Query query = new CompoundAttributeQuery("id", new Condition(Operators.NOT_NULL), "stringProperty",
+                new Condition(Operators.NOT_NULL));
+
+        // When
+        final PagedResult<StubItem> firstPage = databaseTemplate.fetch(query, StubItem.class,
+                new PageRequest(2, SortOrder.DESCENDING, null));
+        final PagedResult<StubItem> secondPage = databaseTemplate.fetch(query, StubItem.class,
+                new PageRequest(2, SortOrder.DESCENDING, firstPage.getNextCursor()));
+
+        // Then
+        assertEquals(Arrays.asList(item2, item3), firstPage.getItems());
+        assertTrue(firstPage.hasNextPage());
+        assertEquals(Arrays.asList(item1), secondPage.getItems());
+        assertFalse(secondPage.hasNextPage());
+    }
+
+    @Test
+    public void shouldNotFetchPage_withInvalidCursor() throws Exception {
+        // Given
+        final AbstractDatabaseTemplate databaseTemplate = fetchingDatabaseTemplate(Arrays.asList(new StubItem()));
+        final Query query = new AttributeQuery("id", new Condition(Operators.NOT_NULL));
+
+        // When
+        IllegalArgumentException actualException = null;
+        try {
+            databaseTemplate.fetch(query, StubItem.class, new PageRequest(1, SortOrder.ASCENDING, "invalid"));
+        } catch (final IllegalArgumentException e) {
+            actualException = e;
+        }
+
+        // Then
+        assertNotNull(actualException);
+    }
+
+    @Test
+    public void shouldFetch_withItemIdsByItemClass() throws Exception {
+        // Given
+        final Collection<StubItem> items = Arrays.asList(stubItem("a"), stubItem("b"));
+        final AbstractDatabaseTemplate databaseTemplate = fetchingDatabaseTemplate(items);
+        final Map<Class<? extends Item>, Collection<ItemId>> itemIds = Collections.singletonMap(StubItem.class,
+                Arrays.asList(new ItemId("a"), new ItemId("b")));
+
+        // When
+        final Map<Class<? extends Item>, Collection<? extends Item>> returnedItems = databaseTemplate.fetch(itemIds);
+
+        // Then
+        assertEquals(Collections.singleton(StubItem.class), returnedItems.keySet());
+        assertEquals(items, returnedItems.get(StubItem.class));
+    }
+
+    @Test
+    public void shouldCount_withItemsFromQuery() throws Exception {
+        // Given
+        final AbstractDatabaseTemplate databaseTemplate = fetchingDatabaseTemplate(
+                Arrays.asList(stubItem("a"), stubItem("b"), stubItem("c")));
+        final Query query = new AttributeQuery("id", new Condition(Operators.NOT_NULL));
+
+        // When
+        final long count = databaseTemplate.count(query, StubItem.class);
+
+        // Then
+        assertEquals(3, count);
+    }
+
+    private StubItem stubItem(final String stringProperty) {
+        final StubItem stubItem = new StubItem();
+        stubItem.setStringProperty(stringProperty);
+        return stubItem;
+    }
+
+    private AbstractDatabaseTemplate fetchingDatabaseTemplate(final Collection<StubItem> items) {
+        return new AbstractDatabaseTemplate() {
+
+            @Override
+            public <T extends Item> T read(final ItemId key, final Class<T> itemClass) throws NonExistentItemException {
+                return null;
+            }
+
+            @Override
+            public <T extends Item> T create(final T item,
+                    final PersistenceExceptionHandler<?>... persistenceExceptionHandlers) {
+                return null;
+            }
+
+            @Override
+            public <T extends Item> T update(final T item,
+                    final PersistenceExceptionHandler<?>... persistenceExceptionHandlers) {
+                return null;
+            }
+
+            @SuppressWarnings("unchecked")
+            @Override
+            public <T extends Item> Collection<T> fetch(final Query query, final Class<T> itemClass) {
+                return (Collection<T>) items;
+            }
+
+            @Override
+            public GeneratedKeyHolder generateKeys(final SequenceKeyGenerator sequenceKeyGenerator) {
+                return null;
+            }
+
+            @Override
+            public void delete(final Item item, final PersistenceExceptionHandler<?>... persistenceExceptionHandlers) {
+            }
+
+        };
+    }
+
+    private AbstractDatabaseTemplate readingDatabaseTemplate(final boolean itemExists) {
+        return new AbstractDatabaseTemplate() {
+
+            @Override
+            public <T extends Item> T read(final ItemId key, final Class<T> itemClass) throws NonExistentItemException {
+                if (!itemExists) {
+                    throw new NonExistentItemException("Item does not exist");
+                }
+                try {
+                    return itemClass.newInstance();
+                } catch (final ReflectiveOperationException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+
+            @Override
+            public <T extends Item> T create(final T item,
+                    final PersistenceExceptionHandler<?>... persistenceExceptionHandlers) {
+                return null;
+            }
+
+            @Override
+            public <T extends Item> T update(final T item,
+                    final PersistenceExceptionHandler<?>... persistenceExceptionHandlers) {
+                return null;
+            }
+
+            @Override
+            public <T extends Item> Collection<T> fetch(final Query query, final Class<T> itemClass) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public GeneratedKeyHolder generateKeys(final SequenceKeyGenerator sequenceKeyGenerator) {
+                return null;
+            }
+
+            @Override
+            public void delete(final Item item, final PersistenceExceptionHandler<?>... persistenceExceptionHandlers) {
+            }
+
+        };
+    }
 }
@@ -0,0 +1,241 @@
+/*
+ * Copyright 2014 Click Travel Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.clicktravel.cheddar.infrastructure.persistence.database;
+
+import static com.clicktravel.common.random.Randoms.randomId;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.*;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+import com.clicktravel.cheddar.infrastructure.persistence.database.query.KeySetQuery;
+
+public class CoalescingDatabaseTemplateTest {
+
+    private final DatabaseTemplate mockDatabaseTemplate = mock(DatabaseTemplate.class);
+
+    @Test
+    public void shouldShareOneRead_withConcurrentIdenticalReads() throws Exception {
+        // Given
+        final StubItem item = new StubItem();
+        final ItemId itemId = new ItemId(item.getId());
+        final CountDownLatch readStarted = new CountDownLatch(1);
+        final CountDownLatch readReleased = new CountDownLatch(1);
+        when(mockDatabaseTemplate.read(itemId, StubItem.class)).thenAnswer(invocation -> {
+            readStarted.countDown();
+            readReleased.await();
+            return item;
+        });
+        final CoalescingDatabaseTemplate coalescingDatabaseTemplate = new CoalescingDatabaseTemplate(
+                mockDatabaseTemplate);
+        final AtomicReference<StubItem> firstItem = new AtomicReference<>();
+        final AtomicReference<StubItem> secondItem = new AtomicReference<>();
+        final Thread firstReader = new Thread(() -> firstItem.set(coalescingDatabaseTemplate.read(itemId,
+                StubItem.class)));
+        final Thread secondReader = new Thread(() -> secondItem.set(coalescingDatabaseTemplate.read(itemId,
+                StubItem.class)));
+
+        // When
+        firstReader.start();
+        readStarted.await();
+        secondReader.start();
+        awaitWaiting(secondReader);
+        readReleased.countDown();
+        firstReader.join();
+        secondReader.join();
+
+        // Then
+        verify(mockDatabaseTemplate, times(1)).read(itemId, StubItem.class);
+        assertSame(item, firstItem.get());
+        assertEquals(item, secondItem.get());
+        assertNotSame(item, secondItem.get());
+        assertEquals(1, coalescingDatabaseTemplate.collapsedCount());
+    }
+
+    @Test
+    public void shouldShareOneFetch_withConcurrentIdenticalKeySetQueries() throws Exception {
+        // Given
+        final StubItem item = new StubItem();
+        final KeySetQuery query = new KeySetQuery(Arrays.asList(new ItemId(item.getId())));
+        final CountDownLatch fetchStarted = new CountDownLatch(1);
+        final CountDownLatch fetchReleased = new CountDownLatch(1);
+        when(mockDatabaseTemplate.fetch(query, StubItem.class)).thenAnswer(invocation -> {
+            fetchStarted.countDown();
+            fetchReleased.await();
+            return Arrays.asList(item);
+        });
+        final CoalescingDatabaseTemplate coalescingDatabaseTemplate = new CoalescingDatabaseTemplate(
+                mockDatabaseTemplate);
+        final AtomicReference<Collection<StubItem>> secondItems = new AtomicReference<>();
+        final Thread firstFetcher = new Thread(() -> coalescingDatabaseTemplate.fetch(query, StubItem.class));
+        final Thread secondFetcher = new Thread(() -> secondItems.set(coalescingDatabaseTemplate.fetch(
+                new KeySetQuery(Arrays.asList(new ItemId(item.getId()))), StubItem.class)));
+
+        // When
+        firstFetcher.start();
+        fetchStarted.await();
+        secondFetcher.start();
+        awaitWaiting(secondFetcher);
+        fetchReleased.countDown();
+        firstFetcher.join();
+        secondFetcher.join();
+
+        // Then
+        verify(mockDatabaseTemplate, times(1)).fetch(query, StubItem.class);
+        assertEquals(Arrays.asList(item), secondItems.get());
+        assertEquals(1, coalescingDatabaseTemplate.collapsedCount());
+    }
+
+    @Test
+    public void shouldReadSeparately_withWaitTimeoutElapsed() throws Exception {
+        // Given
+        final StubItem item = new StubItem();
+        final ItemId itemId = new ItemId(item.getId());
+        final CountDownLatch readStarted = new CountDownLatch(1);
+        final CountDownLatch readReleased = new CountDownLatch(1);
+        when(mockDatabaseTemplate.read(itemId, StubItem.class)).thenAnswer(invocation -> {
+            readStarted.countDown();
+            readReleased.await();
+            return item;
+        }).thenReturn(item);
+        final CoalescingDatabaseTemplate coalescingDatabaseTemplate = new CoalescingDatabaseTemplate(
+                mockDatabaseTemplate, 0);
+        final Thread firstReader = new Thread(() -> coalescingDatabaseTemplate.read(itemId, StubItem.class));
+        firstReader.start();
+        readStarted.await();
+
+        // When
+        final StubItem returnedItem = coalescingDatabaseTemplate.read(itemId, StubItem.class);
+
+        // Then
+        readReleased.countDown();
+        firstReader.join();
+        verify(mockDatabaseTemplate, times(2)).read(itemId, StubItem.class);
+        assertSame(item, returnedItem);
+        assertEquals(0, coalescingDatabaseTemplate.collapsedCount());
+        assertEquals(1, coalescingDatabaseTemplate.timedOutCount());
+    }
+
+    @Test
+    public void shouldReadEachTime_withSequentialReads() throws Exception {
+        // Given
+        final StubItem item = new StubItem();
+        final ItemId itemId = new ItemId(item.getId());
+        when(mockDatabaseTemplate.read(itemId, StubItem.class)).thenReturn(item);
+        final CoalescingDatabaseTemplate coalescingDatabaseTemplate = new CoalescingDatabaseTemplate(
+                mockDatabaseTemplate);
+
+        // When
+        coalescingDatabaseTemplate.read(itemId, StubItem.class);
+        coalescingDatabaseTemplate.read(itemId, StubItem.class);
+
+        // Then
+        verify(mockDatabaseTemplate, times(2)).read(itemId, StubItem.class);
+        assertEquals(0, coalescingDatabaseTemplate.collapsedCount());
+    }
+
+    @Test
+    public void shouldReadSeparately_withWriteAfterReadInFlightStarted() throws Exception {
+        // Given
+        final StubItem item = new StubItem();
+        final ItemId itemId = new ItemId(item.getId());
+        final CountDownLatch readStarted = new CountDownLatch(1);
+        final CountDownLatch readReleased = new CountDownLatch(1);
+        when(mockDatabaseTemplate.read(itemId, StubItem.class)).thenAnswer(invocation -> {
+            readStarted.countDown();
+            readReleased.await();
+            return item;
+        }).thenReturn(item);
+        final CoalescingDatabaseTemplate coalescingDatabaseTemplate = new CoalescingDatabaseTemplate(
+                mockDatabaseTemplate);
+        final Thread firstReader = new Thread(() -> coalescingDatabaseTemplate.read(itemId, StubItem.class));
+        firstReader.start();
+        readStarted.await();
+        coalescingDatabaseTemplate.update(item);
+
+        // When
+        final StubItem returnedItem = coalescingDatabaseTemplate.read(itemId, StubItem.class);
+
+        // Then
+        readReleased.countDown();
+        firstReader.join();
+        verify(mockDatabaseTemplate, times(2)).read(itemId, StubItem.class);
+        assertSame(item, returnedItem);
+        assertEquals(0, coalescingDatabaseTemplate.collapsedCount());
+    }
+
+    @Test
+    public void shouldReadSeparately_withItemClassNotSerializable() throws Exception {
+        // Given
+        final UnserializableStubItem item = new UnserializableStubItem();
+        final ItemId itemId = new ItemId(randomId());
+        final CountDownLatch readStarted = new CountDownLatch(1);
+        final CountDownLatch readReleased = new CountDownLatch(1);
+        when(mockDatabaseTemplate.read(itemId, UnserializableStubItem.class)).thenAnswer(invocation -> {
+            readStarted.countDown();
+            readReleased.await();
+            return item;
+        }).thenReturn(item);
+        final CoalescingDatabaseTemplate coalescingDatabaseTemplate = new CoalescingDatabaseTemplate(
+                mockDatabaseTemplate);
+        final Thread firstReader = new Thread(() -> coalescingDatabaseTemplate.read(itemId,
+                UnserializableStubItem.class));
+        firstReader.start();
+        readStarted.await();
+
+        // When
+        final UnserializableStubItem returnedItem = coalescingDatabaseTemplate.read(itemId,
+                UnserializableStubItem.class);
+
+        // Then
+        readReleased.countDown();
+        firstReader.join();
+        verify(mockDatabaseTemplate, times(2)).read(itemId, UnserializableStubItem.class);
+        assertSame(item, returnedItem);
+        assertEquals(0, coalescingDatabaseTemplate.collapsedCount());
+    }
+
+    private void awaitWaiting(final Thread thread) throws InterruptedException {
+        while (thread.getState() != Thread.State.TIMED_WAITING && thread.getState() != Thread.State.WAITING) {
+            Thread.sleep(1);
+        }
+    }
+
+    private static class UnserializableStubItem implements Item {
+
+        private Long version;
+
+        @Override
+        public Long getVersion() {
+            return version;
+        }
+
+        @Override
+        public void setVersion(final Long version) {
+            this.version = version;
+        }
+
+    }
+
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2014 Click Travel Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.clicktravel.cheddar.infrastructure.persistence.database;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+
+import org.junit.Test;
+
+import com.clicktravel.cheddar.infrastructure.persistence.database.exception.NonExistentItemException;
+import com.clicktravel.cheddar.infrastructure.persistence.database.exception.OptimisticLockException;
+
+public class ExecutorAsyncDatabaseTemplateTest {
+
+    private final DatabaseTemplate mockDatabaseTemplate = mock(DatabaseTemplate.class);
+    private final List<Runnable> tasks = new ArrayList<>();
+    private final Executor queueingExecutor = tasks::add;
+
+    @Test
+    public void shouldReadOnExecutor_withItemIdAndItemClass() throws Exception {
+        // Given
+        final StubItem item = new StubItem();
+        final ItemId itemId = new ItemId(item.getId());
+        when(mockDatabaseTemplate.read(itemId, StubItem.class)).thenReturn(item);
+        final ExecutorAsyncDatabaseTemplate asyncDatabaseTemplate = new ExecutorAsyncDatabaseTemplate(
+                mockDatabaseTemplate, queueingExecutor);
+
+        // When
+        final CompletableFuture<StubItem> future = asyncDatabaseTemplate.read(itemId, StubItem.class);
+
+        // Then
+        assertFalse(future.isDone());
+        verifyZeroInteractions(mockDatabaseTemplate);
+        tasks.forEach(Runnable::run);
+        assertSame(item, future.get());
+    }
+
+    @Test
+    public void shouldCompleteExceptionally_withSameExceptionAsTemplate() throws Exception {
+        // Given
+        final StubItem item = new StubItem();
+        final OptimisticLockException optimisticLockException = new OptimisticLockException("Conflict");
+        when(mockDatabaseTemplate.update(item)).thenThrow(optimisticLockException);
+        final ExecutorAsyncDatabaseTemplate asyncDatabaseTemplate = new ExecutorAsyncDatabaseTemplate(
+                mockDatabaseTemplate, Runnable::run);
+
+        // When
+        final CompletableFuture<StubItem> future = asyncDatabaseTemplate.update(item);
+
+        // Then
+        assertTrue(future.isCompletedExceptionally());
+        ExecutionException actualException = null;
+        try {
+            future.get();
+        } catch (final ExecutionException e) {
+            actualException = e;
+        }
+        assertNotNull(actualException);
+        assertSame(optimisticLockException, actualException.getCause());
+        assertSame(optimisticLockException, future.handle((result, e) -> e).get());
+    }
+
+    @Test
+    public void shouldDeleteOnExecutor_withItem() throws Exception {
+        // Given
+        final StubItem item = new StubItem();
+        final ExecutorAsyncDatabaseTemplate asyncDatabaseTemplate = new ExecutorAsyncDatabaseTemplate(
+                mockDatabaseTemplate, Runnable::run);
+
+        // When
+        final CompletableFuture<Void> future = asyncDatabaseTemplate.delete(item);
+
+        // Then
+        assertTrue(future.isDone());
+        verify(mockDatabaseTemplate).delete(item);
+    }
+
+    @Test
+    public void shouldCompleteExceptionally_withNonExistentItem() throws Exception {
+        // Given
+        final ItemId itemId = new ItemId("id");
+        final NonExistentItemException nonExistentItemException = new NonExistentItemException("Not found");
+        when(mockDatabaseTemplate.read(itemId, StubItem.class)).thenThrow(nonExistentItemException);
+        final ExecutorAsyncDatabaseTemplate asyncDatabaseTemplate = new ExecutorAsyncDatabaseTemplate(
+                mockDatabaseTemplate, Runnable::run);
+
+        // When
+        final CompletableFuture<StubItem> future = asyncDatabaseTemplate.read(itemId, StubItem.class);
+
+        // Then
+        assertSame(nonExistentItemException, future.handle((result, e) -> e).get());
+    }
+
+}
@@ -18,7 +18,11 @@ package com.clicktravel.cheddar.infrastructure.persistence.database;
 
 import static com.clicktravel.common.random.Randoms.randomString;
 
-public class StubItem implements Item {
+import java.io.Serializable;
+
+public class StubItem implements Item, Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     private String id;
     private String stringProperty;
@@ -17,10 +17,13 @@
 package com.clicktravel.cheddar.infrastructure.persistence.database.configuration;
 
 import static com.clicktravel.common.random.Randoms.randomId;
+import static com.clicktravel.common.random.Randoms.randomInt;
 import static com.clicktravel.common.random.Randoms.randomString;
 import static org.hamcrest.Matchers.hasSize;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 
@@ -57,6 +60,7 @@ public class ItemConfigurationTest {
         assertEquals(tableName, itemConfiguration.tableName());
         assertThat(itemConfiguration.propertyDescriptors(), hasSize(propertyDescriptors.size()));
         assertEquals(0, itemConfiguration.indexDefinitions().size());
+        assertEquals(1, itemConfiguration.scanSegments());
     }
 
     @Test
@@ -78,6 +82,22 @@ public class ItemConfigurationTest {
         assertEquals(1, itemConfiguration.indexDefinitions().size());
     }
 
+    @Test
+    public void shouldRegisterIndexes_withCompoundIndexDefinition() throws Exception {
+        // Given
+        final ItemConfiguration itemConfiguration = new ItemConfiguration(StubItem.class, randomString(10));
+        final CompoundIndexDefinition indexDefinition = new CompoundIndexDefinition("stringProperty", "version");
+
+        // When
+        itemConfiguration.registerIndexes(Arrays.<IndexDefinition> asList(indexDefinition));
+
+        // Then
+        assertTrue(itemConfiguration.hasIndexOn("stringProperty"));
+        assertEquals(Long.class, indexDefinition.supportingPropertyType());
+        assertEquals("version", itemConfiguration.supportingPropertyName("stringProperty"));
+        assertNull(itemConfiguration.supportingPropertyName("id"));
+    }
+
     @Test
     public void shouldReturnItemId_fromItemConfiguration() {
         // Given
@@ -93,4 +113,90 @@ public class ItemConfigurationTest {
         assertEquals(stubItemId, itemId.value());
 
     }
+
+    @Test
+    public void shouldSetScanSegments_withPositiveSegmentCount() throws Exception {
+        // Given
+        final ItemConfiguration itemConfiguration = new ItemConfiguration(StubItem.class, randomString(10));
+        final int scanSegments = 1 + randomInt(20);
+
+        // When
+        itemConfiguration.setScanSegments(scanSegments);
+
+        // Then
+        assertEquals(scanSegments, itemConfiguration.scanSegments());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotSetScanSegments_withZeroSegmentCount() throws Exception {
+        // Given
+        final ItemConfiguration itemConfiguration = new ItemConfiguration(StubItem.class, randomString(10));
+
+        // When
+        itemConfiguration.setScanSegments(0);
+    }
+
+    @Test
+    public void shouldSetCacheTtlSeconds_withPositiveTtl() throws Exception {
+        // Given
+        final ItemConfiguration itemConfiguration = new ItemConfiguration(StubItem.class, randomString(10));
+        final long cacheTtlSeconds = 1 + randomInt(3600);
+
+        // When
+        itemConfiguration.setCacheTtlSeconds(cacheTtlSeconds);
+
+        // Then
+        assertEquals(cacheTtlSeconds, itemConfiguration.cacheTtlSeconds());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotSetCacheTtlSeconds_withNegativeTtl() throws Exception {
+        // Given
+        final ItemConfiguration itemConfiguration = new ItemConfiguration(StubItem.class, randomString(10));
+
+        // When
+        itemConfiguration.setCacheTtlSeconds(-1);
+    }
+
+    @Test
+    public void shouldReturnCompressionThreshold_withCompressedPropertyAndThreshold() throws Exception {
+        // Given
+        final ItemConfiguration itemConfiguration = new ItemConfiguration(StubItem.class, randomString(10));
+        final int compressionThreshold = 1 + randomInt(1000);
+
+        // When
+        itemConfiguration.registerCompressedProperties(Arrays.asList("stringProperty"));
+        itemConfiguration.setCompressionThreshold(compressionThreshold);
+
+        // Then
+        assertEquals(0, itemConfiguration.compressionThreshold("stringProperty"));
+        assertEquals(compressionThreshold, itemConfiguration.compressionThreshold("version"));
+        assertEquals(-1, itemConfiguration.compressionThreshold("id"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotRegisterCompressedProperties_withIndexedProperty() throws Exception {
+        // Given
+        final ItemConfiguration itemConfiguration = new ItemConfiguration(StubItem.class, randomString(10));
+        itemConfiguration.registerIndexes(Arrays.asList(new IndexDefinition("stringProperty")));
+
+        // When
+        itemConfiguration.registerCompressedProperties(Arrays.asList("stringProperty"));
+    }
+
+    @Test
+    public void shouldNotAllowUnconditionalWrites_withUniqueConstraint() throws Exception {
+        // Given
+        final ItemConfiguration itemConfiguration = new ItemConfiguration(StubItem.class, randomString(10));
+        itemConfiguration.setUnconditionalWrites(true);
+        final boolean unconditionalWrites = itemConfiguration.unconditionalWrites();
+
+        // When
+        itemConfiguration.registerUniqueConstraints(Arrays.asList(new UniqueConstraint("stringProperty")));
+
+        // Then
+        assertTrue(unconditionalWrites);
+        assertFalse(itemConfiguration.unconditionalWrites());
+    }
+
 }
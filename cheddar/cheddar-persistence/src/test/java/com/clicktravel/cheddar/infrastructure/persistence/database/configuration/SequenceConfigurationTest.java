@@ -16,6 +16,7 @@
  */
 package com.clicktravel.cheddar.infrastructure.persistence.database.configuration;
 
+import static com.clicktravel.common.random.Randoms.randomInt;
 import static com.clicktravel.common.random.Randoms.randomLong;
 import static com.clicktravel.common.random.Randoms.randomString;
 import static org.junit.Assert.assertEquals;
@@ -87,4 +88,47 @@ public class SequenceConfigurationTest {
         assertEquals(startingValue, sequenceConfiguration.startingValue());
     }
 
+    @Test
+    public void shouldCreateSequenceConfiguration_withBlockSizeAndShardCount() throws Exception {
+        // Given
+        final String sequenceName = randomString(10);
+        final long startingValue = randomLong();
+        final int blockSize = 1 + randomInt(100);
+        final int shardCount = 1 + randomInt(10);
+
+        // When
+        final SequenceConfiguration sequenceConfiguration = new SequenceConfiguration(sequenceName, startingValue,
+                blockSize, shardCount);
+
+        // Then
+        assertEquals(sequenceName, sequenceConfiguration.sequenceName());
+        assertEquals(startingValue, sequenceConfiguration.startingValue());
+        assertEquals(blockSize, sequenceConfiguration.blockSize());
+        assertEquals(shardCount, sequenceConfiguration.shardCount());
+    }
+
+    @Test
+    public void shouldCreateSequenceConfiguration_withSingleKeyBlocksAndSingleShardByDefault() throws Exception {
+        // When
+        final SequenceConfiguration sequenceConfiguration = new SequenceConfiguration(randomString(10));
+
+        // Then
+        assertEquals(1, sequenceConfiguration.blockSize());
+        assertEquals(1, sequenceConfiguration.shardCount());
+    }
+
+    @Test
+    public void shouldNotCreateSequenceConfiguration_withZeroShardCount() throws Exception {
+        // When
+        IllegalArgumentException actualException = null;
+        try {
+            new SequenceConfiguration(randomString(10), 1, 10, 0);
+        } catch (final IllegalArgumentException e) {
+            actualException = e;
+        }
+
+        // Then
+        assertNotNull(actualException);
+    }
+
 }
@@ -23,6 +23,8 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertThat;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Set;
 
 import org.junit.Test;
@@ -61,6 +63,20 @@ public class ConditionTest {
         assertEquals(values.size(), condition.getValues().size());
     }
 
+    @Test
+    public void shouldCreateCondition_withComparisonOperatorAndRange() throws Exception {
+        // Given
+        final String lowerValue = randomString(10);
+        final String upperValue = randomString(10);
+
+        // When
+        final Condition condition = new Condition(Operators.BETWEEN, lowerValue, upperValue);
+
+        // Then
+        assertEquals(Operators.BETWEEN, condition.getComparisonOperator());
+        assertEquals(Arrays.asList(lowerValue, upperValue), new ArrayList<>(condition.getValues()));
+    }
+
     @Test
     public void shouldCreateCondition_withComparisonOperator() throws Exception {
         // Given
@@ -19,6 +19,7 @@ package com.clicktravel.cheddar.query.model;
 public abstract class PaginatedCollectionQm {
 
     private int totalCount;
+    private String nextCursor;
 
     public int getTotalCount() {
         return totalCount;
@@ -27,4 +28,16 @@ public abstract class PaginatedCollectionQm {
     public void setTotalCount(final int value) {
         totalCount = value;
     }
+
+    /**
+     * @return Opaque cursor from which the next page of the collection can be requested, or {@code null} if this is the
+     *         last page
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(final String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
 }
@@ -16,24 +16,32 @@
  */
 package com.clicktravel.cheddar.infrastructure.persistence.database.tx;
 
-import java.util.LinkedList;
-import java.util.List;
-import java.util.Queue;
-import java.util.UUID;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
 
+import com.clicktravel.cheddar.infrastructure.persistence.database.BatchDatabaseTemplate;
 import com.clicktravel.cheddar.infrastructure.persistence.database.DatabaseTemplate;
 import com.clicktravel.cheddar.infrastructure.persistence.database.Item;
+import com.clicktravel.cheddar.infrastructure.persistence.database.ItemId;
+import com.clicktravel.cheddar.infrastructure.persistence.database.configuration.ItemConfiguration;
+import com.clicktravel.cheddar.infrastructure.persistence.database.configuration.UniqueConstraint;
 import com.clicktravel.cheddar.infrastructure.persistence.database.exception.handler.PersistenceExceptionHandler;
+import com.clicktravel.cheddar.infrastructure.persistence.exception.PersistenceResourceFailureException;
 import com.clicktravel.cheddar.infrastructure.tx.Transaction;
 
 public class DatabaseTransaction implements Transaction {
 
     private final Queue<DatabaseAction<?>> databaseActions;
     private final String transactionId;
+    private final Map<String, Map<ItemId, Item>> identityMap;
 
     public DatabaseTransaction() {
         databaseActions = new LinkedList<>();
         transactionId = UUID.randomUUID().toString();
+        identityMap = new HashMap<>();
     }
 
     @Override
@@ -60,6 +68,41 @@ public class DatabaseTransaction implements Transaction {
         databaseActions.add(new DeleteAction<T>(item, persistenceExceptionHandlers));
     }
 
+    /**
+     * @param tableName Table of the item
+     * @param itemId Id of the item
+     * @return {@code true} if the item has been read or written in this transaction
+     */
+    public boolean containsItem(final String tableName, final ItemId itemId) {
+        final Map<ItemId, Item> items = identityMap.get(tableName);
+        return items != null && items.containsKey(itemId);
+    }
+
+    /**
+     * @param tableName Table of the item
+     * @param itemId Id of the item
+     * @return The item as last read or written in this transaction, or {@code null} if it has been deleted
+     */
+    public Item mappedItem(final String tableName, final ItemId itemId) {
+        final Map<ItemId, Item> items = identityMap.get(tableName);
+        return items == null ? null : items.get(itemId);
+    }
+
+    /**
+     * Records the item read or written in this transaction, so later reads within it are served from memory
+     * @param tableName Table of the item
+     * @param itemId Id of the item
+     * @param item The item, or {@code null} if it has been deleted
+     */
+    public void mapItem(final String tableName, final ItemId itemId, final Item item) {
+        Map<ItemId, Item> items = identityMap.get(tableName);
+        if (items == null) {
+            items = new HashMap<>();
+            identityMap.put(tableName, items);
+        }
+        items.put(itemId, item);
+    }
+
     public void applyActions(final DatabaseTemplate databaseTemplate) throws Throwable {
         while (!databaseActions.isEmpty()) {
             final DatabaseAction<?> databaseAction = databaseActions.remove();
@@ -67,4 +110,276 @@ public class DatabaseTransaction implements Transaction {
         }
     }
 
+    /**
+     * Applies the actions as {@link #applyActions(DatabaseTemplate)} does, except that creates and deletes of items
+     * whose configuration allows {@link ItemConfiguration#unconditionalWrites()} are gathered and applied together
+     * with batch writes, if the template supports them. Consecutive creates and deletes are gathered together, and are
+     * applied before any later action which cannot be gathered or which is on one of their items, so the actions keep
+     * their order and a failure stops the commit where it would have without batching.
+     * @param databaseTemplate Template to apply the actions to
+     * @param itemConfigurations Configurations of the items, by item class
+     */
+    public void applyActions(final DatabaseTemplate databaseTemplate,
+            final Map<Class<? extends Item>, ItemConfiguration> itemConfigurations) throws Throwable {
+        if (!(databaseTemplate instanceof BatchDatabaseTemplate)) {
+            applyActions(databaseTemplate);
+            return;
+        }
+        final BatchDatabaseTemplate batchDatabaseTemplate = (BatchDatabaseTemplate) databaseTemplate;
+        final List<DatabaseAction<? extends Item>> batchedActions = new ArrayList<>();
+        final Set<List<Object>> batchedItemKeys = new HashSet<>();
+        while (!databaseActions.isEmpty()) {
+            @SuppressWarnings("unchecked")
+            final DatabaseAction<? extends Item> databaseAction = (DatabaseAction<? extends Item>) databaseActions
+                    .remove();
+            final ItemConfiguration itemConfiguration = itemConfigurations.get(databaseAction.item().getClass());
+            final List<Object> itemKey = itemKey(itemConfiguration, databaseAction.item());
+            final boolean batchable = isBatchable(databaseAction, itemConfiguration);
+            if (!batchable || batchedItemKeys.contains(itemKey)) {
+                applyBatchedActions(batchDatabaseTemplate, batchedActions, itemConfigurations);
+                batchedItemKeys.clear();
+            }
+            if (batchable) {
+                batchedActions.add(databaseAction);
+                batchedItemKeys.add(itemKey);
+            } else {
+                databaseAction.apply(databaseTemplate);
+            }
+        }
+        applyBatchedActions(batchDatabaseTemplate, batchedActions, itemConfigurations);
+    }
+
+    /**
+     * Applies the actions as {@link #applyActions(DatabaseTemplate, Map)} does, but concurrently on the executor where
+     * their order does not matter. Actions on the same item, or which may claim or release the same unique constraint
+     * value, are applied in the order they were added; the actions of items without a configuration are applied in
+     * order with all others. Once an action has failed no more actions are started, and the first failure is thrown
+     * when those already started have finished.
+     * @param databaseTemplate Template to apply the actions to
+     * @param itemConfigurations Configurations of the items, by item class
+     * @param executor Executor to apply the actions on, or {@code null} to apply them one after another
+     */
+    public void applyActions(final DatabaseTemplate databaseTemplate,
+            final Map<Class<? extends Item>, ItemConfiguration> itemConfigurations, final Executor executor)
+            throws Throwable {
+        if (executor == null) {
+            applyActions(databaseTemplate, itemConfigurations);
+            return;
+        }
+        final boolean batching = databaseTemplate instanceof BatchDatabaseTemplate;
+        final List<ActionGroup> actionGroups = new ArrayList<>();
+        ActionGroup batchedActionGroup = new ActionGroup(true);
+        while (!databaseActions.isEmpty()) {
+            @SuppressWarnings("unchecked")
+            final DatabaseAction<? extends Item> databaseAction = (DatabaseAction<? extends Item>) databaseActions
+                    .remove();
+            final ItemConfiguration itemConfiguration = itemConfigurations.get(databaseAction.item().getClass());
+            final ActionGroup actionGroup = new ActionGroup(false);
+            actionGroup.add(databaseAction, itemConfiguration);
+            if (!batchedActionGroup.actions.isEmpty() && batchedActionGroup.conflictsWith(actionGroup)) {
+                actionGroups.add(batchedActionGroup);
+                batchedActionGroup = new ActionGroup(true);
+            }
+            if (batching && isBatchable(databaseAction, itemConfiguration)) {
+                batchedActionGroup.add(databaseAction, itemConfiguration);
+            } else {
+                actionGroups.add(actionGroup);
+            }
+        }
+        if (!batchedActionGroup.actions.isEmpty()) {
+            actionGroups.add(batchedActionGroup);
+        }
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        final List<CompletableFuture<Void>> futures = new ArrayList<>(actionGroups.size());
+        for (int i = 0; i < actionGroups.size(); i++) {
+            final ActionGroup actionGroup = actionGroups.get(i);
+            final List<CompletableFuture<Void>> dependencies = new ArrayList<>();
+            for (int j = 0; j < i; j++) {
+                if (actionGroups.get(j).conflictsWith(actionGroup)) {
+                    dependencies.add(futures.get(j));
+                }
+            }
+            futures.add(CompletableFuture.allOf(dependencies.toArray(new CompletableFuture<?>[dependencies.size()]))
+                    .thenRunAsync(() -> {
+                        if (failure.get() == null) {
+                            try {
+                                applyActionGroup(actionGroup, databaseTemplate, itemConfigurations);
+                            } catch (final Throwable e) {
+                                failure.compareAndSet(null, e);
+                            }
+                        }
+                    }, executor));
+        }
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[futures.size()])).join();
+        } catch (final CompletionException e) {
+            failure.compareAndSet(null, e.getCause());
+        }
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+    }
+
+    private void applyActionGroup(final ActionGroup actionGroup, final DatabaseTemplate databaseTemplate,
+            final Map<Class<? extends Item>, ItemConfiguration> itemConfigurations) throws Throwable {
+        if (actionGroup.batched) {
+            applyBatchedActions((BatchDatabaseTemplate) databaseTemplate, new ArrayList<>(actionGroup.actions),
+                    itemConfigurations);
+        } else {
+            actionGroup.actions.get(0).apply(databaseTemplate);
+        }
+    }
+
+    private boolean isBatchable(final DatabaseAction<? extends Item> databaseAction,
+            final ItemConfiguration itemConfiguration) {
+        return itemConfiguration != null && itemConfiguration.unconditionalWrites()
+                && (databaseAction instanceof CreateAction || databaseAction instanceof DeleteAction)
+                && itemKey(itemConfiguration, databaseAction.item()) != null;
+    }
+
+    private static List<Object> itemKey(final ItemConfiguration itemConfiguration, final Item item) {
+        if (itemConfiguration == null) {
+            return null;
+        }
+        try {
+            return Arrays.asList(itemConfiguration.tableName(), itemConfiguration.getItemId(item));
+        } catch (final IllegalArgumentException e) {
+            return null; // Item without an id is rejected when the action is applied
+        }
+    }
+
+    /**
+     * Applies the gathered creates and deletes with a batch write and a batch delete for each item class. Their items
+     * are all distinct, so the order they are applied in does not matter. Every item left unwritten is reported to the
+     * persistence exception handlers of its action; the first exception thrown by the handlers is then rethrown, with
+     * any others suppressed by it.
+     */
+    private void applyBatchedActions(final BatchDatabaseTemplate batchDatabaseTemplate,
+            final List<DatabaseAction<? extends Item>> batchedActions,
+            final Map<Class<? extends Item>, ItemConfiguration> itemConfigurations) throws Throwable {
+        final Map<Class<? extends Item>, List<DatabaseAction<? extends Item>>> createActions = new LinkedHashMap<>();
+        final Map<Class<? extends Item>, List<DatabaseAction<? extends Item>>> deleteActions = new LinkedHashMap<>();
+        for (final DatabaseAction<? extends Item> databaseAction : batchedActions) {
+            if (databaseAction instanceof CreateAction) {
+                createActions.computeIfAbsent(databaseAction.item().getClass(), itemClass -> new ArrayList<>())
+                        .add(databaseAction);
+            } else {
+                deleteActions.computeIfAbsent(databaseAction.item().getClass(), itemClass -> new ArrayList<>())
+                        .add(databaseAction);
+            }
+        }
+        batchedActions.clear();
+        final List<DatabaseAction<? extends Item>> failedActions = new ArrayList<>();
+        for (final Map.Entry<Class<? extends Item>, List<DatabaseAction<? extends Item>>> entry : createActions
+                .entrySet()) {
+            final List<Item> items = new ArrayList<>();
+            for (final DatabaseAction<? extends Item> databaseAction : entry.getValue()) {
+                databaseAction.item().setVersion(null);
+                items.add(databaseAction.item());
+            }
+            final Set<Item> itemsWritten = Collections.newSetFromMap(new IdentityHashMap<>());
+            itemsWritten.addAll(batchWrite(batchDatabaseTemplate, items, entry.getKey()));
+            for (final DatabaseAction<? extends Item> databaseAction : entry.getValue()) {
+                if (!itemsWritten.contains(databaseAction.item())) {
+                    failedActions.add(databaseAction);
+                }
+            }
+        }
+        for (final Map.Entry<Class<? extends Item>, List<DatabaseAction<? extends Item>>> entry : deleteActions
+                .entrySet()) {
+            final ItemConfiguration itemConfiguration = itemConfigurations.get(entry.getKey());
+            final List<ItemId> itemIds = new ArrayList<>();
+            for (final DatabaseAction<? extends Item> databaseAction : entry.getValue()) {
+                itemIds.add(itemConfiguration.getItemId(databaseAction.item()));
+            }
+            final Set<ItemId> itemIdsDeleted = new HashSet<>(
+                    batchDatabaseTemplate.batchDelete(itemIds, entry.getKey()));
+            for (final DatabaseAction<? extends Item> databaseAction : entry.getValue()) {
+                if (!itemIdsDeleted.contains(itemConfiguration.getItemId(databaseAction.item()))) {
+                    failedActions.add(databaseAction);
+                }
+            }
+        }
+        Throwable failure = null;
+        for (final DatabaseAction<? extends Item> failedAction : failedActions) {
+            try {
+                failedAction.handlePersistenceException(new PersistenceResourceFailureException(
+                        "Batch write on commit of transaction " + transactionId + " did not apply " + failedAction,
+                        null));
+            } catch (final Throwable e) {
+                if (failure == null) {
+                    failure = e;
+                } else if (e != failure) {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private List<? extends Item> batchWrite(final BatchDatabaseTemplate batchDatabaseTemplate,
+            final List<Item> items, final Class<? extends Item> itemClass) {
+        return batchDatabaseTemplate.batchWrite((List) items, (Class) itemClass);
+    }
+
+    /**
+     * Actions applied as one step of a concurrent commit, with the items and unique constraint values they touch. An
+     * update or delete may release any value of a unique constraint, as the value held before the transaction is not
+     * known, so it touches the whole constraint.
+     */
+    private static final class ActionGroup {
+
+        private final boolean batched;
+        private final List<DatabaseAction<? extends Item>> actions = new ArrayList<>();
+        private final Set<List<Object>> keys = new HashSet<>();
+        private final Set<List<Object>> uniqueConstraints = new HashSet<>();
+        private final Set<List<Object>> releasedUniqueConstraints = new HashSet<>();
+        private boolean ordered;
+
+        private ActionGroup(final boolean batched) {
+            this.batched = batched;
+        }
+
+        private void add(final DatabaseAction<? extends Item> databaseAction,
+                final ItemConfiguration itemConfiguration) {
+            actions.add(databaseAction);
+            final List<Object> itemKey = itemKey(itemConfiguration, databaseAction.item());
+            if (itemKey == null) {
+                ordered = true;
+                return;
+            }
+            keys.add(itemKey);
+            for (final UniqueConstraint uniqueConstraint : itemConfiguration.uniqueConstraints()) {
+                final List<Object> uniqueConstraintKey = Arrays.asList(itemConfiguration.tableName(),
+                        uniqueConstraint.propertyName());
+                uniqueConstraints.add(uniqueConstraintKey);
+                if (databaseAction instanceof CreateAction) {
+                    keys.add(Arrays.asList(itemConfiguration.tableName(), uniqueConstraint.propertyName(),
+                            uniqueConstraintValue(uniqueConstraint, databaseAction.item())));
+                } else {
+                    releasedUniqueConstraints.add(uniqueConstraintKey);
+                }
+            }
+        }
+
+        private boolean conflictsWith(final ActionGroup other) {
+            return ordered || other.ordered || !Collections.disjoint(keys, other.keys)
+                    || !Collections.disjoint(releasedUniqueConstraints, other.uniqueConstraints)
+                    || !Collections.disjoint(uniqueConstraints, other.releasedUniqueConstraints);
+        }
+
+        private static String uniqueConstraintValue(final UniqueConstraint uniqueConstraint, final Item item) {
+            try {
+                return String.valueOf(uniqueConstraint.propertyDescriptor().getReadMethod().invoke(item))
+                        .toUpperCase();
+            } catch (final ReflectiveOperationException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+    }
+
 }
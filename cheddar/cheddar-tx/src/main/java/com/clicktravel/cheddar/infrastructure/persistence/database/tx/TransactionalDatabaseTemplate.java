@@ -16,18 +16,22 @@
  */
 package com.clicktravel.cheddar.infrastructure.persistence.database.tx;
 
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.Collections;
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.stream.Stream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.clicktravel.cheddar.infrastructure.persistence.database.*;
+import com.clicktravel.cheddar.infrastructure.persistence.database.configuration.DatabaseSchemaHolder;
+import com.clicktravel.cheddar.infrastructure.persistence.database.configuration.ItemConfiguration;
 import com.clicktravel.cheddar.infrastructure.persistence.database.exception.NonExistentItemException;
 import com.clicktravel.cheddar.infrastructure.persistence.database.exception.NonUniqueResultException;
 import com.clicktravel.cheddar.infrastructure.persistence.database.exception.handler.PersistenceExceptionHandler;
+import com.clicktravel.cheddar.infrastructure.persistence.database.query.KeySetQuery;
+import com.clicktravel.cheddar.infrastructure.persistence.database.query.PageRequest;
+import com.clicktravel.cheddar.infrastructure.persistence.database.query.PagedResult;
 import com.clicktravel.cheddar.infrastructure.persistence.database.query.Query;
 import com.clicktravel.cheddar.infrastructure.tx.*;
 
@@ -39,10 +43,42 @@ public class TransactionalDatabaseTemplate implements DatabaseTemplate, Transact
 
     private final ThreadLocal<DatabaseTransaction> currentTransaction = new ThreadLocal<DatabaseTransaction>();
 
+    private final Map<Class<? extends Item>, ItemConfiguration> itemConfigurations = new HashMap<>();
+
+    private Executor commitExecutor;
+
     public TransactionalDatabaseTemplate(final DatabaseTemplate databaseTemplate) {
         this.databaseTemplate = databaseTemplate;
     }
 
+    /**
+     * Creates a template which keeps an identity map of the items of the schema within each transaction. Repeated
+     * reads of an item within a transaction, by id or by {@link KeySetQuery}, are served from memory and reflect the
+     * create, update and delete actions pending in it. Queries on attributes are answered by the database alone, as
+     * the pending state of an item may no longer match them. The identity map is discarded when the transaction is
+     * committed or aborted.
+     * @param databaseTemplate Template to read items from and apply actions to on commit
+     * @param databaseSchemaHolder Schema of the items to keep in the identity map
+     */
+    public TransactionalDatabaseTemplate(final DatabaseTemplate databaseTemplate,
+            final DatabaseSchemaHolder databaseSchemaHolder) {
+        this(databaseTemplate);
+        for (final ItemConfiguration itemConfiguration : databaseSchemaHolder.itemConfigurations()) {
+            itemConfigurations.put(itemConfiguration.itemClass(), itemConfiguration);
+        }
+    }
+
+    /**
+     * Sets the executor on which the actions of a transaction are applied on commit. Actions whose order does not
+     * matter, being on different items and unique constraint values, are then applied concurrently; the executor
+     * should be bounded to limit the load a commit puts on the store. Defaults to none, i.e. actions are applied one
+     * after another. Items are told apart by the schema this template was created with, if any.
+     * @param commitExecutor Executor to apply actions on, or {@code null} to apply them one after another
+     */
+    public void setCommitExecutor(final Executor commitExecutor) {
+        this.commitExecutor = commitExecutor;
+    }
+
     private DatabaseTransaction getCurrentTransaction() {
         if (currentTransaction.get() == null) {
             throw new NonExistentTransactionException();
@@ -64,7 +100,7 @@ public class TransactionalDatabaseTemplate implements DatabaseTemplate, Transact
         final DatabaseTransaction transaction = getCurrentTransaction();
         logger.trace("Committing transaction: " + transaction.transactionId());
         try {
-            transaction.applyActions(databaseTemplate);
+            transaction.applyActions(databaseTemplate, itemConfigurations, commitExecutor);
             currentTransaction.remove();
             logger.trace("Transaction successfully committed: " + transaction.transactionId());
         } catch (final Throwable e) {
@@ -79,6 +115,7 @@ public class TransactionalDatabaseTemplate implements DatabaseTemplate, Transact
         final List<PersistenceExceptionHandler<?>> persistenceExceptionHandlerList = new ArrayList<PersistenceExceptionHandler<?>>();
         Collections.addAll(persistenceExceptionHandlerList, persistenceExceptionHandlers);
         final T createdItem = transaction.addCreateAction(item, persistenceExceptionHandlerList);
+        mapItem(transaction, item, createdItem);
         return createdItem;
     }
 
@@ -88,6 +125,7 @@ public class TransactionalDatabaseTemplate implements DatabaseTemplate, Transact
         final List<PersistenceExceptionHandler<?>> persistenceExceptionHandlerList = new ArrayList<PersistenceExceptionHandler<?>>();
         Collections.addAll(persistenceExceptionHandlerList, persistenceExceptionHandlers);
         final T createdItem = transaction.addUpdateAction(item, persistenceExceptionHandlerList);
+        mapItem(transaction, item, createdItem);
         return createdItem;
     }
 
@@ -97,21 +135,189 @@ public class TransactionalDatabaseTemplate implements DatabaseTemplate, Transact
         final List<PersistenceExceptionHandler<?>> persistenceExceptionHandlerList = new ArrayList<PersistenceExceptionHandler<?>>();
         Collections.addAll(persistenceExceptionHandlerList, persistenceExceptionHandlers);
         transaction.addDeleteAction(item, persistenceExceptionHandlerList);
+        mapItem(transaction, item, null);
     }
 
     @Override
     public <T extends Item> T read(final ItemId itemId, final Class<T> itemClass) throws NonExistentItemException {
-        return databaseTemplate.read(itemId, itemClass);
+        final DatabaseTransaction transaction = currentTransaction.get();
+        final ItemConfiguration itemConfiguration = itemConfigurations.get(itemClass);
+        if (transaction == null || itemConfiguration == null) {
+            return databaseTemplate.read(itemId, itemClass);
+        }
+        final String tableName = itemConfiguration.tableName();
+        if (transaction.containsItem(tableName, itemId)) {
+            final Item mappedItem = transaction.mappedItem(tableName, itemId);
+            if (mappedItem == null) {
+                throw new NonExistentItemException("Item deleted in transaction " + transaction.transactionId() + ": "
+                        + itemId);
+            }
+            if (itemClass.isInstance(mappedItem)) {
+                return itemClass.cast(mappedItem);
+            }
+            return databaseTemplate.read(itemId, itemClass);
+        }
+        final T item = databaseTemplate.read(itemId, itemClass);
+        transaction.mapItem(tableName, itemId, item);
+        return item;
+    }
+
+    @Override
+    public <T extends Item> T read(final ItemId itemId, final Class<T> itemClass,
+            final Collection<String> propertyNames) throws NonExistentItemException {
+        return databaseTemplate.read(itemId, itemClass, propertyNames);
     }
 
+    @Override
+    public <T extends Item> boolean exists(final ItemId itemId, final Class<T> itemClass) {
+        final DatabaseTransaction transaction = currentTransaction.get();
+        final ItemConfiguration itemConfiguration = itemConfigurations.get(itemClass);
+        if (transaction != null && itemConfiguration != null
+                && transaction.containsItem(itemConfiguration.tableName(), itemId)) {
+            return transaction.mappedItem(itemConfiguration.tableName(), itemId) != null;
+        }
+        return databaseTemplate.exists(itemId, itemClass);
+    }
+
+    /**
+     * Serves the items of a {@link KeySetQuery} held in the identity map of the current transaction from memory,
+     * fetching all the others together and adding them to it. Queries on attributes are answered by the database,
+     * ignoring the actions pending in the current transaction.
+     */
     @Override
     public <T extends Item> Collection<T> fetch(final Query query, final Class<T> itemClass) {
-        return databaseTemplate.fetch(query, itemClass);
+        final DatabaseTransaction transaction = currentTransaction.get();
+        final ItemConfiguration itemConfiguration = itemConfigurations.get(itemClass);
+        if (transaction == null || itemConfiguration == null || !(query instanceof KeySetQuery)) {
+            return databaseTemplate.fetch(query, itemClass);
+        }
+        final String tableName = itemConfiguration.tableName();
+        final Collection<T> items = new ArrayList<>();
+        final Collection<ItemId> unmappedItemIds = new ArrayList<>();
+        for (final ItemId itemId : ((KeySetQuery) query).itemIds()) {
+            if (transaction.containsItem(tableName, itemId)) {
+                addMappedItem(items, transaction.mappedItem(tableName, itemId), itemClass);
+            } else {
+                unmappedItemIds.add(itemId);
+            }
+        }
+        if (unmappedItemIds.isEmpty()) {
+            return items;
+        }
+        for (final T item : databaseTemplate.fetch(new KeySetQuery(unmappedItemIds), itemClass)) {
+            final ItemId itemId = itemConfiguration.getItemId(item);
+            if (transaction.containsItem(tableName, itemId)) {
+                addMappedItem(items, transaction.mappedItem(tableName, itemId), itemClass);
+            } else {
+                transaction.mapItem(tableName, itemId, item);
+                items.add(item);
+            }
+        }
+        return items;
+    }
+
+    @Override
+    public <T extends Item> Collection<T> fetch(final Query query, final Class<T> itemClass,
+            final Collection<String> propertyNames) {
+        return databaseTemplate.fetch(query, itemClass, propertyNames);
     }
 
+    @Override
+    public <T extends Item> PagedResult<T> fetch(final Query query, final Class<T> itemClass,
+            final PageRequest pageRequest) {
+        return databaseTemplate.fetch(query, itemClass, pageRequest);
+    }
+
+    /**
+     * Reflects the actions pending in the current transaction for a {@link KeySetQuery} as
+     * {@link #fetch(Query, Class)} does. Queries on attributes are streamed from the database, ignoring them.
+     */
+    @Override
+    public <T extends Item> Stream<T> stream(final Query query, final Class<T> itemClass) {
+        if (currentTransaction.get() == null || !itemConfigurations.containsKey(itemClass)
+                || !(query instanceof KeySetQuery)) {
+            return databaseTemplate.stream(query, itemClass);
+        }
+        return fetch(query, itemClass).stream();
+    }
+
+    /**
+     * Counts the items in the database, ignoring the actions pending in the current transaction
+     */
+    @Override
+    public <T extends Item> long count(final Query query, final Class<T> itemClass) {
+        return databaseTemplate.count(query, itemClass);
+    }
+
+    /**
+     * Serves the items held in the identity map of the current transaction from memory, fetching all the others
+     * together and adding them to it
+     */
+    @Override
+    public Map<Class<? extends Item>, Collection<? extends Item>> fetch(
+            final Map<Class<? extends Item>, Collection<ItemId>> itemIds) {
+        final DatabaseTransaction transaction = currentTransaction.get();
+        if (transaction == null) {
+            return databaseTemplate.fetch(itemIds);
+        }
+        final Map<Class<? extends Item>, Collection<Item>> items = new LinkedHashMap<>();
+        final Map<Class<? extends Item>, Collection<ItemId>> unmappedItemIds = new LinkedHashMap<>();
+        for (final Map.Entry<Class<? extends Item>, Collection<ItemId>> entry : itemIds.entrySet()) {
+            final ItemConfiguration itemConfiguration = itemConfigurations.get(entry.getKey());
+            final Collection<Item> mappedItems = new ArrayList<>();
+            final Collection<ItemId> classUnmappedItemIds = new ArrayList<>();
+            for (final ItemId itemId : entry.getValue()) {
+                if (itemConfiguration != null && transaction.containsItem(itemConfiguration.tableName(), itemId)) {
+                    addMappedItem(mappedItems, transaction.mappedItem(itemConfiguration.tableName(), itemId),
+                            entry.getKey());
+                } else {
+                    classUnmappedItemIds.add(itemId);
+                }
+            }
+            items.put(entry.getKey(), mappedItems);
+            if (!classUnmappedItemIds.isEmpty()) {
+                unmappedItemIds.put(entry.getKey(), classUnmappedItemIds);
+            }
+        }
+        if (!unmappedItemIds.isEmpty()) {
+            for (final Map.Entry<Class<? extends Item>, Collection<? extends Item>> entry : databaseTemplate
+                    .fetch(unmappedItemIds).entrySet()) {
+                final ItemConfiguration itemConfiguration = itemConfigurations.get(entry.getKey());
+                for (final Item item : entry.getValue()) {
+                    if (itemConfiguration == null) {
+                        items.get(entry.getKey()).add(item);
+                        continue;
+                    }
+                    final String tableName = itemConfiguration.tableName();
+                    final ItemId itemId = itemConfiguration.getItemId(item);
+                    if (transaction.containsItem(tableName, itemId)) {
+                        addMappedItem(items.get(entry.getKey()), transaction.mappedItem(tableName, itemId),
+                                entry.getKey());
+                    } else {
+                        transaction.mapItem(tableName, itemId, item);
+                        items.get(entry.getKey()).add(item);
+                    }
+                }
+            }
+        }
+        return new LinkedHashMap<>(items);
+    }
+
+    /**
+     * Reflects the actions pending in the current transaction for a {@link KeySetQuery} as
+     * {@link #fetch(Query, Class)} does
+     */
     @Override
     public <T extends Item> T fetchUnique(final Query query, final Class<T> itemClass) throws NonUniqueResultException {
-        return databaseTemplate.fetchUnique(query, itemClass);
+        if (currentTransaction.get() == null || !itemConfigurations.containsKey(itemClass)
+                || !(query instanceof KeySetQuery)) {
+            return databaseTemplate.fetchUnique(query, itemClass);
+        }
+        final Collection<T> items = fetch(query, itemClass);
+        if (items.size() != 1) {
+            throw new NonUniqueResultException(itemClass, items);
+        }
+        return items.iterator().next();
     }
 
     @Override
@@ -124,4 +330,24 @@ public class TransactionalDatabaseTemplate implements DatabaseTemplate, Transact
         currentTransaction.remove();
     }
 
+    private <T extends Item> void addMappedItem(final Collection<? super T> items, final Item mappedItem,
+            final Class<T> itemClass) {
+        if (itemClass.isInstance(mappedItem)) {
+            items.add(itemClass.cast(mappedItem));
+        }
+    }
+
+    private void mapItem(final DatabaseTransaction transaction, final Item item, final Item mappedItem) {
+        final ItemConfiguration itemConfiguration = itemConfigurations.get(item.getClass());
+        if (itemConfiguration != null) {
+            final ItemId itemId;
+            try {
+                itemId = itemConfiguration.getItemId(item);
+            } catch (final IllegalArgumentException e) {
+                return; // Item without an id is rejected when the action is applied
+            }
+            transaction.mapItem(itemConfiguration.tableName(), itemId, mappedItem);
+        }
+    }
+
 }
@@ -17,27 +17,52 @@
 package com.clicktravel.cheddar.infrastructure.persistence.database.tx;
 
 import static com.clicktravel.common.random.Randoms.randomId;
+import static com.clicktravel.common.random.Randoms.randomInt;
 import static com.clicktravel.common.random.Randoms.randomLong;
 import static com.clicktravel.common.random.Randoms.randomString;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.*;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.junit.Test;
+import org.mockito.InOrder;
 import org.mockito.internal.util.collections.Sets;
 
+import com.clicktravel.cheddar.infrastructure.persistence.database.BatchDatabaseTemplate;
 import com.clicktravel.cheddar.infrastructure.persistence.database.DatabaseTemplate;
 import com.clicktravel.cheddar.infrastructure.persistence.database.GeneratedKeyHolder;
+import com.clicktravel.cheddar.infrastructure.persistence.database.Item;
 import com.clicktravel.cheddar.infrastructure.persistence.database.ItemId;
 import com.clicktravel.cheddar.infrastructure.persistence.database.SequenceKeyGenerator;
+import com.clicktravel.cheddar.infrastructure.persistence.database.configuration.DatabaseSchemaHolder;
+import com.clicktravel.cheddar.infrastructure.persistence.database.configuration.ItemConfiguration;
+import com.clicktravel.cheddar.infrastructure.persistence.database.exception.NonExistentItemException;
+import com.clicktravel.cheddar.infrastructure.persistence.database.exception.NonUniqueResultException;
 import com.clicktravel.cheddar.infrastructure.persistence.database.exception.handler.PersistenceExceptionHandler;
+import com.clicktravel.cheddar.infrastructure.persistence.database.query.KeySetQuery;
+import com.clicktravel.cheddar.infrastructure.persistence.database.query.PageRequest;
+import com.clicktravel.cheddar.infrastructure.persistence.database.query.PagedResult;
 import com.clicktravel.cheddar.infrastructure.persistence.database.query.Query;
+import com.clicktravel.cheddar.infrastructure.persistence.database.query.SortOrder;
 import com.clicktravel.cheddar.infrastructure.persistence.exception.PersistenceException;
+import com.clicktravel.cheddar.infrastructure.persistence.exception.PersistenceResourceFailureException;
 import com.clicktravel.cheddar.infrastructure.tx.NestedTransactionException;
 import com.clicktravel.cheddar.infrastructure.tx.NonExistentTransactionException;
 import com.clicktravel.cheddar.infrastructure.tx.TransactionalResourceException;
@@ -94,6 +119,97 @@ public class TransactionalDatabaseTemplateTest {
         assertEquals(items, returnedItems);
     }
 
+    @Test
+    public void shouldRead_withItemIdAndItemClassAndPropertyNames() throws Exception {
+        // Given
+        final ItemId itemId = mock(ItemId.class);
+        final Collection<String> propertyNames = Arrays.asList(randomString(), randomString());
+        final StubItem mockItem = mock(StubItem.class);
+        when(mockDatabaseTemplate.read(any(ItemId.class), any(Class.class), any(Collection.class)))
+                .thenReturn(mockItem);
+        final TransactionalDatabaseTemplate transactionalDatabaseTemplate = new TransactionalDatabaseTemplate(
+                mockDatabaseTemplate);
+
+        // When
+        final StubItem item = transactionalDatabaseTemplate.read(itemId, StubItem.class, propertyNames);
+
+        // Then
+        verify(mockDatabaseTemplate).read(itemId, StubItem.class, propertyNames);
+        assertEquals(mockItem, item);
+    }
+
+    @Test
+    public void shouldCheckExists_withItemIdAndItemClass() throws Exception {
+        // Given
+        final ItemId itemId = mock(ItemId.class);
+        when(mockDatabaseTemplate.exists(itemId, StubItem.class)).thenReturn(true);
+        final TransactionalDatabaseTemplate transactionalDatabaseTemplate = new TransactionalDatabaseTemplate(
+                mockDatabaseTemplate);
+
+        // When
+        final boolean exists = transactionalDatabaseTemplate.exists(itemId, StubItem.class);
+
+        // Then
+        verify(mockDatabaseTemplate).exists(itemId, StubItem.class);
+        assertTrue(exists);
+    }
+
+    @Test
+    public void shouldFetch_withQueryAndItemClassAndPropertyNames() throws Exception {
+        // Given
+        final Query query = mock(Query.class);
+        final Collection<String> propertyNames = Arrays.asList(randomString(), randomString());
+        final Set<StubItem> items = Sets.newSet(randomStubItem(), randomStubItem(), randomStubItem());
+        when(mockDatabaseTemplate.fetch(any(Query.class), any(Class.class), any(Collection.class))).thenReturn(items);
+        final TransactionalDatabaseTemplate transactionalDatabaseTemplate = new TransactionalDatabaseTemplate(
+                mockDatabaseTemplate);
+
+        // When
+        final Collection<StubItem> returnedItems = transactionalDatabaseTemplate.fetch(query, StubItem.class,
+                propertyNames);
+
+        // Then
+        verify(mockDatabaseTemplate).fetch(query, StubItem.class, propertyNames);
+        assertEquals(items, returnedItems);
+    }
+
+    @Test
+    public void shouldFetch_withQueryAndItemClassAndPageRequest() throws Exception {
+        // Given
+        final Query query = mock(Query.class);
+        final PageRequest pageRequest = new PageRequest(randomInt(10) + 1, SortOrder.DESCENDING, randomString());
+        final PagedResult<StubItem> pagedResult = new PagedResult<>(Arrays.asList(randomStubItem()), randomString());
+        when(mockDatabaseTemplate.fetch(query, StubItem.class, pageRequest)).thenReturn(pagedResult);
+        final TransactionalDatabaseTemplate transactionalDatabaseTemplate = new TransactionalDatabaseTemplate(
+                mockDatabaseTemplate);
+
+        // When
+        final PagedResult<StubItem> returnedResult = transactionalDatabaseTemplate.fetch(query, StubItem.class,
+                pageRequest);
+
+        // Then
+        verify(mockDatabaseTemplate).fetch(query, StubItem.class, pageRequest);
+        assertSame(pagedResult, returnedResult);
+    }
+
+    @Test
+    public void shouldStream_withQueryAndItemClass() throws Exception {
+        // Given
+        final Query query = mock(Query.class);
+        final Set<StubItem> items = Sets.newSet(randomStubItem(), randomStubItem(), randomStubItem());
+        when(mockDatabaseTemplate.stream(any(Query.class), any(Class.class))).thenReturn(items.stream());
+        final TransactionalDatabaseTemplate transactionalDatabaseTemplate = new TransactionalDatabaseTemplate(
+                mockDatabaseTemplate);
+
+        // When
+        final Set<StubItem> returnedItems = transactionalDatabaseTemplate.stream(query, StubItem.class)
+                .collect(Collectors.toSet());
+
+        // Then
+        verify(mockDatabaseTemplate).stream(query, StubItem.class);
+        assertEquals(items, returnedItems);
+    }
+
     @Test
     public void shouldFetchUnique_withQueryAndItemClass() throws Exception {
         // Given
@@ -243,6 +359,192 @@ public class TransactionalDatabaseTemplateTest {
         verify(mockDatabaseTemplate).create(item);
     }
 
+    @Test
+    public void shouldCommitCreatesAndDeletesInBatches_withUnconditionalWrites() throws Exception {
+        // Given
+        final BatchDatabaseTemplate mockBatchDatabaseTemplate = batchDatabaseTemplate();
+        final TransactionalDatabaseTemplate transactionalDatabaseTemplate = unconditionallyWritingDatabaseTemplate(
+                mockBatchDatabaseTemplate);
+        final StubItem createdItem = randomStubItem();
+        final StubItem otherCreatedItem = randomStubItem();
+        final StubItem deletedItem = randomStubItem();
+        transactionalDatabaseTemplate.begin();
+        transactionalDatabaseTemplate.create(createdItem);
+        transactionalDatabaseTemplate.delete(deletedItem);
+        transactionalDatabaseTemplate.create(otherCreatedItem);
+
+        // When
+        transactionalDatabaseTemplate.commit();
+
+        // Then
+        verify(mockBatchDatabaseTemplate).batchWrite(Arrays.asList(createdItem, otherCreatedItem), StubItem.class);
+        verify(mockBatchDatabaseTemplate).batchDelete(Arrays.asList(new ItemId(deletedItem.getId())),
+                StubItem.class);
+        verify(mockBatchDatabaseTemplate, never()).create(any(StubItem.class));
+        verify(mockBatchDatabaseTemplate, never()).delete(any(StubItem.class));
+    }
+
+    @Test
+    public void shouldCommitBatchedCreatesBeforeUpdate_withUnconditionalWrites() throws Exception {
+        // Given
+        final BatchDatabaseTemplate mockBatchDatabaseTemplate = batchDatabaseTemplate();
+        final TransactionalDatabaseTemplate transactionalDatabaseTemplate = unconditionallyWritingDatabaseTemplate(
+                mockBatchDatabaseTemplate);
+        final StubItem item = randomStubItem();
+        final StubItem otherItem = randomStubItem();
+        final StubItem createdItem = randomStubItem();
+        transactionalDatabaseTemplate.begin();
+        transactionalDatabaseTemplate.create(item);
+        transactionalDatabaseTemplate.create(createdItem);
+        transactionalDatabaseTemplate.update(otherItem);
+        transactionalDatabaseTemplate.update(item);
+
+        // When
+        transactionalDatabaseTemplate.commit();
+
+        // Then
+        final InOrder inOrder = inOrder(mockBatchDatabaseTemplate);
+        inOrder.verify(mockBatchDatabaseTemplate).batchWrite(Arrays.asList(item, createdItem), StubItem.class);
+        inOrder.verify(mockBatchDatabaseTemplate).update(otherItem);
+        inOrder.verify(mockBatchDatabaseTemplate).update(item);
+    }
+
+    @Test
+    public void shouldNotCommitLaterBatchedCreate_withUnconditionalWritesAndFailedUpdate() throws Exception {
+        // Given
+        final BatchDatabaseTemplate mockBatchDatabaseTemplate = batchDatabaseTemplate();
+        final TransactionalDatabaseTemplate transactionalDatabaseTemplate = unconditionallyWritingDatabaseTemplate(
+                mockBatchDatabaseTemplate);
+        final StubItem updatedItem = randomStubItem();
+        final StubItem createdItem = randomStubItem();
+        when(mockBatchDatabaseTemplate.update(updatedItem))
+                .thenThrow(new PersistenceResourceFailureException(randomString(10), null));
+        transactionalDatabaseTemplate.begin();
+        transactionalDatabaseTemplate.update(updatedItem);
+        transactionalDatabaseTemplate.create(createdItem);
+
+        // When
+        TransactionalResourceException actualException = null;
+        try {
+            transactionalDatabaseTemplate.commit();
+        } catch (final TransactionalResourceException e) {
+            actualException = e;
+        }
+
+        // Then
+        assertNotNull(actualException);
+        verify(mockBatchDatabaseTemplate, never()).batchWrite(any(List.class), any(Class.class));
+    }
+
+    @Test
+    public void shouldReportEveryUnappliedBatchedAction_withUnconditionalWritesAndFailedBatchWrite() throws Exception {
+        // Given
+        final BatchDatabaseTemplate mockBatchDatabaseTemplate = batchDatabaseTemplate();
+        doReturn(Collections.emptyList()).when(mockBatchDatabaseTemplate).batchWrite(any(List.class),
+                any(Class.class));
+        final TransactionalDatabaseTemplate transactionalDatabaseTemplate = unconditionallyWritingDatabaseTemplate(
+                mockBatchDatabaseTemplate);
+        transactionalDatabaseTemplate.begin();
+        transactionalDatabaseTemplate.create(randomStubItem());
+        transactionalDatabaseTemplate.create(randomStubItem());
+
+        // When
+        TransactionalResourceException actualException = null;
+        try {
+            transactionalDatabaseTemplate.commit();
+        } catch (final TransactionalResourceException e) {
+            actualException = e;
+        }
+
+        // Then
+        assertNotNull(actualException);
+        assertTrue(actualException.getCause() instanceof PersistenceResourceFailureException);
+        assertEquals(1, actualException.getCause().getSuppressed().length);
+        assertTrue(actualException.getCause().getSuppressed()[0] instanceof PersistenceResourceFailureException);
+    }
+
+    @Test
+    public void shouldCommitFaster_withCommitExecutorAndSimulatedLatency() throws Exception {
+        // Given
+        final long latencyMillis = 50;
+        final int itemCount = 8;
+        when(mockDatabaseTemplate.create(any(StubItem.class))).thenAnswer(invocation -> {
+            Thread.sleep(latencyMillis);
+            return invocation.getArguments()[0];
+        });
+        final TransactionalDatabaseTemplate transactionalDatabaseTemplate = identityMappingDatabaseTemplate();
+        final ExecutorService executorService = Executors.newFixedThreadPool(itemCount);
+
+        // When
+        final long sequentialCommitMillis = timedCommit(transactionalDatabaseTemplate, itemCount);
+        transactionalDatabaseTemplate.setCommitExecutor(executorService);
+        final long concurrentCommitMillis = timedCommit(transactionalDatabaseTemplate, itemCount);
+        executorService.shutdown();
+
+        // Then
+        System.out.println("Commit of " + itemCount + " creates with " + latencyMillis + "ms latency took "
+                + sequentialCommitMillis + "ms one after another and " + concurrentCommitMillis + "ms concurrently");
+        verify(mockDatabaseTemplate, times(2 * itemCount)).create(any(StubItem.class));
+        assertTrue(sequentialCommitMillis >= itemCount * latencyMillis);
+        assertTrue(concurrentCommitMillis < sequentialCommitMillis / 2);
+    }
+
+    @Test
+    public void shouldCommitActionsOnSameItemInOrder_withCommitExecutor() throws Exception {
+        // Given
+        final TransactionalDatabaseTemplate transactionalDatabaseTemplate = identityMappingDatabaseTemplate();
+        final ExecutorService executorService = Executors.newFixedThreadPool(4);
+        transactionalDatabaseTemplate.setCommitExecutor(executorService);
+        final StubItem item = randomStubItem();
+        final StubItem otherItem = randomStubItem();
+        when(mockDatabaseTemplate.create(item)).thenAnswer(invocation -> {
+            Thread.sleep(20);
+            return item;
+        });
+        transactionalDatabaseTemplate.begin();
+        transactionalDatabaseTemplate.create(item);
+        transactionalDatabaseTemplate.create(otherItem);
+        transactionalDatabaseTemplate.delete(item);
+
+        // When
+        transactionalDatabaseTemplate.commit();
+        executorService.shutdown();
+
+        // Then
+        final InOrder inOrder = inOrder(mockDatabaseTemplate);
+        inOrder.verify(mockDatabaseTemplate).create(item);
+        inOrder.verify(mockDatabaseTemplate).delete(item);
+        verify(mockDatabaseTemplate).create(otherItem);
+    }
+
+    @Test
+    public void shouldNotStartRemainingActions_withCommitExecutorAndFailedAction() throws Exception {
+        // Given
+        final TransactionalDatabaseTemplate transactionalDatabaseTemplate = identityMappingDatabaseTemplate();
+        final ExecutorService executorService = Executors.newFixedThreadPool(4);
+        transactionalDatabaseTemplate.setCommitExecutor(executorService);
+        final StubItem item = randomStubItem();
+        final PersistenceException persistenceException = mock(PersistenceException.class);
+        when(mockDatabaseTemplate.create(item)).thenThrow(persistenceException);
+        transactionalDatabaseTemplate.begin();
+        transactionalDatabaseTemplate.create(item);
+        transactionalDatabaseTemplate.update(item);
+
+        // When
+        TransactionalResourceException actualException = null;
+        try {
+            transactionalDatabaseTemplate.commit();
+        } catch (final TransactionalResourceException e) {
+            actualException = e;
+        }
+        executorService.shutdown();
+
+        // Then
+        assertNotNull(actualException);
+        assertSame(persistenceException, actualException.getCause());
+        verify(mockDatabaseTemplate, never()).update(item);
+    }
+
     @Test
     public void shouldCommitCreate_withPersistenceExceptionHandler() throws Exception {
         // Given
@@ -554,6 +856,244 @@ public class TransactionalDatabaseTemplateTest {
         assertEquals(runtimeException, actualException.getCause());
     }
 
+    @Test
+    public void shouldReadItemOnce_withIdentityMapAndRepeatedReadsInTransaction() throws Exception {
+        // Given
+        final StubItem item = randomStubItem();
+        final ItemId itemId = new ItemId(item.getId());
+        when(mockDatabaseTemplate.read(itemId, StubItem.class)).thenReturn(item);
+        final TransactionalDatabaseTemplate transactionalDatabaseTemplate = identityMappingDatabaseTemplate();
+        transactionalDatabaseTemplate.begin();
+
+        // When
+        final StubItem firstItem = transactionalDatabaseTemplate.read(itemId, StubItem.class);
+        final StubItem secondItem = transactionalDatabaseTemplate.read(itemId, StubItem.class);
+
+        // Then
+        verify(mockDatabaseTemplate, times(1)).read(itemId, StubItem.class);
+        assertSame(item, firstItem);
+        assertSame(item, secondItem);
+    }
+
+    @Test
+    public void shouldReadPendingUpdate_withIdentityMap() throws Exception {
+        // Given
+        final StubItem item = randomStubItem();
+        final ItemId itemId = new ItemId(item.getId());
+        final TransactionalDatabaseTemplate transactionalDatabaseTemplate = identityMappingDatabaseTemplate();
+        transactionalDatabaseTemplate.begin();
+        transactionalDatabaseTemplate.update(item);
+
+        // When
+        final StubItem returnedItem = transactionalDatabaseTemplate.read(itemId, StubItem.class);
+
+        // Then
+        assertSame(item, returnedItem);
+        verify(mockDatabaseTemplate, never()).read(any(ItemId.class), any(Class.class));
+    }
+
+    @Test
+    public void shouldNotReadItem_withIdentityMapAndPendingDelete() throws Exception {
+        // Given
+        final StubItem item = randomStubItem();
+        final ItemId itemId = new ItemId(item.getId());
+        when(mockDatabaseTemplate.read(itemId, StubItem.class)).thenReturn(item);
+        final TransactionalDatabaseTemplate transactionalDatabaseTemplate = identityMappingDatabaseTemplate();
+        transactionalDatabaseTemplate.begin();
+        transactionalDatabaseTemplate.delete(transactionalDatabaseTemplate.read(itemId, StubItem.class));
+
+        // When
+        NonExistentItemException actualException = null;
+        try {
+            transactionalDatabaseTemplate.read(itemId, StubItem.class);
+        } catch (final NonExistentItemException e) {
+            actualException = e;
+        }
+
+        // Then
+        assertNotNull(actualException);
+        assertFalse(transactionalDatabaseTemplate.exists(itemId, StubItem.class));
+        verify(mockDatabaseTemplate, never()).exists(itemId, StubItem.class);
+    }
+
+    @Test
+    public void shouldFetchUnmappedItemsOnly_withIdentityMapAndKeySetQuery() throws Exception {
+        // Given
+        final StubItem createdItem = randomStubItem();
+        final StubItem storedItem = randomStubItem();
+        final ItemId createdItemId = new ItemId(createdItem.getId());
+        final ItemId storedItemId = new ItemId(storedItem.getId());
+        when(mockDatabaseTemplate.fetch(new KeySetQuery(Arrays.asList(storedItemId)), StubItem.class))
+                .thenReturn(Arrays.asList(storedItem));
+        final TransactionalDatabaseTemplate transactionalDatabaseTemplate = identityMappingDatabaseTemplate();
+        transactionalDatabaseTemplate.begin();
+        transactionalDatabaseTemplate.create(createdItem);
+
+        // When
+        final Collection<StubItem> items = transactionalDatabaseTemplate
+                .fetch(new KeySetQuery(Arrays.asList(createdItemId, storedItemId)), StubItem.class);
+
+        // Then
+        assertEquals(Arrays.asList(createdItem, storedItem), items);
+        assertSame(storedItem, transactionalDatabaseTemplate.read(storedItemId, StubItem.class));
+        verify(mockDatabaseTemplate, never()).read(any(ItemId.class), any(Class.class));
+    }
+
+    @Test
+    public void shouldFetchUnmappedItemsOnly_withIdentityMapAndItemIdsByItemClass() throws Exception {
+        // Given
+        final StubItem createdItem = randomStubItem();
+        final StubItem storedItem = randomStubItem();
+        final ItemId createdItemId = new ItemId(createdItem.getId());
+        final ItemId storedItemId = new ItemId(storedItem.getId());
+        when(mockDatabaseTemplate.fetch(Collections.<Class<? extends Item>, Collection<ItemId>> singletonMap(
+                StubItem.class, Arrays.asList(storedItemId)))).thenReturn(
+                        Collections.<Class<? extends Item>, Collection<? extends Item>> singletonMap(StubItem.class,
+                                Arrays.asList(storedItem)));
+        final TransactionalDatabaseTemplate transactionalDatabaseTemplate = identityMappingDatabaseTemplate();
+        transactionalDatabaseTemplate.begin();
+        transactionalDatabaseTemplate.create(createdItem);
+
+        // When
+        final Map<Class<? extends Item>, Collection<? extends Item>> items = transactionalDatabaseTemplate
+                .fetch(Collections.singletonMap(StubItem.class, Arrays.asList(createdItemId, storedItemId)));
+
+        // Then
+        assertEquals(Arrays.asList(createdItem, storedItem), items.get(StubItem.class));
+        assertSame(storedItem, transactionalDatabaseTemplate.read(storedItemId, StubItem.class));
+        verify(mockDatabaseTemplate, never()).read(any(ItemId.class), any(Class.class));
+    }
+
+    @Test
+    public void shouldNotFetchUnique_withIdentityMapAndPendingDelete() throws Exception {
+        // Given
+        final StubItem item = randomStubItem();
+        final Query query = new KeySetQuery(Arrays.asList(new ItemId(item.getId())));
+        final TransactionalDatabaseTemplate transactionalDatabaseTemplate = identityMappingDatabaseTemplate();
+        transactionalDatabaseTemplate.begin();
+        transactionalDatabaseTemplate.delete(item);
+
+        // When
+        NonUniqueResultException actualException = null;
+        try {
+            transactionalDatabaseTemplate.fetchUnique(query, StubItem.class);
+        } catch (final NonUniqueResultException e) {
+            actualException = e;
+        }
+
+        // Then
+        assertNotNull(actualException);
+        verify(mockDatabaseTemplate, never()).fetchUnique(query, StubItem.class);
+        verify(mockDatabaseTemplate, never()).fetch(any(Query.class), any(Class.class));
+    }
+
+    @Test
+    public void shouldStreamPendingUpdate_withIdentityMapAndKeySetQuery() throws Exception {
+        // Given
+        final StubItem storedItem = randomStubItem();
+        final StubItem updatedItem = randomStubItem();
+        updatedItem.setId(storedItem.getId());
+        final StubItem otherItem = randomStubItem();
+        final ItemId otherItemId = new ItemId(otherItem.getId());
+        final Query query = new KeySetQuery(Arrays.asList(new ItemId(storedItem.getId()), otherItemId));
+        when(mockDatabaseTemplate.fetch(new KeySetQuery(Arrays.asList(otherItemId)), StubItem.class))
+                .thenReturn(Arrays.asList(otherItem));
+        final TransactionalDatabaseTemplate transactionalDatabaseTemplate = identityMappingDatabaseTemplate();
+        transactionalDatabaseTemplate.begin();
+        transactionalDatabaseTemplate.update(updatedItem);
+
+        // When
+        final List<StubItem> items = transactionalDatabaseTemplate.stream(query, StubItem.class)
+                .collect(Collectors.toList());
+
+        // Then
+        assertEquals(2, items.size());
+        assertSame(updatedItem, items.get(0));
+        assertSame(otherItem, items.get(1));
+        verify(mockDatabaseTemplate, never()).stream(any(Query.class), any(Class.class));
+    }
+
+    @Test
+    public void shouldFetchFromDatabase_withIdentityMapAndAttributeQuery() throws Exception {
+        // Given
+        final StubItem storedItem = randomStubItem();
+        final StubItem updatedItem = randomStubItem();
+        updatedItem.setId(storedItem.getId());
+        final Query query = mock(Query.class);
+        when(mockDatabaseTemplate.fetch(query, StubItem.class)).thenReturn(Arrays.asList(storedItem));
+        when(mockDatabaseTemplate.stream(query, StubItem.class)).thenReturn(Stream.of(storedItem));
+        final TransactionalDatabaseTemplate transactionalDatabaseTemplate = identityMappingDatabaseTemplate();
+        transactionalDatabaseTemplate.begin();
+        transactionalDatabaseTemplate.update(updatedItem);
+
+        // When
+        final Collection<StubItem> fetchedItems = transactionalDatabaseTemplate.fetch(query, StubItem.class);
+        final List<StubItem> streamedItems = transactionalDatabaseTemplate.stream(query, StubItem.class)
+                .collect(Collectors.toList());
+
+        // Then
+        assertSame(storedItem, fetchedItems.iterator().next());
+        assertSame(storedItem, streamedItems.get(0));
+        assertSame(updatedItem, transactionalDatabaseTemplate.read(new ItemId(storedItem.getId()), StubItem.class));
+    }
+
+    @Test
+    public void shouldDiscardIdentityMap_withCommittedTransaction() throws Exception {
+        // Given
+        final StubItem item = randomStubItem();
+        final ItemId itemId = new ItemId(item.getId());
+        when(mockDatabaseTemplate.read(itemId, StubItem.class)).thenReturn(item);
+        final TransactionalDatabaseTemplate transactionalDatabaseTemplate = identityMappingDatabaseTemplate();
+        transactionalDatabaseTemplate.begin();
+        transactionalDatabaseTemplate.read(itemId, StubItem.class);
+        transactionalDatabaseTemplate.commit();
+        transactionalDatabaseTemplate.begin();
+
+        // When
+        transactionalDatabaseTemplate.read(itemId, StubItem.class);
+
+        // Then
+        verify(mockDatabaseTemplate, times(2)).read(itemId, StubItem.class);
+    }
+
+    private long timedCommit(final TransactionalDatabaseTemplate transactionalDatabaseTemplate, final int itemCount) {
+        transactionalDatabaseTemplate.begin();
+        for (int i = 0; i < itemCount; i++) {
+            transactionalDatabaseTemplate.create(randomStubItem());
+        }
+        final long startMillis = System.currentTimeMillis();
+        transactionalDatabaseTemplate.commit();
+        return System.currentTimeMillis() - startMillis;
+    }
+
+    private BatchDatabaseTemplate batchDatabaseTemplate() {
+        final BatchDatabaseTemplate mockBatchDatabaseTemplate = mock(BatchDatabaseTemplate.class);
+        when(mockBatchDatabaseTemplate.batchWrite(any(List.class), any(Class.class))).thenAnswer(invocation -> {
+            final List<StubItem> items = (List<StubItem>) invocation.getArguments()[0];
+            for (final StubItem item : items) {
+                item.setVersion(item.getVersion() == null ? 1l : item.getVersion() + 1);
+            }
+            return new ArrayList<>(items);
+        });
+        when(mockBatchDatabaseTemplate.batchDelete(any(Collection.class), any(Class.class)))
+                .thenAnswer(invocation -> new ArrayList<>((Collection<?>) invocation.getArguments()[0]));
+        return mockBatchDatabaseTemplate;
+    }
+
+    private TransactionalDatabaseTemplate unconditionallyWritingDatabaseTemplate(
+            final DatabaseTemplate databaseTemplate) {
+        final ItemConfiguration itemConfiguration = new ItemConfiguration(StubItem.class, randomString(10));
+        itemConfiguration.setUnconditionalWrites(true);
+        return new TransactionalDatabaseTemplate(databaseTemplate,
+                new DatabaseSchemaHolder(randomString(10), Arrays.asList(itemConfiguration)));
+    }
+
+    private TransactionalDatabaseTemplate identityMappingDatabaseTemplate() {
+        final ItemConfiguration itemConfiguration = new ItemConfiguration(StubItem.class, randomString(10));
+        return new TransactionalDatabaseTemplate(mockDatabaseTemplate,
+                new DatabaseSchemaHolder(randomString(10), Arrays.asList(itemConfiguration)));
+    }
+
     private StubItem randomStubItem() {
         final StubItem item = new StubItem();
         item.setId(randomId());